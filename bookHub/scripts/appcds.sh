@@ -0,0 +1,49 @@
+#!/bin/sh
+# AppCDS(Application Class Data Sharing) 아카이브를 만들고 그 아카이브로 기동한다 (JDK 13 이상)
+#
+# JVM 은 기동할 때마다 수천 개의 클래스를 jar 에서 읽고 검증(verify)한다.
+# 학습(training) 실행에서 읽은 클래스를 아카이브(bookhub.jsa)로 저장해두면 다음 기동부터는 아카이브를 메모리에 매핑해서 바로 쓴다.
+#
+# - 스프링 부트 실행 jar(중첩 jar)는 CDS 대상이 아니므로 jar 를 풀어서 일반 클래스패스로 실행한다.
+#   (디렉토리의 클래스는 아카이브에 넣을 수 없으므로 애플리케이션 클래스도 jar 로 다시 묶는다)
+# - 아카이브는 만들 때와 같은 JDK, 같은 클래스패스로 실행할 때만 사용된다. jar 를 다시 빌드하면 아카이브도 다시 만든다.
+#
+# ex) ./gradlew bootJar && scripts/appcds.sh train && scripts/appcds.sh run
+set -e
+
+cd "$(dirname "$0")/.."
+JAR=$(ls build/libs/*.jar | grep -v plain | head -n 1)
+OUT=build/appcds
+PROFILE=${PROFILE:-fast}
+
+extract() {
+	rm -rf "$OUT"
+	mkdir -p "$OUT/exploded"
+	(cd "$OUT/exploded" && jar xf "../../../$JAR")
+	jar cf "$OUT/application.jar" -C "$OUT/exploded/BOOT-INF/classes" .
+}
+
+classpath() {
+	# lib 아래 jar 순서가 학습/실행 때 같도록 정렬해서 나열한다
+	echo "$OUT/application.jar$(ls "$OUT"/exploded/BOOT-INF/lib/*.jar | sort | sed 's/^/:/' | tr -d '\n')"
+}
+
+case "$1" in
+	train)
+		extract
+		# 기동이 끝나면 바로 종료하고, 종료할 때까지 읽은 클래스를 아카이브로 저장한다
+		java -XX:ArchiveClassesAtExit="$OUT/bookhub.jsa" -cp "$(classpath)" \
+			com.example.bookHub.BookHubApplication \
+			--spring.profiles.active="$PROFILE" --bookhub.startup.exit-after-ready=true
+		;;
+	run)
+		shift
+		# 아카이브가 맞지 않으면(-Xshare:auto) 경고만 남기고 아카이브 없이 기동한다
+		exec java -XX:SharedArchiveFile="$OUT/bookhub.jsa" -Xshare:auto -Xlog:cds=warning -cp "$(classpath)" \
+			com.example.bookHub.BookHubApplication --spring.profiles.active="$PROFILE" "$@"
+		;;
+	*)
+		echo "usage: $0 train|run [application args]" >&2
+		exit 1
+		;;
+esac
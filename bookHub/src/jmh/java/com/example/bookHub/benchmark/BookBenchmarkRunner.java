@@ -0,0 +1,34 @@
+package com.example.bookHub.benchmark;
+
+import java.io.File;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * 벤치마크 실행기
+ * - 결과는 JSON 으로 build/results/jmh/results.json 에 저장한다. (실행 간 비교용)
+ * - 첫 번째 인자 : 실행할 벤치마크 정규식 (기본값 : 전체)
+ * - 두 번째 인자 : 데이터 크기 (기본값 : 1000,100000,1000000) ex) 1000,100000
+ */
+public class BookBenchmarkRunner {
+
+	public static void main(String[] args) throws RunnerException {
+		String include = args.length > 0 ? args[0] : "com.example.bookHub.benchmark.*";
+		String[] rows = args.length > 1 ? args[1].split(",") : new String[] { "1000", "100000", "1000000" };
+
+		File result = new File("build/results/jmh/results.json");
+		result.getParentFile().mkdirs();
+
+		Options options = new OptionsBuilder()
+				.include(include)
+				.param("rows", rows)
+				.resultFormat(ResultFormatType.JSON)
+				.result(result.getPath())
+				.build();
+		new Runner(options).run();
+	}
+}
@@ -0,0 +1,99 @@
+package com.example.bookHub.benchmark;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.bookHub.BookHubApplication;
+import com.example.bookHub.book.entity.BookRepository;
+import com.example.bookHub.book.service.BookService;
+import com.example.bookHub.book.service.TitleSearchEngine;
+
+/**
+ * 벤치마크 공통 상태
+ *
+ * - 내장 H2(메모리 DB) 로 애플리케이션 컨텍스트를 띄우고(웹 서버 없이) rows 건의 책을 미리 넣어둔다.
+ * - rows 값마다 컨텍스트를 새로 띄우므로 데이터 크기별로 결과를 비교할 수 있다.
+ * - cache : 책 상세 캐시(bookhub.cache.book.enabled) 사용 여부
+ */
+@State(Scope.Benchmark)
+public class BookHubState {
+
+	static final String[] WORDS = { "스프링", "자바", "JPA", "부트", "타임리프", "데이터", "웹", "클라우드", "Spring", "Java" };
+
+	@Param({ "1000", "100000", "1000000" })
+	public int rows;
+
+	@Param({ "false" })
+	public boolean cache;
+
+	public ConfigurableApplicationContext context;
+	public BookService bookService;
+	public BookRepository bookRepository;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		this.context = new SpringApplicationBuilder(BookHubApplication.class)
+				.web(WebApplicationType.NONE)
+				.properties(
+						"spring.datasource.url=jdbc:h2:mem:bench;DB_CLOSE_DELAY=-1",
+						"spring.jpa.properties.hibernate.show_sql=false",
+						"spring.h2.console.enabled=false",
+						"logging.level.root=WARN",
+						"bookhub.cache.book.enabled=" + this.cache)
+				.run();
+		this.bookService = this.context.getBean(BookService.class);
+		this.bookRepository = this.context.getBean(BookRepository.class);
+
+		this.seed(this.context.getBean(JdbcTemplate.class));
+
+		// 기동 시 만든 제목 색인은 빈 테이블 기준이므로 다시 만든다
+		this.context.getBean(TitleSearchEngine.class).rebuild();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		this.context.close();
+	}
+
+	/**
+	 * JDBC 배치로 bookId 1 ~ rows 의 책을 넣고,
+	 * 이후 JPA 입력이 겹치지 않도록 시퀀스를 rows 다음 블록으로 옮긴다 (allocationSize = 50, pooled)
+	 */
+	private void seed(JdbcTemplate jdbcTemplate) {
+		final int chunk = 10_000;
+		LocalDateTime base = LocalDateTime.now().minusDays(1);
+		List<Object[]> args = new ArrayList<>(chunk);
+		for (int bookId = 1; bookId <= this.rows; bookId++) {
+			args.add(new Object[] { bookId, title(bookId), 1000 + (bookId % 50) * 1000,
+					Timestamp.valueOf(base.plusSeconds(bookId)) });
+			if (args.size() == chunk || bookId == this.rows) {
+				jdbcTemplate.batchUpdate(
+						"insert into book (book_id, title, price, insert_date_time, version) values (?, ?, ?, ?, 0)", args);
+				args.clear();
+			}
+		}
+		jdbcTemplate.execute("alter sequence book_seq restart with " + (this.rows + 50));
+	}
+
+	static String title(int bookId) {
+		return WORDS[bookId % WORDS.length] + " " + WORDS[(bookId / WORDS.length) % WORDS.length] + " 입문 " + bookId;
+	}
+
+	public int randomBookId() {
+		return ThreadLocalRandom.current().nextInt(1, this.rows + 1);
+	}
+}
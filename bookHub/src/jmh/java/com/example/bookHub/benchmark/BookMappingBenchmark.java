@@ -0,0 +1,53 @@
+package com.example.bookHub.benchmark;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.bookHub.book.dto.BookEditResponseDTO;
+import com.example.bookHub.book.dto.BookReadResponseDTO;
+import com.example.bookHub.book.entity.Book;
+
+/**
+ * 엔티티 -> 응답 DTO 변환 벤치마크 (DB, 스프링 없이)
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BookMappingBenchmark {
+
+	private Book book = Book.builder()
+							.bookId(1)
+							.title("스프링 부트 입문")
+							.price(25000)
+							.insertDateTime(LocalDateTime.now())
+							.version(0)
+							.build();
+
+	@Benchmark
+	public BookReadResponseDTO readFromBook() {
+		return new BookReadResponseDTO().fromBook(this.book);
+	}
+
+	@Benchmark
+	public BookReadResponseDTO readBookFactory() {
+		return BookReadResponseDTO.BookFactory(this.book);
+	}
+
+	@Benchmark
+	public BookEditResponseDTO editBookFactory() {
+		return BookEditResponseDTO.BookFactory(this.book);
+	}
+}
@@ -0,0 +1,62 @@
+package com.example.bookHub.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.bookHub.book.dto.BookMultiReadResponseDTO;
+import com.example.bookHub.book.dto.BookReadResponseDTO;
+
+/**
+ * 여러 권 읽기 : bookId 마다 read(findById) vs readAll(in 쿼리) 비교
+ * - ids 개수(10 ~ 1000) 별로 비교한다. 캐시는 끈 상태(BookHubState.cache = false)에서 DB 비용만 비교한다.
+ * - ex) BookBenchmarkRunner BookMultiReadBenchmark 100000
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookMultiReadBenchmark {
+
+	@Param({ "10", "100", "1000" })
+	public int ids;
+
+	private List<Integer> bookIds;
+
+	@Setup(Level.Iteration)
+	public void pickIds(BookHubState state) {
+		this.bookIds = new ArrayList<>(this.ids);
+		for (int i = 0; i < this.ids; i++) {
+			this.bookIds.add(state.randomBookId());
+		}
+	}
+
+	@Benchmark
+	public List<BookReadResponseDTO> readOneByOne(BookHubState state) {
+		List<BookReadResponseDTO> books = new ArrayList<>(this.bookIds.size());
+		for (Integer bookId : this.bookIds) {
+			books.add(state.bookService.read(bookId));
+		}
+		return books;
+	}
+
+	@Benchmark
+	public List<BookMultiReadResponseDTO> readAll(BookHubState state) {
+		return state.bookService.readAll(this.bookIds);
+	}
+}
@@ -0,0 +1,53 @@
+package com.example.bookHub.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort.Direction;
+
+import com.example.bookHub.book.dto.BookListResponseDTO;
+
+/**
+ * 목록 조회 : 엔티티 조회 후 DTO 변환 vs 프로젝션(생성자 표현식) 비교
+ * - pageSize 가 클수록 엔티티 생성/영속성 컨텍스트 등록/스냅샷 비용 차이가 커진다.
+ * - 요청당 메모리 할당량은 -prof gc 로 확인한다 (gc.alloc.rate.norm)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookRepositoryBenchmark {
+
+	@Param({ "3", "1000" })
+	public int pageSize;
+
+	@Benchmark
+	public List<BookListResponseDTO> listWithEntity(BookHubState state) {
+		Pageable pageable = PageRequest.of(0, this.pageSize, Direction.DESC, "insertDateTime");
+		return state.bookRepository.findAll(pageable)
+								   .stream()
+								   .map(book -> new BookListResponseDTO(book.getBookId(), book.getTitle()))
+								   .collect(Collectors.toList());
+	}
+
+	@Benchmark
+	public List<BookListResponseDTO> listWithProjection(BookHubState state) {
+		Pageable pageable = PageRequest.of(0, this.pageSize, Direction.DESC, "insertDateTime");
+		return state.bookRepository.findListBy(pageable);
+	}
+}
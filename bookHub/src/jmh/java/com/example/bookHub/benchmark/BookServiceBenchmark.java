@@ -0,0 +1,92 @@
+package com.example.bookHub.benchmark;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.bookHub.book.dto.BookCreateDTO;
+import com.example.bookHub.book.dto.BookEditDTO;
+import com.example.bookHub.book.dto.BookListResponseDTO;
+import com.example.bookHub.book.dto.BookReadResponseDTO;
+
+/**
+ * BookService 주요 메소드 벤치마크
+ * - read, bookList(제목 없음/있음), insert, update
+ * - 한 번 호출에 걸리는 평균 시간(us)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookServiceBenchmark {
+
+	/**
+	 * update 는 버전 조건으로 수정하므로 같은 책을 계속 수정하면서 버전을 직접 따라간다.
+	 * (스레드 하나에서만 실행되므로 별도 동기화는 하지 않는다)
+	 */
+	@State(Scope.Thread)
+	public static class UpdateTarget {
+		int bookId;
+		int version;
+
+		@Setup(Level.Trial)
+		public void setUp(BookHubState state) {
+			this.bookId = state.randomBookId();
+			this.version = state.bookService.edit(this.bookId).getVersion();
+		}
+	}
+
+	// 자주 나오는 단어 / 드물게 나오는 검색어
+	@Param({ "자바", "입문 123" })
+	public String title;
+
+	@Benchmark
+	public BookReadResponseDTO read(BookHubState state) {
+		return state.bookService.read(state.randomBookId());
+	}
+
+	@Benchmark
+	public List<BookListResponseDTO> bookListWithoutTitle(BookHubState state) {
+		// 앞쪽 100 페이지 중 하나 (OFFSET 페이징)
+		return state.bookService.bookList(null, ThreadLocalRandom.current().nextInt(1, 101));
+	}
+
+	@Benchmark
+	public List<BookListResponseDTO> bookListWithTitle(BookHubState state) {
+		return state.bookService.bookList(this.title, ThreadLocalRandom.current().nextInt(1, 11));
+	}
+
+	@Benchmark
+	public Integer insert(BookHubState state) {
+		BookCreateDTO bookCreateDTO = new BookCreateDTO();
+		bookCreateDTO.setTitle("벤치마크 입력");
+		bookCreateDTO.setPrice(15000);
+		return state.bookService.insert(bookCreateDTO);
+	}
+
+	@Benchmark
+	public void update(BookHubState state, UpdateTarget target) {
+		BookEditDTO bookEditDTO = new BookEditDTO();
+		bookEditDTO.setBookId(target.bookId);
+		bookEditDTO.setVersion(target.version);
+		bookEditDTO.setTitle("벤치마크 수정 " + target.version);
+		bookEditDTO.setPrice(20000);
+		state.bookService.update(bookEditDTO);
+		target.version++;
+	}
+}
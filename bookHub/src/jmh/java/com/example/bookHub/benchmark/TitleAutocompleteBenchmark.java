@@ -0,0 +1,91 @@
+package com.example.bookHub.benchmark;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.example.bookHub.book.dto.BookAutocompleteStatsDTO;
+import com.example.bookHub.book.dto.BookListResponseDTO;
+import com.example.bookHub.book.service.BookChangedEvent;
+import com.example.bookHub.book.service.TitleAutocomplete;
+
+/**
+ * 제목 자동완성 트리 벤치마크 (DB, 스프링 없이)
+ *
+ * - rows 권의 제목(BookHubState 와 같은 단어 2 ~ 4 개 + 번호)으로 트리를 만들고 접두어 검색 시간을 잰다.
+ * - 트리를 만든 후 메모리 사용량 추정값과 100만 권당 환산값을 로그로 남긴다.
+ *   실제 힙 사용량과 비교할 때는 -prof gc 대신 로그의 heap 값을 본다. (트리를 만들기 전/후 GC 후 사용량 차이)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+public class TitleAutocompleteBenchmark {
+
+	private static final Logger log = LoggerFactory.getLogger(TitleAutocompleteBenchmark.class);
+
+	@Param({ "1000", "100000", "1000000" })
+	public int rows;
+
+	private TitleAutocomplete titleAutocomplete;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		Runtime runtime = Runtime.getRuntime();
+		System.gc();
+		long before = runtime.totalMemory() - runtime.freeMemory();
+
+		this.titleAutocomplete = new TitleAutocomplete(null, true, 10000, 10);
+		Random random = new Random(42);
+		for (int bookId = 1; bookId <= this.rows; bookId++) {
+			StringBuilder title = new StringBuilder();
+			int words = 2 + random.nextInt(3);
+			for (int i = 0; i < words; i++) {
+				title.append(BookHubState.WORDS[random.nextInt(BookHubState.WORDS.length)]).append(' ');
+			}
+			title.append(bookId);
+			this.titleAutocomplete.onBookChanged(BookChangedEvent.inserted(bookId, title.toString(), 10000));
+		}
+
+		System.gc();
+		long after = runtime.totalMemory() - runtime.freeMemory();
+		BookAutocompleteStatsDTO stats = this.titleAutocomplete.stats();
+		log.info("autocomplete rows={} keys={} nodes={} estimated={} MB heap={} MB per-million={} MB",
+				stats.getBooks(), stats.getKeys(), stats.getNodes(), stats.getTotalBytes() / 1_000_000,
+				(after - before) / 1_000_000, stats.getBytesPerMillionBooks() / 1_000_000);
+	}
+
+	// 한 글자 : 하위 트리가 가장 크다 (미리 구해둔 top 을 그대로 쓴다)
+	@Benchmark
+	public List<BookListResponseDTO> oneCharPrefix() {
+		return this.titleAutocomplete.suggest("스", 10);
+	}
+
+	@Benchmark
+	public List<BookListResponseDTO> wordPrefix() {
+		return this.titleAutocomplete.suggest("타임리", 10);
+	}
+
+	// 번호까지 입력 : 결과가 한두 개인 작은 하위 트리
+	@Benchmark
+	public List<BookListResponseDTO> narrowPrefix() {
+		return this.titleAutocomplete.suggest("스프링 자바 1", 10);
+	}
+}
@@ -2,12 +2,19 @@ package com.example.bookHub;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
 
 @SpringBootApplication
 public class BookHubApplication {
 
+	// 기동 기록(startup timeline)에 남길 최대 단계 수. 넘으면 이후 단계는 기록하지 않는다
+	private static final int STARTUP_STEPS = 10000;
+
 	public static void main(String[] args) {
-		SpringApplication.run(BookHubApplication.class, args);
+		SpringApplication application = new SpringApplication(BookHubApplication.class);
+		// 기동 단계별 시간을 기록한다 (/actuator/startup, StartupTimelineReporter)
+		application.setApplicationStartup(new BufferingApplicationStartup(STARTUP_STEPS));
+		application.run(args);
 	}
 
 }
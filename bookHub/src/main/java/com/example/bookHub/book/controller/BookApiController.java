@@ -0,0 +1,195 @@
+package com.example.bookHub.book.controller;
+
+import java.net.URI;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.bookHub.book.dto.BookCreateDTO;
+import com.example.bookHub.book.dto.BookEditDTO;
+import com.example.bookHub.book.dto.BookListResponseDTO;
+import com.example.bookHub.book.dto.BookMultiReadResponseDTO;
+import com.example.bookHub.book.dto.BookReadResponseDTO;
+import com.example.bookHub.book.service.ReactiveBookService;
+import com.example.bookHub.book.service.TitleAutocomplete;
+
+import io.micrometer.core.annotation.Timed;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * 책 JSON API 컨트롤러 (/api/books)
+ *
+ * 화면(BookController) 과 같은 기능을 JSON 으로 제공한다.
+ * 메소드가 Mono/Flux 를 돌려주면 스프링 MVC 는 비동기 요청(servlet async)으로 처리해서
+ * 결과가 나올 때까지 톰캣 스레드를 붙잡고 있지 않는다. (ReactiveBookService 참고)
+ *
+ * - GET    /api/books/{bookId}                 : 읽기
+ * - GET    /api/books/batch?ids=1,2,3          : 여러 권 읽기. 요청 순서대로 {"bookId", "found", "book"} 목록 (POST 로 [1,2,3] 을 보내도 된다)
+ * - GET    /api/books/autocomplete?prefix=     : 제목 자동완성. 입력한 글자로 시작하는 (bookId, title) 최근 입력순 최대 limit 개
+ * - GET    /api/books?title=&cursor=&limit=    : 목록/검색. Accept: application/x-ndjson(기본값) 이면 한 줄에 한 권씩 스트리밍,
+ *                                                application/json 이면 JSON 배열 (JSON 은 limit 가 있어야 한다. 없으면 406)
+ * - POST   /api/books                          : 입력 {"title":..., "price":...} -> 201
+ * - PUT    /api/books/{bookId}                 : 수정 {"title":..., "price":..., "version":...}
+ * - DELETE /api/books/{bookId}?version={버전}  : 삭제 -> 204
+ *
+ * 오류는 {"message": ...} 로 응답한다. (404 책 없음, 409 버전 충돌, 422 유효성 검사, 400 잘못된 커서/limit/bookId 목록, 503 처리 대기열 초과)
+ */
+@RestController
+@RequestMapping("/api/books")
+@Timed("bookhub.controller")
+public class BookApiController {
+
+	@Autowired
+	private ReactiveBookService reactiveBookService;
+
+	@Autowired
+	private TitleAutocomplete titleAutocomplete;
+
+	@GetMapping("/{bookId}")
+	public Mono<BookReadResponseDTO> read(@PathVariable Integer bookId) {
+		return this.reactiveBookService.read(bookId);
+	}
+
+	/**
+	 * 여러 권 읽기 (multi-get)
+	 * - 책 하나당 /api/books/{bookId} 를 호출하는 대신 한 번에 요청한다. (최대 bookhub.multi-read.max-ids 개)
+	 * - bookId 가 많으면 주소 길이 제한에 걸릴 수 있으므로 POST 로 JSON 배열을 보낸다.
+	 * @param ids
+	 * @return
+	 */
+	@GetMapping("/batch")
+	public Mono<List<BookMultiReadResponseDTO>> readAll(@RequestParam List<Integer> ids) {
+		return this.reactiveBookService.readAll(ids);
+	}
+
+	@PostMapping("/batch")
+	public Mono<List<BookMultiReadResponseDTO>> readAllByBody(@RequestBody List<Integer> ids) {
+		return this.reactiveBookService.readAll(ids);
+	}
+
+	/**
+	 * 제목 자동완성 (typeahead)
+	 * - 메모리 트리(TitleAutocomplete)에서 바로 찾으므로 DB 를 쓰지 않고, 다른 API 처럼 전용 스케줄러로 넘기지 않는다.
+	 * - 트리가 아직 준비되지 않았거나 꺼져 있으면 빈 목록을 돌려준다. (자동완성은 없어도 검색은 된다)
+	 * @param prefix
+	 * @param limit  - 최대 개수 (기본값 10, 최대 bookhub.autocomplete.top-k)
+	 * @return
+	 * @throws IllegalArgumentException - 1 보다 작은 limit
+	 */
+	@GetMapping("/autocomplete")
+	public List<BookListResponseDTO> autocomplete(@RequestParam String prefix,
+												  @RequestParam(defaultValue = "10") int limit) throws IllegalArgumentException {
+		if (limit < 1) {
+			throw new IllegalArgumentException("limit : " + limit);
+		}
+		if (!this.titleAutocomplete.isAvailable()) {
+			return Collections.emptyList();
+		}
+		return this.titleAutocomplete.suggest(prefix, limit);
+	}
+
+	/**
+	 * 목록/검색 (limit 지정)
+	 * - Accept: application/json 이면 스프링 MVC 가 Flux 를 모두 모아서 JSON 배열 하나로 보내므로 limit 가 있을 때만 JSON 으로 응답한다.
+	 *   (limit 는 최대 bookhub.api.max-list-limit)
+	 * @param title
+	 * @param cursor
+	 * @param limit
+	 * @return
+	 * @throws IllegalArgumentException - 형식이 잘못된 커서, 1 보다 작거나 최대값보다 큰 limit (스트림을 시작하기 전에 확인한다)
+	 */
+	@GetMapping(params = "limit", produces = { MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE })
+	public Flux<BookListResponseDTO> list(@RequestParam(required = false) String title,
+										  @RequestParam(required = false) String cursor,
+										  @RequestParam int limit) throws IllegalArgumentException {
+		return this.reactiveBookService.list(title, cursor, limit);
+	}
+
+	/**
+	 * 목록/검색 (limit 없음) - 끝까지 스트리밍
+	 * - 스트리밍(application/x-ndjson) 은 클라이언트가 받아가는 속도에 맞춰서 DB 를 나눠 읽는다.
+	 * - 전체 목록을 메모리에 모으지 않도록 application/x-ndjson 으로만 응답한다. (Accept: application/json 이면 406)
+	 * @param title
+	 * @param cursor
+	 * @return
+	 * @throws IllegalArgumentException - 형식이 잘못된 커서 (스트림을 시작하기 전에 확인한다)
+	 */
+	@GetMapping(params = "!limit", produces = MediaType.APPLICATION_NDJSON_VALUE)
+	public Flux<BookListResponseDTO> stream(@RequestParam(required = false) String title,
+											@RequestParam(required = false) String cursor) throws IllegalArgumentException {
+		return this.reactiveBookService.list(title, cursor, null);
+	}
+
+	@PostMapping
+	public Mono<ResponseEntity<BookReadResponseDTO>> insert(@RequestBody @Validated BookCreateDTO bookCreateDTO) {
+		return this.reactiveBookService.insert(bookCreateDTO)
+				   .map(book -> ResponseEntity.created(URI.create("/api/books/" + book.getBookId())).body(book));
+	}
+
+	@PutMapping("/{bookId}")
+	public Mono<BookReadResponseDTO> update(@PathVariable Integer bookId, @RequestBody @Validated BookEditDTO bookEditDTO) {
+		bookEditDTO.setBookId(bookId); // 수정할 책은 주소의 bookId 로 정한다
+		return this.reactiveBookService.update(bookEditDTO);
+	}
+
+	@DeleteMapping("/{bookId}")
+	public Mono<ResponseEntity<Void>> delete(@PathVariable Integer bookId, @RequestParam Integer version) {
+		return this.reactiveBookService.delete(bookId, version)
+				   .then(Mono.just(ResponseEntity.noContent().<Void>build()));
+	}
+
+	@ExceptionHandler(NoSuchElementException.class)
+	public ResponseEntity<Map<String, String>> noSuchElementExceptionHandler(NoSuchElementException ex) {
+		return error(HttpStatus.NOT_FOUND, "책 정보가 없습니다.");
+	}
+
+	@ExceptionHandler(OptimisticLockingFailureException.class)
+	public ResponseEntity<Map<String, String>> optimisticLockingFailureExceptionHandler(OptimisticLockingFailureException ex) {
+		return error(HttpStatus.CONFLICT, "책 정보가 없거나 다른 사용자가 먼저 수정/삭제했습니다.");
+	}
+
+	@ExceptionHandler(MethodArgumentNotValidException.class)
+	public ResponseEntity<Map<String, String>> methodArgumentNotValidExceptionHandler(MethodArgumentNotValidException ex) {
+		String errorMessage = ex.getBindingResult().getFieldErrors()
+								.stream()
+								.map(x -> x.getField() + " : " + x.getDefaultMessage())
+								.collect(Collectors.joining("\n"));
+		return error(HttpStatus.UNPROCESSABLE_ENTITY, errorMessage);
+	}
+
+	@ExceptionHandler(IllegalArgumentException.class)
+	public ResponseEntity<Map<String, String>> illegalArgumentExceptionHandler(IllegalArgumentException ex) {
+		return error(HttpStatus.BAD_REQUEST, "잘못된 요청입니다. (" + ex.getMessage() + ")");
+	}
+
+	@ExceptionHandler(RejectedExecutionException.class)
+	public ResponseEntity<Map<String, String>> rejectedExecutionExceptionHandler(RejectedExecutionException ex) {
+		return error(HttpStatus.SERVICE_UNAVAILABLE, "요청이 많아 처리할 수 없습니다. 잠시 후 다시 시도해주세요.");
+	}
+
+	private static ResponseEntity<Map<String, String>> error(HttpStatus status, String message) {
+		return ResponseEntity.status(status).body(Collections.singletonMap("message", message));
+	}
+}
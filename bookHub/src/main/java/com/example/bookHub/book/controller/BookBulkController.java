@@ -0,0 +1,83 @@
+package com.example.bookHub.book.controller;
+
+import java.io.IOException;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.bookHub.book.dto.BookImportResponseDTO;
+import com.example.bookHub.book.service.BookExportService;
+import com.example.bookHub.book.service.BookImportService;
+
+/**
+ * 책 대량 입력/출력 컨트롤러
+ * 
+ * 파일 전체를 메모리에 올리지 않도록 multipart 업로드 대신 요청 본문(InputStream)을 그대로 읽는다.
+ * ex) curl -X POST -H "Content-Type: text/csv" --data-binary @books.csv http://localhost:8080/book/import
+ */
+@RestController
+public class BookBulkController {
+
+	@Autowired
+	private BookImportService bookImportService;
+	
+	@Autowired
+	private BookExportService bookExportService;
+	
+	/**
+	 * 책 대량 입력 (CSV)
+	 * - 첫 줄에 title, price 컬럼이 있으면 헤더로 보고 컬럼 위치를 찾는다 (/book/export 의 CSV 도 올릴 수 있다)
+	 * - 헤더가 없으면 title,price 순서
+	 * @param request
+	 * @return 배치별 입력 결과
+	 * @throws IOException
+	 */
+	@PostMapping(value = "/book/import", consumes = "text/csv")
+	public BookImportResponseDTO importCsv(HttpServletRequest request) throws IOException {
+		return this.bookImportService.importBooks(request.getInputStream(), BookImportService.Format.CSV);
+	}
+	
+	/**
+	 * 책 대량 입력 (NDJSON - 한 줄에 JSON 객체 하나)
+	 * @param request
+	 * @return 배치별 입력 결과
+	 * @throws IOException
+	 */
+	@PostMapping(value = "/book/import", consumes = "application/x-ndjson")
+	public BookImportResponseDTO importNdjson(HttpServletRequest request) throws IOException {
+		return this.bookImportService.importBooks(request.getInputStream(), BookImportService.Format.NDJSON);
+	}
+	
+	/**
+	 * 책 전체 출력 (CSV / NDJSON)
+	 * - DB 에서 읽는 대로 응답에 바로 쓴다. 응답 객체를 반환하지 않으므로 메소드 반환형은 void.
+	 * ex) curl -o books.csv "http://localhost:8080/book/export?format=csv"
+	 * @param format   - csv(기본값) 또는 ndjson
+	 * @param response
+	 * @throws IOException
+	 */
+	@GetMapping("/book/export")
+	public void export(@RequestParam(defaultValue = "csv") String format, HttpServletResponse response) throws IOException {
+		BookExportService.Format exportFormat = "ndjson".equalsIgnoreCase(format) 
+				? BookExportService.Format.NDJSON 
+				: BookExportService.Format.CSV;
+		
+		if (exportFormat == BookExportService.Format.NDJSON) {
+			response.setContentType("application/x-ndjson;charset=UTF-8");
+			response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"books.ndjson\"");
+		} else {
+			response.setContentType("text/csv;charset=UTF-8");
+			response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"books.csv\"");
+		}
+		
+		this.bookExportService.export(response.getOutputStream(), exportFormat);
+	}
+	
+}
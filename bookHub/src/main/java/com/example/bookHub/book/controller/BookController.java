@@ -1,33 +1,46 @@
 package com.example.bookHub.book.controller;
 
-import java.util.List;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.NoSuchElementException;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Controller;
+import org.springframework.util.StringUtils;
 import org.springframework.validation.Errors;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.servlet.ModelAndView;
 
 import com.example.bookHub.book.dto.BookCreateDTO;
 import com.example.bookHub.book.dto.BookEditDTO;
 import com.example.bookHub.book.dto.BookEditResponseDTO;
 import com.example.bookHub.book.dto.BookListResponseDTO;
+import com.example.bookHub.book.dto.BookListSliceResponseDTO;
 import com.example.bookHub.book.dto.BookReadResponseDTO;
+import com.example.bookHub.book.service.BookChangeTracker;
 import com.example.bookHub.book.service.BookService;
 
+import io.micrometer.core.annotation.Timed;
+
 /**
  *  책 컨트롤러 
  *  컨트롤러 클래스는 클라이언트의 요청(request)을 받아서 내부 처리 후 응답(response)을 만들어내는 클래스
  *  = 웹브라우저(=클라이언트)에서 특정 주소를 입력했을 때 실행되는 메소드가 모여있는 클래스
+ *  
+ *  @Timed("bookhub.controller") : 모든 엔드포인트의 응답시간/요청수를 메트릭으로 남긴다 (uri, method, status 태그)
  */
 @Controller
+@Timed("bookhub.controller")
 public class BookController {
 
 	/*
@@ -42,6 +55,13 @@ public class BookController {
 	@Autowired
 	private BookService bookService;
 	
+	@Autowired
+	private BookChangeTracker bookChangeTracker;
+	
+	// 목록 조건부 요청 사용 여부 (목록 ETag 는 이 인스턴스의 메모리에만 있는 변경 번호로 만들므로 한 대로 띄울 때만 켠다)
+	@Value("${bookhub.list.conditional-get.enabled:true}")
+	private boolean listConditionalGet;
+	
 	/**
 	 * 책 생성 화면
 	 * @GetMapping : http 요청 메소드 중 GET 메소드로 요청될 때만 해당 메소드 실행
@@ -71,11 +91,17 @@ public class BookController {
 	 * 
 	 * {bookId} - HTTP 주소를 통해 입력받는다
 	 * @GetMapping - 경로 매개변수 정의
+	 * 
+	 * 조건부 요청(If-None-Match / If-Modified-Since) 
+	 * - ETag 는 (bookId, version), Last-Modified 는 책의 수정일(없으면 입력일)로 만든다.
+	 * - 브라우저가 가진 화면과 같으면 화면을 다시 그리지 않고 304 Not Modified 만 보낸다. (책 정보는 BookDetailCache 에서 읽는다)
+	 * 
 	 * @param bookId
+	 * @param webRequest
 	 * @return
 	 */
 	@GetMapping("/book/read/{bookId}")
-	public ModelAndView read(@PathVariable Integer bookId) {
+	public ModelAndView read(@PathVariable Integer bookId, ServletWebRequest webRequest) {
 		
 		// 스프링에서 데이터(Model)와 화면(View)을 함께 담을 수 있는 객체
 		ModelAndView mav = new ModelAndView();
@@ -85,6 +111,12 @@ public class BookController {
 			
 			BookReadResponseDTO bookReadResponseDTO = this.bookService.read(bookId);
 			
+			// 304 면 null 을 돌려준다 (스프링이 뷰를 그리지 않고 응답을 끝낸다)
+			String etag = this.etag(bookReadResponseDTO.getBookId(), bookReadResponseDTO.getVersion());
+			if (this.checkNotModified(webRequest, etag, toEpochMilli(bookReadResponseDTO.getLastModified()))) {
+				return null;
+			}
+			
 			// addObject( 뷰에서 사용할 이름, 뷰에서 사용할 값)
 			mav.addObject("bookReadResponseDTO", bookReadResponseDTO);
 			// setViewName - 뷰 경로 지정
@@ -130,9 +162,10 @@ public class BookController {
 	 * @param bookEditDTO
 	 * @param errors
 	 * @return
+	 * @throws OptimisticLockingFailureException - 책이 없거나 다른 사용자가 먼저 수정/삭제한 경우 (422 처리)
 	 */
 	@PostMapping("/book/edit/{bookId}")
-	public ModelAndView update(@Validated BookEditDTO bookEditDTO,	Errors errors) {
+	public ModelAndView update(@Validated BookEditDTO bookEditDTO,	Errors errors) throws OptimisticLockingFailureException {
 		
 		// errors.hasErrors() : 오류 여부 확인
 		if (errors.hasErrors()) {
@@ -171,13 +204,14 @@ public class BookController {
 	
 	/**
 	 * 책 정보 삭제 메소드
-	 * @param bookId // 매개변수가 하나 뿐(bookId) 이므로 dto 대시 바로 파라미터를 입력받는다
+	 * @param bookId // 매개변수가 적으므로(bookId, version) dto 대신 바로 파라미터를 입력받는다
+	 * @param version
 	 * @return
-	 * @throws NoSuchElementException
+	 * @throws OptimisticLockingFailureException - 책이 없거나 다른 사용자가 먼저 수정/삭제한 경우 (422 처리)
 	 */
 	@PostMapping("/book/delete")
-	public String delete(Integer bookId) throws NoSuchElementException{
-		this.bookService.delete(bookId);
+	public String delete(Integer bookId, Integer version) throws OptimisticLockingFailureException {
+		this.bookService.delete(bookId, version);
 		return "redirect:/book/list"; // 삭제 후 목록으로 이동
 	}
 	
@@ -188,16 +222,78 @@ public class BookController {
 	 * @GetMapping의 value 값을 배열 형태로 사용한다.
 	 * value= {"/book/list", "/book"} - /book/list 든, /book 이든 모두 bookList 메소드가 실행된다
 	 * 
+	 * cursor 파라미터가 있으면(빈 값 포함) 커서(keyset) 페이징으로 동작한다.
+	 * - /book/list?cursor=         : 첫 페이지
+	 * - /book/list?cursor={커서}   : 응답의 nextCursor 로 다음 페이지
+	 * 
+	 * 전체 페이지 수는 미리 구해둔 건수(BookCountService)로 계산한다. 목록 요청마다 count 쿼리를 실행하지 않는다.
+	 * size 파라미터로 페이지 크기를 정할 수 있다. (최대 bookhub.list.max-page-size)
+	 * - 큰 페이지는 목록을 다 읽은 후 그리지 않고, 나눠 읽으면서 그리는 대로 응답을 보낸다. (BookService.bookList 참고)
+	 * 
+	 * 가격 조건/정렬 (커서 페이징에서는 지원하지 않는다)
+	 * - minPrice, maxPrice : 가격 범위 (양 끝 포함)
+	 * - sort               : price (가격 오름차순), price,desc (가격 내림차순). 없으면 최근 입력순
+	 * - 가격 구간별 책 수(priceFacets)는 가격 조건과 상관없이 제목 검색 결과로 센다. (BookPriceHistogram)
+	 *   가격 조건이 있으면 전체 페이지 수는 보여주지 않는다.
+	 * 
+	 * 조건부 요청 : 목록은 BookChangeTracker 가 기억하는 마지막 변경 시점으로 ETag / Last-Modified 를 만든다.
+	 * - 그 후에 입력/수정/삭제가 없었다면 DB 를 읽지 않고 304 Not Modified 를 보낸다.
+	 * - 변경 번호는 이 인스턴스의 메모리에만 있다. 여러 대를 띄우면 다른 인스턴스에서 한 변경을 모르고 304 를 보내므로
+	 *   bookhub.list.conditional-get.enabled=false 로 끈다. (한 대로 띄울 때만 사용한다)
+	 * - Last-Modified 는 초 단위라서 같은 초 안의 변경은 구분하지 못한다. 같은 초 안의 변경은 ETag(변경 번호)로 구분한다.
+	 *   (If-None-Match 가 있으면 If-Modified-Since 는 보지 않는다)
+	 * 
 	 * @param title
 	 * @param page
+	 * @param size
+	 * @param cursor
+	 * @param minPrice
+	 * @param maxPrice
+	 * @param sort
 	 * @param mav
+	 * @param webRequest
 	 * @return
 	 */
 	@GetMapping(value= {"/book/list", "/book"})
-	public ModelAndView bookList(String title, Integer page, ModelAndView mav){
+	public ModelAndView bookList(String title, Integer page, Integer size, String cursor, 
+			Integer minPrice, Integer maxPrice, String sort, ModelAndView mav, ServletWebRequest webRequest){
+		if (this.listConditionalGet) {
+			String etag = this.etag("list", this.bookChangeTracker.getGeneration());
+			if (this.checkNotModified(webRequest, etag, this.bookChangeTracker.getLastModified())) {
+				return null;
+			}
+		}
+		
 		mav.setViewName("/book/list");
-		List<BookListResponseDTO> books = this.bookService.bookList(title, page);
-		mav.addObject("books", books);
+		
+		boolean priced = minPrice != null || maxPrice != null || StringUtils.hasText(sort);
+		
+		if (cursor != null) {
+			if (priced) {
+				return this.error422("커서 페이징은 가격 조건/정렬을 지원하지 않습니다.", "/book/list");
+			}
+			try {
+				BookListSliceResponseDTO slice = this.bookService.bookSlice(title, cursor);
+				mav.addObject("books", slice.getBooks());
+				mav.addObject("nextCursor", slice.getNextCursor());
+			} catch (IllegalArgumentException ex) {
+				return this.error422("잘못된 페이지 정보입니다.", "/book/list");
+			}
+			return mav;
+		}
+		
+		if (!priced) {
+			Iterable<BookListResponseDTO> books = this.bookService.bookList(title, page, size);
+			mav.addObject("books", books);
+			mav.addObject("totalPages", this.bookService.bookListTotalPages(title, size)); // 건수를 아직 모르면 null
+		} else {
+			try {
+				mav.addObject("books", this.bookService.bookList(title, minPrice, maxPrice, sort, page, size));
+			} catch (IllegalArgumentException ex) {
+				return this.error422("잘못된 정렬 조건입니다.", "/book/list");
+			}
+		}
+		mav.addObject("priceFacets", this.bookService.bookListPriceFacets(title)); // 아직 모르면 null
 		return mav;
 	}
 	
@@ -228,6 +324,47 @@ public class BookController {
 		return this.error422("책 정보가 없습니다.", "/book/list");
 	}
 	
+	/**
+	 * optimisticLockingFailureExceptionHandler
+	 * 
+	 * 수정/삭제 쿼리가 0건을 처리한 경우(책이 없거나, 다른 사용자가 먼저 수정/삭제함)
+	 * 책 정보가 없을 때와 같이 422 오류로 처리한다.
+	 * @param ex
+	 * @return
+	 */
+	@ExceptionHandler(OptimisticLockingFailureException.class)
+	public ModelAndView optimisticLockingFailureExceptionHandler(OptimisticLockingFailureException ex) {
+		return this.error422("책 정보가 없거나 다른 사용자가 먼저 수정/삭제했습니다.", "/book/list");
+	}
+	
+	/**
+	 * 강한(strong) ETag 를 만든다. ex) "1697600000000-42-3"
+	 * - 재기동(배포) 후에는 화면이 바뀌었을 수 있으므로 기동 시간(epoch)을 앞에 붙인다.
+	 * @param parts
+	 * @return
+	 */
+	private String etag(Object... parts) {
+		StringBuilder etag = new StringBuilder("\"").append(this.bookChangeTracker.getEpoch());
+		for (Object part : parts) {
+			etag.append('-').append(part);
+		}
+		return etag.append('"').toString();
+	}
+	
+	/**
+	 * ETag / Last-Modified 헤더를 설정하고, 클라이언트가 가진 화면이 최신인지 확인한다.
+	 * - Cache-Control: no-cache : 브라우저/프록시가 저장은 하되 쓰기 전에 항상 다시 확인(재검증)하도록 한다.
+	 * @return true 면 304 Not Modified 응답이 이미 설정된 상태
+	 */
+	private boolean checkNotModified(ServletWebRequest webRequest, String etag, long lastModified) {
+		webRequest.getResponse().setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+		return webRequest.checkNotModified(etag, lastModified);
+	}
+	
+	private static long toEpochMilli(LocalDateTime dateTime) {
+		return dateTime == null ? -1 : dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+	}
+	
 	/**
 	 * 422 오류 처리 메소드
 	 * - 책 정보가 없을 때, 유효성 검사가 실패할 경우에도 난다고 가정.
@@ -0,0 +1,70 @@
+package com.example.bookHub.book.controller;
+
+import java.util.Arrays;
+import java.util.List;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.bookHub.book.dto.BookAutocompleteStatsDTO;
+import com.example.bookHub.book.entity.Book;
+import com.example.bookHub.book.entity.BookRepository;
+import com.example.bookHub.book.service.BookDetailCache;
+import com.example.bookHub.book.service.TitleAutocomplete;
+import com.example.bookHub.common.cache.CacheStats;
+import com.example.bookHub.common.cache.HibernateCacheStats;
+
+/**
+ * 책 운영 통계 컨트롤러
+ * 
+ * @RestController : @Controller + @ResponseBody
+ * - 뷰(타임리프) 대신 반환한 객체를 JSON 으로 바로 응답한다.
+ */
+@RestController
+public class BookStatsController {
+
+	@Autowired
+	private BookDetailCache bookDetailCache;
+	
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+	
+	@Autowired
+	private TitleAutocomplete titleAutocomplete;
+	
+	/**
+	 * 책 상세 캐시 통계 (적중/실패/버려진 항목 수 등)
+	 * @return
+	 */
+	@GetMapping("/book/stats/cache")
+	public List<CacheStats> cacheStats() {
+		return this.bookDetailCache.stats();
+	}
+	
+	/**
+	 * 하이버네이트 2차 캐시(Book 엔티티) / 쿼리 캐시(목록, 검색) 통계
+	 * @return
+	 */
+	@GetMapping("/book/stats/jpa-cache")
+	public List<HibernateCacheStats> jpaCacheStats() {
+		Statistics statistics = this.entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		return Arrays.asList(
+				HibernateCacheStats.of(Book.CACHE_REGION, statistics.getDomainDataRegionStatistics(Book.CACHE_REGION)),
+				HibernateCacheStats.of(BookRepository.LIST_CACHE_REGION, statistics.getQueryRegionStatistics(BookRepository.LIST_CACHE_REGION)));
+	}
+	
+	/**
+	 * 제목 자동완성 트리 크기와 메모리 사용량 추정값 (100만 권당 환산값 포함)
+	 * @return
+	 */
+	@GetMapping("/book/stats/autocomplete")
+	public BookAutocompleteStatsDTO autocompleteStats() {
+		return this.titleAutocomplete.stats();
+	}
+	
+}
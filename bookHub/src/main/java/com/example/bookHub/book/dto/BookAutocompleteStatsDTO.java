@@ -0,0 +1,35 @@
+package com.example.bookHub.book.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 제목 자동완성 트리(TitleAutocomplete) 크기 / 메모리 사용량 추정값
+ * - books      : 책 수
+ * - keys       : 트리에 넣은 키 수 (제목의 단어 시작 위치마다 하나)
+ * - nodes      : 트리 노드 수
+ * - trieBytes  : 트리(노드, 간선 문자열, 자식/bookId/top 배열) 바이트
+ * - titleBytes : 결과에 보여줄 원래 제목(bookId -> 제목 맵) 바이트
+ */
+@Getter
+@AllArgsConstructor
+public class BookAutocompleteStatsDTO {
+
+	private final int books;
+	private final long keys;
+	private final long nodes;
+	private final long trieBytes;
+	private final long titleBytes;
+
+	public long getTotalBytes() {
+		return this.trieBytes + this.titleBytes;
+	}
+
+	/**
+	 * 지금 책 수의 평균으로 환산한 100만 권당 바이트 (책이 없으면 0)
+	 * @return
+	 */
+	public long getBytesPerMillionBooks() {
+		return this.books == 0 ? 0 : this.getTotalBytes() * 1_000_000L / this.books;
+	}
+}
@@ -1,5 +1,10 @@
 package com.example.bookHub.book.dto;
 
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.Pattern;
+import javax.validation.constraints.Size;
+
 import lombok.Getter;
 import lombok.NonNull;
 import lombok.Setter;
@@ -23,10 +28,17 @@ public class BookCreateDTO {
 	 * 	- 값이 null 인 경우 NullPointerException을 발생시켜준다.
 	 * 	- 반드시 값이 있다는걸 보장하기 위해 @NonNull 어노테이션 사용
 	 */
+	/* 유효성 검사 규칙은 BookEditDTO 와 같다.
+	 * - 대량 입력(BookImportService) 에서 행마다 이 규칙으로 검사한다.
+	 */
 	@NonNull
+	@NotBlank
+	@Size(max = 200) // Book.title 컬럼 길이
+	@Pattern(regexp = "[^\\p{Cntrl}]*", message = "줄바꿈 등 제어 문자는 쓸 수 없습니다.") // CSV 출력/입력은 한 줄에 한 권이다
 	private String title;
 	
 	@NonNull
+	@Min(1000)
 	private Integer price;
 	
 }
@@ -2,7 +2,10 @@ package com.example.bookHub.book.dto;
 
 import javax.validation.constraints.Min;
 import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Pattern;
 import javax.validation.constraints.Positive;
+import javax.validation.constraints.Size;
 
 import com.example.bookHub.book.entity.Book;
 
@@ -24,11 +27,19 @@ public class BookEditDTO {
 	
 	@NonNull
 	@NotBlank // != null && .equals("") == false (Null 이거나 문자열이 비어있으면 유효성검사 실패)
+	@Size(max = 200) // Book.title 컬럼 길이(@Column(length = 200)) 보다 길면 유효성 검사 실패
+	@Pattern(regexp = "[^\\p{Cntrl}]*", message = "줄바꿈 등 제어 문자는 쓸 수 없습니다.") // 줄바꿈(\n, \r), 탭 등이 있으면 유효성 검사 실패
 	private String title;
 	
 	@NonNull
 	@Min(1000) // 최소값 보다 작으면 유효성 검사 실패
 	private Integer price;
+	
+	/* 수정화면을 열 때 읽은 책의 버전
+	 * - 수정 쿼리의 조건(where version = ?) 으로 사용한다. 그 사이 다른 사람이 수정했다면 수정되지 않는다.
+	 */
+	@NotNull
+	private Integer version;
 
 	/**
 	 * 클라이언트가 요청한 값으로 책 엔티티를 채우는 메소드
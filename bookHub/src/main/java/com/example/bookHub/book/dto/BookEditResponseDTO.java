@@ -23,16 +23,32 @@ public class BookEditResponseDTO {
 	private String title;
 	private Integer price;
 	private LocalDateTime insertDateTime;
+	private Integer version; // 수정/삭제 요청 시 함께 보내는 버전
 	
 	public BookEditResponseDTO fromBook(Book book) {
 		this.bookId = book.getBookId();
 		this.title = book.getTitle();
 		this.price = book.getPrice();
 		this.insertDateTime = book.getInsertDateTime();
+		this.version = book.getVersion();
 		
 		return this;
 	}
 
+	/**
+	 * 같은 값을 가진 새 객체 (BookReadResponseDTO.copy 참고)
+	 * @return
+	 */
+	public BookEditResponseDTO copy() {
+		BookEditResponseDTO copy = new BookEditResponseDTO();
+		copy.bookId = this.bookId;
+		copy.title = this.title;
+		copy.price = this.price;
+		copy.insertDateTime = this.insertDateTime;
+		copy.version = this.version;
+		return copy;
+	}
+
 	public static BookEditResponseDTO BookFactory(Book book) {
 		BookEditResponseDTO bookEditResponseDTO = new BookEditResponseDTO();
 		bookEditResponseDTO.fromBook(book);
@@ -0,0 +1,112 @@
+package com.example.bookHub.book.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+
+/**
+ * 책 대량 입력 결과 응답 DTO
+ *
+ * - 전체 행 수 / 입력된 행 수 / 실패한 행 수
+ * - batches : 배치(한 트랜잭션으로 입력한 행 묶음)별 결과
+ *   배치마다 오류 목록은 최대 maxErrorsPerBatch 개까지만 담고, 나머지는 omittedErrors 에 개수만 센다.
+ *   (잘못된 파일을 올려도 응답이 한없이 커지지 않도록)
+ */
+@Getter
+public class BookImportResponseDTO {
+
+	private long totalRows;
+	private long insertedRows;
+	private long failedRows;
+	private List<Batch> batches = new ArrayList<>();
+
+	public void addBatch(Batch batch) {
+		this.batches.add(batch);
+		this.totalRows += batch.getInsertedRows() + batch.getFailedRows();
+		this.insertedRows += batch.getInsertedRows();
+		this.failedRows += batch.getFailedRows();
+	}
+
+	/**
+	 * 배치별 결과
+	 */
+	@Getter
+	public static class Batch {
+
+		private int batchNo;
+		private long firstLine;
+		private long lastLine;
+		private int insertedRows;
+		private int failedRows;
+		private List<RowError> errors = new ArrayList<>();
+		private int omittedErrors;
+
+		@Getter(AccessLevel.NONE) // 응답에는 내보내지 않는다
+		private int maxErrors;
+
+		public Batch(int batchNo, long firstLine, int maxErrors) {
+			this.batchNo = batchNo;
+			this.firstLine = firstLine;
+			this.lastLine = firstLine;
+			this.maxErrors = maxErrors;
+		}
+
+		public void setLastLine(long lastLine) {
+			this.lastLine = lastLine;
+		}
+
+		public void inserted(int rows) {
+			this.insertedRows += rows;
+		}
+
+		/**
+		 * 행 하나가 유효성 검사에 실패한 경우
+		 * @param line
+		 * @param message
+		 */
+		public void failed(long line, String message) {
+			this.failed(1, line, message);
+		}
+
+		/**
+		 * 배치 입력(DB 저장) 자체가 실패한 경우 - 배치의 유효한 행 전체가 실패한다
+		 * @param rows
+		 * @param message
+		 */
+		public void batchFailed(int rows, String message) {
+			this.failed(rows, this.firstLine, String.format("배치 입력 실패(%d건) : %s", rows, message));
+		}
+
+		private void failed(int rows, long line, String message) {
+			this.failedRows += rows;
+			if (this.errors.size() < this.maxErrors) {
+				this.errors.add(new RowError(line, message));
+			} else {
+				this.omittedErrors++;
+			}
+		}
+
+		public int getRows() {
+			return this.insertedRows + this.failedRows;
+		}
+	}
+
+	/**
+	 * 행 오류
+	 * - line    : 파일의 줄 번호 (1부터)
+	 * - message : "필드명 : 오류메세지" 형태
+	 */
+	@Getter
+	public static class RowError {
+
+		private long line;
+		private String message;
+
+		public RowError(long line, String message) {
+			this.line = line;
+			this.message = message;
+		}
+	}
+}
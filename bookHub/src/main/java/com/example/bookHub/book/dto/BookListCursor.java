@@ -0,0 +1,62 @@
+package com.example.bookHub.book.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+import lombok.Getter;
+
+/**
+ * 책 목록 커서(keyset 페이징)
+ *
+ * OFFSET 페이징은 앞 페이지의 행을 모두 읽고 버리므로 뒤 페이지로 갈수록 느려진다.
+ * 커서 페이징은 [마지막으로 본 행의 정렬 키] 를 기억했다가
+ * "그 행보다 뒤에 있는 행" 을 where 조건으로 바로 찾아간다(seek).
+ *
+ * - 정렬 키 : (insertDateTime desc, bookId desc)
+ *   insertDateTime 이 같은 책이 있어도 bookId 로 순서가 항상 하나로 정해진다.
+ * - 클라이언트에는 내부 구조를 알 수 없도록 Base64 로 감싼 문자열(opaque cursor)로 내보낸다.
+ */
+@Getter
+public class BookListCursor {
+
+	private static final String SEPARATOR = "|";
+
+	private LocalDateTime insertDateTime;
+	private Integer bookId;
+
+	public BookListCursor(LocalDateTime insertDateTime, Integer bookId) {
+		this.insertDateTime = insertDateTime;
+		this.bookId = bookId;
+	}
+
+	/**
+	 * 커서를 클라이언트에 내보낼 문자열로 만든다
+	 * @return
+	 */
+	public String encode() {
+		String raw = this.insertDateTime + SEPARATOR + this.bookId;
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * 클라이언트가 보낸 커서 문자열을 해석한다
+	 * @param cursor
+	 * @return
+	 * @throws IllegalArgumentException - 형식이 잘못된 커서
+	 */
+	public static BookListCursor decode(String cursor) throws IllegalArgumentException {
+		try {
+			String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+			int index = raw.lastIndexOf(SEPARATOR);
+			if (index < 0) {
+				throw new IllegalArgumentException("invalid cursor : " + cursor);
+			}
+			return new BookListCursor(LocalDateTime.parse(raw.substring(0, index)),
+									  Integer.valueOf(raw.substring(index + 1)));
+		} catch (DateTimeParseException | NumberFormatException ex) {
+			throw new IllegalArgumentException("invalid cursor : " + cursor, ex);
+		}
+	}
+}
@@ -1,5 +1,7 @@
 package com.example.bookHub.book.dto;
 
+import java.time.LocalDateTime;
+
 import lombok.Getter;
 
 /**
@@ -10,6 +12,8 @@ public class BookListResponseDTO {
 	
 	private Integer bookId;
 	private String title;
+	private LocalDateTime insertDateTime;
+	private Integer price;
 
 	/* 생성자를 이용해서 객체를 생성한다. 
 	    변하지 않는 객체를 생성할 때 사용하는 패턴.
@@ -23,6 +27,24 @@ public class BookListResponseDTO {
 		this.title = title;
 	}
 	
+	/* 입력일(필수가 아닌 항목) 이 추가되는 생성자
+	 * - BookRepository 의 목록 쿼리에서 생성자 표현식(select new ...)으로 DB 에서 바로 만든다.
+	 * - 입력일은 커서 페이징의 다음 커서를 만들 때 사용한다.
+	 */
+	public BookListResponseDTO(Integer bookId, String title, LocalDateTime insertDateTime) {
+		this.bookId = bookId;
+		this.title = title;
+		this.insertDateTime = insertDateTime;
+	}
+	
+	/* 가격(필수가 아닌 항목) 이 추가되는 생성자
+	 * - 목록 쿼리(BookRepository.LIST_SELECT) 가 사용한다. 가격 조건/가격순 정렬 목록에서 가격을 보여준다.
+	 */
+	public BookListResponseDTO(Integer bookId, String title, LocalDateTime insertDateTime, Integer price) {
+		this(bookId, title, insertDateTime);
+		this.price = price;
+	}
+	
 	/* 공동저자(필수가 아닌 항목) 이 추가되는 생성자
 	 * - @AllArgsConstructor를 쓰지 않고 생성자를 따로 만들어서 코드가 의도를 나타내게 한다. 
 	 */
@@ -0,0 +1,29 @@
+package com.example.bookHub.book.dto;
+
+import java.util.List;
+
+import lombok.Getter;
+
+/**
+ * 커서(keyset) 페이징 책 목록 응답 DTO
+ *
+ * - books      : 현재 페이지의 책 목록
+ * - nextCursor : 다음 페이지를 요청할 때 보낼 커서. 다음 페이지가 없으면 null
+ *
+ * 전체 건수(count) 는 구하지 않는다. 다음 페이지가 있는지는 한 건 더 읽어보고 판단한다(Slice).
+ */
+@Getter
+public class BookListSliceResponseDTO {
+
+	private List<BookListResponseDTO> books;
+	private String nextCursor;
+
+	public BookListSliceResponseDTO(List<BookListResponseDTO> books, String nextCursor) {
+		this.books = books;
+		this.nextCursor = nextCursor;
+	}
+
+	public boolean hasNext() {
+		return this.nextCursor != null;
+	}
+}
@@ -0,0 +1,58 @@
+package com.example.bookHub.book.dto;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Sort.Order;
+import org.springframework.util.StringUtils;
+
+/**
+ * 책 목록 정렬 (목록 화면의 sort 파라미터)
+ *
+ * - 없거나 빈 값, latest : 최근 입력순 (입력일 내림차순, 입력일이 같으면 bookId 내림차순)
+ * - price, price,asc     : 가격 오름차순 (가격이 같으면 bookId 오름차순)
+ * - price,desc           : 가격 내림차순 (가격이 같으면 bookId 내림차순)
+ *
+ * 가격순은 (price, book_id) 인덱스(V4__book_price_index.sql) 순서 그대로 또는 거꾸로 읽도록 bookId 를 같은 방향으로 붙인다.
+ */
+public enum BookListSort {
+
+	LATEST(Sort.by(Order.desc("insertDateTime"), Order.desc("bookId"))),
+	PRICE_ASC(Sort.by(Order.asc("price"), Order.asc("bookId"))),
+	PRICE_DESC(Sort.by(Order.desc("price"), Order.desc("bookId")));
+
+	private final Sort sort;
+
+	BookListSort(Sort sort) {
+		this.sort = sort;
+	}
+
+	public Sort getSort() {
+		return this.sort;
+	}
+
+	public boolean isPrice() {
+		return this != LATEST;
+	}
+
+	/**
+	 * sort 파라미터를 정렬로 바꾼다
+	 * @param sort
+	 * @return
+	 * @throws IllegalArgumentException - 지원하지 않는 정렬
+	 */
+	public static BookListSort from(String sort) throws IllegalArgumentException {
+		if (!StringUtils.hasText(sort)) {
+			return LATEST;
+		}
+		switch (sort.trim().toLowerCase().replace(" ", "")) {
+			case "latest":
+				return LATEST;
+			case "price":
+			case "price,asc":
+				return PRICE_ASC;
+			case "price,desc":
+				return PRICE_DESC;
+			default:
+				throw new IllegalArgumentException("unsupported sort: " + sort);
+		}
+	}
+}
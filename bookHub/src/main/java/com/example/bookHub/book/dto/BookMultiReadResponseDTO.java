@@ -0,0 +1,31 @@
+package com.example.bookHub.book.dto;
+
+import lombok.Getter;
+
+/**
+ * 책 여러 권 읽기(multi-get) 응답의 한 항목
+ *
+ * - 요청한 bookId 순서대로 하나씩 만들어진다. (같은 bookId 를 두 번 요청하면 두 번 나온다)
+ * - 책이 없으면 예외(422) 대신 found = false, book = null 인 항목으로 알려준다.
+ */
+@Getter
+public class BookMultiReadResponseDTO {
+
+	private Integer bookId;
+	private boolean found;
+	private BookReadResponseDTO book;
+
+	private BookMultiReadResponseDTO(Integer bookId, BookReadResponseDTO book) {
+		this.bookId = bookId;
+		this.found = book != null;
+		this.book = book;
+	}
+
+	public static BookMultiReadResponseDTO found(BookReadResponseDTO book) {
+		return new BookMultiReadResponseDTO(book.getBookId(), book);
+	}
+
+	public static BookMultiReadResponseDTO missing(Integer bookId) {
+		return new BookMultiReadResponseDTO(bookId, null);
+	}
+}
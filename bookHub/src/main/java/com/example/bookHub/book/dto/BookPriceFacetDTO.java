@@ -0,0 +1,20 @@
+package com.example.bookHub.book.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 가격 구간별 책 수 (목록 화면의 가격 facet)
+ * - minPrice, maxPrice 는 목록의 가격 조건(minPrice, maxPrice 파라미터)과 같이 양 끝을 포함한다.
+ *   그대로 목록 링크의 파라미터로 쓸 수 있다.
+ * - 첫 구간의 minPrice, 마지막 구간의 maxPrice 는 null (제한 없음)
+ */
+@Getter
+@AllArgsConstructor
+public class BookPriceFacetDTO {
+
+	private Integer minPrice;
+	private Integer maxPrice;
+	private long count;
+
+}
@@ -27,6 +27,8 @@ public class BookReadResponseDTO {
 	private String title;
 	private Integer price;
 	private LocalDateTime insertDateTime;
+	private Integer version; // 수정/삭제 요청 시 함께 보내는 버전
+	private LocalDateTime updateDateTime;
 	
 	/**
 	 * fromBook
@@ -43,9 +45,37 @@ public class BookReadResponseDTO {
 		this.title = book.getTitle();
 		this.price = book.getPrice();
 		this.insertDateTime = book.getInsertDateTime();
+		this.version = book.getVersion();
+		this.updateDateTime = book.getUpdateDateTime();
 		
 		return this;
 	}
+	
+	/**
+	 * copy
+	 * - 같은 값을 가진 새 객체를 만든다
+	 * - 캐시(BookDetailCache)에 넣어둔 객체는 fromBook 으로 값을 바꿀 수 있으므로 요청마다 복사본을 돌려준다.
+	 * @return
+	 */
+	public BookReadResponseDTO copy() {
+		BookReadResponseDTO copy = new BookReadResponseDTO();
+		copy.bookId = this.bookId;
+		copy.title = this.title;
+		copy.price = this.price;
+		copy.insertDateTime = this.insertDateTime;
+		copy.version = this.version;
+		copy.updateDateTime = this.updateDateTime;
+		return copy;
+	}
+	
+	/**
+	 * 마지막 변경 시간 (Last-Modified 헤더)
+	 * - 수정일이 없는(컬럼 추가 전에 입력된) 책은 입력일
+	 * @return
+	 */
+	public LocalDateTime getLastModified() {
+		return this.updateDateTime != null ? this.updateDateTime : this.insertDateTime;
+	}
 
 	/**
 	 * BookFactory
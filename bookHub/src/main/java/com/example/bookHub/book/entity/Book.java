@@ -2,13 +2,19 @@ package com.example.bookHub.book.entity;
 
 import java.time.LocalDateTime;
 
+import javax.persistence.Cacheable;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Version;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
 
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -34,23 +40,44 @@ import lombok.NoArgsConstructor;
  *   +) 그러나 다른 생성자가 있다면 자동으로 붙이지 않는다!
  *      본 코드에서는 JPA를 위해 @NoArgsConstructor 어노테이션을 사용하면서 생성자가 생겼으므로
  *      추가로 해당 어노테이션을 붙여주어야 한다.
+ * @Cacheable, @Cache : 하이버네이트 2차 캐시(second-level cache) 에 엔티티를 보관한다
+ * - 영속성 컨텍스트(1차 캐시)는 트랜잭션이 끝나면 사라지지만, 2차 캐시는 애플리케이션 전체가 같이 쓴다.
+ *   findById 로 같은 책을 다시 읽으면 select 없이 2차 캐시에서 엔티티를 만든다.
+ * - READ_WRITE : 엔티티를 저장/삭제하면 커밋할 때 캐시도 같이 바꾼다. (수정 중인 항목은 잠가서 이전 값을 읽지 않도록 한다)
+ * - 영역(region) 크기와 유효시간은 HibernateCacheConfig 참고
+ * 
+ * 테이블, 시퀀스, 인덱스는 Flyway 마이그레이션(resources/db/migration)이 만든다. 
+ * 컬럼을 추가/변경할 때는 엔티티와 함께 새 버전의 마이그레이션을 추가한다. (ddl-auto=validate 가 기동 시 둘을 비교한다)
  * 
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Book.CACHE_REGION)
 @Data
 @Builder
 @NoArgsConstructor  
 @AllArgsConstructor 
 public class Book {
 	
+	// 2차 캐시 영역 이름
+	public static final String CACHE_REGION = "book";
+	
 	/* 유일 식별자 bookId 선언
 	 * @Id : 데이터베이스 행 유일 식별자(PK)를 나타냄
 	 * - javax.persistence.Id 네임스페이스에 속한다
 	 * @GeneratedValue : 자동생성되는 값 의미
 	 * - GenerationType.IDENTITY : 데이터베이스에 키 생성을 위임한다.(PK 자동증가)
+	 *   +) IDENTITY 는 insert 를 실행해야 PK 를 알 수 있으므로 하이버네이트가 insert 를 JDBC 배치로 묶지 못한다.
+	 * - GenerationType.SEQUENCE : 시퀀스에서 PK 를 미리 받아온 후 insert 한다.
+	 *   allocationSize = 50 : 시퀀스를 한 번 읽을 때마다 50개의 PK 를 메모리에 확보한다(pooled 방식).
+	 *   insert 전에 PK 를 이미 알고 있으므로 여러 건의 insert 를 JDBC 배치로 한 번에 보낼 수 있다(대량 입력).
+	 * @SequenceGenerator : 사용할 시퀀스 정의 (book_seq 시퀀스는 Flyway 마이그레이션 V1 에서 increment by 50 으로 만든다)
+	 *   IDENTITY 로 책이 입력된 기존 DB 는 V2(db.migration.V2__Restart_book_seq) 가 시퀀스를 기존 bookId 뒤로 옮긴다.
+	 *   Flyway 없이 ddl-auto=update 로 기동하면 V2 대신 BookSequenceInitializer 가 같은 일을 한다.
 	 */
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "book_seq")
+	@SequenceGenerator(name = "book_seq", sequenceName = "book_seq", allocationSize = 50)
 	private Integer bookId;
 	
 	/* @Column : 열 특성 나타냄
@@ -70,6 +97,24 @@ public class Book {
 	@CreationTimestamp
 	private LocalDateTime insertDateTime;
 	
+	/* @UpdateTimestamp : 입력/수정시 자동으로 시간 설정 (엔티티를 save 할 때만 적용된다)
+	 * - 수정 쿼리(BookRepository.updateIfVersion) 는 엔티티를 거치지 않으므로 쿼리에서 직접 설정한다.
+	 * - 상세화면 응답의 Last-Modified 헤더로 사용한다. 
+	 *   컬럼이 추가되기 전에 입력된 책은 null 이므로 insertDateTime 을 대신 사용한다.
+	 */
+	@UpdateTimestamp
+	private LocalDateTime updateDateTime;
+	
+	/* @Version : 낙관적 잠금(optimistic lock) 용 버전 컬럼
+	 * - 수정할 때마다 1씩 증가한다. 
+	 * - 수정/삭제 쿼리를 "where book_id = ? and version = ?" 로 실행해서
+	 *   내가 읽은 후 다른 사람이 먼저 수정했다면 0건이 처리되므로 DB 잠금 없이 동시 수정을 막을 수 있다.
+	 * - 기존 테이블에 컬럼이 추가될 때 기존 행은 0 으로 채워지도록 default 0 을 지정한다.
+	 */
+	@Version
+	@Column(nullable = false, columnDefinition = "integer default 0 not null")
+	private Integer version;
+	
 	/* 
 	 * @AllArgsConstructor 이노테이션을 통해 생성자를 자동으로 만들어주므로 하위처럼 명시적으로 선언할 필요 없다.
 	 * 
@@ -1,9 +1,21 @@
 package com.example.bookHub.book.entity;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
+
+import javax.persistence.QueryHint;
 
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.bookHub.book.dto.BookListResponseDTO;
 
 /**
  * JpaRepository
@@ -24,9 +36,161 @@ public interface BookRepository extends JpaRepository<Book, Integer> {
 	 * - List<Book> : JpaRepository 에서 반복가능한 Iterable 인터페이스를 구현한 타입은 자동으로 목록으로 반환한다.   
 	 * - 인터페이스 이므로 구현체는 없다.
 	 */
-	// like '%title%' as contain
+	// like '%title%' as contain  (+) 목록 화면은 엔티티 대신 DTO 를 바로 받는 findListByTitleContains 를 사용한다)
 	public List<Book> findByTitleContains(String title, Pageable pageable);
 	
+	/* 수정/삭제 메소드 (버전 조건)
+	 * - findById 로 읽고 save(merge) 하면 select + update 두 번 DB 에 다녀와야 하고 그 사이에 다른 사람이 수정할 수 있다.
+	 * - bookId 와 version 을 조건으로 update/delete 한 번만 실행하고, 처리된 행 수를 돌려받는다.
+	 *   0 이면 책이 없거나 다른 사람이 먼저 수정/삭제한 것이다.
+	 * - @Modifying : select 가 아닌 update/delete JPQL 임을 나타낸다.
+	 *   clearAutomatically : 실행 후 영속성 컨텍스트를 비워서 이전 상태의 엔티티가 남지 않도록 한다.
+	 * - @Transactional : 직접 정의한 update/delete 쿼리는 트랜잭션이 필요하다.
+	 */
+	@Transactional
+	@Modifying(clearAutomatically = true)
+	@Query("update Book b set b.title = :title, b.price = :price, b.version = b.version + 1, b.updateDateTime = :updateDateTime "
+			+ "where b.bookId = :bookId and b.version = :version")
+	public int updateIfVersion(@Param("bookId") Integer bookId, @Param("version") Integer version,
+							   @Param("title") String title, @Param("price") Integer price,
+							   @Param("updateDateTime") LocalDateTime updateDateTime);
+	
+	@Transactional
+	@Modifying(clearAutomatically = true)
+	@Query("delete from Book b where b.bookId = :bookId and b.version = :version")
+	public int deleteIfVersion(@Param("bookId") Integer bookId, @Param("version") Integer version);
+	
+	/* 목록 화면용 메소드 (프로젝션)
+	 * - 목록 화면에는 bookId, title 만 필요한데 엔티티로 읽으면 price 등 모든 컬럼을 읽고, 
+	 *   엔티티마다 영속성 컨텍스트에 등록하고 변경 감지용 스냅샷까지 만든 후 다시 DTO 로 바꾸게 된다.
+	 * - JPQL 생성자 표현식(select new 패키지명.클래스명(...)) 을 사용하면 
+	 *   필요한 컬럼만 select 해서 DTO 를 바로 만든다. DTO 는 엔티티가 아니므로 영속성 컨텍스트에 올라가지 않는다.
+	 * - insertDateTime 은 커서 페이징에서 다음 커서를 만들 때 사용한다.
+	 * - price 는 가격 조건/가격순 목록에서 보여준다.
+	 * - 정렬은 pageable 의 정렬 정보가 order by 로 붙는다.
+	 * 
+	 * 제목 검색 조건 (TITLE_CONTAINS)
+	 * - 제목 색인(TitleSearchEngine)을 쓸 수 없을 때의 like 쿼리다. 색인과 같이 대소문자를 구분하지 않도록 양쪽을 lower() 로 맞춘다.
+	 * - 색인은 앞뒤 공백을 지우고 연속된 공백도 하나로 보지만, like 쿼리는 공백을 그대로 비교한다. (이 차이는 남겨 둔다)
+	 * - lower(b.title) 이므로 title 컬럼 인덱스는 어차피 쓸 수 없다. (앞에 % 가 붙은 like 와 같다)
+	 * 
+	 * 목록/검색 쿼리 캐시 (하이버네이트 쿼리 캐시, 영역 LIST_CACHE_REGION) - @CachedListQuery
+	 * - HINT_CACHEABLE : 같은 쿼리를 같은 파라미터, 같은 페이지로 다시 실행하면 DB 대신 캐시된 결과를 돌려준다.
+	 * - Book 테이블에 입력/수정/삭제가 커밋되면 그 전에 캐시된 목록 결과는 모두 쓰지 않는다. (update timestamps 영역)
+	 *   수정/삭제 쿼리(updateIfVersion, deleteIfVersion)는 벌크 쿼리이므로 Book 엔티티 캐시도 통째로 비운다.
+	 */
+	String LIST_CACHE_REGION = "book-list";
+	
+	String LIST_SELECT = "select new com.example.bookHub.book.dto.BookListResponseDTO(b.bookId, b.title, b.insertDateTime, b.price) "
+					   + "from Book b ";
+	
+	String TITLE_CONTAINS = "lower(b.title) like lower(concat('%', :title, '%')) ";
+	
+	// 전체 목록 - List 로 받으므로 count 쿼리는 실행되지 않는다
+	@CachedListQuery
+	@Query(LIST_SELECT)
+	public List<BookListResponseDTO> findListBy(Pageable pageable);
+	
+	// 제목 검색 목록 (like '%title%', 대소문자 구분 없음)
+	@CachedListQuery
+	@Query(LIST_SELECT + "where " + TITLE_CONTAINS)
+	public List<BookListResponseDTO> findListByTitleContains(@Param("title") String title, Pageable pageable);
+	
+	// 제목 검색 색인에서 찾은 bookId 목록 (where book_id in (...)). in 조건은 순서를 보장하지 않는다.
+	@CachedListQuery
+	@Query(LIST_SELECT + "where b.bookId in :bookIds")
+	public List<BookListResponseDTO> findListByBookIdIn(@Param("bookIds") List<Integer> bookIds);
+	
+	/* 가격 조건 목록 메소드
+	 * - 가격이 minPrice 이상 maxPrice 이하인 책 (between 은 양 끝을 포함한다). 가격이 없는(null) 책은 제외된다.
+	 * - 정렬은 pageable 의 정렬(BookListSort) 을 사용한다. 
+	 *   가격순 정렬은 (price, book_id) 인덱스의 범위만 읽고, 최근 입력순은 (insert_date_time, book_id) 인덱스를 읽으면서 가격을 거른다.
+	 */
+	@CachedListQuery
+	@Query(LIST_SELECT + "where b.price between :minPrice and :maxPrice")
+	public List<BookListResponseDTO> findListByPriceBetween(@Param("minPrice") Integer minPrice, 
+															@Param("maxPrice") Integer maxPrice, Pageable pageable);
+	
+	// 제목 검색 + 가격 조건 (제목 색인으로 거를 수 없을 때)
+	@CachedListQuery
+	@Query(LIST_SELECT + "where " + TITLE_CONTAINS + "and b.price between :minPrice and :maxPrice")
+	public List<BookListResponseDTO> findListByTitleContainsAndPriceBetween(@Param("title") String title,
+																			@Param("minPrice") Integer minPrice, 
+																			@Param("maxPrice") Integer maxPrice, Pageable pageable);
+	
+	/* 커서(keyset) 페이징 메소드
+	 * - Slice : Page 와 달리 전체 건수(count 쿼리)를 구하지 않는다. 
+	 *           pageable 크기보다 한 건 더 읽어서 다음 페이지가 있는지만 판단한다.
+	 * - 정렬은 pageable 의 (insertDateTime desc, bookId desc) 를 사용한다.
+	 *   제목 검색은 제목 색인(TitleSearchEngine)과 같이 bookId desc 만 사용한다. 색인을 쓸 수 있는지에 따라
+	 *   같은 커서를 다른 순서로 이어 읽으면 건너뛰거나 겹치는 책이 생기기 때문이다.
+	 * - seek 조건 : 커서의 (insertDateTime, bookId) 보다 뒤에 있는 행만 읽는다. (제목 검색은 bookId)
+	 *   OFFSET 처럼 앞의 행을 읽고 버리지 않으므로 몇 번째 페이지든 비용이 같다.
+	 */
+	// 첫 페이지
+	@CachedListQuery
+	@Query(LIST_SELECT)
+	public Slice<BookListResponseDTO> findSliceBy(Pageable pageable);
+	
+	// 다음 페이지
+	@CachedListQuery
+	@Query(LIST_SELECT 
+			+ "where b.insertDateTime < :insertDateTime "
+			+ "   or (b.insertDateTime = :insertDateTime and b.bookId < :bookId)")
+	public Slice<BookListResponseDTO> findSliceAfter(@Param("insertDateTime") LocalDateTime insertDateTime,
+													 @Param("bookId") Integer bookId, Pageable pageable);
+	
+	// 제목 검색 첫 페이지 (like '%title%', 대소문자 구분 없음)
+	@CachedListQuery
+	@Query(LIST_SELECT + "where " + TITLE_CONTAINS)
+	public Slice<BookListResponseDTO> findSliceByTitleContains(@Param("title") String title, Pageable pageable);
+	
+	// 제목 검색 다음 페이지 (bookId desc)
+	@CachedListQuery
+	@Query(LIST_SELECT + "where " + TITLE_CONTAINS + "and b.bookId < :bookId")
+	public Slice<BookListResponseDTO> findSliceByTitleContainsAfter(@Param("title") String title,
+																	@Param("bookId") Integer bookId, Pageable pageable);
+	
+	/* 건수 메소드 (BookCountService 가 백그라운드에서만 호출한다)
+	 * - count() : 전체 건수 (JpaRepository 기본 메소드)
+	 * - countByTitleContains : 제목 검색 건수 (like '%title%', 대소문자 구분 없음). 제목 색인을 쓸 수 없을 때 사용한다.
+	 *   목록(findListByTitleContains)과 같은 조건으로 센다.
+	 */
+	@Query("select count(b) from Book b where " + TITLE_CONTAINS)
+	public long countByTitleContains(@Param("title") String title);
+	
+	/* 전체 출력(export) 용 메소드
+	 * - Stream<Book> : 결과를 List 로 한 번에 만들지 않고, DB 커서(ResultSet)를 앞으로만 읽으면서 한 건씩 엔티티로 만든다.
+	 *   트랜잭션 안에서만 사용할 수 있고, 다 쓴 후에는 반드시 close 해야 한다(try-with-resources).
+	 * - HINT_FETCH_SIZE : JDBC 드라이버가 DB 에서 한 번에 가져오는 행 수
+	 * - HINT_READONLY   : 읽기 전용 엔티티로 만들어서 변경 감지용 스냅샷을 만들지 않는다
+	 * - HINT_CACHE_MODE : IGNORE 로 2차 캐시(Book 엔티티 캐시)를 읽지도 채우지도 않는다.
+	 *                     전체를 한 번 훑는 출력이 보기 화면에서 자주 읽는 책을 캐시에서 밀어내지 않도록 한다.
+	 */
+	@QueryHints({
+		@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "500"),
+		@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_READONLY, value = "true"),
+		@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHE_MODE, value = "IGNORE")
+	})
+	@Query("select b from Book b order by b.bookId")
+	public Stream<Book> streamAll();
+	
+	/* 제목 검색 색인(TitleSearchEngine)을 만들기 위한 메소드
+	 * - 엔티티 전체가 아니라 (bookId, title) 만 DTO 로 바로 받는다. (JPQL 생성자 표현식 new ...)
+	 * - afterId 보다 큰 bookId 를 bookId 순으로 pageable 크기만큼 가져온다. 
+	 *   전체를 한 번에 읽지 않고 마지막 bookId 를 다음 호출에 넘겨서 나눠 읽는다.
+	 */
+	@Query("select new com.example.bookHub.book.dto.BookListResponseDTO(b.bookId, b.title) "
+			+ "from Book b where b.bookId > :afterId order by b.bookId")
+	public List<BookListResponseDTO> findTitlesAfter(@Param("afterId") Integer afterId, Pageable pageable);
+	
+	
+	/* 가격 히스토그램(BookPriceHistogram)을 만들기 위한 메소드
+	 * - findTitlesAfter 와 같이 afterId 보다 큰 bookId 를 bookId 순으로 나눠 읽는다. 가격이 없는 책은 읽지 않는다.
+	 */
+	@Query(LIST_SELECT + "where b.bookId > :afterId and b.price is not null order by b.bookId")
+	public List<BookListResponseDTO> findPricesAfter(@Param("afterId") Integer afterId, Pageable pageable);
+	
 	
 	// like 'title%' as startswith
  	// public List<Book> findByTitleStartsWith(String title, Pageable pageable);
@@ -0,0 +1,54 @@
+package com.example.bookHub.book.entity;
+
+import javax.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * BookSequenceInitializer : book_seq 를 이미 있는 bookId 뒤로 옮기는 컴포넌트
+ *
+ * 기본 설정에서는 Flyway 마이그레이션 V2(db.migration.V2__Restart_book_seq) 가 같은 일을 하므로 이 컴포넌트는 만들어지지 않는다.
+ * Flyway 를 끄고 ddl-auto=update 로 기동하면(이전 방식) V2 가 실행되지 않고, 하이버네이트는 시퀀스가 없으면 1 부터 시작하는 시퀀스를 만든다.
+ * IDENTITY(자동증가) 로 책이 입력된 기존 DB 라면 새 bookId 가 기존 bookId 와 겹치므로
+ * 하이버네이트가 스키마를 맞춘 직후(entityManagerFactory 생성 후), 요청을 받기 전에 시퀀스 위치를 확인한다.
+ *
+ * - 하이버네이트 pooled 방식은 시퀀스 값 N 을 받으면 (N - 49) ~ N 을 bookId 로 쓰므로
+ *   다음 시퀀스 값이 max(book_id) + 50 이상이어야 겹치지 않는다.
+ * - 시퀀스 값을 하나 받아보고 그보다 작을 때만 다시 시작한다. (이미 충분히 앞서 있으면 50 개 하나만 건너뛴다)
+ * - 빈 테이블이면 아무것도 하지 않는다.
+ */
+@Component
+@ConditionalOnProperty(name = "spring.flyway.enabled", havingValue = "false")
+@DependsOn("entityManagerFactory")
+public class BookSequenceInitializer {
+
+	private static final Logger log = LoggerFactory.getLogger(BookSequenceInitializer.class);
+
+	private static final int ALLOCATION_SIZE = 50;
+
+	private final JdbcTemplate jdbcTemplate;
+
+	public BookSequenceInitializer(JdbcTemplate jdbcTemplate) {
+		this.jdbcTemplate = jdbcTemplate;
+	}
+
+	@PostConstruct
+	public void restartPastExistingIds() {
+		Long maxBookId = this.jdbcTemplate.queryForObject("select max(book_id) from book", Long.class);
+		if (maxBookId == null) {
+			return;
+		}
+
+		long next = this.jdbcTemplate.queryForObject("select next value for book_seq", Long.class);
+		long restartWith = maxBookId + ALLOCATION_SIZE;
+		if (next < restartWith) {
+			this.jdbcTemplate.execute("alter sequence book_seq restart with " + restartWith);
+			log.info("book_seq restarted with {} (max book_id {})", restartWith, maxBookId);
+		}
+	}
+}
@@ -0,0 +1,27 @@
+package com.example.bookHub.book.entity;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import javax.persistence.QueryHint;
+
+import org.springframework.data.jpa.repository.QueryHints;
+
+/**
+ * 목록/검색 쿼리 캐시 힌트 (BookRepository 의 목록 메소드에 붙인다)
+ * - HINT_CACHEABLE    : 하이버네이트 쿼리 캐시 사용
+ * - HINT_CACHE_REGION : 목록 캐시 영역(BookRepository.LIST_CACHE_REGION). 크기와 유효시간은 HibernateCacheConfig 에서 정한다.
+ * - 스프링 데이터 JPA 는 @QueryHints 를 메타 어노테이션으로도 읽으므로 메소드마다 같은 힌트를 반복하지 않는다.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+@QueryHints({
+	@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHEABLE, value = "true"),
+	@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHE_REGION, value = BookRepository.LIST_CACHE_REGION)
+})
+public @interface CachedListQuery {
+}
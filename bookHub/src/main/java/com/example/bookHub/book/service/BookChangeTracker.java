@@ -0,0 +1,48 @@
+package com.example.bookHub.book.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * BookChangeTracker : 책 목록이 마지막으로 바뀐 시점을 기억하는 컴포넌트
+ *
+ * 목록 화면은 여러 책을 모아서 보여주므로 책 하나의 version 으로는 바뀌었는지 알 수 없다.
+ * BookChangedEvent 가 올 때마다 generation 을 1 올리고 시간을 기록해 두면
+ * 목록 요청의 ETag / Last-Modified 를 DB 를 읽지 않고 만들 수 있다.
+ *
+ * - epoch : 애플리케이션이 뜬 시간. generation 은 메모리에만 있으므로 재기동하면 0 부터 다시 시작하는데,
+ *           재기동 전에 받은 ETag 와 겹치지 않도록 ETag 에 함께 넣는다. (화면 템플릿이 바뀌는 배포도 포함된다)
+ * - 애플리케이션을 거치지 않고 DB 를 직접 수정한 경우는 알 수 없다.
+ * - 인스턴스마다 따로 센다. 여러 대를 띄우면 다른 인스턴스의 변경을 알 수 없으므로 목록 조건부 요청을 끈다. (bookhub.list.conditional-get.enabled)
+ */
+@Component
+public class BookChangeTracker {
+
+	private final long epoch = System.currentTimeMillis();
+	private final AtomicLong generation = new AtomicLong();
+	private volatile long lastModified = this.epoch;
+
+	@EventListener
+	public void onBookChanged(BookChangedEvent event) {
+		this.lastModified = System.currentTimeMillis();
+		this.generation.incrementAndGet();
+	}
+
+	public long getEpoch() {
+		return this.epoch;
+	}
+
+	public long getGeneration() {
+		return this.generation.get();
+	}
+
+	/**
+	 * 마지막으로 책이 입력/수정/삭제된 시간 (변경이 없었으면 기동 시간)
+	 * @return epoch millis
+	 */
+	public long getLastModified() {
+		return this.lastModified;
+	}
+}
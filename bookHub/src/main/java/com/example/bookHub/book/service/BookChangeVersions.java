@@ -0,0 +1,35 @@
+package com.example.bookHub.book.service;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * BookChangeVersions : 책마다 마지막으로 반영한 BookChangedEvent 의 버전
+ *
+ * 수정 요청 두 개가 거의 동시에 커밋되면 이벤트는 커밋 순서와 다르게 도착할 수 있다.
+ * (ex. 버전 1 로 수정, 버전 2 로 수정 이벤트가 2, 1 순서로 오면 색인에 이전 제목이 남는다)
+ * 메모리에 책 정보를 들고 있는 컴포넌트(TitleSearchEngine, TitleAutocomplete, BookPriceHistogram) 는
+ * 이벤트를 반영하기 전에 accept 로 확인하고, false 면 버린다.
+ *
+ * - 삭제된 책의 버전도 지우지 않고 남겨 둔다. 삭제 후에 늦게 온 수정 이벤트로 책이 다시 살아나지 않도록 하기 위해서다.
+ *   bookId 는 시퀀스로 만들어서 다시 쓰지 않으므로 남겨 둔 버전이 새 책을 막지 않는다. (책 하나에 Integer 두 개)
+ * - 동기화하지 않는다. 각 컴포넌트가 자신의 잠금 안에서 호출한다.
+ * - DB 에서 다시 읽어서 만드는 동안(rebuild)에도 그대로 둔다. 그동안 온 이벤트는 이미 확인한 후 모아 두었다가 다시 반영한다.
+ */
+class BookChangeVersions {
+
+	private final Map<Integer, Integer> versions = new HashMap<>();
+
+	/**
+	 * @param event
+	 * @return 이 책에서 처음 보거나 마지막으로 반영한 버전보다 새 이벤트면 true (버전을 기록한다)
+	 */
+	boolean accept(BookChangedEvent event) {
+		Integer last = this.versions.get(event.getBookId());
+		if (last != null && last >= event.getVersion()) {
+			return false;
+		}
+		this.versions.put(event.getBookId(), event.getVersion());
+		return true;
+	}
+}
@@ -0,0 +1,49 @@
+package com.example.bookHub.book.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * BookChangedEvent : 책 정보가 입력/수정/삭제 되었을 때 발행되는 이벤트
+ *
+ * BookService 가 검색 색인 등 메모리에 따로 들고 있는 자료구조를 직접 알지 않아도 되도록
+ * 스프링의 ApplicationEventPublisher 로 변경 사실만 알리고,
+ * 필요한 컴포넌트가 @EventListener 로 받아서 자신의 상태를 갱신한다.
+ *
+ * - DELETED 인 경우 title, price 는 null 이다.
+ * - version : 변경 후 책의 버전(Book.version). 입력은 0, 수정/삭제는 수정/삭제한 버전 + 1 이다.
+ *             이벤트는 요청 스레드마다 따로 발행되므로 늦게 도착할 수 있다.
+ *             받는 쪽은 책마다 마지막으로 반영한 버전보다 크지 않은 이벤트를 버린다. (BookChangeVersions)
+ */
+@Getter
+@AllArgsConstructor
+public class BookChangedEvent {
+
+	public enum Type {
+		INSERTED, UPDATED, DELETED
+	}
+
+	private final Type type;
+	private final Integer bookId;
+	private final int version;
+	private final String title;
+	private final Integer price;
+
+	public static BookChangedEvent inserted(Integer bookId, String title, Integer price) {
+		return new BookChangedEvent(Type.INSERTED, bookId, 0, title, price);
+	}
+
+	/**
+	 * @param version - 수정한 버전 (수정 화면에서 읽은 버전)
+	 */
+	public static BookChangedEvent updated(Integer bookId, int version, String title, Integer price) {
+		return new BookChangedEvent(Type.UPDATED, bookId, version + 1, title, price);
+	}
+
+	/**
+	 * @param version - 삭제한 버전 (상세 화면에서 읽은 버전)
+	 */
+	public static BookChangedEvent deleted(Integer bookId, int version) {
+		return new BookChangedEvent(Type.DELETED, bookId, version + 1, null, null);
+	}
+}
@@ -0,0 +1,249 @@
+package com.example.bookHub.book.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import com.example.bookHub.book.entity.BookRepository;
+
+/**
+ * BookCountService : 목록의 전체 건수(대략값)를 들고 있는 서비스
+ *
+ * 목록 화면에 전체 페이지 수를 보여주려면 건수가 필요한데, 요청마다 count(*) 를 실행하면
+ * 목록 쿼리보다 비싼 쿼리를 한 번 더 실행하게 된다. (제목 검색 건수는 like '%title%' 로 전체를 읽는다)
+ * 그래서 건수는 미리 구해두고, 목록 요청은 들고 있는 값만 읽는다. 목록 요청은 count 쿼리를 기다리지 않는다.
+ *
+ * - 전체 건수 : 기동 후 한 번 count 하고, 이후에는 BookChangedEvent 로 입력 +1 / 삭제 -1 한다.
+ *               DB 를 직접 수정한 경우 등으로 틀어질 수 있으므로 total-refresh-seconds 마다 다시 count 한다.
+ *               count 하는 동안 입력/삭제된 수는 count 결과에 다시 더한다.
+ * - 제목 검색 건수 : 목록과 같은 방법으로 센다. 목록 건수와 페이지 수가 맞아야 하기 때문이다.
+ *               제목 색인을 쓸 수 있으면 정규화한 검색어(TitleSearchEngine.normalize) 로 색인에서 세고,
+ *               아니면 목록의 like 쿼리와 같은 조건으로 받은 검색어 그대로 countByTitleContains 쿼리를 실행한다.
+ *               캐시 키도 세는 방법을 따른다. (색인 : 정규화한 검색어, like 쿼리 : 받은 검색어)
+ *               처음 요청되거나 ttl 이 지났거나 그 후에 책이 바뀌었거나 세는 방법이 바뀌었으면
+ *               백그라운드에서 다시 세고, 그동안은 이전 값을 돌려준다.
+ * - 아직 구하지 못한 건수는 null 이다. (화면에서는 전체 페이지 수를 보여주지 않는다)
+ * - 건수는 스레드 하나(book-count)에서 차례로 구한다. 기다리는 작업이 queue-size 를 넘으면 다음 요청 때 다시 시도한다.
+ */
+@Service
+public class BookCountService {
+
+	private static final Logger log = LoggerFactory.getLogger(BookCountService.class);
+
+	private static final long UNKNOWN = -1;
+
+	private final BookRepository bookRepository;
+	private final TitleSearchEngine titleSearchEngine;
+	private final boolean enabled;
+	private final long totalRefreshMillis;
+	private final long titleTtlMillis;
+
+	// 전체 건수 (UNKNOWN 이면 아직 모름)
+	private final AtomicLong total = new AtomicLong(UNKNOWN);
+	// 입력 +1 / 삭제 -1 누적값. count 하는 동안의 변경을 count 결과에 더하는 데 사용한다. (total 로 동기화)
+	private long totalChanges;
+	private volatile long totalRefreshedAt;
+	private final AtomicBoolean totalRefreshing = new AtomicBoolean();
+
+	// 검색어 -> 건수. 접근 순서(LRU) 로 maxSize 개까지만 들고 있는다. (titleCounts 로 동기화)
+	private final Map<String, TitleCount> titleCounts;
+	// 지금 다시 세고 있는 검색어 (같은 검색어를 동시에 두 번 세지 않도록)
+	private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+	// 책이 바뀔 때마다 1 씩 증가. 캐시된 건수보다 크면 그 건수는 오래된 값이다.
+	private final AtomicLong changes = new AtomicLong();
+
+	private final ThreadPoolExecutor executor;
+
+	public BookCountService(BookRepository bookRepository, TitleSearchEngine titleSearchEngine,
+			@Value("${bookhub.count.enabled:true}") boolean enabled,
+			@Value("${bookhub.count.total-refresh-seconds:300}") long totalRefreshSeconds,
+			@Value("${bookhub.count.title.ttl-seconds:60}") long titleTtlSeconds,
+			@Value("${bookhub.count.title.max-size:1000}") int titleMaxSize,
+			@Value("${bookhub.count.queue-size:100}") int queueSize) {
+		this.bookRepository = bookRepository;
+		this.titleSearchEngine = titleSearchEngine;
+		this.enabled = enabled;
+		this.totalRefreshMillis = totalRefreshSeconds * 1000;
+		this.titleTtlMillis = titleTtlSeconds * 1000;
+		this.titleCounts = new LinkedHashMap<String, TitleCount>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, TitleCount> eldest) {
+				return this.size() > titleMaxSize;
+			}
+		};
+		this.executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueSize), runnable -> {
+			Thread thread = new Thread(runnable, "book-count");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * 전체 건수 또는 제목 검색 건수 (대략값)
+	 * - 기다리지 않는다. 값이 없거나 오래되었으면 백그라운드에서 다시 구하도록 하고 지금 가진 값을 돌려준다.
+	 * @param title - 제목 검색어 (비어있으면 전체 건수)
+	 * @return 아직 구하지 못했으면 null
+	 */
+	public Long count(String title) {
+		if (!this.enabled) {
+			return null;
+		}
+		if (!StringUtils.hasText(title)) {
+			return this.total();
+		}
+
+		boolean indexed = this.titleSearchEngine.isAvailable();
+		String term = indexed ? TitleSearchEngine.normalize(title) : title;
+		TitleCount titleCount;
+		synchronized (this.titleCounts) {
+			titleCount = this.titleCounts.get(term);
+		}
+		if (titleCount == null || titleCount.indexed != indexed
+				|| titleCount.isStale(this.changes.get(), System.currentTimeMillis(), this.titleTtlMillis)) {
+			this.refreshTitle(term, indexed);
+		}
+		return titleCount == null ? null : titleCount.count;
+	}
+
+	private Long total() {
+		long current = this.total.get();
+		if (current == UNKNOWN || System.currentTimeMillis() - this.totalRefreshedAt > this.totalRefreshMillis) {
+			this.refreshTotal();
+		}
+		return current == UNKNOWN ? null : current;
+	}
+
+	/**
+	 * 기동 후 전체 건수를 미리 구한다
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void onApplicationReady() {
+		if (this.enabled) {
+			this.refreshTotal();
+		}
+	}
+
+	/**
+	 * 입력/삭제는 전체 건수에 바로 반영하고, 제목 검색 건수는 모두 오래된 값으로 만든다.
+	 * (수정은 제목이 바뀔 수 있으므로 제목 검색 건수만 해당된다)
+	 * @param event
+	 */
+	@EventListener
+	public void onBookChanged(BookChangedEvent event) {
+		if (event.getType() == BookChangedEvent.Type.INSERTED) {
+			synchronized (this.total) {
+				this.totalChanges++;
+				this.total.updateAndGet(current -> current == UNKNOWN ? UNKNOWN : current + 1);
+			}
+		} else if (event.getType() == BookChangedEvent.Type.DELETED) {
+			synchronized (this.total) {
+				this.totalChanges--;
+				this.total.updateAndGet(current -> current == UNKNOWN ? UNKNOWN : Math.max(0, current - 1));
+			}
+		}
+		this.changes.incrementAndGet();
+	}
+
+	private void refreshTotal() {
+		if (!this.totalRefreshing.compareAndSet(false, true)) {
+			return;
+		}
+		this.submit(() -> {
+			try {
+				long changesBefore;
+				synchronized (this.total) {
+					changesBefore = this.totalChanges;
+				}
+				long count = this.bookRepository.count();
+				// 그대로 set 하면 count 하는 동안 반영한 +1/-1 이 없어진다
+				// (count 에 이미 들어간 변경이 한 번 더 더해질 수 있지만 다음 count 때 맞춰진다)
+				synchronized (this.total) {
+					this.total.set(Math.max(0, count + this.totalChanges - changesBefore));
+				}
+				this.totalRefreshedAt = System.currentTimeMillis();
+			} finally {
+				this.totalRefreshing.set(false);
+			}
+		}, () -> this.totalRefreshing.set(false));
+	}
+
+	/**
+	 * @param term - 캐시 키이자 세는 검색어
+	 * @param indexed - 제목 색인에서 세는지 (아니면 like 쿼리)
+	 */
+	private void refreshTitle(String term, boolean indexed) {
+		if (!this.refreshing.add(term)) {
+			return;
+		}
+		this.submit(() -> {
+			try {
+				// 세기 전의 변경 번호를 기록한다. 세는 동안 책이 바뀌었다면 다음 요청 때 다시 센다.
+				long changes = this.changes.get();
+				long count = indexed
+						? this.titleSearchEngine.count(term)
+						: this.bookRepository.countByTitleContains(term);
+				synchronized (this.titleCounts) {
+					this.titleCounts.put(term, new TitleCount(count, indexed, changes, System.currentTimeMillis()));
+				}
+			} finally {
+				this.refreshing.remove(term);
+			}
+		}, () -> this.refreshing.remove(term));
+	}
+
+	private void submit(Runnable task, Runnable onRejected) {
+		try {
+			this.executor.execute(() -> {
+				try {
+					task.run();
+				} catch (RuntimeException ex) {
+					log.warn("book count refresh failed", ex);
+				}
+			});
+		} catch (RejectedExecutionException ex) {
+			onRejected.run(); // 대기열이 가득 찼으면 이번에는 건너뛰고 다음 요청 때 다시 시도한다
+		}
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		this.executor.shutdownNow();
+	}
+
+	private static class TitleCount {
+		private final long count;
+		private final boolean indexed;
+		private final long changes;
+		private final long refreshedAt;
+
+		TitleCount(long count, boolean indexed, long changes, long refreshedAt) {
+			this.count = count;
+			this.indexed = indexed;
+			this.changes = changes;
+			this.refreshedAt = refreshedAt;
+		}
+
+		boolean isStale(long currentChanges, long now, long ttlMillis) {
+			return this.changes != currentChanges || now - this.refreshedAt > ttlMillis;
+		}
+	}
+}
@@ -0,0 +1,79 @@
+package com.example.bookHub.book.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * 책 CSV 한 줄 읽기/쓰기 도구
+ *
+ * - 컬럼 순서 : title,price
+ * - 쉼표(,) 나 큰따옴표(") 가 들어있는 값은 큰따옴표로 감싸고, 안의 큰따옴표는 두 번("") 쓴다. (RFC 4180)
+ * - 한 줄에 한 권이다. 값 안의 줄바꿈은 지원하지 않는다.
+ *   제목에는 제어 문자를 입력할 수 없고(BookCreateDTO, BookEditDTO), 그 전에 들어간 제목의 제어 문자는 출력할 때 공백으로 바꾼다.
+ */
+public final class BookCsv {
+
+	public static final String HEADER = "title,price";
+
+	private static final Pattern CONTROL = Pattern.compile("\\p{Cntrl}");
+
+	private BookCsv() {
+	}
+
+	/**
+	 * CSV 한 줄을 컬럼 목록으로 나눈다
+	 * @param line
+	 * @return
+	 * @throws IllegalArgumentException - 큰따옴표가 닫히지 않은 경우
+	 */
+	public static List<String> parseLine(String line) throws IllegalArgumentException {
+		List<String> columns = new ArrayList<>();
+		StringBuilder column = new StringBuilder();
+		boolean quoted = false;
+
+		for (int i = 0; i < line.length(); i++) {
+			char c = line.charAt(i);
+			if (quoted) {
+				if (c == '"') {
+					if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+						column.append('"'); // "" -> "
+						i++;
+					} else {
+						quoted = false;
+					}
+				} else {
+					column.append(c);
+				}
+			} else if (c == '"') {
+				quoted = true;
+			} else if (c == ',') {
+				columns.add(column.toString());
+				column.setLength(0);
+			} else {
+				column.append(c);
+			}
+		}
+		if (quoted) {
+			throw new IllegalArgumentException("큰따옴표가 닫히지 않았습니다.");
+		}
+		columns.add(column.toString());
+		return columns;
+	}
+
+	/**
+	 * 값 하나를 CSV 컬럼으로 만든다 (줄바꿈 등 제어 문자는 공백으로 바꿔서 항상 한 줄이 되게 한다)
+	 * @param value
+	 * @return
+	 */
+	public static String escape(String value) {
+		if (value == null) {
+			return "";
+		}
+		value = CONTROL.matcher(value).replaceAll(" ");
+		if (value.indexOf(',') < 0 && value.indexOf('"') < 0) {
+			return value;
+		}
+		return '"' + value.replace("\"", "\"\"") + '"';
+	}
+}
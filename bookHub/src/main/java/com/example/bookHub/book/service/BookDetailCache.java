@@ -0,0 +1,71 @@
+package com.example.bookHub.book.service;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.example.bookHub.book.dto.BookEditResponseDTO;
+import com.example.bookHub.book.dto.BookReadResponseDTO;
+import com.example.bookHub.common.cache.CacheStats;
+import com.example.bookHub.common.cache.LruTtlCache;
+
+/**
+ * BookDetailCache : 책 상세(읽기) / 수정화면 응답 DTO 캐시
+ *
+ * 책 정보는 거의 바뀌지 않는데 /book/read/{bookId}, /book/edit/{bookId} 요청마다 findById 로 DB 를 읽는다.
+ * 한 번 만든 응답 DTO 를 bookId 별로 보관해두고 다음 요청에는 그대로 돌려준다.
+ *
+ * - 책이 수정/삭제되면(BookChangedEvent) 해당 bookId 항목을 지운다.
+ * - 캐시에 넣은 DTO 는 밖으로 내보내지 않고 요청마다 복사본(copy)을 돌려준다.
+ *   응답 DTO 는 fromBook 으로 값을 바꿀 수 있으므로, 한 요청이 바꾼 값이 다른 요청이나 캐시에 보이지 않게 한다.
+ * - bookhub.cache.book.enabled=false 이면 캐시 없이 매번 loader 를 호출한다.
+ */
+@Component
+public class BookDetailCache {
+
+	private final boolean enabled;
+	private final LruTtlCache<Integer, BookReadResponseDTO> readCache;
+	private final LruTtlCache<Integer, BookEditResponseDTO> editCache;
+
+	public BookDetailCache(@Value("${bookhub.cache.book.enabled:true}") boolean enabled,
+			@Value("${bookhub.cache.book.max-size:10000}") int maxSize,
+			@Value("${bookhub.cache.book.ttl-seconds:600}") long ttlSeconds) {
+		this.enabled = enabled;
+		this.readCache = new LruTtlCache<>("book.read", maxSize, ttlSeconds * 1000);
+		this.editCache = new LruTtlCache<>("book.edit", maxSize, ttlSeconds * 1000);
+	}
+
+	public BookReadResponseDTO read(Integer bookId, Function<Integer, BookReadResponseDTO> loader) {
+		return (this.enabled ? this.readCache.get(bookId, loader) : loader.apply(bookId)).copy();
+	}
+
+	public BookEditResponseDTO edit(Integer bookId, Function<Integer, BookEditResponseDTO> loader) {
+		return (this.enabled ? this.editCache.get(bookId, loader) : loader.apply(bookId)).copy();
+	}
+
+	/**
+	 * 책이 수정/삭제되면 캐시에서 지운다 (입력은 아직 캐시에 없으므로 할 일이 없다)
+	 * @param event
+	 */
+	@EventListener
+	public void onBookChanged(BookChangedEvent event) {
+		if (event.getType() == BookChangedEvent.Type.INSERTED) {
+			return;
+		}
+		this.readCache.invalidate(event.getBookId());
+		this.editCache.invalidate(event.getBookId());
+	}
+
+	public void clear() {
+		this.readCache.invalidateAll();
+		this.editCache.invalidateAll();
+	}
+
+	public List<CacheStats> stats() {
+		return Arrays.asList(this.readCache.stats(), this.editCache.stats());
+	}
+}
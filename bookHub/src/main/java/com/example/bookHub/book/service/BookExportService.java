@@ -0,0 +1,126 @@
+package com.example.bookHub.book.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.bookHub.book.entity.Book;
+import com.example.bookHub.book.entity.BookRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * 책 전체 출력(export) 서비스
+ *
+ * findAll() 은 모든 책을 List 로 만들고 영속성 컨텍스트에도 전부 올려두므로 책이 많으면 메모리가 부족해진다.
+ * 여기서는 BookRepository.streamAll() 로 DB 커서를 앞으로만 읽으면서
+ * 한 건씩 바로 출력 스트림에 쓰고, 쓴 엔티티는 곧바로 영속성 컨텍스트에서 떼어낸다(detach).
+ * 중간에 DTO 목록을 만들지 않으므로 책이 만 건이든 천만 건이든 메모리 사용량이 같다.
+ * 읽은 엔티티는 2차 캐시에도 넣지 않는다. (streamAll 의 CacheMode.IGNORE)
+ */
+@Service
+public class BookExportService {
+
+	public enum Format {
+		CSV, NDJSON
+	}
+
+	public static final String CSV_HEADER = "bookId,title,price,insertDateTime";
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	private BookRepository bookRepository;
+	private TransactionTemplate readOnlyTransactionTemplate;
+	private ObjectMapper objectMapper;
+
+	public BookExportService(BookRepository bookRepository, PlatformTransactionManager transactionManager,
+			ObjectMapper objectMapper) {
+		this.bookRepository = bookRepository;
+		this.objectMapper = objectMapper;
+		
+		// Stream 은 트랜잭션 안에서만 읽을 수 있다. 읽기만 하므로 읽기 전용 트랜잭션을 사용한다.
+		this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+		this.readOnlyTransactionTemplate.setReadOnly(true);
+	}
+
+	/**
+	 * 전체 책 출력
+	 * @param out    - 응답 출력 스트림
+	 * @param format - CSV 또는 NDJSON
+	 * @throws IOException
+	 */
+	public void export(OutputStream out, Format format) throws IOException {
+		Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+		try {
+			this.readOnlyTransactionTemplate.executeWithoutResult(status -> {
+				try (Stream<Book> books = this.bookRepository.streamAll()) {
+					if (format == Format.CSV) {
+						this.writeCsv(books.iterator(), writer);
+					} else {
+						this.writeNdjson(books.iterator(), writer);
+					}
+				} catch (IOException ex) {
+					throw new UncheckedIOException(ex);
+				}
+			});
+		} catch (UncheckedIOException ex) {
+			throw ex.getCause(); // 클라이언트가 연결을 끊은 경우 등
+		}
+		writer.flush();
+	}
+
+	private void writeCsv(Iterator<Book> books, Writer writer) throws IOException {
+		writer.write(CSV_HEADER);
+		writer.write('\n');
+		while (books.hasNext()) {
+			Book book = books.next();
+			writer.write(String.valueOf(book.getBookId()));
+			writer.write(',');
+			writer.write(BookCsv.escape(book.getTitle()));
+			writer.write(',');
+			writer.write(book.getPrice() == null ? "" : String.valueOf(book.getPrice()));
+			writer.write(',');
+			writer.write(book.getInsertDateTime() == null ? "" : book.getInsertDateTime().toString());
+			writer.write('\n');
+			this.entityManager.detach(book); // 다 쓴 엔티티는 영속성 컨텍스트에서 뗀다
+		}
+	}
+
+	private void writeNdjson(Iterator<Book> books, Writer writer) throws IOException {
+		// JsonGenerator 로 객체를 만들지 않고 바로 쓴다. 최상위 값 사이 구분자를 줄바꿈으로 지정 (한 줄에 JSON 하나)
+		JsonGenerator generator = this.objectMapper.getFactory().createGenerator(writer);
+		generator.setRootValueSeparator(new SerializedString("\n"));
+		while (books.hasNext()) {
+			Book book = books.next();
+			generator.writeStartObject();
+			generator.writeNumberField("bookId", book.getBookId());
+			generator.writeStringField("title", book.getTitle());
+			if (book.getPrice() == null) {
+				generator.writeNullField("price");
+			} else {
+				generator.writeNumberField("price", book.getPrice());
+			}
+			generator.writeStringField("insertDateTime",
+					book.getInsertDateTime() == null ? null : book.getInsertDateTime().toString());
+			generator.writeEndObject();
+			this.entityManager.detach(book);
+		}
+		generator.writeRaw('\n');
+		generator.flush();
+	}
+}
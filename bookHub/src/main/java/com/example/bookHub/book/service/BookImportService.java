@@ -0,0 +1,275 @@
+package com.example.bookHub.book.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.bookHub.book.dto.BookCreateDTO;
+import com.example.bookHub.book.dto.BookImportResponseDTO;
+import com.example.bookHub.book.entity.Book;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * 책 대량 입력 서비스
+ *
+ * 업로드된 CSV / NDJSON 을 한 줄씩 읽으면서
+ * 1. 행마다 BookCreateDTO 로 바꾸고 유효성 검사(BookCreateDTO 의 @NotBlank, @Min 등)를 한다.
+ * 2. 유효한 행을 batchSize 건 모을 때마다 하나의 트랜잭션으로 persist -> flush -> clear 한다.
+ *    - Book.bookId 가 시퀀스(pooled) 방식이므로 flush 할 때 insert 가 JDBC 배치로 묶여서 나간다.
+ *    - clear 로 영속성 컨텍스트를 비우므로 파일이 아무리 커도 메모리에는 배치 하나 분량만 남는다.
+ * 3. 배치마다 입력 건수와 오류를 응답에 기록한다. 한 배치가 실패해도 다음 배치는 계속 입력한다.
+ *
+ * CSV 첫 줄이 헤더(title, price 컬럼이 있는 줄)이면 헤더에서 컬럼 위치를 찾는다.
+ * 그래서 /book/export 로 내려받은 CSV(bookId,title,price,insertDateTime) 도 그대로 올릴 수 있다. (bookId, 입력일은 새로 정해진다)
+ */
+@Service
+public class BookImportService {
+
+	public enum Format {
+		CSV, NDJSON
+	}
+
+	/* @PersistenceContext
+	 *  - 트랜잭션마다 알맞은 EntityManager 를 찾아주는 공유 프록시를 주입받는다.
+	 */
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	private TransactionTemplate transactionTemplate;
+	private Validator validator;
+	private ObjectMapper objectMapper;
+	private ApplicationEventPublisher eventPublisher;
+	private int batchSize;
+	private int maxErrorsPerBatch;
+
+	public BookImportService(TransactionTemplate transactionTemplate, Validator validator, ObjectMapper objectMapper,
+			ApplicationEventPublisher eventPublisher,
+			@Value("${bookhub.import.batch-size:500}") int batchSize,
+			@Value("${bookhub.import.max-errors-per-batch:20}") int maxErrorsPerBatch) {
+		this.transactionTemplate = transactionTemplate;
+		this.validator = validator;
+		this.objectMapper = objectMapper;
+		this.eventPublisher = eventPublisher;
+		this.batchSize = batchSize;
+		this.maxErrorsPerBatch = maxErrorsPerBatch;
+	}
+
+	/**
+	 * 대량 입력
+	 * @param in     - 업로드 본문 (UTF-8)
+	 * @param format - CSV(title,price) 또는 NDJSON({"title":..., "price":...} 한 줄에 하나)
+	 * @return 배치별 결과
+	 * @throws IOException
+	 */
+	public BookImportResponseDTO importBooks(InputStream in, Format format) throws IOException {
+		BookImportResponseDTO response = new BookImportResponseDTO();
+
+		BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+		List<Book> pending = new ArrayList<>(this.batchSize);
+		BookImportResponseDTO.Batch batch = null;
+		int batchNo = 0;
+		long lineNo = 0;
+		CsvColumns csvColumns = CsvColumns.DEFAULT;
+
+		String line;
+		while ((line = reader.readLine()) != null) {
+			lineNo++;
+			if (line.trim().isEmpty()) {
+				continue;
+			}
+			// CSV 첫 줄이 헤더이면 컬럼 위치만 정하고 건너뛴다
+			if (format == Format.CSV && lineNo == 1) {
+				CsvColumns header = CsvColumns.fromHeader(line);
+				if (header != null) {
+					csvColumns = header;
+					continue;
+				}
+			}
+
+			if (batch == null) {
+				batch = new BookImportResponseDTO.Batch(++batchNo, lineNo, this.maxErrorsPerBatch);
+			}
+			batch.setLastLine(lineNo);
+
+			try {
+				BookCreateDTO bookCreateDTO = format == Format.CSV ? this.fromCsv(line, csvColumns) : this.fromNdjson(line);
+				String errorMessage = this.validate(bookCreateDTO);
+				if (errorMessage != null) {
+					batch.failed(lineNo, errorMessage);
+				} else {
+					pending.add(Book.builder()
+									.title(bookCreateDTO.getTitle())
+									.price(bookCreateDTO.getPrice())
+									.build());
+				}
+			} catch (IllegalArgumentException ex) {
+				batch.failed(lineNo, ex.getMessage());
+			}
+
+			if (pending.size() + batch.getFailedRows() >= this.batchSize) {
+				this.flush(pending, batch);
+				response.addBatch(batch);
+				pending.clear();
+				batch = null;
+			}
+		}
+
+		if (batch != null) {
+			this.flush(pending, batch);
+			response.addBatch(batch);
+		}
+		return response;
+	}
+
+	/**
+	 * 모아둔 책을 하나의 트랜잭션으로 입력한다
+	 * @param books
+	 * @param batch
+	 */
+	private void flush(List<Book> books, BookImportResponseDTO.Batch batch) {
+		if (books.isEmpty()) {
+			return;
+		}
+
+		try {
+			this.transactionTemplate.executeWithoutResult(status -> {
+				// 이 세션의 JDBC 배치 크기 - flush 시 insert 를 이 크기만큼 묶어서 보낸다
+				this.entityManager.unwrap(Session.class).setJdbcBatchSize(this.batchSize);
+				for (Book book : books) {
+					this.entityManager.persist(book);
+				}
+				this.entityManager.flush();
+				this.entityManager.clear(); // 영속성 컨텍스트를 비워서 엔티티가 쌓이지 않게 한다
+			});
+		} catch (RuntimeException ex) {
+			// 배치 전체가 롤백된다
+			batch.batchFailed(books.size(), NestedExceptionUtils.getMostSpecificCause(ex).getMessage());
+			return;
+		}
+
+		batch.inserted(books.size());
+		for (Book book : books) {
+			this.eventPublisher.publishEvent(BookChangedEvent.inserted(book.getBookId(), book.getTitle(), book.getPrice()));
+		}
+	}
+
+	private BookCreateDTO fromCsv(String line, CsvColumns csvColumns) throws IllegalArgumentException {
+		List<String> columns = BookCsv.parseLine(line);
+		if (columns.size() != csvColumns.count) {
+			throw new IllegalArgumentException("컬럼 수가 맞지 않습니다. (" + csvColumns.header + ")");
+		}
+		return this.toBookCreateDTO(columns.get(csvColumns.title), columns.get(csvColumns.price));
+	}
+
+	private BookCreateDTO fromNdjson(String line) throws IllegalArgumentException {
+		JsonNode node;
+		try {
+			node = this.objectMapper.readTree(line);
+		} catch (JsonProcessingException ex) {
+			throw new IllegalArgumentException("JSON 형식이 아닙니다.");
+		}
+		if (node == null || !node.isObject()) {
+			throw new IllegalArgumentException("JSON 객체가 아닙니다.");
+		}
+		JsonNode title = node.get("title");
+		JsonNode price = node.get("price");
+		return this.toBookCreateDTO(title == null || title.isNull() ? null : title.asText(),
+									price == null || price.isNull() ? null : price.asText());
+	}
+
+	private BookCreateDTO toBookCreateDTO(String title, String price) throws IllegalArgumentException {
+		// BookCreateDTO 의 setter 는 @NonNull 이므로 null 을 넣기 전에 확인한다
+		if (title == null) {
+			throw new IllegalArgumentException("title : 필수 항목입니다.");
+		}
+		if (price == null) {
+			throw new IllegalArgumentException("price : 필수 항목입니다.");
+		}
+
+		BookCreateDTO bookCreateDTO = new BookCreateDTO();
+		bookCreateDTO.setTitle(title);
+		try {
+			bookCreateDTO.setPrice(Integer.valueOf(price.trim()));
+		} catch (NumberFormatException ex) {
+			throw new IllegalArgumentException("price : 숫자가 아닙니다.");
+		}
+		return bookCreateDTO;
+	}
+
+	/**
+	 * CSV 컬럼 위치 (헤더가 없으면 title,price)
+	 */
+	private static class CsvColumns {
+
+		private static final CsvColumns DEFAULT = new CsvColumns(BookCsv.HEADER, 0, 1, 2);
+
+		private final String header;
+		private final int title;
+		private final int price;
+		private final int count;
+
+		private CsvColumns(String header, int title, int price, int count) {
+			this.header = header;
+			this.title = title;
+			this.price = price;
+			this.count = count;
+		}
+
+		/**
+		 * @param line - 첫 줄
+		 * @return title, price 컬럼이 모두 있으면 그 위치, 아니면 null (첫 줄도 데이터)
+		 */
+		private static CsvColumns fromHeader(String line) {
+			List<String> names;
+			try {
+				names = BookCsv.parseLine(line).stream()
+							   .map(name -> name.trim().toLowerCase(Locale.ROOT))
+							   .collect(Collectors.toList());
+			} catch (IllegalArgumentException ex) {
+				return null; // 데이터 줄로 읽으면서 오류로 기록된다
+			}
+			int title = names.indexOf("title");
+			int price = names.indexOf("price");
+			if (title < 0 || price < 0) {
+				return null;
+			}
+			return new CsvColumns(line.trim(), title, price, names.size());
+		}
+	}
+
+	/**
+	 * BookCreateDTO 유효성 검사
+	 * @param bookCreateDTO
+	 * @return "필드명 : 오류메세지" 형태의 오류 메세지, 오류가 없으면 null
+	 */
+	private String validate(BookCreateDTO bookCreateDTO) {
+		Set<ConstraintViolation<BookCreateDTO>> violations = this.validator.validate(bookCreateDTO);
+		if (violations.isEmpty()) {
+			return null;
+		}
+		return violations.stream()
+						 .map(x -> x.getPropertyPath() + " : " + x.getMessage())
+						 .collect(Collectors.joining(", "));
+	}
+}
@@ -0,0 +1,290 @@
+package com.example.bookHub.book.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.bookHub.book.entity.Book;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * BookInsertQueue : 책 입력 그룹 커밋(group commit) 큐
+ *
+ * 입력 요청마다 트랜잭션을 하나씩 열고 커밋하면, 입력이 몰릴 때 커밋(DB 파일 flush) 횟수만큼 기다리게 된다.
+ * 그룹 커밋 모드에서는 동시에 들어온 입력을 큐에 모았다가 입력 전용 스레드(book-insert)가
+ * 최대 maxBatchSize 건 또는 첫 건 이후 maxWaitMillis 동안 모인 만큼을 하나의 트랜잭션, 하나의 JDBC 배치로 입력한다.
+ * - 요청 스레드는 자기 책이 커밋될 때까지 기다렸다가 bookId 를 받는다. (입력 후 바로 /book/read/{bookId} 로 이동할 수 있다)
+ * - 배치가 실패하면(ex. 한 건이 제약조건 위반) 그 배치의 책을 한 건씩 다시 입력해서 실패한 요청만 예외를 받는다.
+ * - 큐가 가득 차면 기다리지 않고 요청 스레드에서 바로(한 건 트랜잭션으로) 입력한다.
+ * - 입력 스레드가 멈췄거나(stop, 예기치 않은 종료) timeout-millis 가 지나도록 큐에서 가져가지 않은 책도 요청 스레드에서 바로 입력한다.
+ *   입력 스레드가 가져간 후 timeout-millis 안에 커밋되지 않으면 QueryTimeoutException 을 던진다. (이때는 입력됐는지 알 수 없다)
+ *
+ * bookhub.insert.group-commit.enabled=true 일 때만 BookService.insert 가 사용한다.
+ *
+ * 메트릭
+ * - bookhub.insert.group.size : 한 번에 커밋한 건수
+ * - bookhub.insert.group.wait : 요청이 큐에 들어가서 커밋될 때까지 걸린 시간
+ * - bookhub.insert.group.fallback : 큐가 가득 찼거나 입력 스레드가 가져가지 않아서 바로 입력한 건수
+ */
+@Component
+public class BookInsertQueue {
+
+	private static final Logger log = LoggerFactory.getLogger(BookInsertQueue.class);
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	private final TransactionTemplate transactionTemplate;
+	private final boolean enabled;
+	private final int maxBatchSize;
+	private final long maxWaitNanos;
+	private final long timeoutMillis;
+	private final BlockingQueue<PendingInsert> queue;
+
+	private final DistributionSummary groupSize;
+	private final Timer groupWait;
+	private final Counter fallback;
+
+	private volatile boolean running;
+	private Thread writer;
+
+	public BookInsertQueue(TransactionTemplate transactionTemplate, MeterRegistry meterRegistry,
+			@Value("${bookhub.insert.group-commit.enabled:false}") boolean enabled,
+			@Value("${bookhub.insert.group-commit.max-batch-size:50}") int maxBatchSize,
+			@Value("${bookhub.insert.group-commit.max-wait-millis:5}") long maxWaitMillis,
+			@Value("${bookhub.insert.group-commit.queue-size:10000}") int queueSize,
+			@Value("${bookhub.insert.group-commit.timeout-millis:5000}") long timeoutMillis) {
+		this.transactionTemplate = transactionTemplate;
+		this.enabled = enabled;
+		this.maxBatchSize = maxBatchSize;
+		this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+		this.timeoutMillis = timeoutMillis;
+		this.queue = new ArrayBlockingQueue<>(queueSize);
+		this.groupSize = DistributionSummary.builder("bookhub.insert.group.size")
+											.description("books committed in one group")
+											.register(meterRegistry);
+		this.groupWait = Timer.builder("bookhub.insert.group.wait")
+							  .description("time from enqueue to commit")
+							  .register(meterRegistry);
+		this.fallback = Counter.builder("bookhub.insert.group.fallback")
+							   .description("inserts done directly because the queue was full or the writer did not take them")
+							   .register(meterRegistry);
+	}
+
+	public boolean isEnabled() {
+		return this.enabled;
+	}
+
+	@PostConstruct
+	public void start() {
+		if (!this.enabled) {
+			return;
+		}
+		this.running = true;
+		this.writer = new Thread(this::writeLoop, "book-insert");
+		this.writer.setDaemon(true);
+		this.writer.start();
+	}
+
+	/**
+	 * 큐에 남은 책을 모두 입력한 후 입력 스레드를 끝낸다
+	 */
+	@PreDestroy
+	public void stop() throws InterruptedException {
+		if (this.writer == null) {
+			return;
+		}
+		this.running = false;
+		this.writer.join(TimeUnit.SECONDS.toMillis(10));
+		
+		// 입력 스레드가 끝난 직후에 큐에 들어온 책
+		List<PendingInsert> remaining = new ArrayList<>();
+		this.queue.drainTo(remaining);
+		this.insertEach(remaining);
+	}
+
+	/**
+	 * 책을 입력하고 커밋될 때까지 기다린다
+	 * @param book - 입력할 책 (입력 후 bookId 가 채워진다)
+	 * @return bookId
+	 * @throws QueryTimeoutException - 입력 스레드가 가져간 책이 timeoutMillis 안에 커밋되지 않은 경우
+	 * @throws RuntimeException - 입력이 실패한 경우 그 예외
+	 */
+	public Integer insert(Book book) throws QueryTimeoutException {
+		PendingInsert pending = new PendingInsert(book);
+		boolean queued = this.running && this.queue.offer(pending);
+		// 넣는 사이에 입력 스레드가 끝났으면(stop 이 큐를 비운 후) 아무도 가져가지 않으므로 다시 꺼낸다
+		if (queued && !this.running && this.queue.remove(pending)) {
+			queued = false;
+		}
+		if (!queued) {
+			this.fallback.increment();
+			this.insertEach(List.of(pending));
+		}
+		
+		Integer bookId = this.await(pending, this.timeoutMillis);
+		if (bookId == null) {
+			// 큐에 그대로 있으면(입력 스레드가 멈췄거나 밀려 있으면) 꺼내서 직접 입력한다
+			if (!this.queue.remove(pending)) {
+				throw new QueryTimeoutException("insert was not committed within " + this.timeoutMillis + "ms");
+			}
+			this.fallback.increment();
+			this.insertEach(List.of(pending));
+			bookId = this.await(pending, 0);
+		}
+		return bookId;
+	}
+
+	/**
+	 * @param pending
+	 * @param timeoutMillis
+	 * @return bookId, timeoutMillis 안에 끝나지 않으면 null
+	 */
+	private Integer await(PendingInsert pending, long timeoutMillis) {
+		try {
+			return pending.result.get(timeoutMillis, TimeUnit.MILLISECONDS);
+		} catch (TimeoutException ex) {
+			return null;
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("interrupted while waiting for insert", ex);
+		} catch (ExecutionException ex) {
+			if (ex.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) ex.getCause();
+			}
+			throw new IllegalStateException(ex.getCause());
+		}
+	}
+
+	private void writeLoop() {
+		try {
+			this.writeGroups();
+		} finally {
+			// 예기치 않게 끝났으면(Error, 인터럽트) 이후 입력은 요청 스레드에서 바로 하고, 큐에 남은 책도 여기서 입력한다
+			if (this.running) {
+				log.error("book-insert thread stopped unexpectedly, inserting directly from now on");
+				this.running = false;
+			}
+			List<PendingInsert> remaining = new ArrayList<>();
+			this.queue.drainTo(remaining);
+			this.insertEach(remaining);
+		}
+	}
+
+	private void writeGroups() {
+		List<PendingInsert> group = new ArrayList<>(this.maxBatchSize);
+		while (this.running || !this.queue.isEmpty()) {
+			try {
+				// 첫 건을 기다린 후, 그때부터 maxWaitNanos 동안 또는 maxBatchSize 건이 될 때까지 더 모은다
+				PendingInsert first = this.queue.poll(100, TimeUnit.MILLISECONDS);
+				if (first == null) {
+					continue;
+				}
+				group.add(first);
+				long deadline = System.nanoTime() + this.maxWaitNanos;
+				while (group.size() < this.maxBatchSize) {
+					this.queue.drainTo(group, this.maxBatchSize - group.size());
+					long remaining = deadline - System.nanoTime();
+					if (group.size() >= this.maxBatchSize || remaining <= 0) {
+						break;
+					}
+					PendingInsert next = this.queue.poll(remaining, TimeUnit.NANOSECONDS);
+					if (next == null) {
+						break;
+					}
+					group.add(next);
+				}
+				this.commit(group);
+			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				return;
+			} catch (RuntimeException | Error ex) {
+				// 이 묶음을 기다리는 요청이 timeout 까지 기다리지 않게 한다 (이미 끝난 요청은 그대로)
+				for (PendingInsert pending : group) {
+					pending.result.completeExceptionally(ex);
+				}
+				if (ex instanceof Error) {
+					throw (Error) ex;
+				}
+				log.error("group insert failed", ex);
+			} finally {
+				group.clear();
+			}
+		}
+	}
+
+	/**
+	 * 모은 책을 하나의 트랜잭션으로 입력한다. 실패하면 한 건씩 다시 입력한다.
+	 * @param group
+	 */
+	private void commit(List<PendingInsert> group) {
+		try {
+			this.transactionTemplate.executeWithoutResult(status -> {
+				this.entityManager.unwrap(Session.class).setJdbcBatchSize(this.maxBatchSize);
+				for (PendingInsert pending : group) {
+					this.entityManager.persist(pending.book);
+				}
+				this.entityManager.flush();
+				this.entityManager.clear();
+			});
+		} catch (RuntimeException ex) {
+			log.debug("group of {} failed, retrying one by one", group.size(), ex);
+			for (PendingInsert pending : group) {
+				pending.book.setBookId(null); // 롤백된 배치에서 받은 bookId 는 버리고 새로 받는다
+				pending.book.setVersion(null);
+			}
+			this.insertEach(group);
+			return;
+		}
+		this.groupSize.record(group.size());
+		long now = System.nanoTime();
+		for (PendingInsert pending : group) {
+			this.groupWait.record(now - pending.enqueuedAt, TimeUnit.NANOSECONDS);
+			pending.result.complete(pending.book.getBookId());
+		}
+	}
+
+	private void insertEach(List<PendingInsert> pendings) {
+		for (PendingInsert pending : pendings) {
+			try {
+				this.transactionTemplate.executeWithoutResult(status -> this.entityManager.persist(pending.book));
+				this.groupSize.record(1);
+				pending.result.complete(pending.book.getBookId());
+			} catch (RuntimeException ex) {
+				pending.result.completeExceptionally(ex);
+			}
+		}
+	}
+
+	private static class PendingInsert {
+		private final Book book;
+		private final long enqueuedAt = System.nanoTime();
+		private final CompletableFuture<Integer> result = new CompletableFuture<>();
+
+		PendingInsert(Book book) {
+			this.book = book;
+		}
+	}
+}
@@ -0,0 +1,114 @@
+package com.example.bookHub.book.service;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+
+import com.example.bookHub.book.dto.BookListResponseDTO;
+
+/**
+ * BookListChunks : 큰 목록 페이지를 묶음(chunk) 단위로 나눠 읽는 Iterable
+ *
+ * 한 페이지에 수천 ~ 수만 건을 보여줄 때 목록 전체를 List 로 만든 후 화면을 그리면
+ * 쿼리가 끝날 때까지 응답이 시작되지 않고, 목록 전체만큼 메모리를 쓴다.
+ * 타임리프 th:each 가 이 Iterable 을 돌면서 한 묶음을 다 그리면 그때 다음 묶음을 읽는다.
+ * - 메모리에는 한 묶음(chunkSize)만 있다.
+ * - 타임리프는 그리는 대로 응답 버퍼에 쓰므로(produce-partial-output-while-processing)
+ *   버퍼가 찰 때마다 앞부분이 먼저 클라이언트에 전송된다.
+ *
+ * 묶음은 ChunkLoader 가 읽는다. 읽는 방법은 두 가지다.
+ * - 커서(keyset) : 직전 묶음의 마지막 행 다음부터 읽는다 (BookService 참고). 요청한 수보다 적게 오면 더 읽을 행이 없다.
+ * - bookId 목록(ofIds) : 제목 색인에서 미리 골라 둔 bookId 를 묶음 크기만큼씩 in 쿼리로 읽는다.
+ *   색인에서 고른 후 삭제된 책은 읽히지 않으므로 묶음이 요청한 수보다 적게 올 수 있다.
+ *   그래도 다음 묶음은 읽은 행 수가 아니라 지나온 bookId 수(position) 만큼 넘어가서 읽고, bookId 목록이 끝나야 끝난다.
+ * 화면을 그리는 동안 DB 를 읽으므로 한 번만 순회하는 용도로 사용한다.
+ */
+class BookListChunks implements Iterable<BookListResponseDTO> {
+
+	@FunctionalInterface
+	interface ChunkLoader {
+		/**
+		 * @param last     - 지금까지 읽은 마지막 행 (아직 없으면 null)
+		 * @param position - 지금까지 요청한 행 수의 합 (bookId 목록이면 지나온 bookId 수)
+		 * @param size     - 읽을 행 수
+		 * @return 커서 방식이면 size 보다 적을 때 더 이상 읽을 행이 없다
+		 */
+		List<BookListResponseDTO> load(BookListResponseDTO last, int position, int size);
+	}
+
+	private final int total;
+	private final int chunkSize;
+	private final boolean endsOnShortChunk;
+	private final ChunkLoader loader;
+
+	/**
+	 * 커서(keyset) 방식
+	 * @param total     - 페이지 크기 (최대로 읽을 행 수)
+	 * @param chunkSize - 한 번에 읽을 행 수
+	 * @param loader
+	 */
+	BookListChunks(int total, int chunkSize, ChunkLoader loader) {
+		this(total, chunkSize, true, loader);
+	}
+
+	private BookListChunks(int total, int chunkSize, boolean endsOnShortChunk, ChunkLoader loader) {
+		this.total = total;
+		this.chunkSize = chunkSize;
+		this.endsOnShortChunk = endsOnShortChunk;
+		this.loader = loader;
+	}
+
+	/**
+	 * bookId 목록 방식
+	 * @param bookIds   - 읽을 bookId (순서대로)
+	 * @param chunkSize - 한 번에 읽을 bookId 수
+	 * @param reader    - bookId 묶음의 책 정보 (없는 책은 빠진다)
+	 */
+	static BookListChunks ofIds(List<Integer> bookIds, int chunkSize, Function<List<Integer>, List<BookListResponseDTO>> reader) {
+		return new BookListChunks(bookIds.size(), chunkSize, false,
+				(last, position, size) -> reader.apply(bookIds.subList(position, position + size)));
+	}
+
+	@Override
+	public Iterator<BookListResponseDTO> iterator() {
+		return new Iterator<BookListResponseDTO>() {
+
+			private List<BookListResponseDTO> chunk = Collections.emptyList();
+			private int index = 0;
+			private BookListResponseDTO last = null;
+			private int position = 0;
+			private boolean exhausted = false;
+
+			@Override
+			public boolean hasNext() {
+				if (this.index < this.chunk.size()) {
+					return true;
+				}
+				// 현재 묶음을 다 돌았으면 다음 묶음을 읽는다 (이전 묶음은 버려진다)
+				// bookId 목록 방식은 묶음의 책이 모두 삭제되었으면 빈 묶음이 올 수 있으므로 그다음 묶음을 읽는다
+				while (!this.exhausted && this.position < BookListChunks.this.total) {
+					int size = Math.min(BookListChunks.this.chunkSize, BookListChunks.this.total - this.position);
+					this.chunk = BookListChunks.this.loader.load(this.last, this.position, size);
+					this.index = 0;
+					this.position += size;
+					this.exhausted = BookListChunks.this.endsOnShortChunk && this.chunk.size() < size;
+					if (!this.chunk.isEmpty()) {
+						this.last = this.chunk.get(this.chunk.size() - 1);
+						return true;
+					}
+				}
+				return false;
+			}
+
+			@Override
+			public BookListResponseDTO next() {
+				if (!this.hasNext()) {
+					throw new NoSuchElementException();
+				}
+				return this.chunk.get(this.index++);
+			}
+		};
+	}
+}
@@ -0,0 +1,96 @@
+package com.example.bookHub.book.service;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.example.bookHub.book.dto.BookEditResponseDTO;
+import com.example.bookHub.book.dto.BookListResponseDTO;
+import com.example.bookHub.book.dto.BookReadResponseDTO;
+import com.example.bookHub.common.cache.SingleFlight;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * BookLoadCoalescer : 같은 책 / 같은 목록 페이지를 동시에 읽는 요청을 DB 읽기 한 번으로 합친다 (SingleFlight)
+ *
+ * - read, edit : bookId 별로 findById 한 번 (BookDetailCache 에 없을 때만 호출된다. 캐시를 끈 경우에도 합친다)
+ * - list       : (제목, 페이지, 페이지 크기) 별로 목록 쿼리 한 번. 결과 List 는 여러 요청이 같이 쓰므로 바꿀 수 없는 List 로 돌려준다.
+ * - 책이 바뀌면(BookChangedEvent) 해당 bookId 와 모든 목록의 진행 중인 읽기를 잊는다.
+ *   변경 후에 들어온 요청은 변경 전에 시작한 읽기의 결과를 받지 않는다. (수정 후 바로 보기 화면으로 이동해도 수정된 값을 본다)
+ * - 기다리는 요청은 최대 bookhub.single-flight.timeout-millis 까지 기다린다. (QueryTimeoutException)
+ * - bookhub.single-flight.enabled=false 이면 합치지 않고 매번 loader 를 호출한다.
+ *
+ * 메트릭 (name 태그 : book.read, book.edit, book.list)
+ * - bookhub.singleflight.loads     : 실제로 읽은 횟수
+ * - bookhub.singleflight.coalesced : 다른 요청의 읽기 결과를 같이 받은 횟수
+ * - bookhub.singleflight.timeouts  : 기다리다 시간이 초과된 횟수
+ */
+@Component
+public class BookLoadCoalescer {
+
+	private final boolean enabled;
+	private final SingleFlight<Integer, BookReadResponseDTO> reads;
+	private final SingleFlight<Integer, BookEditResponseDTO> edits;
+	private final SingleFlight<List<Object>, List<BookListResponseDTO>> lists;
+
+	public BookLoadCoalescer(MeterRegistry meterRegistry,
+			@Value("${bookhub.single-flight.enabled:true}") boolean enabled,
+			@Value("${bookhub.single-flight.timeout-millis:2000}") long timeoutMillis) {
+		this.enabled = enabled;
+		this.reads = register(meterRegistry, new SingleFlight<>("book.read", timeoutMillis));
+		this.edits = register(meterRegistry, new SingleFlight<>("book.edit", timeoutMillis));
+		this.lists = register(meterRegistry, new SingleFlight<>("book.list", timeoutMillis));
+	}
+
+	public BookReadResponseDTO read(Integer bookId, Function<Integer, BookReadResponseDTO> loader) {
+		return this.enabled ? this.reads.load(bookId, loader) : loader.apply(bookId);
+	}
+
+	public BookEditResponseDTO edit(Integer bookId, Function<Integer, BookEditResponseDTO> loader) {
+		return this.enabled ? this.edits.load(bookId, loader) : loader.apply(bookId);
+	}
+
+	/**
+	 * @param title    - 제목 검색 (null 포함)
+	 * @param page     - JPA 페이지 번호 (0 부터)
+	 * @param pageSize
+	 * @param loader
+	 * @return 바꿀 수 없는 List
+	 */
+	public List<BookListResponseDTO> list(String title, int page, int pageSize, Supplier<List<BookListResponseDTO>> loader) {
+		if (!this.enabled) {
+			return loader.get();
+		}
+		return this.lists.load(Arrays.asList(title, page, pageSize), key -> List.copyOf(loader.get()));
+	}
+
+	/**
+	 * 입력은 목록만, 수정/삭제는 그 책과 목록의 진행 중인 읽기를 잊는다
+	 * @param event
+	 */
+	@EventListener
+	public void onBookChanged(BookChangedEvent event) {
+		if (event.getType() != BookChangedEvent.Type.INSERTED) {
+			this.reads.forget(event.getBookId());
+			this.edits.forget(event.getBookId());
+		}
+		this.lists.forgetAll();
+	}
+
+	private static <K, V> SingleFlight<K, V> register(MeterRegistry meterRegistry, SingleFlight<K, V> flight) {
+		FunctionCounter.builder("bookhub.singleflight.loads", flight, SingleFlight::getLoads)
+					   .description("loads executed").tag("name", flight.getName()).register(meterRegistry);
+		FunctionCounter.builder("bookhub.singleflight.coalesced", flight, SingleFlight::getCoalesced)
+					   .description("callers served by another caller's load").tag("name", flight.getName()).register(meterRegistry);
+		FunctionCounter.builder("bookhub.singleflight.timeouts", flight, SingleFlight::getTimeouts)
+					   .description("callers that gave up waiting").tag("name", flight.getName()).register(meterRegistry);
+		return flight;
+	}
+}
@@ -0,0 +1,235 @@
+package com.example.bookHub.book.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import com.example.bookHub.book.dto.BookListResponseDTO;
+import com.example.bookHub.book.dto.BookPriceFacetDTO;
+import com.example.bookHub.book.entity.BookRepository;
+
+/**
+ * BookPriceHistogram : 가격 구간별 책 수(히스토그램)를 메모리에 들고 있는 컴포넌트
+ *
+ * 목록 화면에 가격 구간별 책 수(facet)를 보여줄 때 요청마다 group by 쿼리로 테이블 전체를 읽지 않도록
+ * [bookId -> 가격] 과 구간별 책 수를 미리 만들어 두고 입력/수정/삭제 때마다 갱신한다.
+ *
+ * - 구간 경계는 bookhub.price.histogram.bounds (ex. 10000,30000,50000 이면 ~9999, 10000~29999, 30000~49999, 50000~)
+ * - 전체 목록의 구간별 책 수는 들고 있는 값을 그대로 돌려준다. (구간 수만큼만 읽는다)
+ * - 제목 검색의 구간별 책 수는 제목 색인(TitleSearchEngine)의 검색 결과를 돌면서 가격으로 나눈다. (DB 를 읽지 않는다)
+ *   제목 색인을 쓸 수 없으면 null 이다.
+ * - 가격이 없는(null) 책은 어느 구간에도 들어가지 않는다.
+ * - bookId -> 가격은 제목 색인으로 가격 조건을 거를 때(BookService) 도 사용한다.
+ *
+ * 히스토그램은 애플리케이션 기동 후 DB 에서 한 번 만들고, 이후에는 BookChangedEvent 를 받아서 갱신한다.
+ * (수정 이벤트에는 이전 가격이 없으므로 bookId -> 가격을 들고 있다가 이전 구간에서 뺀다)
+ * DB 에서 읽는 동안에는 잠그지 않고 새 히스토그램을 따로 만든 후, 그 사이에 온 이벤트를 반영하고 바꿔 끼운다. (TitleAutocomplete 와 같다)
+ */
+@Component
+public class BookPriceHistogram {
+
+	private static final Logger log = LoggerFactory.getLogger(BookPriceHistogram.class);
+
+	private final BookRepository bookRepository;
+	private final TitleSearchEngine titleSearchEngine;
+	private final boolean enabled;
+	private final int loadChunkSize;
+	private final int[] bounds;
+
+	// bookId -> 가격. 제목 색인의 읽기 잠금 안에서도 잠금 없이 읽을 수 있도록 ConcurrentHashMap 을 쓴다. (다시 만들면 통째로 바꾼다)
+	private volatile Map<Integer, Integer> prices = new ConcurrentHashMap<>();
+	// 구간별 책 수 (구간 i : bounds[i-1] 이상 bounds[i] 미만). prices 와 함께 this 로 동기화해서 바꾼다.
+	private long[] counts;
+	// 새 히스토그램을 만드는 동안 온 이벤트 (만들고 있지 않으면 null, this 로 동기화)
+	private List<BookChangedEvent> pendingEvents;
+	// 책마다 마지막으로 반영한 이벤트 버전 (늦게 온 이벤트를 버린다, this 로 동기화)
+	private final BookChangeVersions versions = new BookChangeVersions();
+	private volatile boolean ready = false;
+
+	public BookPriceHistogram(BookRepository bookRepository, TitleSearchEngine titleSearchEngine,
+			@Value("${bookhub.price.histogram.enabled:true}") boolean enabled,
+			@Value("${bookhub.price.histogram.load-chunk-size:10000}") int loadChunkSize,
+			@Value("${bookhub.price.histogram.bounds:10000,30000,50000}") int[] bounds) {
+		this.bookRepository = bookRepository;
+		this.titleSearchEngine = titleSearchEngine;
+		this.enabled = enabled;
+		this.loadChunkSize = loadChunkSize;
+		this.bounds = Arrays.stream(bounds).sorted().distinct().toArray();
+		this.counts = new long[this.bounds.length + 1];
+	}
+
+	/**
+	 * 히스토그램 사용 가능 여부
+	 * @return 설정이 켜져 있고, 초기 히스토그램을 다 만들었으면 true
+	 */
+	public boolean isAvailable() {
+		return this.enabled && this.ready;
+	}
+
+	/**
+	 * 애플리케이션이 다 뜬 후 DB 의 (bookId, price) 를 bookId 순으로 나눠 읽으면서 히스토그램을 만든다.
+	 * - 읽는 동안에는 잠그지 않으므로 입력/수정/삭제 요청(이벤트 갱신)이 기다리지 않는다.
+	 * - 읽는 동안 온 이벤트는 모아 두었다가 새 히스토그램에 다시 반영한다. (이미 반영된 변경을 다시 반영해도 결과는 같다)
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void rebuild() {
+		if (!this.enabled) {
+			return;
+		}
+
+		synchronized (this) {
+			if (this.pendingEvents != null) {
+				return; // 이미 만드는 중
+			}
+			this.pendingEvents = new ArrayList<>();
+		}
+
+		long started = System.currentTimeMillis();
+		Map<Integer, Integer> newPrices = new ConcurrentHashMap<>();
+		long[] newCounts = new long[this.bounds.length + 1];
+		try {
+			Integer lastBookId = 0;
+			List<BookListResponseDTO> chunk;
+			do {
+				chunk = this.bookRepository.findPricesAfter(lastBookId, PageRequest.of(0, this.loadChunkSize));
+				for (BookListResponseDTO book : chunk) {
+					this.addInternal(newPrices, newCounts, book.getBookId(), book.getPrice());
+					lastBookId = book.getBookId();
+				}
+			} while (chunk.size() == this.loadChunkSize);
+		} catch (RuntimeException ex) {
+			synchronized (this) {
+				this.pendingEvents = null;
+			}
+			throw ex;
+		}
+
+		int pending;
+		synchronized (this) {
+			pending = this.pendingEvents.size();
+			for (BookChangedEvent event : this.pendingEvents) {
+				this.apply(newPrices, newCounts, event);
+			}
+			this.pendingEvents = null;
+			this.prices = newPrices;
+			this.counts = newCounts;
+			this.ready = true;
+		}
+		log.info("price histogram built: {} books, {} buckets, {} events replayed, {} ms",
+				newPrices.size(), newCounts.length, pending, System.currentTimeMillis() - started);
+	}
+
+	/**
+	 * 책이 입력/수정/삭제 되면 이전 가격의 구간에서 빼고 새 가격의 구간에 더한다. (늦게 온 이전 버전의 이벤트는 버린다)
+	 * @param event
+	 */
+	@EventListener
+	public void onBookChanged(BookChangedEvent event) {
+		if (!this.enabled) {
+			return;
+		}
+
+		synchronized (this) {
+			if (!this.versions.accept(event)) {
+				return; // 이미 더 새 버전을 반영했다
+			}
+			this.apply(this.prices, this.counts, event);
+			if (this.pendingEvents != null) {
+				this.pendingEvents.add(event);
+			}
+		}
+	}
+
+	/**
+	 * 책 가격이 범위 안에 있는지 (잠금 없이 읽는다)
+	 * @param bookId
+	 * @param minPrice - 최소 가격 (포함, null 이면 제한 없음)
+	 * @param maxPrice - 최대 가격 (포함, null 이면 제한 없음)
+	 * @return 가격이 없는 책은 false
+	 */
+	public boolean inRange(int bookId, Integer minPrice, Integer maxPrice) {
+		Integer price = this.prices.get(bookId);
+		return price != null
+				&& (minPrice == null || price >= minPrice)
+				&& (maxPrice == null || price <= maxPrice);
+	}
+
+	/**
+	 * 가격 구간별 책 수
+	 * @param title - 제목 검색어 (비어있으면 전체)
+	 * @return 구간 순서대로. 히스토그램이나 (제목 검색이면) 제목 색인을 아직 쓸 수 없으면 null
+	 */
+	public List<BookPriceFacetDTO> facets(String title) {
+		if (!this.isAvailable()) {
+			return null;
+		}
+
+		long[] counts;
+		Map<Integer, Integer> prices = this.prices;
+		if (!StringUtils.hasText(title)) {
+			synchronized (this) {
+				counts = this.counts.clone();
+			}
+		} else if (this.titleSearchEngine.isAvailable()) {
+			// 검색 결과 수만큼 돈다 (BookCountService 의 제목 검색 건수와 같은 비용)
+			long[] titleCounts = new long[this.bounds.length + 1];
+			this.titleSearchEngine.forEach(title, bookId -> {
+				Integer price = prices.get(bookId);
+				if (price != null) {
+					titleCounts[this.bucketOf(price)]++;
+				}
+			});
+			counts = titleCounts;
+		} else {
+			return null;
+		}
+
+		List<BookPriceFacetDTO> facets = new ArrayList<>(counts.length);
+		for (int i = 0; i < counts.length; i++) {
+			Integer minPrice = i == 0 ? null : this.bounds[i - 1];
+			Integer maxPrice = i == this.bounds.length ? null : this.bounds[i] - 1;
+			facets.add(new BookPriceFacetDTO(minPrice, maxPrice, counts[i]));
+		}
+		return facets;
+	}
+
+	/**
+	 * (지금 쓰는 히스토그램이면 this 로 동기화한 상태에서 호출한다)
+	 */
+	private void apply(Map<Integer, Integer> prices, long[] counts, BookChangedEvent event) {
+		Integer previous = prices.remove(event.getBookId());
+		if (previous != null) {
+			counts[this.bucketOf(previous)]--;
+		}
+		if (event.getType() != BookChangedEvent.Type.DELETED) {
+			this.addInternal(prices, counts, event.getBookId(), event.getPrice());
+		}
+	}
+
+	private void addInternal(Map<Integer, Integer> prices, long[] counts, Integer bookId, Integer price) {
+		if (price == null) {
+			return;
+		}
+		prices.put(bookId, price);
+		counts[this.bucketOf(price)]++;
+	}
+
+	/**
+	 * 가격이 들어가는 구간 번호. 경계값과 같은 가격은 윗 구간에 들어간다.
+	 */
+	private int bucketOf(int price) {
+		int index = Arrays.binarySearch(this.bounds, price);
+		return index >= 0 ? index + 1 : -(index + 1);
+	}
+}
@@ -1,50 +1,154 @@
 package com.example.bookHub.book.service;
 
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.domain.Sort.Direction;
 import org.springframework.data.domain.Sort.Order;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
 
 import com.example.bookHub.book.dto.BookCreateDTO;
 import com.example.bookHub.book.dto.BookEditDTO;
 import com.example.bookHub.book.dto.BookEditResponseDTO;
+import com.example.bookHub.book.dto.BookListCursor;
 import com.example.bookHub.book.dto.BookListResponseDTO;
+import com.example.bookHub.book.dto.BookListSort;
+import com.example.bookHub.book.dto.BookListSliceResponseDTO;
+import com.example.bookHub.book.dto.BookMultiReadResponseDTO;
+import com.example.bookHub.book.dto.BookPriceFacetDTO;
 import com.example.bookHub.book.dto.BookReadResponseDTO;
 import com.example.bookHub.book.entity.Book;
 import com.example.bookHub.book.entity.BookRepository;
 
+import io.micrometer.core.annotation.Timed;
+
 /**
  * @Service
  * 	- 서비스 클래스는 실제 [비즈니스 로직] 흐름이 실행되는 곳.
  *  - HTTP 계층과 무관하게 여러 엔티티 혹은 다른 서비스 레이어를 이용해서 원하는 결과를 얻어내는 레이어이다.
+ * @Timed("bookhub.service")
+ *  - 메소드마다 실행시간/횟수를 메트릭으로 남긴다 (class, method 태그). MetricsConfig 의 TimedAspect 참고
  */
 @Service
 public class BookService {
 
+	/* 목록 페이지 크기 설정
+	 *  - listPageSize    : 기본 페이지 크기 (기존 한 페이지당 3개씩)
+	 *  - listMaxPageSize : size 파라미터로 요청할 수 있는 최대 페이지 크기
+	 *  - listChunkSize   : 이보다 큰 페이지는 한 번에 읽지 않고 이 크기씩 나눠 읽으면서 화면을 그린다 (BookListChunks)
+	 */
+	private int listPageSize;
+	private int listMaxPageSize;
+	private int listChunkSize;
+
 	/* BookRepository
 	 * 	- DB 와 통신하기 위해 repository 선언
 	 * 	- 합성(Composition) : 클래스 안에서 다른 클래스의 인스턴스를 가지고 있는 것
 	 *  - 해당 객체(BookRepository)를 인스턴스화 하지 않아도 빈으로 등록된 객체는 스프링 프레임워크가 직접 인스턴스화 한다.
 	 */
 	private BookRepository bookRepository;
+	
+	/* TitleSearchEngine
+	 *  - 제목 검색용 메모리 색인. like '%title%' 쿼리 대신 사용한다.
+	 * ApplicationEventPublisher
+	 *  - 책 정보가 바뀌었음을 알리는 이벤트(BookChangedEvent) 발행용. 색인 갱신 등은 이벤트를 받는 쪽에서 처리한다.
+	 */
+	private TitleSearchEngine titleSearchEngine;
+	private ApplicationEventPublisher eventPublisher;
+	
+	/* BookDetailCache
+	 *  - 읽기/수정화면 응답 DTO 캐시. 캐시에 있으면 DB 를 읽지 않는다.
+	 */
+	private BookDetailCache bookDetailCache;
+	
+	/* BookCountService
+	 *  - 목록 전체 건수(대략값). 목록 요청마다 count 쿼리를 실행하지 않는다.
+	 */
+	private BookCountService bookCountService;
+	
+	/* BookInsertQueue
+	 *  - 그룹 커밋 모드(bookhub.insert.group-commit.enabled=true) 에서 동시에 들어온 입력을 한 트랜잭션으로 묶는다.
+	 */
+	private BookInsertQueue bookInsertQueue;
+	
+	/* BookPriceHistogram
+	 *  - 가격 구간별 책 수(facet). 목록 요청마다 group by 쿼리를 실행하지 않는다.
+	 *  - 제목 색인 검색 결과를 가격 조건으로 거를 때도 사용한다.
+	 */
+	private BookPriceHistogram bookPriceHistogram;
+	
+	/* BookLoadCoalescer
+	 *  - 같은 책 / 같은 목록 페이지를 동시에 읽는 요청을 DB 읽기 한 번으로 합친다. (캐시에 없을 때 몰리는 요청)
+	 */
+	private BookLoadCoalescer bookLoadCoalescer;
+	
+	/* readOnlyTransactionTemplate
+	 *  - DB 를 읽는 부분(읽기, 수정화면, 목록, 검색)을 읽기 전용 트랜잭션 하나로 묶는다.
+	 *  - 읽기 전용 트랜잭션은 하이버네이트 flush 모드가 MANUAL 이고 엔티티를 읽기 전용으로 읽으므로 
+	 *    커밋할 때 flush, 변경 감지(dirty check)를 하지 않고 변경 감지용 스냅샷도 만들지 않는다.
+	 *  - 복제본(replica)을 설정하면 복제본에서 읽는다. (DataSourceRoutingConfig)
+	 *  - 캐시에 있거나 다른 요청의 읽기를 기다리는 요청은 트랜잭션을 시작하지 않도록 메소드 전체가 아닌 DB 읽기 부분만 감싼다.
+	 */
+	private TransactionTemplate readOnlyTransactionTemplate;
+	
+	/* 여러 권 읽기(readAll) 설정
+	 *  - multiReadMaxIds   : 한 번에 요청할 수 있는 최대 bookId 수
+	 *  - multiReadChunkSize : in 쿼리 하나에 넣는 최대 bookId 수 (DB 마다 in 목록 길이 제한이 있다. ex) 오라클 1000)
+	 */
+	private int multiReadMaxIds;
+	private int multiReadChunkSize;
 
 	/* 
 	 * BookService '생성자'
 	 * 	- 생성자 의존성 주입 : 생성자를 통해서 외부 자원을 주입하는 방식
 	 */
-	public BookService(BookRepository bookRepository) {
+	public BookService(BookRepository bookRepository, TitleSearchEngine titleSearchEngine,
+			ApplicationEventPublisher eventPublisher, BookDetailCache bookDetailCache, BookCountService bookCountService,
+			BookInsertQueue bookInsertQueue, BookPriceHistogram bookPriceHistogram, BookLoadCoalescer bookLoadCoalescer,
+			PlatformTransactionManager transactionManager,
+			@Value("${bookhub.multi-read.max-ids:1000}") int multiReadMaxIds,
+			@Value("${bookhub.multi-read.chunk-size:500}") int multiReadChunkSize,
+			@Value("${bookhub.list.page-size:3}") int listPageSize,
+			@Value("${bookhub.list.max-page-size:10000}") int listMaxPageSize,
+			@Value("${bookhub.list.chunk-size:500}") int listChunkSize) {
 		this.bookRepository = bookRepository;
+		this.titleSearchEngine = titleSearchEngine;
+		this.eventPublisher = eventPublisher;
+		this.bookDetailCache = bookDetailCache;
+		this.bookCountService = bookCountService;
+		this.bookInsertQueue = bookInsertQueue;
+		this.bookPriceHistogram = bookPriceHistogram;
+		this.bookLoadCoalescer = bookLoadCoalescer;
+		this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+		this.readOnlyTransactionTemplate.setReadOnly(true);
+		this.multiReadMaxIds = multiReadMaxIds;
+		this.multiReadChunkSize = multiReadChunkSize;
+		this.listPageSize = listPageSize;
+		this.listMaxPageSize = listMaxPageSize;
+		this.listChunkSize = listChunkSize;
 	}
 	
 	/*
 	 * 책 생성을 위한 객체 BookCreateDTO 를 매개변수로 받는 메소드
 	 */
+	@Timed("bookhub.service")
 	public Integer insert(BookCreateDTO bookCreateDTO) {
 		
 		// 기존에 사용하던 보일러플레이트 코드
@@ -58,7 +162,12 @@ public class BookService {
 					.price(bookCreateDTO.getPrice())
 					.build();                        // 3. 빌더 객체에서 실제 객체(Book 객체)를 만든다		
 
-		this.bookRepository.save(book); // DB에 저장
+		if (this.bookInsertQueue.isEnabled()) {
+			this.bookInsertQueue.insert(book); // 다른 요청의 입력과 함께 한 트랜잭션으로 저장하고, 커밋될 때까지 기다린다
+		} else {
+			this.bookRepository.save(book); // DB에 저장
+		}
+		this.eventPublisher.publishEvent(BookChangedEvent.inserted(book.getBookId(), book.getTitle(), book.getPrice()));
 		
 		return book.getBookId(); // PK 값을 반환하여 바로 보기 화면으로 이동한다
 	}
@@ -69,19 +178,64 @@ public class BookService {
 	 * @return
 	 * @throws NoSuchElementException //orElseThrow 가 던지는 예외
 	 */
+	@Timed("bookhub.service")
 	public BookReadResponseDTO read(Integer bookId) throws NoSuchElementException {
 		
-		// bookRepository - JpaRepository 인터페이스 (CRUD Repository 정의되어 있음)
-		// findById 메소드는 Optional<Book> 객체를 반환.
-		// Optional 객체는 값이 없으면 Optional 객체를 반환하므로 필요시에만 null체크를 할 수 있다.
-		// orElseThrow - 내부값이 null 이면 예외(NoSuchElementException)를 던진다.
-		Book book = this.bookRepository.findById(bookId).orElseThrow();
+		// 캐시에 있으면 그대로 돌려주고, 없으면 DB 에서 읽어서 캐시에 넣는다
+		// (캐시에 없는 같은 bookId 요청이 동시에 몰리면 findById 는 한 번만 실행하고 결과를 같이 받는다)
+		return this.bookDetailCache.read(bookId, missedBookId -> this.bookLoadCoalescer.read(missedBookId, id -> this.readOnly(() -> {
+			// bookRepository - JpaRepository 인터페이스 (CRUD Repository 정의되어 있음)
+			// findById 메소드는 Optional<Book> 객체를 반환.
+			// Optional 객체는 값이 없으면 Optional 객체를 반환하므로 필요시에만 null체크를 할 수 있다.
+			// orElseThrow - 내부값이 null 이면 예외(NoSuchElementException)를 던진다.
+			Book book = this.bookRepository.findById(id).orElseThrow();
+			
+			// 책 응답 DTO
+			BookReadResponseDTO bookReadResponseDTO = new BookReadResponseDTO();
+			bookReadResponseDTO.fromBook(book);
+			return bookReadResponseDTO; // 응답을 반환하는 BookFactory() 메소드 결과 리턴
+		})));
+		
+	}
+	
+	/**
+	 * 여러 권 읽기 메소드 (multi-get)
+	 * - read 를 bookId 수만큼 호출하면 findById 쿼리도 그만큼 실행된다.
+	 *   중복을 뺀 bookId 를 multiReadChunkSize 개씩 나눠서 in 쿼리(findAllById) 로 읽는다.
+	 * - 결과는 요청한 bookId 순서대로 돌려주고, 없는 책은 예외 대신 missing 항목으로 표시한다.
+	 * @param bookIds
+	 * @return
+	 * @throws IllegalArgumentException - bookId 가 multiReadMaxIds 개보다 많거나 null 이 있는 경우
+	 */
+	@Timed("bookhub.service")
+	public List<BookMultiReadResponseDTO> readAll(List<Integer> bookIds) throws IllegalArgumentException {
+		if (bookIds.size() > this.multiReadMaxIds) {
+			throw new IllegalArgumentException("too many bookIds : " + bookIds.size() + " > " + this.multiReadMaxIds);
+		}
+		if (bookIds.contains(null)) {
+			throw new IllegalArgumentException("bookIds contains null");
+		}
 		
-		// 책 응답 DTO
-		BookReadResponseDTO bookReadResponseDTO = new BookReadResponseDTO();
-		bookReadResponseDTO.fromBook(book);
-		return bookReadResponseDTO; // 응답을 반환하는 BookFactory() 메소드 결과 리턴
+		List<Integer> distinctIds = bookIds.stream().distinct().collect(Collectors.toList());
+		Map<Integer, BookReadResponseDTO> booksById = new HashMap<>(distinctIds.size() * 2);
+		if (!distinctIds.isEmpty()) {
+			// 나눠 읽는 in 쿼리들을 한 트랜잭션(커넥션 하나)에서 실행한다
+			this.readOnly(() -> {
+				for (int from = 0; from < distinctIds.size(); from += this.multiReadChunkSize) {
+					List<Integer> chunk = distinctIds.subList(from, Math.min(from + this.multiReadChunkSize, distinctIds.size()));
+					for (Book book : this.bookRepository.findAllById(chunk)) {
+						booksById.put(book.getBookId(), BookReadResponseDTO.BookFactory(book));
+					}
+				}
+				return booksById;
+			});
+		}
 		
+		return bookIds.stream()
+					  .map(bookId -> booksById.containsKey(bookId) 
+							  ? BookMultiReadResponseDTO.found(booksById.get(bookId)) 
+							  : BookMultiReadResponseDTO.missing(bookId))
+					  .collect(Collectors.toList());
 	}
 	
 	/**
@@ -90,27 +244,32 @@ public class BookService {
 	 * @return
 	 * @throws NoSuchElementException
 	 */
+	@Timed("bookhub.service")
 	public BookEditResponseDTO edit(Integer bookId) throws NoSuchElementException {
 		
-		Book book = this.bookRepository.findById(bookId).orElseThrow();
-		
-		/*
-		BookEditResponseDTO bookEditResponseDTO = new BookEditResponseDTO();
-		bookEditResponseDTO.fromBook(book);
-		return BookEditResponseDTO.BookFactory(book);
-		위 방식을 아래 코드 하나로 해결
-		*/
-		
-		return BookEditResponseDTO.BookFactory(book);
+		return this.bookDetailCache.edit(bookId, missedBookId -> this.bookLoadCoalescer.edit(missedBookId, id -> this.readOnly(() -> {
+			Book book = this.bookRepository.findById(id).orElseThrow();
+			
+			/*
+			BookEditResponseDTO bookEditResponseDTO = new BookEditResponseDTO();
+			bookEditResponseDTO.fromBook(book);
+			return BookEditResponseDTO.BookFactory(book);
+			위 방식을 아래 코드 하나로 해결
+			*/
+			
+			return BookEditResponseDTO.BookFactory(book);
+		})));
 	}
 	
 	/**
 	 * 수정 기능 메소드
 	 * @param bookEditDTO
-	 * @throws NoSuchElementException
+	 * @throws OptimisticLockingFailureException - 책이 없거나, 수정화면을 연 후 다른 사람이 먼저 수정/삭제한 경우
 	 */
-	public void update(BookEditDTO bookEditDTO) throws NoSuchElementException {
+	@Timed("bookhub.service")
+	public void update(BookEditDTO bookEditDTO) throws OptimisticLockingFailureException {
 		
+		/* 기존 방식 : select 한 번, update 한 번 (두 쿼리 사이에 다른 사람의 수정이 끼어들 수 있다)
 		// 1. 데이터베이스에 저장된 책 정보 가져오기
 		Book book = this.bookRepository.findById(bookEditDTO.getBookId()).orElseThrow();
 		
@@ -121,18 +280,34 @@ public class BookService {
 		// 3. 실제 데이터를 데이터베이스에 저장
 		// cf. JPA 에서는 입력/수정 전부 save 메소드(pk 값 있으면 update, 없으면 insert)
 		this.bookRepository.save(book);
+		*/
+		
+		// bookId 와 수정화면에서 읽었던 version 이 모두 같은 행만 update 한다 (쿼리 한 번)
+		int updated = this.bookRepository.updateIfVersion(bookEditDTO.getBookId(), bookEditDTO.getVersion(),
+														  bookEditDTO.getTitle(), bookEditDTO.getPrice(), LocalDateTime.now());
+		if (updated == 0) {
+			throw new OptimisticLockingFailureException("book not found or modified : " + bookEditDTO.getBookId());
+		}
+		this.eventPublisher.publishEvent(BookChangedEvent.updated(bookEditDTO.getBookId(), bookEditDTO.getVersion(),
+																bookEditDTO.getTitle(), bookEditDTO.getPrice()));
 	
 	}
 
 	/**
 	 * 삭제 기능 메소드
 	 * @param bookId
-	 * @throws NoSuchElementException
+	 * @param version - 상세화면에서 읽은 책의 버전
+	 * @throws OptimisticLockingFailureException - 책이 없거나, 상세화면을 연 후 다른 사람이 먼저 수정/삭제한 경우
 	 */
-	public void delete(Integer bookId) throws NoSuchElementException {
+	@Timed("bookhub.service")
+	public void delete(Integer bookId, Integer version) throws OptimisticLockingFailureException {
 		
-		Book book = this.bookRepository.findById(bookId).orElseThrow();
-		this.bookRepository.delete(book); // JPA 에서 삭제는 delete
+		// findById 후 delete 하지 않고 delete 쿼리 한 번으로 삭제한다
+		int deleted = this.bookRepository.deleteIfVersion(bookId, version);
+		if (deleted == 0) {
+			throw new OptimisticLockingFailureException("book not found or modified : " + bookId);
+		}
+		this.eventPublisher.publishEvent(BookChangedEvent.deleted(bookId, version));
 	
 	}
 
@@ -142,22 +317,188 @@ public class BookService {
 	 * @param page  - 현재 페이지
 	 * @return
 	 */
+	@Timed("bookhub.service")
 	public List<BookListResponseDTO> bookList(String title, Integer page) {
+		return this.coalescedPage(title, toPageIndex(page), this.listPageSize);
+	}
+	
+	/**
+	 * 책 목록 메소드 - 페이지 크기 지정 (관리자 화면 등 큰 페이지)
+	 * - size 가 없으면 기본 페이지 크기, listMaxPageSize 보다 크면 listMaxPageSize 로 줄인다.
+	 * - listChunkSize 이하면 bookList(title, page) 와 같이 한 번에 읽은 List 를 돌려준다.
+	 * - 더 크면 목록을 미리 읽지 않고, 화면이 그려지면서 listChunkSize 씩 읽는 Iterable 을 돌려준다.
+	 *   첫 묶음 앞(offset - 1 번째) 행 하나만 OFFSET 으로 찾고, 그 다음부터는 직전 묶음의 마지막 행 뒤를 커서(keyset)로 읽는다.
+	 * @param title - 제목 검색
+	 * @param page  - 현재 페이지
+	 * @param size  - 페이지 크기
+	 * @return 한 번만 순회할 수 있는 목록 (화면을 그릴 때 DB 를 읽을 수 있다)
+	 */
+	@Timed("bookhub.service")
+	public Iterable<BookListResponseDTO> bookList(String title, Integer page, Integer size) {
 		
-		final int pageSize = 3; // 한 페이지당 3개씩
+		int pageSize = this.pageSize(size);
+		int pageIndex = toPageIndex(page);
+		if (pageSize <= this.listChunkSize) {
+			return this.coalescedPage(title, pageIndex, pageSize);
+		}
 		
-		List<Book> books;
+		long offset = (long) pageIndex * pageSize;
 		
+		if (StringUtils.hasText(title) && this.titleSearchEngine.isAvailable()) {
+			// 색인에서 페이지의 bookId 만 먼저 골라내고(정수 목록), 책 정보는 묶음마다 in 쿼리로 읽는다
+			// (그 사이에 삭제된 책은 빠진다)
+			List<Integer> bookIds = this.titleSearchEngine.search(title, Math.toIntExact(offset), pageSize);
+			return BookListChunks.ofIds(bookIds, this.listChunkSize, chunk -> this.readOnly(() -> this.findAllInOrder(chunk)));
+		}
+		
+		// 묶음마다 읽기 전용 트랜잭션 하나 (첫 묶음은 커서를 찾는 쿼리와 첫 묶음 쿼리를 같이 실행한다)
+		// 정렬 : 입력일 내림차순, 입력일이 같으면 bookId 내림차순 (커서로 이어 읽으려면 순서가 하나로 정해져야 한다)
+		//        제목 검색은 제목 색인과 같은 bookId 내림차순 (BookRepository 의 커서 페이징 메소드 참고)
+		boolean filtered = StringUtils.hasText(title);
+		Sort sort = filtered ? Sort.by(Order.desc("bookId")) : Sort.by(Order.desc("insertDateTime"), Order.desc("bookId"));
+		return new BookListChunks(pageSize, this.listChunkSize, (cursor, position, chunkSize) -> this.readOnly(() -> {
+			BookListResponseDTO last = cursor;
+			Pageable chunk = PageRequest.of(0, chunkSize, sort);
+			if (last == null && offset > 0) {
+				// 첫 묶음 : 앞 페이지의 마지막 행(offset - 1 번째)을 찾아서 커서로 사용한다
+				Pageable anchor = PageRequest.of(Math.toIntExact(offset - 1), 1, sort);
+				List<BookListResponseDTO> anchors = filtered 
+						? this.bookRepository.findListByTitleContains(title, anchor)
+						: this.bookRepository.findListBy(anchor);
+				if (anchors.isEmpty()) {
+					return Collections.emptyList();
+				}
+				last = anchors.get(0);
+			}
+			if (last == null) {
+				return filtered 
+						? this.bookRepository.findListByTitleContains(title, chunk)
+						: this.bookRepository.findListBy(chunk);
+			}
+			return filtered
+					? this.bookRepository.findSliceByTitleContainsAfter(title, last.getBookId(), chunk).getContent()
+					: this.bookRepository.findSliceAfter(last.getInsertDateTime(), last.getBookId(), chunk).getContent();
+		}));
+	}
+	
+	/**
+	 * 책 목록 메소드 - 가격 조건, 정렬 지정
+	 * - 가격 조건이 없고 최근 입력순이면 bookList(title, page, size) 와 같다.
+	 * - 가격 조건은 양 끝을 포함한다. 가격 조건이 있거나 가격순이면 가격이 없는 책은 제외된다.
+	 * - 제목 검색 + 최근 입력순은 제목 색인 결과를 가격 히스토그램의 가격으로 거른다. (DB 는 해당 페이지의 in 쿼리만 읽는다)
+	 *   그 외에는 가격 조건 쿼리(findListByPriceBetween 등)를 실행한다.
+	 * - 가격 조건/가격순 목록은 나눠 읽지 않으므로 페이지 크기는 listChunkSize 를 넘지 않는다.
+	 * @param title    - 제목 검색
+	 * @param minPrice - 최소 가격 (null 이면 제한 없음)
+	 * @param maxPrice - 최대 가격 (null 이면 제한 없음)
+	 * @param sort     - 정렬 (BookListSort.from 참고)
+	 * @param page     - 현재 페이지
+	 * @param size     - 페이지 크기
+	 * @return
+	 * @throws IllegalArgumentException - 지원하지 않는 정렬
+	 */
+	@Timed("bookhub.service")
+	public Iterable<BookListResponseDTO> bookList(String title, Integer minPrice, Integer maxPrice, String sort,
+			Integer page, Integer size) throws IllegalArgumentException {
+		
+		BookListSort listSort = BookListSort.from(sort);
+		if (minPrice == null && maxPrice == null && !listSort.isPrice()) {
+			return this.bookList(title, page, size);
+		}
+		
+		int pageSize = Math.min(this.pageSize(size), this.listChunkSize);
+		int pageIndex = toPageIndex(page);
+		
+		if (StringUtils.hasText(title) && !listSort.isPrice() 
+				&& this.titleSearchEngine.isAvailable() && this.bookPriceHistogram.isAvailable()) {
+			List<Integer> bookIds = this.titleSearchEngine.search(title, 
+					bookId -> this.bookPriceHistogram.inRange(bookId, minPrice, maxPrice), pageIndex * pageSize, pageSize);
+			return this.readOnly(() -> this.findAllInOrder(bookIds));
+		}
+		
+		Pageable pageable = PageRequest.of(pageIndex, pageSize, listSort.getSort());
+		int from = minPrice == null ? Integer.MIN_VALUE : minPrice;
+		int to = maxPrice == null ? Integer.MAX_VALUE : maxPrice;
+		return this.readOnly(() -> StringUtils.hasText(title)
+				? this.bookRepository.findListByTitleContainsAndPriceBetween(title, from, to, pageable)
+				: this.bookRepository.findListByPriceBetween(from, to, pageable));
+	}
+	
+	/**
+	 * 목록의 가격 구간별 책 수
+	 * - 가격 조건과 상관없이 제목 검색 결과 전체를 구간별로 센다. (다른 가격 구간으로 옮겨갈 링크를 만든다)
+	 * @param title - 제목 검색
+	 * @return 아직 모르면 null
+	 */
+	@Timed("bookhub.service")
+	public List<BookPriceFacetDTO> bookListPriceFacets(String title) {
+		return this.bookPriceHistogram.facets(title);
+	}
+	
+	/**
+	 * 목록 전체 페이지 수 (대략값)
+	 * - BookCountService 가 들고 있는 건수로 계산하므로 count 쿼리를 기다리지 않는다.
+	 * @param title - 제목 검색
+	 * @param size  - 페이지 크기
+	 * @return 건수를 아직 모르면 null
+	 */
+	@Timed("bookhub.service")
+	public Long bookListTotalPages(String title, Integer size) {
+		Long count = this.bookCountService.count(title);
+		if (count == null) {
+			return null;
+		}
+		int pageSize = this.pageSize(size);
+		return (count + pageSize - 1) / pageSize;
+	}
+	
+	/**
+	 * 요청한 페이지 크기 (없으면 기본값, 1 ~ listMaxPageSize)
+	 * @param size
+	 * @return
+	 */
+	private int pageSize(Integer size) {
+		return size == null ? this.listPageSize : Math.max(1, Math.min(size, this.listMaxPageSize));
+	}
+	
+	/**
+	 * 클라이언트가 보낸 페이지 번호(1 부터)를 JPA 페이지 번호(0 부터)로 바꾼다
+	 * @param page
+	 * @return
+	 */
+	private static int toPageIndex(Integer page) {
 		// page 객체를  null 을 허용하는 Integer 타입으로 선언 후, 변수가 null 이라면 기본값을 0 으로 지정해준다.
 		// ㄴ 자바는 매개변수 기본값 기능이 없으므로
 		if (page == null) {
-			page = 0;
-		} else {
-			//JPA에서 페이지는 0번부터 시작한다. 이용자의 편의를 위해 1페이지부터 시작하도록 설정할 것이므로 
-			//클라이언트가 보낸 page 값에서 -1
-			page -= 1; 
+			return 0;
 		}
+		//JPA에서 페이지는 0번부터 시작한다. 이용자의 편의를 위해 1페이지부터 시작하도록 설정할 것이므로 
+		//클라이언트가 보낸 page 값에서 -1
+		return page - 1; 
+	}
+	
+	/**
+	 * 한 페이지를 한 번에 읽는다 - 같은 (제목, 페이지, 크기) 를 동시에 읽는 요청은 한 번만 읽고 결과를 같이 받는다
+	 * @param title
+	 * @param page     - JPA 페이지 번호 (0 부터)
+	 * @param pageSize
+	 * @return 바꿀 수 없는 List
+	 */
+	private List<BookListResponseDTO> coalescedPage(String title, int page, int pageSize) {
+		return this.bookLoadCoalescer.list(title, page, pageSize, () -> this.readOnly(() -> this.findPage(title, page, pageSize)));
+	}
+	
+	/**
+	 * 한 페이지를 한 번에 읽는다
+	 * @param title
+	 * @param page     - JPA 페이지 번호 (0 부터)
+	 * @param pageSize
+	 * @return
+	 */
+	private List<BookListResponseDTO> findPage(String title, int page, int pageSize) {
 		
+		// 엔티티(Book) 대신 목록에 필요한 컬럼만 DTO 로 바로 받는다 (BookRepository 의 LIST_SELECT 참고)
+		List<BookListResponseDTO> books;
 		
 		if (title == null) {
 			// PageRequest.of( page, size, direction, properties) 
@@ -165,25 +506,143 @@ public class BookService {
 			// direction - 정렬방향
 			// properties - 정렬기준
 			Pageable pageable = PageRequest.of(page, pageSize, Direction.DESC, "insertDateTime");
-			books = this.bookRepository.findAll(pageable).toList();
+			books = this.bookRepository.findListBy(pageable);
+			
+		} else if (StringUtils.hasText(title) && this.titleSearchEngine.isAvailable()) {
+			// 검색조건(제목)이 있고 제목 색인이 준비된 경우 
+			// - 색인에서 해당 페이지의 bookId 만 골라낸 후, 그 bookId 의 책만 DB 에서 가져온다 (where book_id in (...))
+			List<Integer> bookIds = this.titleSearchEngine.search(title, page * pageSize, pageSize);
+			books = this.findAllInOrder(bookIds);
 			
 		} else {
 			// 검색조건(제목)이 있는 경우 - 제목으로 검색 후 그 결과에 페이징 정보 적용해야함.
+			// (제목 색인을 끈 경우 bookhub.search.title-index.enabled=false 에도 이 쿼리를 사용한다)
 			
 			// 페이징 과 sort 를 나누는 방법 에시 (정렬순서가 혼재되어있을 때 유용)
 			Pageable pageable = PageRequest.of(page, pageSize); // pageable 에 페이징 정보만 담는다
 			Sort sort = Sort.by(Order.desc("insertDateTime")); // sort 객체를 이용해서 정렬 정보 지정
 			pageable.getSort().and(sort); 
 			
-			// 제목으로 검색(findByTitleContains) 
-			books = this.bookRepository.findByTitleContains(title, pageable);
+			// 제목으로 검색(like '%title%', 제목 색인과 같이 대소문자 구분 없음) 
+			books = this.bookRepository.findListByTitleContains(title, pageable);
 		}
 		
-		// 생성자를 이용해서 응답객체를 만들어 낸다
-		return books.stream()
-				    .map(book -> new BookListResponseDTO(book.getBookId(), book.getTitle()))
-				    .collect(Collectors.toList());
+		return books;
 
 	}
+	
+	/**
+	 * 책 목록 메소드 - 커서(keyset) 페이징
+	 * 
+	 * OFFSET 페이징(bookList) 과 달리 
+	 * - 앞 페이지의 행을 읽고 버리지 않고 커서 위치부터 바로 읽는다.
+	 * - 전체 건수(count) 쿼리를 실행하지 않는다.
+	 * 
+	 * @param title  - 제목 검색 (null 이면 전체 목록)
+	 * @param cursor - 직전 페이지에서 받은 커서 (null 이거나 빈 문자열이면 첫 페이지)
+	 * @return
+	 * @throws IllegalArgumentException - 형식이 잘못된 커서
+	 */
+	@Timed("bookhub.service")
+	public BookListSliceResponseDTO bookSlice(String title, String cursor) throws IllegalArgumentException {
+		return this.bookSlice(title, cursor, this.listPageSize);
+	}
+	
+	/**
+	 * 책 목록 메소드 - 커서(keyset) 페이징, 페이지 크기 지정
+	 * - JSON API 에서 목록을 size 건씩 나눠 읽으면서 스트리밍할 때 사용한다. 
+	 * @param title
+	 * @param cursor
+	 * @param size   - 한 번에 읽을 책 수
+	 * @return
+	 * @throws IllegalArgumentException - 형식이 잘못된 커서
+	 */
+	@Timed("bookhub.service")
+	public BookListSliceResponseDTO bookSlice(String title, String cursor, int size) throws IllegalArgumentException {
+		
+		BookListCursor after = StringUtils.hasText(cursor) ? BookListCursor.decode(cursor) : null;
+		return this.readOnly(() -> this.findSlice(title, after, size));
+	}
+	
+	/**
+	 * 커서 다음 size 건을 읽는다
+	 * @param title
+	 * @param after - 커서 (null 이면 첫 페이지)
+	 * @param size
+	 * @return
+	 */
+	private BookListSliceResponseDTO findSlice(String title, BookListCursor after, int size) {
+		
+		// 정렬 : 입력일 내림차순, 입력일이 같으면 bookId 내림차순 (순서가 항상 하나로 정해지도록)
+		//        제목 검색은 색인을 쓰든 like 쿼리를 쓰든 bookId 내림차순 하나로 정렬하고 커서의 bookId 로 seek 한다.
+		//        (색인이 준비되기 전에 받은 커서로 색인을 이어 읽어도 건너뛰거나 겹치는 책이 없다)
+		Pageable pageable = StringUtils.hasText(title)
+				? PageRequest.of(0, size, Sort.by(Order.desc("bookId")))
+				: PageRequest.of(0, size, Sort.by(Order.desc("insertDateTime"), Order.desc("bookId")));
+		
+		List<BookListResponseDTO> books;
+		boolean hasNext;
+		
+		if (StringUtils.hasText(title) && this.titleSearchEngine.isAvailable()) {
+			// 제목 색인은 bookId 내림차순(= 입력순)으로 정렬되어 있으므로 커서의 bookId 로 seek 한다.
+			// 한 건 더 가져와서 다음 페이지 여부를 판단한다.
+			List<Integer> bookIds = after == null 
+					? this.titleSearchEngine.search(title, 0, size + 1)
+					: this.titleSearchEngine.searchBefore(title, after.getBookId(), size + 1);
+			hasNext = bookIds.size() > size;
+			books = this.findAllInOrder(hasNext ? bookIds.subList(0, size) : bookIds);
+			
+		} else {
+			Slice<BookListResponseDTO> slice;
+			if (!StringUtils.hasText(title)) { // 빈 검색어는 전체 목록과 같다
+				slice = after == null 
+						? this.bookRepository.findSliceBy(pageable)
+						: this.bookRepository.findSliceAfter(after.getInsertDateTime(), after.getBookId(), pageable);
+			} else {
+				slice = after == null 
+						? this.bookRepository.findSliceByTitleContains(title, pageable)
+						: this.bookRepository.findSliceByTitleContainsAfter(title, after.getBookId(), pageable);
+			}
+			hasNext = slice.hasNext();
+			books = slice.getContent();
+		}
+		
+		// 다음 페이지가 있으면 현재 페이지 마지막 책이 다음 커서가 된다
+		String nextCursor = null;
+		if (hasNext && !books.isEmpty()) {
+			BookListResponseDTO last = books.get(books.size() - 1);
+			nextCursor = new BookListCursor(last.getInsertDateTime(), last.getBookId()).encode();
+		}
+		
+		return new BookListSliceResponseDTO(books, nextCursor);
+	}
+	
+	/**
+	 * bookId 목록의 책을 한 번의 in 쿼리로 가져와서 bookId 목록 순서대로 돌려준다
+	 * - in 조건은 순서를 보장하지 않으므로 제목 색인 결과(최근 입력순) 순서대로 다시 맞춘다
+	 * @param bookIds
+	 * @return
+	 */
+	private List<BookListResponseDTO> findAllInOrder(List<Integer> bookIds) {
+		if (bookIds.isEmpty()) {
+			return Collections.emptyList(); // in () 쿼리를 실행하지 않도록
+		}
+		Map<Integer, BookListResponseDTO> booksById = this.bookRepository.findListByBookIdIn(bookIds)
+												.stream()
+												.collect(Collectors.toMap(BookListResponseDTO::getBookId, Function.identity()));
+		return bookIds.stream()
+					  .map(booksById::get)
+					  .filter(book -> book != null) // 색인 갱신 전에 삭제된 책은 제외
+					  .collect(Collectors.toList());
+	}
+	
+	/**
+	 * 읽기 전용 트랜잭션 안에서 읽는다 (readOnlyTransactionTemplate 참고)
+	 * - reader 가 던진 RuntimeException(NoSuchElementException 등)은 그대로 던진다.
+	 * @param reader
+	 * @return
+	 */
+	private <T> T readOnly(Supplier<T> reader) {
+		return this.readOnlyTransactionTemplate.execute(status -> reader.get());
+	}
 }
-
@@ -0,0 +1,133 @@
+package com.example.bookHub.book.service;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import com.example.bookHub.book.dto.BookCreateDTO;
+import com.example.bookHub.book.dto.BookEditDTO;
+import com.example.bookHub.book.dto.BookListCursor;
+import com.example.bookHub.book.dto.BookListResponseDTO;
+import com.example.bookHub.book.dto.BookListSliceResponseDTO;
+import com.example.bookHub.book.dto.BookMultiReadResponseDTO;
+import com.example.bookHub.book.dto.BookReadResponseDTO;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * ReactiveBookService : JSON API(/api/books) 용 논블로킹 서비스
+ *
+ * JPA(JDBC) 는 블로킹 API 이므로 요청 스레드(톰캣)에서 바로 호출하지 않고,
+ * 크기가 정해진 전용 스케줄러(bounded bridge)에서 BookService 를 호출한 결과를 Mono/Flux 로 돌려준다.
+ * - 요청 스레드는 DB 를 기다리지 않고 바로 반환되므로 톰캣 스레드 수보다 많은 요청을 동시에 받을 수 있다.
+ * - 실제로 DB 를 쓰는 스레드는 threads 개로 제한된다. (커넥션 풀 크기에 맞춘다)
+ *   기다리는 작업이 queue-size 를 넘으면 RejectedExecutionException 으로 바로 실패한다.
+ * - 검색 색인, 캐시, 변경 이벤트는 BookService 를 그대로 거치므로 화면(MVC) 과 똑같이 동작한다.
+ */
+@Service
+public class ReactiveBookService {
+
+	private final BookService bookService;
+	private final Scheduler scheduler;
+	private final int streamChunkSize;
+	private final int maxListLimit;
+
+	public ReactiveBookService(BookService bookService,
+			@Value("${bookhub.api.threads:10}") int threads,
+			@Value("${bookhub.api.queue-size:10000}") int queueSize,
+			@Value("${bookhub.api.stream-chunk-size:100}") int streamChunkSize,
+			@Value("${bookhub.api.max-list-limit:1000}") int maxListLimit) {
+		this.bookService = bookService;
+		this.scheduler = Schedulers.newBoundedElastic(threads, queueSize, "book-api");
+		this.streamChunkSize = streamChunkSize;
+		this.maxListLimit = maxListLimit;
+	}
+
+	public Mono<BookReadResponseDTO> read(Integer bookId) {
+		return this.call(() -> this.bookService.read(bookId));
+	}
+
+	/**
+	 * 여러 권 읽기 (요청 순서대로, 없는 책은 missing 항목)
+	 * @param bookIds
+	 * @return
+	 */
+	public Mono<List<BookMultiReadResponseDTO>> readAll(List<Integer> bookIds) {
+		return this.call(() -> this.bookService.readAll(bookIds));
+	}
+
+	/**
+	 * 입력 후 입력된 책을 돌려준다
+	 * @param bookCreateDTO
+	 * @return
+	 */
+	public Mono<BookReadResponseDTO> insert(BookCreateDTO bookCreateDTO) {
+		return this.call(() -> this.bookService.read(this.bookService.insert(bookCreateDTO)));
+	}
+
+	/**
+	 * 수정 후 수정된 책을 돌려준다
+	 * @param bookEditDTO
+	 * @return
+	 */
+	public Mono<BookReadResponseDTO> update(BookEditDTO bookEditDTO) {
+		return this.call(() -> {
+			this.bookService.update(bookEditDTO);
+			return this.bookService.read(bookEditDTO.getBookId());
+		});
+	}
+
+	public Mono<Void> delete(Integer bookId, Integer version) {
+		return this.call(() -> {
+			this.bookService.delete(bookId, version);
+			return null;
+		}).then();
+	}
+
+	/**
+	 * 책 목록 스트림 (최근 입력순)
+	 * - 커서 페이징으로 streamChunkSize 건씩 읽는다.
+	 * - 다음 묶음은 구독자가 앞의 묶음을 거의 다 받아간 후에 읽는다. (expand 는 요청(request) 된 만큼만 진행한다)
+	 *   클라이언트가 느리거나 연결을 끊으면 더 이상 DB 를 읽지 않는다.
+	 * @param title  - 제목 검색 (없으면 전체 목록)
+	 * @param cursor - 이어서 읽을 커서 (없으면 처음부터)
+	 * @param limit  - 최대 건수 (없으면 끝까지, 최대 maxListLimit)
+	 * @return
+	 * @throws IllegalArgumentException - 형식이 잘못된 커서, 범위를 벗어난 limit (Flux 를 만들기 전에 바로 던진다)
+	 */
+	public Flux<BookListResponseDTO> list(String title, String cursor, Integer limit) throws IllegalArgumentException {
+		if (StringUtils.hasText(cursor)) {
+			BookListCursor.decode(cursor);
+		}
+		if (limit != null && (limit < 1 || limit > this.maxListLimit)) {
+			throw new IllegalArgumentException("limit : " + limit + " (1 ~ " + this.maxListLimit + ")");
+		}
+		// 몇 건만 필요하면 묶음도 그만큼만 읽는다
+		int chunkSize = limit == null ? this.streamChunkSize : Math.min(limit, this.streamChunkSize);
+		Flux<BookListResponseDTO> books = this.slice(title, cursor, chunkSize)
+				   .expand(slice -> slice.hasNext() ? this.slice(title, slice.getNextCursor(), chunkSize) : Mono.empty())
+				   .concatMapIterable(BookListSliceResponseDTO::getBooks);
+		return limit == null ? books : books.take(limit);
+	}
+
+	private Mono<BookListSliceResponseDTO> slice(String title, String cursor, int size) {
+		return this.call(() -> this.bookService.bookSlice(title, cursor, size));
+	}
+
+	private <T> Mono<T> call(Callable<T> callable) {
+		return Mono.fromCallable(callable).subscribeOn(this.scheduler);
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		this.scheduler.dispose();
+	}
+}
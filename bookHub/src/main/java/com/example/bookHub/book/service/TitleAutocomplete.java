@@ -0,0 +1,589 @@
+package com.example.bookHub.book.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import com.example.bookHub.book.dto.BookAutocompleteStatsDTO;
+import com.example.bookHub.book.dto.BookListResponseDTO;
+import com.example.bookHub.book.entity.BookRepository;
+
+/**
+ * TitleAutocomplete : 책 제목 자동완성용 메모리 접두어 트리(radix trie)
+ *
+ * 제목 입력칸에 글자를 칠 때마다 /book/list?title=... 로 검색하면 요청마다 전체 검색을 하게 된다.
+ * 입력한 글자로 시작하는 제목을 최근 입력순(bookId 내림차순)으로 topK 개만 바로 돌려준다.
+ *
+ * - 제목의 단어 시작 위치마다 키를 넣는다. ex) "스프링 부트 입문" -> "스프링 부트 입문", "부트 입문", "입문"
+ *   (제목 중간 단어로 시작해도 찾을 수 있다. 키는 TitleSearchEngine.normalize 로 정규화한다)
+ * - 압축 트리(radix trie) : 자식이 하나뿐인 노드를 합쳐서 간선에 문자열(label)을 둔다. 노드 수는 키 수의 2배를 넘지 않는다.
+ *   간선 문자열은 String 대신 char[] 로 들고 있어서 노드마다 String 객체(24 바이트)를 만들지 않는다.
+ * - 노드마다 하위 트리의 bookId 중 가장 큰 topK 개를 미리 들고 있어서(top) 접두어 길이 + topK 만큼만 보면 된다.
+ *   하위 트리의 키가 topK 개 이하인 작은 노드는 top 을 두지 않고 필요할 때 하위 트리를 훑는다. (최대 topK 개)
+ * - 검색 색인(TitleSearchEngine)과 같이 기동 후 DB 에서 만들고, 이후에는 BookChangedEvent 로 갱신한다.
+ *   DB 에서 읽는 동안에는 잠그지 않고 새 트리를 따로 만든 후, 그 사이에 온 이벤트를 반영하고 짧게 잠가서 바꿔 끼운다.
+ *   (바꿔 끼우기 전까지는 기존 트리와 새 트리가 같이 힙에 있다)
+ *
+ * 메모리 사용량(추정값)은 stats() / /book/stats/autocomplete 로 확인한다. (100만 권 기준 환산값 포함)
+ * 제목마다 단어 수만큼 키를 넣으므로 작지 않다. 단어 2 ~ 4 개짜리 제목 100만 권에 약 650MB 를 쓴다. (TitleAutocompleteBenchmark)
+ */
+@Component
+public class TitleAutocomplete {
+
+	private static final Logger log = LoggerFactory.getLogger(TitleAutocomplete.class);
+
+	private static final char[] NO_KEYS = new char[0];
+	private static final Node[] NO_CHILDREN = new Node[0];
+	private static final int[] NO_IDS = new int[0];
+
+	private final BookRepository bookRepository;
+	private final boolean enabled;
+	private final int loadChunkSize;
+	private final int topK;
+
+	private Node root = new Node(new char[0]);
+	// bookId -> 원래 제목 (결과에 보여줄 제목, 수정/삭제 시 기존 키 제거에 사용)
+	private Map<Integer, String> titles = new HashMap<>();
+	// 새 트리를 만드는 동안 온 이벤트 (만들고 있지 않으면 null)
+	private List<BookChangedEvent> pendingEvents;
+	// 책마다 마지막으로 반영한 이벤트 버전 (늦게 온 이벤트를 버린다, lock 으로 동기화)
+	private final BookChangeVersions versions = new BookChangeVersions();
+
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+	private volatile boolean ready = false;
+
+	public TitleAutocomplete(BookRepository bookRepository,
+			@Value("${bookhub.autocomplete.enabled:true}") boolean enabled,
+			@Value("${bookhub.autocomplete.load-chunk-size:10000}") int loadChunkSize,
+			@Value("${bookhub.autocomplete.top-k:10}") int topK) {
+		this.bookRepository = bookRepository;
+		this.enabled = enabled;
+		this.loadChunkSize = loadChunkSize;
+		this.topK = topK;
+	}
+
+	/**
+	 * 자동완성 사용 가능 여부
+	 * @return 설정이 켜져 있고, 처음 트리를 다 만들었으면 true
+	 */
+	public boolean isAvailable() {
+		return this.enabled && this.ready;
+	}
+
+	/**
+	 * 애플리케이션이 다 뜬 후 DB 의 (bookId, title) 을 bookId 순으로 나눠 읽으면서 트리를 만든다.
+	 * - 읽는 동안에는 잠그지 않으므로 이벤트 갱신과 (이미 만든 트리가 있으면) 자동완성 요청이 기다리지 않는다.
+	 * - 읽는 동안 온 이벤트는 모아 두었다가 새 트리에 다시 반영한다. (이미 반영된 변경을 다시 반영해도 결과는 같다)
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void rebuild() {
+		if (!this.enabled) {
+			return;
+		}
+
+		this.lock.writeLock().lock();
+		try {
+			if (this.pendingEvents != null) {
+				return; // 이미 만드는 중
+			}
+			this.pendingEvents = new ArrayList<>();
+		} finally {
+			this.lock.writeLock().unlock();
+		}
+
+		long started = System.currentTimeMillis();
+		Node newRoot = new Node(new char[0]);
+		Map<Integer, String> newTitles = new HashMap<>();
+		try {
+			Integer lastBookId = 0;
+			List<BookListResponseDTO> chunk;
+			do {
+				chunk = this.bookRepository.findTitlesAfter(lastBookId, PageRequest.of(0, this.loadChunkSize));
+				for (BookListResponseDTO book : chunk) {
+					this.addInternal(newRoot, newTitles, book.getBookId(), book.getTitle());
+					lastBookId = book.getBookId();
+				}
+			} while (chunk.size() == this.loadChunkSize);
+		} catch (RuntimeException ex) {
+			this.lock.writeLock().lock();
+			try {
+				this.pendingEvents = null;
+			} finally {
+				this.lock.writeLock().unlock();
+			}
+			throw ex;
+		}
+
+		int pending;
+		this.lock.writeLock().lock();
+		try {
+			pending = this.pendingEvents.size();
+			for (BookChangedEvent event : this.pendingEvents) {
+				this.apply(newRoot, newTitles, event);
+			}
+			this.pendingEvents = null;
+			this.root = newRoot;
+			this.titles = newTitles;
+			this.ready = true;
+		} finally {
+			this.lock.writeLock().unlock();
+		}
+		log.info("title autocomplete built: {} books, {} events replayed, {} ms",
+				newTitles.size(), pending, System.currentTimeMillis() - started);
+	}
+
+	/**
+	 * 책이 입력/수정/삭제 되면 트리를 갱신한다. (늦게 온 이전 버전의 이벤트는 버린다)
+	 * @param event
+	 */
+	@EventListener
+	public void onBookChanged(BookChangedEvent event) {
+		if (!this.enabled) {
+			return;
+		}
+
+		this.lock.writeLock().lock();
+		try {
+			if (!this.versions.accept(event)) {
+				return; // 이미 더 새 버전을 반영했다
+			}
+			this.apply(this.root, this.titles, event);
+			if (this.pendingEvents != null) {
+				this.pendingEvents.add(event);
+			}
+		} finally {
+			this.lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * 접두어로 시작하는 제목 (제목 중간 단어 포함)
+	 * @param prefix - 입력한 글자
+	 * @param limit  - 최대 개수 (topK 보다 크면 topK)
+	 * @return 최근 입력순(bookId 내림차순) (bookId, title) 목록
+	 */
+	public List<BookListResponseDTO> suggest(String prefix, int limit) {
+		String query = TitleSearchEngine.normalize(prefix);
+		if (query.isEmpty() || limit < 1) {
+			return Collections.emptyList();
+		}
+
+		this.lock.readLock().lock();
+		try {
+			Node node = this.find(query);
+			if (node == null) {
+				return Collections.emptyList();
+			}
+			int[] bookIds = node.top != null ? node.top : this.collectTop(node);
+			int size = Math.min(Math.min(limit, this.topK), bookIds.length);
+			List<BookListResponseDTO> books = new ArrayList<>(size);
+			for (int i = 0; i < size; i++) {
+				books.add(new BookListResponseDTO(bookIds[i], this.titles.get(bookIds[i])));
+			}
+			return books;
+		} finally {
+			this.lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * 트리 크기와 메모리 사용량 추정값
+	 * - 64비트 JVM, compressed oops 기준으로 객체 헤더/참조/배열 크기를 더한 값이다. (실제 힙 사용량과는 조금 다르다)
+	 * @return
+	 */
+	public BookAutocompleteStatsDTO stats() {
+		this.lock.readLock().lock();
+		try {
+			long[] totals = new long[3]; // 노드 수, 키 수, 트리 바이트
+			this.measure(this.root, totals);
+			long titleBytes = 0;
+			for (String title : this.titles.values()) {
+				// HashMap.Node(32) + Integer(16) + String(24) + 제목 byte[]
+				titleBytes += 32 + 16 + 24 + arrayBytes(title.length() * (isLatin1(title) ? 1 : 2));
+			}
+			titleBytes += arrayBytes(tableSize(this.titles.size()) * 4L);
+			return new BookAutocompleteStatsDTO(this.titles.size(), totals[1], totals[0], totals[2], titleBytes);
+		} finally {
+			this.lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * 접두어로 끝나는 노드. 접두어가 간선 중간에서 끝나면 그 간선의 아래 노드
+	 * @param query
+	 * @return 없으면 null
+	 */
+	private Node find(String query) {
+		Node node = this.root;
+		int i = 0;
+		while (i < query.length()) {
+			int index = node.indexOf(query.charAt(i));
+			if (index < 0) {
+				return null;
+			}
+			Node child = node.children[index];
+			int common = commonPrefix(child.label, query, i);
+			if (i + common == query.length()) {
+				return child;
+			}
+			if (common < child.label.length) {
+				return null;
+			}
+			node = child;
+			i += common;
+		}
+		return node;
+	}
+
+	private void apply(Node root, Map<Integer, String> titles, BookChangedEvent event) {
+		this.removeInternal(root, titles, event.getBookId());
+		if (event.getType() != BookChangedEvent.Type.DELETED) {
+			this.addInternal(root, titles, event.getBookId(), event.getTitle());
+		}
+	}
+
+	private void addInternal(Node root, Map<Integer, String> titles, Integer bookId, String title) {
+		if (title == null) {
+			return;
+		}
+		titles.put(bookId, title);
+		for (String key : keys(TitleSearchEngine.normalize(title))) {
+			this.insert(root, key, bookId);
+		}
+	}
+
+	private void removeInternal(Node root, Map<Integer, String> titles, Integer bookId) {
+		String title = titles.remove(bookId);
+		if (title == null) {
+			return;
+		}
+		for (String key : keys(TitleSearchEngine.normalize(title))) {
+			this.remove(root, key, bookId);
+		}
+	}
+
+	private void insert(Node root, String key, int bookId) {
+		List<Node> path = new ArrayList<>();
+		Node node = root;
+		path.add(node);
+		int i = 0;
+		while (i < key.length()) {
+			int index = node.indexOf(key.charAt(i));
+			if (index < 0) {
+				Node leaf = new Node(key.substring(i).toCharArray());
+				node.addChild(leaf);
+				node = leaf;
+				path.add(node);
+				break;
+			}
+			Node child = node.children[index];
+			int common = commonPrefix(child.label, key, i);
+			if (common < child.label.length) {
+				// 간선 중간에서 갈라지면 공통 부분으로 노드를 하나 끼워 넣는다
+				Node middle = new Node(Arrays.copyOfRange(child.label, 0, common));
+				child.label = Arrays.copyOfRange(child.label, common, child.label.length);
+				middle.addChild(child);
+				middle.count = child.count;
+				middle.top = child.top == null ? null : child.top.clone();
+				node.children[index] = middle;
+				child = middle;
+			}
+			node = child;
+			path.add(node);
+			i += common;
+		}
+		node.bookIds = append(node.bookIds, bookId);
+
+		// 아래에서부터 고친다 (위 노드의 top 을 새로 만들 때 아래 노드의 top 이 이미 맞아야 한다)
+		for (int depth = path.size() - 1; depth >= 0; depth--) {
+			Node step = path.get(depth);
+			step.count++;
+			if (step.top != null) {
+				step.top = offer(step.top, bookId, this.topK);
+			} else if (step.count > this.topK) {
+				step.top = this.collectTop(step);
+			}
+		}
+	}
+
+	private void remove(Node root, String key, int bookId) {
+		List<Node> path = new ArrayList<>();
+		Node node = root;
+		path.add(node);
+		int i = 0;
+		while (i < key.length()) {
+			int index = node.indexOf(key.charAt(i));
+			if (index < 0) {
+				return;
+			}
+			node = node.children[index];
+			if (commonPrefix(node.label, key, i) < node.label.length) {
+				return;
+			}
+			path.add(node);
+			i += node.label.length;
+		}
+		int[] bookIds = without(node.bookIds, bookId);
+		if (bookIds == node.bookIds) {
+			return;
+		}
+		node.bookIds = bookIds;
+
+		// 아래에서부터 건수와 top 을 고치고, 빈 노드는 떼어내고, 자식 하나만 남은 노드는 자식과 합친다
+		for (int depth = path.size() - 1; depth >= 0; depth--) {
+			Node step = path.get(depth);
+			step.count--;
+			if (step.count <= this.topK) {
+				step.top = null;
+			} else if (step.top != null && contains(step.top, bookId)) {
+				step.top = this.mergeTop(step);
+			}
+			if (depth == 0) {
+				continue;
+			}
+			Node parent = path.get(depth - 1);
+			if (step.count == 0) {
+				parent.removeChild(step);
+			} else if (step.bookIds.length == 0 && step.children.length == 1) {
+				Node only = step.children[0];
+				char[] label = Arrays.copyOf(step.label, step.label.length + only.label.length);
+				System.arraycopy(only.label, 0, label, step.label.length, only.label.length);
+				only.label = label;
+				parent.children[parent.indexOf(step.label[0])] = only;
+			}
+		}
+	}
+
+	/**
+	 * 자식들의 top 과 이 노드의 bookId 로 top 을 다시 만든다 (top 에 있던 bookId 가 지워졌을 때)
+	 */
+	private int[] mergeTop(Node node) {
+		TreeSet<Integer> top = new TreeSet<>();
+		for (int bookId : node.bookIds) {
+			offer(top, bookId, this.topK);
+		}
+		for (Node child : node.children) {
+			for (int bookId : child.top != null ? child.top : this.collectTop(child)) {
+				offer(top, bookId, this.topK);
+			}
+		}
+		return descending(top);
+	}
+
+	/**
+	 * 하위 트리를 모두 훑어서 top 을 만든다 (하위 트리의 키가 topK 개 안팎인 작은 노드에서만 호출한다)
+	 */
+	private int[] collectTop(Node node) {
+		TreeSet<Integer> top = new TreeSet<>();
+		this.collect(node, top);
+		return descending(top);
+	}
+
+	private void collect(Node node, TreeSet<Integer> top) {
+		for (int bookId : node.bookIds) {
+			offer(top, bookId, this.topK);
+		}
+		for (Node child : node.children) {
+			if (child.top != null) {
+				for (int bookId : child.top) {
+					offer(top, bookId, this.topK);
+				}
+			} else {
+				this.collect(child, top);
+			}
+		}
+	}
+
+	private void measure(Node node, long[] totals) {
+		totals[0]++;
+		totals[1] += node.bookIds.length;
+		// Node 객체(헤더 12 + 필드 6개) + 배열들
+		long bytes = 40 + arrayBytes(node.label.length * 2L);
+		if (node.keys != NO_KEYS) {
+			bytes += arrayBytes(node.keys.length * 2L) + arrayBytes(node.children.length * 4L);
+		}
+		if (node.bookIds != NO_IDS) {
+			bytes += arrayBytes(node.bookIds.length * 4L);
+		}
+		if (node.top != null) {
+			bytes += arrayBytes(node.top.length * 4L);
+		}
+		totals[2] += bytes;
+		for (Node child : node.children) {
+			this.measure(child, totals);
+		}
+	}
+
+	/**
+	 * 제목의 단어 시작 위치마다 키를 만든다 (같은 키는 한 번만)
+	 * @param normalized - 정규화된 제목
+	 * @return
+	 */
+	static Set<String> keys(String normalized) {
+		Set<String> keys = new LinkedHashSet<>();
+		for (int i = 0; i < normalized.length(); i++) {
+			if (normalized.charAt(i) != ' ' && (i == 0 || normalized.charAt(i - 1) == ' ')) {
+				keys.add(normalized.substring(i));
+			}
+		}
+		return keys;
+	}
+
+	private static int commonPrefix(char[] label, String key, int from) {
+		int max = Math.min(label.length, key.length() - from);
+		int i = 0;
+		while (i < max && label[i] == key.charAt(from + i)) {
+			i++;
+		}
+		return i;
+	}
+
+	/**
+	 * 내림차순 top 배열에 bookId 를 넣는다 (이미 있거나 topK 개의 최솟값보다 작으면 그대로)
+	 */
+	private static int[] offer(int[] top, int bookId, int topK) {
+		if (contains(top, bookId) || (top.length == topK && bookId < top[topK - 1])) {
+			return top;
+		}
+		int position = 0;
+		while (position < top.length && top[position] > bookId) {
+			position++;
+		}
+		int length = Math.min(top.length + 1, topK);
+		int[] result = new int[length];
+		System.arraycopy(top, 0, result, 0, position);
+		result[position] = bookId;
+		System.arraycopy(top, position, result, position + 1, length - position - 1);
+		return result;
+	}
+
+	private static void offer(TreeSet<Integer> top, int bookId, int topK) {
+		top.add(bookId);
+		if (top.size() > topK) {
+			top.pollFirst();
+		}
+	}
+
+	private static int[] descending(TreeSet<Integer> top) {
+		return top.descendingSet().stream().mapToInt(Integer::intValue).toArray();
+	}
+
+	private static boolean contains(int[] bookIds, int bookId) {
+		for (int id : bookIds) {
+			if (id == bookId) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static int[] append(int[] bookIds, int bookId) {
+		int[] result = Arrays.copyOf(bookIds, bookIds.length + 1);
+		result[bookIds.length] = bookId;
+		return result;
+	}
+
+	/**
+	 * @return bookId 가 없으면 같은 배열
+	 */
+	private static int[] without(int[] bookIds, int bookId) {
+		for (int i = 0; i < bookIds.length; i++) {
+			if (bookIds[i] == bookId) {
+				if (bookIds.length == 1) {
+					return NO_IDS;
+				}
+				int[] result = new int[bookIds.length - 1];
+				System.arraycopy(bookIds, 0, result, 0, i);
+				System.arraycopy(bookIds, i + 1, result, i, bookIds.length - i - 1);
+				return result;
+			}
+		}
+		return bookIds;
+	}
+
+	private static long arrayBytes(long dataBytes) {
+		return (16 + dataBytes + 7) / 8 * 8; // 배열 헤더 16 바이트 + 데이터, 8 바이트 정렬
+	}
+
+	private static long tableSize(int size) {
+		return Integer.highestOneBit(Math.max(1, (int) (size / 0.75f)) * 2 - 1);
+	}
+
+	private static boolean isLatin1(String value) {
+		for (int i = 0; i < value.length(); i++) {
+			if (value.charAt(i) > 0xFF) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * 트리 노드
+	 * - 자식은 간선 첫 글자(keys) 순으로 정렬해서 배열로 들고 있다. (HashMap 보다 작고, 자식이 적으므로 이진 탐색으로 충분하다)
+	 */
+	private static final class Node {
+		private char[] label;               // 부모에서 이 노드로 오는 간선의 문자열
+		private char[] keys = NO_KEYS;      // 자식 간선의 첫 글자 (정렬)
+		private Node[] children = NO_CHILDREN;
+		private int[] bookIds = NO_IDS;     // 키가 이 노드에서 끝나는 bookId
+		private int count;                  // 하위 트리의 키 수
+		private int[] top;                  // 하위 트리의 bookId 중 큰 순서로 topK 개 (count <= topK 이면 null)
+
+		Node(char[] label) {
+			this.label = label;
+		}
+
+		int indexOf(char key) {
+			int index = Arrays.binarySearch(this.keys, key);
+			return index >= 0 ? index : -1;
+		}
+
+		void addChild(Node child) {
+			int position = -(Arrays.binarySearch(this.keys, child.label[0]) + 1);
+			char[] keys = new char[this.keys.length + 1];
+			Node[] children = new Node[this.children.length + 1];
+			System.arraycopy(this.keys, 0, keys, 0, position);
+			System.arraycopy(this.children, 0, children, 0, position);
+			keys[position] = child.label[0];
+			children[position] = child;
+			System.arraycopy(this.keys, position, keys, position + 1, this.keys.length - position);
+			System.arraycopy(this.children, position, children, position + 1, this.children.length - position);
+			this.keys = keys;
+			this.children = children;
+		}
+
+		void removeChild(Node child) {
+			int position = this.indexOf(child.label[0]);
+			if (this.keys.length == 1) {
+				this.keys = NO_KEYS;
+				this.children = NO_CHILDREN;
+				return;
+			}
+			char[] keys = new char[this.keys.length - 1];
+			Node[] children = new Node[this.children.length - 1];
+			System.arraycopy(this.keys, 0, keys, 0, position);
+			System.arraycopy(this.children, 0, children, 0, position);
+			System.arraycopy(this.keys, position + 1, keys, position, this.keys.length - position - 1);
+			System.arraycopy(this.children, position + 1, children, position, this.children.length - position - 1);
+			this.keys = keys;
+			this.children = children;
+		}
+	}
+}
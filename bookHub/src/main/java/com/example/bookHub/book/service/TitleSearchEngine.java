@@ -0,0 +1,430 @@
+package com.example.bookHub.book.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntConsumer;
+import java.util.function.IntPredicate;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import com.example.bookHub.book.dto.BookListResponseDTO;
+import com.example.bookHub.book.entity.BookRepository;
+
+/**
+ * TitleSearchEngine : 책 제목 검색용 메모리 역색인(inverted index)
+ *
+ * findByTitleContains 는 like '%title%' 쿼리가 되는데, 앞에 % 가 붙으면 DB 인덱스를 탈 수 없어서
+ * 책이 많아질수록 검색할 때마다 테이블 전체를 읽게 된다.
+ * 그래서 제목을 n-gram(1글자, 2글자 조각) 단위로 잘라서 [조각 -> bookId 목록] 을 메모리에 들고 있다가
+ * 검색어의 조각들이 모두 들어있는 bookId 만 골라낸다.
+ *
+ * - 한글은 완성형 음절 하나가 한 글자(char)이므로 라틴 문자와 같은 방식으로 자른다.
+ *   (NFC 정규화를 해서 자모가 분리된 입력도 같은 음절로 맞춘다)
+ * - 라틴 문자는 소문자로 바꿔서 대소문자 구분 없이 검색한다.
+ * - 2글자 조각만으로는 순서까지 보장되지 않으므로 후보를 고른 뒤 실제 제목에 검색어가 들어있는지 한 번 더 확인한다.
+ * - 검색 결과는 bookId 내림차순(= 최근 입력순)이다.
+ *
+ * 색인은 애플리케이션 기동 후 DB 에서 한 번 만들고, 이후에는 BookChangedEvent 를 받아서 갱신한다.
+ * DB 에서 읽는 동안에는 잠그지 않고 새 색인을 따로 만든 후, 그 사이에 온 이벤트를 반영하고 짧게 잠가서 바꿔 끼운다. (TitleAutocomplete 와 같다)
+ * 색인이 준비되기 전이거나 bookhub.search.title-index.enabled=false 이면 isAvailable() 이 false 가 되어
+ * BookService 는 기존 like 쿼리를 사용한다.
+ */
+@Component
+public class TitleSearchEngine {
+
+	private static final Logger log = LoggerFactory.getLogger(TitleSearchEngine.class);
+
+	private static final int GRAM_SIZE = 2;
+
+	private final BookRepository bookRepository;
+	private final boolean enabled;
+	private final int loadChunkSize;
+
+	// 조각(gram) -> bookId 목록. TreeSet 이라서 내림차순으로 바로 꺼낼 수 있다.
+	private Map<String, TreeSet<Integer>> postings = new HashMap<>();
+	// bookId -> 정규화된 제목 (후보 확인과 수정/삭제 시 기존 조각 제거에 사용)
+	private Map<Integer, String> titles = new HashMap<>();
+	// 새 색인을 만드는 동안 온 이벤트 (만들고 있지 않으면 null)
+	private List<BookChangedEvent> pendingEvents;
+	// 책마다 마지막으로 반영한 이벤트 버전 (늦게 온 이벤트를 버린다, lock 으로 동기화)
+	private final BookChangeVersions versions = new BookChangeVersions();
+
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+	private volatile boolean ready = false;
+
+	public TitleSearchEngine(BookRepository bookRepository,
+			@Value("${bookhub.search.title-index.enabled:true}") boolean enabled,
+			@Value("${bookhub.search.title-index.load-chunk-size:10000}") int loadChunkSize) {
+		this.bookRepository = bookRepository;
+		this.enabled = enabled;
+		this.loadChunkSize = loadChunkSize;
+	}
+
+	/**
+	 * 색인 사용 가능 여부
+	 * @return 설정이 켜져 있고, 초기 색인이 끝났으면 true
+	 */
+	public boolean isAvailable() {
+		return this.enabled && this.ready;
+	}
+
+	/**
+	 * 애플리케이션이 다 뜬 후 DB 의 (bookId, title) 을 bookId 순으로 나눠 읽으면서 색인을 만든다.
+	 * - 한 번에 전체를 읽지 않으므로 책이 많아도 읽는 동안의 메모리는 loadChunkSize 만큼만 쓴다.
+	 * - 읽는 동안에는 잠그지 않으므로 입력/수정/삭제 요청(이벤트 갱신)과 (이미 만든 색인이 있으면) 검색이 기다리지 않는다.
+	 * - 읽는 동안 온 이벤트는 모아 두었다가 새 색인에 다시 반영한다. (이미 반영된 변경을 다시 반영해도 결과는 같다)
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void rebuild() {
+		if (!this.enabled) {
+			return;
+		}
+
+		this.lock.writeLock().lock();
+		try {
+			if (this.pendingEvents != null) {
+				return; // 이미 만드는 중
+			}
+			this.pendingEvents = new ArrayList<>();
+		} finally {
+			this.lock.writeLock().unlock();
+		}
+
+		long started = System.currentTimeMillis();
+		Map<String, TreeSet<Integer>> newPostings = new HashMap<>();
+		Map<Integer, String> newTitles = new HashMap<>();
+		try {
+			Integer lastBookId = 0;
+			List<BookListResponseDTO> chunk;
+			do {
+				chunk = this.bookRepository.findTitlesAfter(lastBookId, PageRequest.of(0, this.loadChunkSize));
+				for (BookListResponseDTO book : chunk) {
+					addInternal(newPostings, newTitles, book.getBookId(), book.getTitle());
+					lastBookId = book.getBookId();
+				}
+			} while (chunk.size() == this.loadChunkSize);
+		} catch (RuntimeException ex) {
+			this.lock.writeLock().lock();
+			try {
+				this.pendingEvents = null;
+			} finally {
+				this.lock.writeLock().unlock();
+			}
+			throw ex;
+		}
+
+		int pending;
+		this.lock.writeLock().lock();
+		try {
+			pending = this.pendingEvents.size();
+			for (BookChangedEvent event : this.pendingEvents) {
+				apply(newPostings, newTitles, event);
+			}
+			this.pendingEvents = null;
+			this.postings = newPostings;
+			this.titles = newTitles;
+			this.ready = true;
+		} finally {
+			this.lock.writeLock().unlock();
+		}
+		log.info("title index built: {} books, {} grams, {} events replayed, {} ms",
+				newTitles.size(), newPostings.size(), pending, System.currentTimeMillis() - started);
+	}
+
+	/**
+	 * 책이 입력/수정/삭제 되면 색인을 갱신한다. (늦게 온 이전 버전의 이벤트는 버린다)
+	 * @param event
+	 */
+	@EventListener
+	public void onBookChanged(BookChangedEvent event) {
+		if (!this.enabled) {
+			return;
+		}
+
+		this.lock.writeLock().lock();
+		try {
+			if (!this.versions.accept(event)) {
+				return; // 이미 더 새 버전을 반영했다
+			}
+			apply(this.postings, this.titles, event);
+			if (this.pendingEvents != null) {
+				this.pendingEvents.add(event);
+			}
+		} finally {
+			this.lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * 제목 검색
+	 * @param title  - 검색어
+	 * @param offset - 건너뛸 결과 수
+	 * @param limit  - 가져올 결과 수
+	 * @return 검색어가 제목에 포함된 bookId 목록 (내림차순)
+	 */
+	public List<Integer> search(String title, int offset, int limit) {
+		return this.search(title, null, null, offset, limit);
+	}
+	
+	/**
+	 * 조건을 더한 제목 검색 (ex. 가격 조건)
+	 * - offset, limit 은 filter 를 통과한 결과 기준이다.
+	 * - filter 는 읽기 잠금 안에서 호출되므로 다른 잠금을 기다리지 않아야 한다.
+	 * @param title  - 검색어
+	 * @param filter - bookId 조건
+	 * @param offset - 건너뛸 결과 수
+	 * @param limit  - 가져올 결과 수
+	 * @return 검색어가 제목에 포함되고 filter 를 통과한 bookId 목록 (내림차순)
+	 */
+	public List<Integer> search(String title, IntPredicate filter, int offset, int limit) {
+		return this.search(title, null, filter, offset, limit);
+	}
+
+	/**
+	 * 커서(keyset) 페이징용 제목 검색
+	 * @param title        - 검색어
+	 * @param beforeBookId - 이 bookId 보다 작은 bookId 만 찾는다 (직전 페이지의 마지막 bookId)
+	 * @param limit        - 가져올 결과 수
+	 * @return 검색어가 제목에 포함된 bookId 목록 (내림차순)
+	 */
+	public List<Integer> searchBefore(String title, Integer beforeBookId, int limit) {
+		return this.search(title, beforeBookId, null, 0, limit);
+	}
+	
+	/**
+	 * 제목 검색 결과를 모두 돌면서 bookId 를 넘겨준다 (내림차순)
+	 * - count 와 같이 검색어가 포함된 책을 모두 확인하므로 결과가 많으면 비용이 크다.
+	 * - action 은 읽기 잠금 안에서 호출되므로 다른 잠금을 기다리지 않아야 한다.
+	 * @param title
+	 * @param action
+	 */
+	public void forEach(String title, IntConsumer action) {
+		String query = normalize(title);
+		if (query.isEmpty()) {
+			return;
+		}
+
+		this.lock.readLock().lock();
+		try {
+			List<NavigableSet<Integer>> others = new ArrayList<>();
+			TreeSet<Integer> smallest = this.candidates(query, others);
+			if (smallest == null) {
+				return;
+			}
+			for (Integer bookId : smallest.descendingSet()) {
+				if (containsAll(others, bookId) && this.titles.get(bookId).contains(query)) {
+					action.accept(bookId);
+				}
+			}
+		} finally {
+			this.lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * 제목 검색 결과 수
+	 * - 검색어가 포함된 책을 모두 확인하므로 결과가 많으면 비용이 크다. (BookCountService 가 캐시해서 사용한다)
+	 * @param title
+	 * @return
+	 */
+	public int count(String title) {
+		String query = normalize(title);
+		if (query.isEmpty()) {
+			return 0;
+		}
+
+		this.lock.readLock().lock();
+		try {
+			List<NavigableSet<Integer>> others = new ArrayList<>();
+			TreeSet<Integer> smallest = this.candidates(query, others);
+			if (smallest == null) {
+				return 0;
+			}
+			int count = 0;
+			for (Integer bookId : smallest) {
+				if (containsAll(others, bookId) && this.titles.get(bookId).contains(query)) {
+					count++;
+				}
+			}
+			return count;
+		} finally {
+			this.lock.readLock().unlock();
+		}
+	}
+
+	private List<Integer> search(String title, Integer beforeBookId, IntPredicate filter, int offset, int limit) {
+		String query = normalize(title);
+		if (query.isEmpty()) {
+			return Collections.emptyList();
+		}
+
+		this.lock.readLock().lock();
+		try {
+			List<NavigableSet<Integer>> others = new ArrayList<>();
+			TreeSet<Integer> smallest = this.candidates(query, others);
+			if (smallest == null) {
+				return Collections.emptyList(); // 하나라도 없는 조각이 있으면 결과 없음
+			}
+
+			// 커서가 있으면 커서 bookId 보다 작은 부분만 본다 (TreeSet 이라 바로 찾아갈 수 있다)
+			NavigableSet<Integer> candidates = beforeBookId == null 
+					? smallest.descendingSet() 
+					: smallest.headSet(beforeBookId, false).descendingSet();
+
+			List<Integer> bookIds = new ArrayList<>(limit);
+			int skipped = 0;
+			for (Integer bookId : candidates) {
+				if (!containsAll(others, bookId) || !this.titles.get(bookId).contains(query)) {
+					continue;
+				}
+				if (filter != null && !filter.test(bookId)) {
+					continue;
+				}
+				if (skipped < offset) {
+					skipped++;
+					continue;
+				}
+				bookIds.add(bookId);
+				if (bookIds.size() == limit) {
+					break;
+				}
+			}
+			return bookIds;
+		} finally {
+			this.lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * 검색어의 조각 중 가장 적은 bookId 를 가진 조각을 골라낸다. 나머지 조각은 others 에 담는다.
+	 * - 가장 적은 조각을 기준으로 돌면서 나머지 조각에도 있는지 확인한다.
+	 * (읽기 잠금 안에서 호출한다)
+	 * @param query  - 정규화된 검색어
+	 * @param others
+	 * @return 하나라도 없는 조각이 있으면 null
+	 */
+	private TreeSet<Integer> candidates(String query, List<NavigableSet<Integer>> others) {
+		TreeSet<Integer> smallest = null;
+		for (String gram : queryGrams(query)) {
+			TreeSet<Integer> posting = this.postings.get(gram);
+			if (posting == null) {
+				return null;
+			}
+			if (smallest == null || posting.size() < smallest.size()) {
+				if (smallest != null) {
+					others.add(smallest);
+				}
+				smallest = posting;
+			} else {
+				others.add(posting);
+			}
+		}
+		return smallest;
+	}
+
+	private static boolean containsAll(List<NavigableSet<Integer>> postings, Integer bookId) {
+		for (NavigableSet<Integer> posting : postings) {
+			if (!posting.contains(bookId)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static void apply(Map<String, TreeSet<Integer>> postings, Map<Integer, String> titles, BookChangedEvent event) {
+		// 수정은 기존 조각을 지우고 새로 넣는다
+		removeInternal(postings, titles, event.getBookId());
+		if (event.getType() != BookChangedEvent.Type.DELETED) {
+			addInternal(postings, titles, event.getBookId(), event.getTitle());
+		}
+	}
+
+	private static void addInternal(Map<String, TreeSet<Integer>> postings, Map<Integer, String> titles, Integer bookId, String title) {
+		String normalized = normalize(title);
+		titles.put(bookId, normalized);
+		for (String gram : indexGrams(normalized)) {
+			postings.computeIfAbsent(gram, key -> new TreeSet<>()).add(bookId);
+		}
+	}
+
+	private static void removeInternal(Map<String, TreeSet<Integer>> postings, Map<Integer, String> titles, Integer bookId) {
+		String normalized = titles.remove(bookId);
+		if (normalized == null) {
+			return;
+		}
+		for (String gram : indexGrams(normalized)) {
+			TreeSet<Integer> posting = postings.get(gram);
+			if (posting != null) {
+				posting.remove(bookId);
+				if (posting.isEmpty()) {
+					postings.remove(gram);
+				}
+			}
+		}
+	}
+
+	/**
+	 * 제목 정규화 : NFC 정규화 + 소문자 + 연속된 공백은 하나로
+	 * @param title
+	 * @return
+	 */
+	static String normalize(String title) {
+		if (title == null) {
+			return "";
+		}
+		String normalized = Normalizer.normalize(title, Normalizer.Form.NFC);
+		return normalized.toLowerCase(Locale.ROOT).trim().replaceAll("\\s+", " ");
+	}
+
+	/**
+	 * 색인용 조각 : 1글자 조각 + 2글자 조각
+	 * - 1글자 검색어도 찾을 수 있도록 1글자 조각도 같이 넣는다.
+	 * @param normalized
+	 * @return
+	 */
+	static Set<String> indexGrams(String normalized) {
+		Set<String> grams = new HashSet<>();
+		for (int i = 0; i < normalized.length(); i++) {
+			grams.add(normalized.substring(i, i + 1));
+		}
+		for (int i = 0; i + GRAM_SIZE <= normalized.length(); i++) {
+			grams.add(normalized.substring(i, i + GRAM_SIZE));
+		}
+		return grams;
+	}
+
+	/**
+	 * 검색용 조각 : 검색어가 1글자면 그 글자, 2글자 이상이면 2글자씩 겹쳐서 자른다.
+	 * ex) "스프링" -> "스프", "프링"
+	 * @param query
+	 * @return
+	 */
+	static Set<String> queryGrams(String query) {
+		Set<String> grams = new HashSet<>();
+		if (query.length() < GRAM_SIZE) {
+			grams.add(query);
+			return grams;
+		}
+		for (int i = 0; i + GRAM_SIZE <= query.length(); i++) {
+			grams.add(query.substring(i, i + GRAM_SIZE));
+		}
+		return grams;
+	}
+}
@@ -0,0 +1,181 @@
+package com.example.bookHub.common.bulkhead;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Bulkhead : 동시에 처리할 요청 수를 제한하는 칸막이 (읽기/검색/쓰기마다 하나씩, BulkheadConfig 참고)
+ *
+ * DB 가 느려지면 요청이 톰캣 스레드와 커넥션 풀 앞에 쌓여서 모든 요청의 응답시간이 함께 늘어난다.
+ * 칸막이마다 동시에 처리하는 요청 수를 제한하고, 넘치는 요청은 오래 기다리게 하지 않고 바로 거절한다.
+ * - 한도가 차면 queueSize 개까지만 최대 queueTimeout 동안 기다린다. 대기열도 차 있거나 기다려도 자리가 나지 않으면 거절한다.
+ * - latencyTarget 이 있으면 한도를 응답시간에 맞춰 조절한다. (AIMD)
+ *   응답시간이 latencyTarget 을 넘으면 한도를 BACKOFF_RATIO 만큼 줄이고(latencyTarget 마다 최대 한 번),
+ *   한도까지 차 있는 동안 빨리 끝난 요청마다 1 / 한도 씩 늘린다. (한도만큼 끝나면 1 늘어난다)
+ *   한도는 minLimit ~ maxLimit 사이에서 움직인다. latencyTarget 이 0 이면 maxLimit 고정
+ *
+ * 메트릭 (compartment 태그)
+ * - bookhub.bulkhead.limit     : 현재 한도
+ * - bookhub.bulkhead.in.flight : 처리 중인 요청 수
+ * - bookhub.bulkhead.wait      : 대기열에서 기다린 시간 (받아들인 요청)
+ * - bookhub.bulkhead.rejected  : 거절한 요청 수 (reason 태그 : queue_full, timeout)
+ */
+public class Bulkhead {
+
+	static final double BACKOFF_RATIO = 0.9;
+
+	private final String name;
+	private final int minLimit;
+	private final int maxLimit;
+	private final int queueSize;
+	private final long queueTimeoutNanos;
+	private final long latencyTargetNanos;
+
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Condition released = this.lock.newCondition();
+	// 아래 값은 lock 으로 동기화한다 (limit, inFlight 는 메트릭에서 잠금 없이 읽는다)
+	private volatile double limit;
+	private volatile int inFlight;
+	private int waiting;
+	private long lastDecreaseNanos;
+
+	private final Timer wait;
+	private final Counter rejectedQueueFull;
+	private final Counter rejectedTimeout;
+
+	public Bulkhead(String name, int minLimit, int maxLimit, int queueSize, long queueTimeoutMillis, long latencyTargetMillis,
+			MeterRegistry meterRegistry) {
+		this.name = name;
+		this.maxLimit = Math.max(1, maxLimit);
+		this.minLimit = Math.max(1, Math.min(minLimit, this.maxLimit));
+		this.queueSize = Math.max(0, queueSize);
+		this.queueTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(queueTimeoutMillis);
+		this.latencyTargetNanos = TimeUnit.MILLISECONDS.toNanos(latencyTargetMillis);
+		this.limit = this.maxLimit;
+		this.lastDecreaseNanos = System.nanoTime() - this.latencyTargetNanos;
+
+		Gauge.builder("bookhub.bulkhead.limit", this, Bulkhead::getLimit)
+			 .description("current concurrency limit")
+			 .tag("compartment", name).register(meterRegistry);
+		Gauge.builder("bookhub.bulkhead.in.flight", this, Bulkhead::getInFlight)
+			 .description("requests being processed")
+			 .tag("compartment", name).register(meterRegistry);
+		this.wait = Timer.builder("bookhub.bulkhead.wait")
+						 .description("time spent in the bulkhead queue before admission")
+						 .tag("compartment", name).register(meterRegistry);
+		this.rejectedQueueFull = Counter.builder("bookhub.bulkhead.rejected")
+										.description("requests rejected by the bulkhead")
+										.tags("compartment", name, "reason", "queue_full").register(meterRegistry);
+		this.rejectedTimeout = Counter.builder("bookhub.bulkhead.rejected")
+									  .description("requests rejected by the bulkhead")
+									  .tags("compartment", name, "reason", "timeout").register(meterRegistry);
+	}
+
+	public String getName() {
+		return this.name;
+	}
+
+	public int getLimit() {
+		return (int) this.limit;
+	}
+
+	public int getInFlight() {
+		return this.inFlight;
+	}
+
+	/**
+	 * 자리를 얻는다. 한도가 차 있으면 대기열에서 최대 queueTimeout 동안 기다린다.
+	 * @return 받아들였으면 Permit (처리가 끝나면 release 해야 한다), 거절했으면 null
+	 * @throws InterruptedException
+	 */
+	public Permit tryAcquire() throws InterruptedException {
+		long started = System.nanoTime();
+		this.lock.lock();
+		try {
+			// 기다리는 요청이 있으면 새 요청이 앞지르지 않는다
+			if (this.waiting == 0 && this.inFlight < this.getLimit()) {
+				this.inFlight++;
+				return new Permit();
+			}
+			if (this.waiting >= this.queueSize) {
+				this.rejectedQueueFull.increment();
+				return null;
+			}
+
+			this.waiting++;
+			try {
+				long remaining = this.queueTimeoutNanos;
+				while (this.inFlight >= this.getLimit()) {
+					if (remaining <= 0) {
+						this.rejectedTimeout.increment();
+						return null;
+					}
+					remaining = this.released.awaitNanos(remaining);
+				}
+			} finally {
+				this.waiting--;
+			}
+			this.inFlight++;
+			this.wait.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+			return new Permit();
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * 자리를 돌려주고, latencyTarget 이 있으면 걸린 시간으로 한도를 조절한다
+	 * @param latencyNanos - 자리를 얻은 후 돌려줄 때까지 걸린 시간
+	 */
+	void release(long latencyNanos) {
+		this.lock.lock();
+		try {
+			int before = this.getLimit();
+			boolean saturated = this.waiting > 0 || this.inFlight >= before;
+			this.inFlight--;
+
+			if (this.latencyTargetNanos > 0) {
+				long now = System.nanoTime();
+				if (latencyNanos > this.latencyTargetNanos) {
+					// 한 번 줄인 후 latencyTarget 동안은 다시 줄이지 않는다 (줄이기 전에 들어온 요청들이 한꺼번에 늦게 끝나므로)
+					if (now - this.lastDecreaseNanos >= this.latencyTargetNanos) {
+						this.limit = Math.max(this.minLimit, this.limit * BACKOFF_RATIO);
+						this.lastDecreaseNanos = now;
+					}
+				} else if (saturated) {
+					this.limit = Math.min(this.maxLimit, this.limit + 1.0 / this.limit);
+				}
+			}
+
+			if (this.getLimit() > before) {
+				this.released.signalAll();
+			} else {
+				this.released.signal();
+			}
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * 받아들인 요청의 자리. release 를 여러 번 호출해도 한 번만 돌려준다.
+	 * (비동기 요청은 완료/오류/타임아웃 이벤트가 겹쳐서 올 수 있다)
+	 */
+	public class Permit {
+		private final long acquiredAt = System.nanoTime();
+		private final AtomicBoolean done = new AtomicBoolean();
+
+		public void release() {
+			if (this.done.compareAndSet(false, true)) {
+				Bulkhead.this.release(System.nanoTime() - this.acquiredAt);
+			}
+		}
+	}
+}
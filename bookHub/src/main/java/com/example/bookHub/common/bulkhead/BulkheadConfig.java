@@ -0,0 +1,87 @@
+package com.example.bookHub.common.bulkhead;
+
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * 읽기/검색/쓰기 칸막이(Bulkhead) 설정
+ *
+ * 칸막이마다 bookhub.bulkhead.{read|search|write}.* 설정을 따로 둔다.
+ * - max-limit             : 동시에 처리하는 최대 요청 수 (처음 한도)
+ * - min-limit             : 응답시간에 맞춰 한도를 줄일 때의 최소값
+ * - latency-target-millis : 이보다 오래 걸린 요청이 있으면 한도를 줄인다. 0 이면 max-limit 고정
+ * - queue-size            : 한도가 찼을 때 기다릴 수 있는 요청 수
+ * - queue-timeout-millis  : 대기열에서 기다리는 최대 시간
+ *
+ * 쓰기가 몰려도 읽기는 자기 칸막이의 자리를 쓰므로 같이 느려지지 않는다.
+ * 칸막이 한도의 합이 커넥션 풀 크기(spring.datasource.hikari.maximum-pool-size)보다 크면 커넥션을 기다리는 시간이 생기므로,
+ * 기본값은 한도의 합(10 + 4 + 4)이 풀 크기(20) 보다 작게 맞춰 두었다. 커넥션 풀을 바꾸면 한도도 같이 조정한다.
+ * (합이 풀 크기보다 크면 기동할 때 경고 로그를 남긴다)
+ */
+@Configuration
+public class BulkheadConfig {
+
+	private static final Logger log = LoggerFactory.getLogger(BulkheadConfig.class);
+
+	@Bean
+	public Bulkhead readBulkhead(MeterRegistry meterRegistry,
+			@Value("${bookhub.bulkhead.read.min-limit:2}") int minLimit,
+			@Value("${bookhub.bulkhead.read.max-limit:10}") int maxLimit,
+			@Value("${bookhub.bulkhead.read.latency-target-millis:100}") long latencyTargetMillis,
+			@Value("${bookhub.bulkhead.read.queue-size:20}") int queueSize,
+			@Value("${bookhub.bulkhead.read.queue-timeout-millis:50}") long queueTimeoutMillis) {
+		return new Bulkhead(BulkheadFilter.READ, minLimit, maxLimit, queueSize, queueTimeoutMillis, latencyTargetMillis, meterRegistry);
+	}
+
+	@Bean
+	public Bulkhead searchBulkhead(MeterRegistry meterRegistry,
+			@Value("${bookhub.bulkhead.search.min-limit:1}") int minLimit,
+			@Value("${bookhub.bulkhead.search.max-limit:4}") int maxLimit,
+			@Value("${bookhub.bulkhead.search.latency-target-millis:300}") long latencyTargetMillis,
+			@Value("${bookhub.bulkhead.search.queue-size:8}") int queueSize,
+			@Value("${bookhub.bulkhead.search.queue-timeout-millis:50}") long queueTimeoutMillis) {
+		return new Bulkhead(BulkheadFilter.SEARCH, minLimit, maxLimit, queueSize, queueTimeoutMillis, latencyTargetMillis, meterRegistry);
+	}
+
+	@Bean
+	public Bulkhead writeBulkhead(MeterRegistry meterRegistry,
+			@Value("${bookhub.bulkhead.write.min-limit:1}") int minLimit,
+			@Value("${bookhub.bulkhead.write.max-limit:4}") int maxLimit,
+			@Value("${bookhub.bulkhead.write.latency-target-millis:200}") long latencyTargetMillis,
+			@Value("${bookhub.bulkhead.write.queue-size:16}") int queueSize,
+			@Value("${bookhub.bulkhead.write.queue-timeout-millis:200}") long queueTimeoutMillis) {
+		return new Bulkhead(BulkheadFilter.WRITE, minLimit, maxLimit, queueSize, queueTimeoutMillis, latencyTargetMillis, meterRegistry);
+	}
+
+	/**
+	 * 칸막이 필터 등록
+	 * - 메트릭 필터(http.server.requests) 뒤에서 실행되도록 해서 거절한 503 도 요청 메트릭에 남긴다.
+	 * @param enabled - false 이면 필터를 등록하지 않는다
+	 * @param poolSize - 원본 커넥션 풀 크기 (한도의 합과 비교만 한다)
+	 */
+	@Bean
+	public FilterRegistrationBean<BulkheadFilter> bulkheadFilter(List<Bulkhead> bulkheads,
+			@Value("${bookhub.bulkhead.enabled:true}") boolean enabled,
+			@Value("${bookhub.bulkhead.retry-after-seconds:1}") long retryAfterSeconds,
+			@Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize) {
+		int limits = bulkheads.stream().mapToInt(Bulkhead::getLimit).sum();
+		if (enabled && limits > poolSize) {
+			log.warn("bulkhead limits ({}) exceed the connection pool size ({}); requests will wait for connections", limits, poolSize);
+		}
+		FilterRegistrationBean<BulkheadFilter> registration =
+				new FilterRegistrationBean<>(new BulkheadFilter(bulkheads, retryAfterSeconds));
+		registration.addUrlPatterns("/*");
+		registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+		registration.setEnabled(enabled);
+		return registration;
+	}
+}
@@ -0,0 +1,166 @@
+package com.example.bookHub.common.bulkhead;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UrlPathHelper;
+
+/**
+ * 요청을 읽기/검색/쓰기 칸막이(Bulkhead)에 나눠 넣는 필터
+ *
+ * - 칸막이 자리를 얻은 요청만 컨트롤러로 보낸다. 자리를 얻지 못하면 바로 503 과 Retry-After 를 보낸다.
+ *   (/api/** 는 다른 API 오류처럼 {"message": ...} JSON, 그 외는 text/plain)
+ * - DB 를 쓰지 않는 요청(입력 화면, 자동완성, 통계, actuator 등)은 칸막이에 넣지 않는다. (compartmentOf 참고)
+ * - 비동기 요청(/api/books 의 Flux, Mono 응답)은 응답이 끝날 때(AsyncListener) 자리를 돌려준다.
+ */
+public class BulkheadFilter extends OncePerRequestFilter {
+
+	static final String READ = "read";
+	static final String SEARCH = "search";
+	static final String WRITE = "write";
+
+	private static final String MESSAGE = "요청이 많아 처리할 수 없습니다. 잠시 후 다시 시도해 주세요.";
+
+	private final Map<String, Bulkhead> bulkheads;
+	private final long retryAfterSeconds;
+	private final UrlPathHelper urlPathHelper = new UrlPathHelper();
+
+	public BulkheadFilter(List<Bulkhead> bulkheads, long retryAfterSeconds) {
+		this.bulkheads = bulkheads.stream().collect(Collectors.toMap(Bulkhead::getName, Function.identity()));
+		this.retryAfterSeconds = retryAfterSeconds;
+	}
+
+	/**
+	 * 요청이 들어갈 칸막이 이름
+	 * - search : 목록/검색/전체 출력 (GET /book/list, /book, /book/export, /api/books)
+	 * - read   : 한 권 또는 여러 권 읽기 (GET /book/read/{bookId}, /book/edit/{bookId}, /api/books/{bookId}, /api/books/batch,
+	 *            POST /api/books/batch 는 bookId 목록을 본문으로 보내는 읽기이다)
+	 * - write  : 그 외 /book/**, /api/books/** 의 POST, PUT, DELETE (입력/수정/삭제/대량 입력)
+	 * @param method
+	 * @param path   - 컨텍스트 경로를 뺀 요청 경로
+	 * @return 칸막이에 넣지 않는 요청이면 null
+	 */
+	static String compartmentOf(String method, String path) {
+		if (path.startsWith("/book/stats/") || path.equals("/api/books/autocomplete")) {
+			return null;
+		}
+		boolean book = path.equals("/book") || path.startsWith("/book/");
+		boolean api = path.equals("/api/books") || path.startsWith("/api/books/");
+		if (!book && !api) {
+			return null;
+		}
+
+		if ("GET".equals(method) || "HEAD".equals(method)) {
+			if (path.equals("/book/create")) {
+				return null;
+			}
+			if (path.equals("/book") || path.equals("/book/list") || path.equals("/book/export") || path.equals("/api/books")) {
+				return SEARCH;
+			}
+			return READ;
+		}
+		if ("POST".equals(method) && path.equals("/api/books/batch")) {
+			return READ;
+		}
+		if ("OPTIONS".equals(method)) {
+			return null;
+		}
+		return WRITE;
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+			throws ServletException, IOException {
+		String compartment = compartmentOf(request.getMethod(), this.urlPathHelper.getPathWithinApplication(request));
+		Bulkhead bulkhead = compartment == null ? null : this.bulkheads.get(compartment);
+		if (bulkhead == null) {
+			filterChain.doFilter(request, response);
+			return;
+		}
+
+		Bulkhead.Permit permit;
+		try {
+			permit = bulkhead.tryAcquire();
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			permit = null;
+		}
+		if (permit == null) {
+			this.reject(request, response);
+			return;
+		}
+
+		boolean async = false;
+		try {
+			filterChain.doFilter(request, response);
+			if (request.isAsyncStarted()) {
+				request.getAsyncContext().addListener(new PermitReleasingListener(permit));
+				async = true;
+			}
+		} finally {
+			if (!async) {
+				permit.release();
+			}
+		}
+	}
+
+	private void reject(HttpServletRequest request, HttpServletResponse response) throws IOException {
+		response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+		response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(this.retryAfterSeconds));
+		response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+		if (this.urlPathHelper.getPathWithinApplication(request).startsWith("/api/")) {
+			response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+			response.getWriter().write("{\"message\":\"" + MESSAGE + "\"}");
+		} else {
+			response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+			response.getWriter().write(MESSAGE);
+		}
+	}
+
+	/**
+	 * 비동기 응답이 끝나면(완료, 타임아웃, 오류 중 무엇이든) 자리를 돌려준다
+	 */
+	private static class PermitReleasingListener implements AsyncListener {
+		private final Bulkhead.Permit permit;
+
+		PermitReleasingListener(Bulkhead.Permit permit) {
+			this.permit = permit;
+		}
+
+		@Override
+		public void onComplete(AsyncEvent event) {
+			this.permit.release();
+		}
+
+		@Override
+		public void onTimeout(AsyncEvent event) {
+			this.permit.release();
+		}
+
+		@Override
+		public void onError(AsyncEvent event) {
+			this.permit.release();
+		}
+
+		@Override
+		public void onStartAsync(AsyncEvent event) {
+			// 같은 요청에서 비동기를 다시 시작하면 리스너가 지워지므로 다시 등록한다
+			event.getAsyncContext().addListener(this);
+		}
+	}
+}
@@ -0,0 +1,35 @@
+package com.example.bookHub.common.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 캐시 통계 스냅샷
+ * - hits / misses      : 캐시 적중 / 실패 횟수
+ * - evictions          : 크기 제한(LRU) 으로 버려진 항목 수
+ * - expirations        : 유효시간(TTL)이 지나서 버려진 항목 수
+ * - invalidations      : 수정/삭제로 무효화된 횟수
+ */
+@Getter
+@AllArgsConstructor
+public class CacheStats {
+
+	private final String name;
+	private final int size;
+	private final int maxSize;
+	private final long ttlMillis;
+	private final long hits;
+	private final long misses;
+	private final long evictions;
+	private final long expirations;
+	private final long invalidations;
+
+	/**
+	 * 적중률 (조회가 한 번도 없으면 0)
+	 * @return
+	 */
+	public double getHitRate() {
+		long requests = this.hits + this.misses;
+		return requests == 0 ? 0.0 : (double) this.hits / requests;
+	}
+}
@@ -0,0 +1,89 @@
+package com.example.bookHub.common.cache;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.UUID;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+
+import org.ehcache.config.builders.CacheConfigurationBuilder;
+import org.ehcache.config.builders.ExpiryPolicyBuilder;
+import org.ehcache.config.builders.ResourcePoolsBuilder;
+import org.ehcache.core.config.DefaultConfiguration;
+import org.ehcache.jsr107.Eh107Configuration;
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.example.bookHub.book.entity.Book;
+import com.example.bookHub.book.entity.BookRepository;
+
+/**
+ * 하이버네이트 2차 캐시 / 쿼리 캐시 설정 (JCache, 구현체는 Ehcache 3)
+ *
+ * 영역(region) 별 최대 항목 수와 유효시간을 bookhub.jpa.cache.* 설정으로 정해서 캐시를 미리 만들고,
+ * 만든 CacheManager 를 하이버네이트에 넘겨준다. (hibernate.javax.cache.missing_cache_strategy=fail 이므로
+ * 여기서 만들지 않은 영역을 쓰면 기동 시 실패한다)
+ *
+ * - book                             : Book 엔티티 (findById)
+ * - book-list                        : 목록/검색 쿼리 결과 (BookRepository.LIST_CACHE_REGION)
+ * - default-query-results-region     : 영역을 지정하지 않은 쿼리 캐시 결과
+ * - default-update-timestamps-region : 테이블별 마지막 변경 시각. 쿼리 결과가 오래되었는지 판단하는 기준이므로
+ *                                      쿼리 결과보다 먼저 사라지지 않도록 유효시간을 두지 않는다.
+ *
+ * 적중/실패 통계는 /book/stats/jpa-cache 와 actuator 의 hibernate.second.level.cache.*, hibernate.cache.query.* 메트릭
+ * (hibernate.generate_statistics=true 일 때)
+ */
+@Configuration
+public class HibernateCacheConfig {
+
+	static final String QUERY_RESULTS_REGION = "default-query-results-region";
+	static final String UPDATE_TIMESTAMPS_REGION = "default-update-timestamps-region";
+
+	/**
+	 * 하이버네이트 전용 CacheManager
+	 * - 테스트처럼 한 JVM 에 스프링 컨텍스트가 여러 개 떠도 캐시를 같이 쓰지 않도록 컨텍스트마다 새 URI 로 만든다.
+	 */
+	@Bean(destroyMethod = "close")
+	public CacheManager hibernateCacheManager(
+			@Value("${bookhub.jpa.cache.book.max-entries:10000}") long bookMaxEntries,
+			@Value("${bookhub.jpa.cache.book.ttl-seconds:600}") long bookTtlSeconds,
+			@Value("${bookhub.jpa.cache.book-list.max-entries:1000}") long listMaxEntries,
+			@Value("${bookhub.jpa.cache.book-list.ttl-seconds:60}") long listTtlSeconds,
+			@Value("${bookhub.jpa.cache.timestamps.max-entries:1000}") long timestampsMaxEntries) {
+		EhcacheCachingProvider provider = (EhcacheCachingProvider) Caching.getCachingProvider(EhcacheCachingProvider.class.getName());
+		ClassLoader classLoader = HibernateCacheConfig.class.getClassLoader();
+		CacheManager cacheManager = provider.getCacheManager(URI.create("urn:bookhub:hibernate:" + UUID.randomUUID()),
+															 new DefaultConfiguration(classLoader));
+
+		createRegion(cacheManager, Book.CACHE_REGION, bookMaxEntries, bookTtlSeconds);
+		createRegion(cacheManager, BookRepository.LIST_CACHE_REGION, listMaxEntries, listTtlSeconds);
+		createRegion(cacheManager, QUERY_RESULTS_REGION, listMaxEntries, listTtlSeconds);
+		createRegion(cacheManager, UPDATE_TIMESTAMPS_REGION, timestampsMaxEntries, 0);
+		return cacheManager;
+	}
+
+	/**
+	 * 하이버네이트(JCacheRegionFactory) 가 위의 CacheManager 를 사용하도록 등록한다
+	 */
+	@Bean
+	public HibernatePropertiesCustomizer hibernateCacheManagerCustomizer(CacheManager hibernateCacheManager) {
+		return hibernateProperties -> hibernateProperties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+	}
+
+	/**
+	 * @param ttlSeconds - 0 이면 유효시간 없음 (크기 제한으로만 버려진다)
+	 */
+	private static void createRegion(CacheManager cacheManager, String region, long maxEntries, long ttlSeconds) {
+		CacheConfigurationBuilder<Object, Object> builder =
+				CacheConfigurationBuilder.newCacheConfigurationBuilder(Object.class, Object.class, ResourcePoolsBuilder.heap(maxEntries))
+										 .withExpiry(ttlSeconds > 0
+												 ? ExpiryPolicyBuilder.timeToLiveExpiration(Duration.ofSeconds(ttlSeconds))
+												 : ExpiryPolicyBuilder.noExpiration());
+		cacheManager.createCache(region, Eh107Configuration.fromEhcacheCacheConfiguration(builder.build()));
+	}
+}
@@ -0,0 +1,37 @@
+package com.example.bookHub.common.cache;
+
+import org.hibernate.stat.CacheRegionStatistics;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 하이버네이트 2차 캐시 / 쿼리 캐시 영역 통계 스냅샷
+ * - hits / misses : 캐시 적중 / 실패 횟수
+ * - puts          : 캐시에 넣은 횟수 (DB 에서 읽었거나 입력/수정한 결과)
+ * - 하이버네이트 통계(hibernate.generate_statistics) 가 꺼져 있으면 모두 0 이다.
+ */
+@Getter
+@AllArgsConstructor
+public class HibernateCacheStats {
+
+	private final String region;
+	private final long hits;
+	private final long misses;
+	private final long puts;
+
+	public static HibernateCacheStats of(String region, CacheRegionStatistics statistics) {
+		return statistics == null 
+				? new HibernateCacheStats(region, 0, 0, 0)
+				: new HibernateCacheStats(region, statistics.getHitCount(), statistics.getMissCount(), statistics.getPutCount());
+	}
+
+	/**
+	 * 적중률 (조회가 한 번도 없으면 0)
+	 * @return
+	 */
+	public double getHitRate() {
+		long requests = this.hits + this.misses;
+		return requests == 0 ? 0.0 : (double) this.hits / requests;
+	}
+}
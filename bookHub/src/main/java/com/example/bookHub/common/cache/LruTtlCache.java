@@ -0,0 +1,132 @@
+package com.example.bookHub.common.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * LruTtlCache : 크기(LRU)와 유효시간(TTL)으로 제한되는 메모리 캐시
+ *
+ * - 최대 maxSize 개까지 보관하고, 넘치면 가장 오래 사용하지 않은 항목부터 버린다(LRU).
+ *   LinkedHashMap 을 accessOrder=true 로 만들면 get 할 때마다 항목이 맨 뒤로 가므로 맨 앞이 가장 오래된 항목이 된다.
+ * - 넣은 지 ttlMillis 가 지난 항목은 다음 조회 때 버리고 다시 읽는다.
+ * - get(key, loader) : 캐시에 없으면 loader 로 읽어서 넣고 돌려준다(read-through).
+ *   loader 가 예외를 던지면 캐시에 넣지 않고 그대로 던진다.
+ *
+ * 캐시 항목을 읽는 도중 invalidate 가 일어나면, 읽어온 값은 이미 오래된 값일 수 있으므로 캐시에 넣지 않는다.
+ *
+ * @param <K> 키 타입
+ * @param <V> 값 타입 (캐시된 값은 여러 요청이 같이 쓰므로 바꾸지 않는 객체여야 한다)
+ */
+public class LruTtlCache<K, V> {
+
+	private final String name;
+	private final int maxSize;
+	private final long ttlMillis;
+
+	private final LinkedHashMap<K, Entry<V>> entries;
+
+	// invalidate 가 일어날 때마다 증가한다. 읽기 시작할 때와 넣을 때 값이 다르면 넣지 않는다.
+	private long generation = 0;
+
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+	private final AtomicLong evictions = new AtomicLong();
+	private final AtomicLong expirations = new AtomicLong();
+	private final AtomicLong invalidations = new AtomicLong();
+
+	public LruTtlCache(String name, int maxSize, long ttlMillis) {
+		this.name = name;
+		this.maxSize = maxSize;
+		this.ttlMillis = ttlMillis;
+		this.entries = new LinkedHashMap<K, Entry<V>>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+				if (size() > LruTtlCache.this.maxSize) {
+					LruTtlCache.this.evictions.incrementAndGet();
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+
+	/**
+	 * 캐시에서 꺼내고, 없으면 loader 로 읽어서 넣는다
+	 * @param key
+	 * @param loader
+	 * @return
+	 */
+	public V get(K key, Function<K, V> loader) {
+		long startGeneration;
+		synchronized (this) {
+			Entry<V> entry = this.entries.get(key);
+			if (entry != null) {
+				if (entry.expiresAt > System.currentTimeMillis()) {
+					this.hits.incrementAndGet();
+					return entry.value;
+				}
+				this.entries.remove(key);
+				this.expirations.incrementAndGet();
+			}
+			this.misses.incrementAndGet();
+			startGeneration = this.generation;
+		}
+
+		// DB 조회는 잠금 밖에서 한다 (다른 키 조회를 막지 않도록)
+		V value = loader.apply(key);
+
+		synchronized (this) {
+			if (this.generation == startGeneration) {
+				this.entries.put(key, new Entry<>(value, System.currentTimeMillis() + this.ttlMillis));
+			}
+		}
+		return value;
+	}
+
+	/**
+	 * 항목 무효화 (수정/삭제 시)
+	 * @param key
+	 */
+	public synchronized void invalidate(K key) {
+		this.generation++;
+		this.entries.remove(key);
+		this.invalidations.incrementAndGet();
+	}
+
+	/**
+	 * 전체 무효화
+	 */
+	public synchronized void invalidateAll() {
+		this.generation++;
+		this.entries.clear();
+		this.invalidations.incrementAndGet();
+	}
+
+	public synchronized int size() {
+		return this.entries.size();
+	}
+
+	/**
+	 * 통계 스냅샷
+	 * @return
+	 */
+	public CacheStats stats() {
+		return new CacheStats(this.name, this.size(), this.maxSize, this.ttlMillis,
+				this.hits.get(), this.misses.get(), this.evictions.get(),
+				this.expirations.get(), this.invalidations.get());
+	}
+
+	private static class Entry<V> {
+		private final V value;
+		private final long expiresAt;
+
+		private Entry(V value, long expiresAt) {
+			this.value = value;
+			this.expiresAt = expiresAt;
+		}
+	}
+}
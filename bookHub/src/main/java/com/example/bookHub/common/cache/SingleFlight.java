@@ -0,0 +1,129 @@
+package com.example.bookHub.common.cache;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import org.springframework.dao.QueryTimeoutException;
+
+/**
+ * SingleFlight : 같은 키를 동시에 읽는 요청을 한 번의 읽기로 합치는 도구 (request coalescing)
+ *
+ * 인기 있는 책 하나에 요청이 몰리면 캐시가 비어 있는 순간(처음, 수정 직후, 유효시간 만료) 모든 요청이 같은 쿼리를 동시에 실행한다.
+ * - load(key, loader) : 같은 키를 읽고 있는 요청이 없으면 이 요청이 loader 를 실행한다(leader).
+ *   이미 읽고 있으면 loader 를 실행하지 않고 그 결과를 기다렸다가 같이 받는다.
+ * - loader 가 예외를 던지면 기다리던 요청도 모두 같은 예외를 받는다. (결과도 예외도 남겨두지 않는다. 다음 요청은 다시 읽는다)
+ * - 기다리는 요청은 최대 timeoutMillis 까지만 기다리고 QueryTimeoutException 을 받는다. (leader 의 읽기는 계속된다)
+ * - forget(key) : 수정/삭제 후에는 그 전에 시작한 읽기에 합류하지 않도록 키를 지운다. (이미 기다리는 요청은 그 결과를 받는다)
+ *
+ * 캐시(LruTtlCache)와 같이 쓸 때는 캐시의 loader 안에서 load 를 호출한다. (캐시에 없는 요청만 합친다)
+ *
+ * @param <K> 키 타입 (equals/hashCode)
+ * @param <V> 값 타입 (여러 요청이 같이 쓰므로 바꾸지 않는 객체여야 한다)
+ */
+public class SingleFlight<K, V> {
+
+	private final String name;
+	private final long timeoutMillis;
+
+	private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+	private final AtomicLong loads = new AtomicLong();
+	private final AtomicLong coalesced = new AtomicLong();
+	private final AtomicLong timeouts = new AtomicLong();
+
+	public SingleFlight(String name, long timeoutMillis) {
+		this.name = name;
+		this.timeoutMillis = timeoutMillis;
+	}
+
+	/**
+	 * 읽기. 같은 키를 읽고 있는 요청이 있으면 그 결과를 같이 받는다.
+	 * @param key
+	 * @param loader
+	 * @return
+	 * @throws QueryTimeoutException - 다른 요청의 읽기를 timeoutMillis 동안 기다려도 끝나지 않은 경우
+	 */
+	public V load(K key, Function<K, V> loader) throws QueryTimeoutException {
+		CompletableFuture<V> flight = new CompletableFuture<>();
+		CompletableFuture<V> existing = this.inFlight.putIfAbsent(key, flight);
+		if (existing == null) {
+			this.loads.incrementAndGet();
+			try {
+				V value = loader.apply(key);
+				flight.complete(value);
+				return value;
+			} catch (RuntimeException | Error ex) {
+				flight.completeExceptionally(ex);
+				throw ex;
+			} finally {
+				this.inFlight.remove(key, flight); // forget 후 다른 요청이 새로 시작한 읽기는 지우지 않는다
+			}
+		}
+
+		this.coalesced.incrementAndGet();
+		try {
+			return existing.get(this.timeoutMillis, TimeUnit.MILLISECONDS);
+		} catch (TimeoutException ex) {
+			this.timeouts.incrementAndGet();
+			throw new QueryTimeoutException(this.name + " : load of " + key + " did not finish in " + this.timeoutMillis + " ms", ex);
+		} catch (ExecutionException ex) {
+			Throwable cause = ex.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new IllegalStateException(cause);
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("interrupted while waiting for " + this.name + " : " + key, ex);
+		}
+	}
+
+	/**
+	 * 이후 요청이 지금 진행 중인 읽기에 합류하지 않도록 한다
+	 * @param key
+	 */
+	public void forget(K key) {
+		this.inFlight.remove(key);
+	}
+
+	public void forgetAll() {
+		this.inFlight.clear();
+	}
+
+	public String getName() {
+		return this.name;
+	}
+
+	/**
+	 * loader 를 실행한 횟수
+	 */
+	public long getLoads() {
+		return this.loads.get();
+	}
+
+	/**
+	 * loader 를 실행하지 않고 다른 요청의 결과를 기다린 횟수
+	 */
+	public long getCoalesced() {
+		return this.coalesced.get();
+	}
+
+	public long getTimeouts() {
+		return this.timeouts.get();
+	}
+
+	/**
+	 * 지금 진행 중인 읽기 수
+	 */
+	public int getInFlight() {
+		return this.inFlight.size();
+	}
+}
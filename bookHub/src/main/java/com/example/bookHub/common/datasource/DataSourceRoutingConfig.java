@@ -0,0 +1,85 @@
+package com.example.bookHub.common.datasource;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayDataSource;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.util.StringUtils;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * 원본(primary) / 복제본(replica) 커넥션 풀 설정 - bookhub.datasource.replica.enabled=true 일 때만 사용한다
+ *
+ * - primaryDataSource : spring.datasource.* (spring.datasource.hikari.*) 그대로. Flyway 마이그레이션도 원본에만 실행한다.
+ * - replicaDataSource : bookhub.datasource.replica.* (url 이 없으면 원본과 같은 DB 에 풀만 따로 만든다. 로컬/테스트용)
+ * - dataSource        : JPA, JdbcTemplate 이 쓰는 DataSource. 읽기 전용 트랜잭션은 복제본으로 보낸다. (ReadWriteRoutingDataSource)
+ *   LazyConnectionDataSourceProxy 로 감싸서 트랜잭션이 읽기 전용인지 정해진 후, 첫 SQL 을 실행할 때 커넥션을 꺼낸다.
+ *   (SQL 을 실행하지 않는 트랜잭션은 커넥션을 꺼내지 않는다)
+ *
+ * 꺼져 있으면 스프링 부트가 spring.datasource.* 로 풀 하나를 만든다. (읽기 전용 트랜잭션도 원본을 사용한다)
+ */
+@Configuration
+@ConditionalOnProperty(name = "bookhub.datasource.replica.enabled", havingValue = "true")
+public class DataSourceRoutingConfig {
+
+	@Bean
+	@FlywayDataSource
+	@ConfigurationProperties("spring.datasource.hikari")
+	public HikariDataSource primaryDataSource(DataSourceProperties dataSourceProperties) {
+		HikariDataSource dataSource = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+		dataSource.setPoolName("primary");
+		return dataSource;
+	}
+
+	/**
+	 * 복제본 커넥션 풀
+	 * - 풀은 처음 커넥션을 꺼낼 때 만든다. 기동할 때 복제본이 내려가 있어도 기동은 된다.
+	 * - 복제본이 응답하지 않을 때 원본으로 넘어가기 전까지 기다리는 시간이 connection-timeout-millis 이므로 짧게 둔다.
+	 */
+	@Bean
+	public HikariDataSource replicaDataSource(DataSourceProperties dataSourceProperties,
+			@Value("${bookhub.datasource.replica.url:}") String url,
+			@Value("${bookhub.datasource.replica.username:}") String username,
+			@Value("${bookhub.datasource.replica.password:}") String password,
+			@Value("${bookhub.datasource.replica.maximum-pool-size:10}") int maximumPoolSize,
+			@Value("${bookhub.datasource.replica.connection-timeout-millis:1000}") long connectionTimeoutMillis) {
+		HikariDataSource dataSource = new HikariDataSource();
+		dataSource.setPoolName("replica");
+		dataSource.setDriverClassName(dataSourceProperties.determineDriverClassName());
+		dataSource.setJdbcUrl(StringUtils.hasText(url) ? url : dataSourceProperties.determineUrl());
+		dataSource.setUsername(StringUtils.hasText(username) ? username : dataSourceProperties.determineUsername());
+		dataSource.setPassword(StringUtils.hasText(username) ? password : dataSourceProperties.determinePassword());
+		dataSource.setMaximumPoolSize(maximumPoolSize);
+		dataSource.setConnectionTimeout(connectionTimeoutMillis);
+		dataSource.setReadOnly(true);
+		return dataSource;
+	}
+
+	/**
+	 * @param fallbackToPrimary       - 복제본 커넥션을 꺼내지 못하면 원본에서 읽는다. false 이면 읽기 요청이 실패한다
+	 * @param retryAfterMillis        - 복제본이 실패한 후 다시 시도하기 전까지 원본만 사용하는 시간
+	 * @param primaryAfterWriteMillis - 쓰기 후 읽기도 원본에서 하는 시간 (복제 지연보다 길게 둔다. 0 이면 바로 복제본에서 읽는다)
+	 */
+	@Bean
+	@Primary
+	public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+			@Qualifier("replicaDataSource") DataSource replicaDataSource, MeterRegistry meterRegistry,
+			@Value("${bookhub.datasource.replica.fallback-to-primary:true}") boolean fallbackToPrimary,
+			@Value("${bookhub.datasource.replica.retry-after-millis:5000}") long retryAfterMillis,
+			@Value("${bookhub.datasource.replica.primary-after-write-millis:1000}") long primaryAfterWriteMillis) {
+		ReadWriteRoutingDataSource routingDataSource = new ReadWriteRoutingDataSource(primaryDataSource, replicaDataSource,
+				fallbackToPrimary, retryAfterMillis, primaryAfterWriteMillis, meterRegistry);
+		return new LazyConnectionDataSourceProxy(routingDataSource);
+	}
+}
@@ -0,0 +1,144 @@
+package com.example.bookHub.common.datasource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * ReadWriteRoutingDataSource : 읽기 전용 트랜잭션의 커넥션은 복제본(replica) 풀에서, 나머지는 원본(primary) 풀에서 꺼낸다
+ *
+ * - 트랜잭션이 읽기 전용인지는 커넥션을 꺼낼 때 TransactionSynchronizationManager 로 확인한다.
+ *   트랜잭션 매니저는 읽기 전용 여부를 정하기 전에 커넥션을 꺼내므로 LazyConnectionDataSourceProxy 로 감싸서
+ *   첫 SQL 을 실행할 때 꺼내도록 해야 한다. (DataSourceRoutingConfig)
+ * - 복제본에 연결하지 못하면 fallbackToPrimary 일 때 원본에서 꺼내고, retryAfterMillis 동안은 복제본을 다시 시도하지 않는다.
+ *   복제본 풀이 바빠서 대기 시간 안에 빈 커넥션이 없었을 뿐이면(isPoolSaturated) 원본으로 넘기지 않고 그대로 실패한다.
+ *   (복제본은 살아 있으므로 retryAfterMillis 동안 모든 읽기를 원본으로 몰면 원본의 쓰기까지 막힌다)
+ * - 읽기/쓰기 트랜잭션의 커넥션을 꺼낸 후 primaryAfterWriteMillis 동안은 읽기도 원본에서 한다.
+ *   (복제 지연 때문에 수정 직후 보기 화면이 수정 전 값을 읽고, 그 값이 상세 캐시에 남는 것을 막는다)
+ *   실제로 쓰기를 했는지는 보지 않는다. (쓰지 않고 끝난 읽기/쓰기 트랜잭션도 포함)
+ * - 트랜잭션 밖의 커넥션은 원본에서 꺼내지만 위 시각은 남기지 않는다.
+ *   건수(BookCountService), 색인/자동완성/히스토그램 다시 만들기, actuator health 같은 백그라운드 조회가
+ *   주기적으로 읽기를 원본에 묶어 두지 않도록 하기 위해서다. (이 프로젝트의 쓰기는 모두 트랜잭션 안에서 한다)
+ *
+ * 메트릭
+ * - bookhub.datasource.connections (target=primary|replica) : 꺼낸 커넥션 수
+ * - bookhub.datasource.replica.fallbacks : 복제본 대신 원본을 사용한 횟수
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+	public static final String PRIMARY = "primary";
+	public static final String REPLICA = "replica";
+
+	private static final Logger log = LoggerFactory.getLogger(ReadWriteRoutingDataSource.class);
+
+	private final boolean fallbackToPrimary;
+	private final long retryAfterNanos;
+	private final long primaryAfterWriteNanos;
+
+	// 복제본을 다시 시도할 시각, 마지막으로 읽기/쓰기 트랜잭션의 커넥션을 꺼낸 시각 (System.nanoTime)
+	private final AtomicLong replicaRetryAt = new AtomicLong(System.nanoTime());
+	private final AtomicLong lastWriteAt = new AtomicLong(System.nanoTime() - TimeUnit.DAYS.toNanos(1));
+
+	private final Counter primaryConnections;
+	private final Counter replicaConnections;
+	private final Counter fallbacks;
+
+	public ReadWriteRoutingDataSource(DataSource primary, DataSource replica, boolean fallbackToPrimary,
+			long retryAfterMillis, long primaryAfterWriteMillis, MeterRegistry meterRegistry) {
+		this.fallbackToPrimary = fallbackToPrimary;
+		this.retryAfterNanos = TimeUnit.MILLISECONDS.toNanos(retryAfterMillis);
+		this.primaryAfterWriteNanos = TimeUnit.MILLISECONDS.toNanos(primaryAfterWriteMillis);
+		this.primaryConnections = Counter.builder("bookhub.datasource.connections")
+										 .description("connections handed out").tag("target", PRIMARY).register(meterRegistry);
+		this.replicaConnections = Counter.builder("bookhub.datasource.connections")
+										 .description("connections handed out").tag("target", REPLICA).register(meterRegistry);
+		this.fallbacks = Counter.builder("bookhub.datasource.replica.fallbacks")
+								.description("read-only connections served by the primary because the replica failed")
+								.register(meterRegistry);
+
+		this.setTargetDataSources(Map.of(PRIMARY, primary, REPLICA, replica));
+		this.setDefaultTargetDataSource(primary);
+		this.setLenientFallback(false);
+		this.afterPropertiesSet();
+	}
+
+	@Override
+	protected Object determineCurrentLookupKey() {
+		long now = System.nanoTime();
+		if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+			if (TransactionSynchronizationManager.isActualTransactionActive()) {
+				this.lastWriteAt.set(now);
+			}
+			return PRIMARY;
+		}
+		if (now - this.lastWriteAt.get() < this.primaryAfterWriteNanos || now - this.replicaRetryAt.get() < 0) {
+			return PRIMARY;
+		}
+		return REPLICA;
+	}
+
+	@Override
+	public Connection getConnection() throws SQLException {
+		return this.route(dataSource -> dataSource.getConnection());
+	}
+
+	@Override
+	public Connection getConnection(String username, String password) throws SQLException {
+		return this.route(dataSource -> dataSource.getConnection(username, password));
+	}
+
+	private Connection route(ConnectionSupplier supplier) throws SQLException {
+		Object key = this.determineCurrentLookupKey();
+		DataSource target = this.getResolvedDataSources().get(key);
+		if (PRIMARY.equals(key)) {
+			this.primaryConnections.increment();
+			return supplier.get(target);
+		}
+
+		try {
+			Connection connection = supplier.get(target);
+			this.replicaConnections.increment();
+			return connection;
+		} catch (SQLException ex) {
+			if (!this.fallbackToPrimary || isPoolSaturated(ex)) {
+				throw ex;
+			}
+			// 복제본이 살아날 때까지 요청마다 커넥션 대기시간을 쓰지 않도록 한동안 원본만 사용한다
+			this.replicaRetryAt.set(System.nanoTime() + this.retryAfterNanos);
+			this.fallbacks.increment();
+			log.warn("replica connection failed, reading from primary for {} ms : {}",
+					 TimeUnit.NANOSECONDS.toMillis(this.retryAfterNanos), ex.getMessage());
+			this.primaryConnections.increment();
+			return supplier.get(this.getResolvedDefaultDataSource());
+		}
+	}
+
+	/**
+	 * 복제본 풀이 꽉 차서 커넥션을 못 꺼낸 것인지
+	 * - 히카리는 대기 시간 안에 커넥션을 못 주면 SQLTransientConnectionException 을 던지고,
+	 *   그 사이 새 커넥션 연결에 실패했으면 그 오류를 원인(cause)으로 붙인다. 원인이 없으면 DB 는 살아 있고 풀만 바쁜 것이다.
+	 * @param ex
+	 * @return
+	 */
+	static boolean isPoolSaturated(SQLException ex) {
+		return ex instanceof SQLTransientConnectionException && ex.getCause() == null;
+	}
+
+	@FunctionalInterface
+	private interface ConnectionSupplier {
+		Connection get(DataSource dataSource) throws SQLException;
+	}
+}
@@ -0,0 +1,89 @@
+package com.example.bookHub.common.metrics;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.example.bookHub.book.service.BookDetailCache;
+import com.example.bookHub.common.cache.CacheStats;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * 메트릭(Micrometer) 설정
+ *
+ * - 컨트롤러 : actuator 가 만드는 http.server.requests 타이머 + @Timed("bookhub.controller")
+ * - 서비스   : @Timed("bookhub.service") - TimedAspect 가 메소드 실행시간을 잰다 (class, method 태그)
+ * - SQL      : SqlStatementInspector (종류별 실행 수) + RequestSqlMetricsFilter (요청당 실행 수)
+ * - 하이버네이트 통계(hibernate.*), 히카리 커넥션 풀(hikaricp.*) 은 actuator 가 자동으로 등록한다.
+ * - 모두 /actuator/prometheus 로 노출된다.
+ */
+@Configuration
+public class MetricsConfig {
+
+	/**
+	 * @Timed 어노테이션이 붙은 메소드의 실행시간을 재는 AOP 애스펙트
+	 */
+	@Bean
+	public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+		return new TimedAspect(meterRegistry);
+	}
+
+	@Bean
+	public SqlStatementInspector sqlStatementInspector(MeterRegistry meterRegistry,
+			@Value("${bookhub.sql.log.sample-rate:0}") double sampleRate) {
+		return new SqlStatementInspector(meterRegistry, sampleRate);
+	}
+
+	/**
+	 * 하이버네이트에 SqlStatementInspector 를 등록한다
+	 */
+	@Bean
+	public HibernatePropertiesCustomizer sqlStatementInspectorCustomizer(SqlStatementInspector sqlStatementInspector) {
+		return hibernateProperties -> hibernateProperties.put(AvailableSettings.STATEMENT_INSPECTOR, sqlStatementInspector);
+	}
+
+	@Bean
+	public FilterRegistrationBean<RequestSqlMetricsFilter> requestSqlMetricsFilter(MeterRegistry meterRegistry) {
+		FilterRegistrationBean<RequestSqlMetricsFilter> registration =
+				new FilterRegistrationBean<>(new RequestSqlMetricsFilter(meterRegistry));
+		registration.addUrlPatterns("/*");
+		return registration;
+	}
+
+	/**
+	 * 책 상세 캐시 통계 (/book/stats/cache 와 같은 값) 를 메트릭으로 등록한다
+	 */
+	@Bean
+	public MeterBinder bookDetailCacheMetrics(BookDetailCache bookDetailCache) {
+		return registry -> {
+			for (CacheStats stats : bookDetailCache.stats()) {
+				String name = stats.getName();
+				FunctionCounter.builder("bookhub.cache.hits", bookDetailCache, cache -> find(cache, name).getHits())
+							   .tag("cache", name).register(registry);
+				FunctionCounter.builder("bookhub.cache.misses", bookDetailCache, cache -> find(cache, name).getMisses())
+							   .tag("cache", name).register(registry);
+				FunctionCounter.builder("bookhub.cache.evictions", bookDetailCache, cache -> find(cache, name).getEvictions())
+							   .tag("cache", name).register(registry);
+				FunctionCounter.builder("bookhub.cache.expirations", bookDetailCache, cache -> find(cache, name).getExpirations())
+							   .tag("cache", name).register(registry);
+				Gauge.builder("bookhub.cache.size", bookDetailCache, cache -> find(cache, name).getSize())
+					 .tag("cache", name).register(registry);
+			}
+		};
+	}
+
+	private static CacheStats find(BookDetailCache bookDetailCache, String name) {
+		return bookDetailCache.stats().stream()
+							  .filter(stats -> stats.getName().equals(name))
+							  .findFirst()
+							  .orElseThrow();
+	}
+}
@@ -0,0 +1,45 @@
+package com.example.bookHub.common.metrics;
+
+import java.io.IOException;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * 요청당 SQL 실행 수 측정 필터
+ * - 요청이 시작될 때 SQL 기록을 시작하고, 끝나면 실행된 SQL 수를
+ *   bookhub.sql.statements.per.request 분포로 남긴다. (uri 태그는 /book/read/{bookId} 같은 매핑 패턴)
+ */
+public class RequestSqlMetricsFilter extends OncePerRequestFilter {
+
+	private final MeterRegistry meterRegistry;
+
+	public RequestSqlMetricsFilter(MeterRegistry meterRegistry) {
+		this.meterRegistry = meterRegistry;
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+			throws ServletException, IOException {
+		SqlStatementInspector.begin();
+		try {
+			filterChain.doFilter(request, response);
+		} finally {
+			SqlCapture capture = SqlStatementInspector.end();
+			Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+			DistributionSummary.builder("bookhub.sql.statements.per.request")
+							   .description("SQL statements executed per HTTP request")
+							   .tag("uri", pattern == null ? "UNKNOWN" : pattern.toString())
+							   .register(this.meterRegistry)
+							   .record(capture == null ? 0 : capture.getCount());
+		}
+	}
+}
@@ -0,0 +1,46 @@
+package com.example.bookHub.common.metrics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 한 요청(스레드) 동안 실행된 SQL 기록
+ * - SqlStatementInspector.begin() ~ end() 사이에 같은 스레드에서 실행된 SQL 을 모은다.
+ * - 문장은 최대 MAX_STATEMENTS 개까지만 보관하고, 개수는 종류(select/insert/update/delete/other)별로 모두 센다.
+ */
+public class SqlCapture {
+
+	private static final int MAX_STATEMENTS = 100;
+
+	private int count;
+	private final Map<String, Integer> countsByType = new HashMap<>();
+	private final List<String> statements = new ArrayList<>();
+
+	void add(String sql) {
+		this.count++;
+		this.countsByType.merge(SqlStatementInspector.typeOf(sql), 1, Integer::sum);
+		if (this.statements.size() < MAX_STATEMENTS) {
+			this.statements.add(sql);
+		}
+	}
+
+	public int getCount() {
+		return this.count;
+	}
+
+	/**
+	 * 종류별 실행 수
+	 * @param type - select, insert, update, delete, other
+	 * @return
+	 */
+	public int getCount(String type) {
+		return this.countsByType.getOrDefault(type, 0);
+	}
+
+	public List<String> getStatements() {
+		return Collections.unmodifiableList(this.statements);
+	}
+}
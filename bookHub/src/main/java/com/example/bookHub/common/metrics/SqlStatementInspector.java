@@ -0,0 +1,106 @@
+package com.example.bookHub.common.metrics;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * SqlStatementInspector : 하이버네이트가 실행하는 모든 SQL 을 거쳐가는 검사기
+ *
+ * - SQL 종류(select/insert/update/delete)별 실행 횟수를 bookhub.sql.statements 카운터로 센다.
+ * - begin() 으로 시작한 스레드에서는 SQL 을 SqlCapture 에 모은다. (요청당 SQL 수 측정, 테스트에서 쿼리 수 확인)
+ * - show_sql 처럼 항상 콘솔에 찍지 않고, sampleRate 비율만큼만 DEBUG 로그로 남긴다.
+ *   로그를 보려면 logging.level.com.example.bookHub.sql=DEBUG 와 bookhub.sql.log.sample-rate 를 함께 지정한다.
+ *
+ * SQL 은 바꾸지 않고 그대로 돌려준다.
+ */
+public class SqlStatementInspector implements StatementInspector {
+
+	private static final long serialVersionUID = 1L;
+
+	private static final Logger sqlLog = LoggerFactory.getLogger("com.example.bookHub.sql");
+
+	// 기록은 중첩될 수 있다 (ex. 요청 필터 안에서 테스트가 따로 기록). 진행 중인 모든 기록에 SQL 을 남긴다.
+	private static final ThreadLocal<Deque<SqlCapture>> CURRENT = ThreadLocal.withInitial(ArrayDeque::new);
+
+	private static final String[] TYPES = { "select", "insert", "update", "delete", "other" };
+
+	// SQL 종류별 카운터 (매번 레지스트리에서 찾지 않도록 미리 만들어 둔다)
+	private final transient Map<String, Counter> counters = new HashMap<>();
+	private final double sampleRate;
+
+	public SqlStatementInspector(MeterRegistry meterRegistry, double sampleRate) {
+		this.sampleRate = sampleRate;
+		for (String type : TYPES) {
+			this.counters.put(type, Counter.builder("bookhub.sql.statements")
+										   .description("executed SQL statements")
+										   .tag("type", type)
+										   .register(meterRegistry));
+		}
+	}
+
+	@Override
+	public String inspect(String sql) {
+		this.counters.get(typeOf(sql)).increment();
+
+		for (SqlCapture capture : CURRENT.get()) {
+			capture.add(sql);
+		}
+
+		if (this.sampleRate > 0 && sqlLog.isDebugEnabled() && ThreadLocalRandom.current().nextDouble() < this.sampleRate) {
+			sqlLog.debug(sql);
+		}
+		return sql;
+	}
+
+	/**
+	 * 현재 스레드에서 SQL 기록을 시작한다
+	 * @return
+	 */
+	public static SqlCapture begin() {
+		SqlCapture capture = new SqlCapture();
+		CURRENT.get().push(capture);
+		return capture;
+	}
+
+	/**
+	 * 현재 스레드에서 가장 나중에 시작한 SQL 기록을 끝낸다
+	 * @return 기록된 SQL (begin 하지 않았으면 null)
+	 */
+	public static SqlCapture end() {
+		Deque<SqlCapture> captures = CURRENT.get();
+		SqlCapture capture = captures.poll();
+		if (captures.isEmpty()) {
+			CURRENT.remove();
+		}
+		return capture;
+	}
+
+	static String typeOf(String sql) {
+		String trimmed = sql.trim();
+		int end = 0;
+		while (end < trimmed.length() && !Character.isWhitespace(trimmed.charAt(end))) {
+			end++;
+		}
+		String keyword = trimmed.substring(0, end).toLowerCase(Locale.ROOT);
+		switch (keyword) {
+		case "select":
+		case "insert":
+		case "update":
+		case "delete":
+			return keyword;
+		default:
+			return "other";
+		}
+	}
+}
@@ -0,0 +1,124 @@
+package com.example.bookHub.common.startup;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline.TimelineEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.stereotype.Component;
+
+/**
+ * StartupTimelineReporter : 기동 시간 기록(startup timeline) 요약
+ *
+ * BookHubApplication 은 BufferingApplicationStartup 으로 기동 단계(빈 생성, 설정 클래스 처리 등)마다 걸린 시간을 기록한다.
+ * 전체 기록은 /actuator/startup 으로 볼 수 있고, 여기서는 기동이 끝나면 빈 생성 시간이 긴 빈 report-top 개를 로그로 남긴다.
+ * - 빈 생성 시간은 그 빈이 의존하는 빈을 만드는 시간을 뺀 자기 시간(self time)이다.
+ *   (의존 빈까지 더하면 EntityManagerFactory 를 쓰는 빈들이 모두 느린 빈으로 보인다)
+ * - bookhub.startup.exit-after-ready=true 이면 기동이 끝나자마자 종료한다. (AppCDS 아카이브를 만드는 학습(training) 실행용)
+ */
+@Component
+public class StartupTimelineReporter {
+
+	private static final Logger log = LoggerFactory.getLogger(StartupTimelineReporter.class);
+
+	private static final String BEAN_INSTANTIATE = "spring.beans.instantiate";
+
+	private final int reportTop;
+	private final boolean exitAfterReady;
+
+	public StartupTimelineReporter(@Value("${bookhub.startup.report-top:0}") int reportTop,
+			@Value("${bookhub.startup.exit-after-ready:false}") boolean exitAfterReady) {
+		this.reportTop = reportTop;
+		this.exitAfterReady = exitAfterReady;
+	}
+
+	/**
+	 * 다른 ApplicationReadyEvent 리스너(제목 색인 등)가 모두 끝난 후에 실행한다
+	 * @param event
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	@Order(Ordered.LOWEST_PRECEDENCE)
+	public void onApplicationReady(ApplicationReadyEvent event) {
+		if (this.reportTop > 0 && event.getApplicationContext().getApplicationStartup() instanceof BufferingApplicationStartup) {
+			StartupTimeline timeline = ((BufferingApplicationStartup) event.getApplicationContext().getApplicationStartup()).getBufferedTimeline();
+			log.info("slowest beans at startup (self time):\n{}", 
+					slowestBeans(timeline.getEvents(), this.reportTop).stream()
+						.map(bean -> String.format("  %6d ms  %s", bean.getSelfTime().toMillis(), bean.getBeanName()))
+						.collect(Collectors.joining("\n")));
+		}
+		if (this.exitAfterReady) {
+			log.info("bookhub.startup.exit-after-ready=true, exiting");
+			System.exit(SpringApplication.exit(event.getApplicationContext()));
+		}
+	}
+
+	/**
+	 * 빈 생성 단계를 자기 시간이 긴 순서로 정렬한다
+	 * @param events - 기동 기록
+	 * @param limit  - 최대 개수
+	 * @return
+	 */
+	static List<BeanTime> slowestBeans(List<TimelineEvent> events, int limit) {
+		// 단계 id -> 직접 하위 단계들의 시간 합
+		Map<Long, Duration> childTimes = new HashMap<>();
+		for (TimelineEvent event : events) {
+			Long parentId = event.getStartupStep().getParentId();
+			if (parentId != null) {
+				childTimes.merge(parentId, event.getDuration(), Duration::plus);
+			}
+		}
+
+		List<BeanTime> beans = new ArrayList<>();
+		for (TimelineEvent event : events) {
+			StartupStep step = event.getStartupStep();
+			if (!BEAN_INSTANTIATE.equals(step.getName())) {
+				continue;
+			}
+			Duration selfTime = event.getDuration().minus(childTimes.getOrDefault(step.getId(), Duration.ZERO));
+			beans.add(new BeanTime(beanName(step), selfTime));
+		}
+		beans.sort((a, b) -> b.getSelfTime().compareTo(a.getSelfTime()));
+		return beans.subList(0, Math.min(limit, beans.size()));
+	}
+
+	private static String beanName(StartupStep step) {
+		for (StartupStep.Tag tag : step.getTags()) {
+			if ("beanName".equals(tag.getKey())) {
+				return tag.getValue();
+			}
+		}
+		return "?";
+	}
+
+	static class BeanTime {
+		private final String beanName;
+		private final Duration selfTime;
+
+		BeanTime(String beanName, Duration selfTime) {
+			this.beanName = beanName;
+			this.selfTime = selfTime;
+		}
+
+		String getBeanName() {
+			return this.beanName;
+		}
+
+		Duration getSelfTime() {
+			return this.selfTime;
+		}
+	}
+}
@@ -0,0 +1,48 @@
+package db.migration;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+/**
+ * book_seq 를 이미 있는 bookId 뒤로 옮긴다
+ *
+ * ddl-auto=update 로 만들어진 기존 DB 는 책이 IDENTITY(자동증가) 로 입력되었거나 시퀀스 없이 만들어졌을 수 있다.
+ * 그대로 두면 V1 에서 새로 만든 시퀀스가 1 부터 시작해서 기존 bookId 와 겹친다.
+ *
+ * - 하이버네이트 pooled 방식은 시퀀스 값 N 을 받으면 (N - 49) ~ N 을 bookId 로 쓰므로
+ *   다음 시퀀스 값이 max(book_id) + 50 이상이어야 겹치지 않는다.
+ * - 시퀀스 값을 하나 받아보고 그보다 작을 때만 다시 시작한다. (이미 충분히 앞서 있으면 50 개 하나만 건너뛴다)
+ * - 빈 테이블이면 아무것도 하지 않는다.
+ */
+public class V2__Restart_book_seq extends BaseJavaMigration {
+
+	private static final int ALLOCATION_SIZE = 50;
+
+	@Override
+	public void migrate(Context context) throws Exception {
+		try (Statement statement = context.getConnection().createStatement()) {
+			long maxBookId;
+			try (ResultSet resultSet = statement.executeQuery("select max(book_id) from book")) {
+				resultSet.next();
+				maxBookId = resultSet.getLong(1);
+				if (resultSet.wasNull()) {
+					return;
+				}
+			}
+
+			long next;
+			try (ResultSet resultSet = statement.executeQuery("select next value for book_seq")) {
+				resultSet.next();
+				next = resultSet.getLong(1);
+			}
+
+			long restartWith = maxBookId + ALLOCATION_SIZE;
+			if (next < restartWith) {
+				statement.execute("alter sequence book_seq restart with " + restartWith);
+			}
+		}
+	}
+}
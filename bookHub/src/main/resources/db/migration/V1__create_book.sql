@@ -0,0 +1,18 @@
+-- 책 테이블 (Book 엔티티)
+-- ddl-auto=update 로 이미 테이블이 만들어진 DB 에서도 실행할 수 있도록 모두 if not exists 로 만든다.
+-- (spring.flyway.baseline-version=0 이므로 기존 DB 에도 V1 부터 적용된다)
+
+create table if not exists book (
+    book_id integer not null,
+    title varchar(200),
+    price integer,
+    insert_date_time timestamp,
+    primary key (book_id)
+);
+
+-- 나중에 추가된 컬럼 (version 은 기존 행을 0 으로 채운다)
+alter table book add column if not exists update_date_time timestamp;
+alter table book add column if not exists version integer default 0 not null;
+
+-- @SequenceGenerator(allocationSize = 50) 와 같은 증가값
+create sequence if not exists book_seq start with 1 increment by 50;
@@ -0,0 +1,8 @@
+-- 목록/커서 페이징 : order by insert_date_time desc, book_id desc 와 같은 순서의 인덱스
+-- - 페이지 크기만큼만 인덱스를 읽고 멈춘다. (정렬하려고 테이블 전체를 읽지 않는다)
+-- - 커서 다음 페이지의 seek 조건 (insert_date_time, book_id) < (?, ?) 도 이 인덱스로 시작 위치를 찾는다.
+create index if not exists book_insert_date_time_book_id_idx on book (insert_date_time desc, book_id desc);
+
+-- 제목 검색 : like '%title%' 는 인덱스로 시작 위치를 찾을 수 없지만, 
+-- 제목 색인(TitleSearchEngine)을 쓸 수 없을 때의 검색 / 건수 쿼리가 테이블 대신 이 좁은 인덱스만 훑는다.
+create index if not exists book_title_idx on book (title);
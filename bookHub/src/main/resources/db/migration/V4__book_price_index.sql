@@ -0,0 +1,4 @@
+-- 가격 조건 / 가격순 목록 : where price between ? and ? order by price, book_id
+-- - 가격 범위의 시작 위치를 찾아서 페이지 크기만큼만 읽는다. 가격 내림차순(price desc, book_id desc)은 같은 인덱스를 거꾸로 읽는다.
+-- - 가격 구간별 책 수는 메모리 히스토그램(BookPriceHistogram)에서 세므로 group by 용 인덱스는 필요 없다.
+create index if not exists book_price_book_id_idx on book (price, book_id);
@@ -0,0 +1,148 @@
+package com.example.bookHub.book.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.example.bookHub.book.service.BookService;
+import com.example.bookHub.support.TestBooks;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * JSON API(/api/books) 테스트
+ * - Mono/Flux 응답은 비동기 요청이므로 asyncDispatch 로 결과를 받는다.
+ * - 잘못된 커서/limit 는 스트림을 시작하기 전에 400 으로 응답한다. (비동기 요청이 시작되지 않는다)
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class BookApiControllerTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private BookService bookService;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	private String title;
+
+	private final List<Integer> bookIds = new ArrayList<>();
+
+	@BeforeEach
+	void setUp() {
+		this.title = "API 목록 " + UUID.randomUUID();
+		for (int i = 0; i < 5; i++) {
+			this.bookIds.add(0, TestBooks.insert(this.bookService, this.title + " " + i)); // 최근 입력순
+		}
+	}
+
+	@Test
+	void streamsNdjsonUpToLimit() throws Exception {
+		MvcResult result = this.mockMvc.perform(get("/api/books").param("title", this.title).param("limit", "2")
+											   .accept(MediaType.APPLICATION_NDJSON))
+									   .andExpect(request().asyncStarted())
+									   .andReturn();
+
+		List<Integer> streamed = this.ndjsonBookIds(this.dispatch(result));
+		assertEquals(this.bookIds.subList(0, 2), streamed);
+	}
+
+	@Test
+	void streamsNdjsonToEndWithoutLimit() throws Exception {
+		MvcResult result = this.mockMvc.perform(get("/api/books").param("title", this.title))
+									   .andExpect(request().asyncStarted())
+									   .andReturn();
+
+		assertEquals(this.bookIds, this.ndjsonBookIds(this.dispatch(result)));
+	}
+
+	@Test
+	void jsonListNeedsLimit() throws Exception {
+		// limit 가 없으면 전체 목록을 JSON 배열 하나로 모아야 하므로 받지 않는다
+		this.mockMvc.perform(get("/api/books").param("title", this.title).accept(MediaType.APPLICATION_JSON))
+					.andExpect(status().isNotAcceptable());
+
+		this.mockMvc.perform(get("/api/books").param("title", this.title).param("limit", "1001").accept(MediaType.APPLICATION_JSON))
+					.andExpect(status().isBadRequest());
+
+		MvcResult result = this.mockMvc.perform(get("/api/books").param("title", this.title).param("limit", "3")
+											   .accept(MediaType.APPLICATION_JSON))
+									   .andExpect(request().asyncStarted())
+									   .andReturn();
+		this.mockMvc.perform(asyncDispatch(result))
+					.andExpect(status().isOk())
+					.andExpect(jsonPath("$.length()").value(3))
+					.andExpect(jsonPath("$[0].bookId").value(this.bookIds.get(0)));
+	}
+
+	@Test
+	void malformedCursorIsRejectedBeforeStreaming() throws Exception {
+		this.mockMvc.perform(get("/api/books").param("cursor", "잘못된커서").accept(MediaType.APPLICATION_NDJSON))
+					.andExpect(request().asyncNotStarted())
+					.andExpect(status().isBadRequest())
+					.andExpect(jsonPath("$.message").exists());
+
+		this.mockMvc.perform(get("/api/books").param("limit", "0").accept(MediaType.APPLICATION_NDJSON))
+					.andExpect(request().asyncNotStarted())
+					.andExpect(status().isBadRequest());
+	}
+
+	@Test
+	void insertReturnsCreatedWithLocation() throws Exception {
+		MvcResult result = this.mockMvc.perform(post("/api/books").contentType(MediaType.APPLICATION_JSON)
+											   .content("{\"title\":\"" + this.title + " 입력\",\"price\":12000}"))
+									   .andExpect(request().asyncStarted())
+									   .andReturn();
+
+		String body = this.mockMvc.perform(asyncDispatch(result))
+								  .andExpect(status().isCreated())
+								  .andExpect(jsonPath("$.title").value(this.title + " 입력"))
+								  .andExpect(header().exists(HttpHeaders.LOCATION))
+								  .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+		int bookId = this.objectMapper.readTree(body).get("bookId").asInt();
+		assertEquals("/api/books/" + bookId, result.getResponse().getHeader(HttpHeaders.LOCATION));
+	}
+
+	private String dispatch(MvcResult result) throws Exception {
+		return this.mockMvc.perform(asyncDispatch(result))
+						   .andExpect(status().isOk())
+						   .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+	}
+
+	private List<Integer> ndjsonBookIds(String body) throws Exception {
+		List<Integer> bookIds = new ArrayList<>();
+		for (String line : body.split("\n")) {
+			if (!line.isBlank()) {
+				JsonNode book = this.objectMapper.readTree(line);
+				bookIds.add(book.get("bookId").asInt());
+			}
+		}
+		return bookIds;
+	}
+}
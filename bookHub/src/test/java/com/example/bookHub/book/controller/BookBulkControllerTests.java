@@ -0,0 +1,121 @@
+package com.example.bookHub.book.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.example.bookHub.book.service.BookExportService;
+import com.example.bookHub.book.service.BookService;
+import com.example.bookHub.support.TestBooks;
+
+/**
+ * 대량 출력 -> 입력 왕복 테스트 (/book/export -> /book/import)
+ * - 출력한 파일에서 이 테스트의 책만 골라 원본을 지운 후 다시 올리면, 제목(쉼표, 큰따옴표 포함)과 가격이 그대로 돌아와야 한다.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class BookBulkControllerTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private BookService bookService;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private String prefix;
+
+	private final List<String> titles = new ArrayList<>();
+
+	@BeforeEach
+	void setUp() {
+		this.prefix = "왕복 " + UUID.randomUUID() + " ";
+		this.titles.add(this.prefix + "평범한 제목");
+		this.titles.add(this.prefix + "쉼표, 있는 제목");
+		this.titles.add(this.prefix + "\"큰따옴표\" 있는, 제목");
+		for (int i = 0; i < this.titles.size(); i++) {
+			TestBooks.insert(this.bookService, this.titles.get(i), 10000 + i);
+		}
+	}
+
+	@Test
+	void exportsEscapedCsv() throws Exception {
+		List<String> lines = this.exportedLines("csv");
+
+		assertEquals(BookExportService.CSV_HEADER, lines.get(0));
+		assertTrue(lines.stream().anyMatch(line -> line.contains(",\"" + this.prefix + "쉼표, 있는 제목\",10001,")));
+		assertTrue(lines.stream().anyMatch(line -> line.contains(",\"" + this.prefix + "\"\"큰따옴표\"\" 있는, 제목\",10002,")));
+	}
+
+	@Test
+	void csvExportImportsBack() throws Exception {
+		List<String> lines = this.exportedLines("csv");
+		String csv = lines.get(0) + "\n" + String.join("\n", this.ownLines(lines)) + "\n";
+
+		this.roundTrip("text/csv", csv);
+	}
+
+	@Test
+	void ndjsonExportImportsBack() throws Exception {
+		String ndjson = String.join("\n", this.ownLines(this.exportedLines("ndjson"))) + "\n";
+
+		this.roundTrip("application/x-ndjson", ndjson);
+	}
+
+	private void roundTrip(String contentType, String body) throws Exception {
+		Map<String, Integer> exported = this.savedPrices();
+		// 색인, 캐시도 같이 지워지도록 서비스로 지운다
+		for (Map<String, Object> row : this.jdbcTemplate.queryForList("select book_id, version from book where title like ?",
+																	  this.prefix + "%")) {
+			this.bookService.delete((Integer) row.get("BOOK_ID"), (Integer) row.get("VERSION"));
+		}
+
+		this.mockMvc.perform(post("/book/import").contentType(contentType).content(body.getBytes(StandardCharsets.UTF_8)))
+					.andExpect(status().isOk())
+					.andExpect(jsonPath("$.insertedRows").value(this.titles.size()))
+					.andExpect(jsonPath("$.failedRows").value(0));
+
+		assertEquals(exported, this.savedPrices());
+		assertEquals(this.titles.size(), exported.size());
+	}
+
+	private List<String> exportedLines(String format) throws Exception {
+		String body = this.mockMvc.perform(get("/book/export").param("format", format))
+								  .andExpect(status().isOk())
+								  .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+		return Arrays.asList(body.split("\n"));
+	}
+
+	private List<String> ownLines(List<String> lines) {
+		return lines.stream().filter(line -> line.contains(this.prefix)).collect(Collectors.toList());
+	}
+
+	private Map<String, Integer> savedPrices() {
+		return this.jdbcTemplate.queryForList("select title, price from book where title like ?", this.prefix + "%")
+								.stream()
+								.collect(Collectors.toMap(row -> (String) row.get("TITLE"), row -> (Integer) row.get("PRICE")));
+	}
+}
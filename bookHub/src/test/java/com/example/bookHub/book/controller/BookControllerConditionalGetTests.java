@@ -0,0 +1,80 @@
+package com.example.bookHub.book.controller;
+
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.example.bookHub.book.service.BookService;
+import com.example.bookHub.support.RequestBudget;
+import com.example.bookHub.support.TestBooks;
+
+/**
+ * 조건부 요청(ETag / Last-Modified) 테스트
+ * - 변경이 없으면 304 를 보내고, 책이 수정되면 새 ETag 로 200 을 보낸다.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class BookControllerConditionalGetTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private BookService bookService;
+
+	@Test
+	void readReturnsNotModifiedUntilBookChanges() throws Throwable {
+		Integer bookId = TestBooks.insert(this.bookService, "조건부 요청", 10000);
+
+		String etag = this.mockMvc.perform(get("/book/read/{bookId}", bookId))
+								  .andExpect(status().isOk())
+								  .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+								  .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+		// 캐시에 있는 책이면 DB 를 읽지 않고, 화면도 그리지 않는다
+		RequestBudget.of("GET /book/read/{id} (If-None-Match)").maxStatements(0)
+					 .verify(() -> this.mockMvc.perform(get("/book/read/{bookId}", bookId).header(HttpHeaders.IF_NONE_MATCH, etag))
+							 				   .andExpect(status().isNotModified())
+							 				   .andExpect(content().string("")));
+
+		this.mockMvc.perform(post("/book/edit/{bookId}", bookId)
+							 .param("bookId", bookId.toString()).param("version", "0")
+							 .param("title", "조건부 요청 개정판").param("price", "12000"))
+					.andExpect(status().is3xxRedirection());
+
+		String changed = this.mockMvc.perform(get("/book/read/{bookId}", bookId).header(HttpHeaders.IF_NONE_MATCH, etag))
+									 .andExpect(status().isOk())
+									 .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		assertNotEquals(etag, changed);
+	}
+
+	@Test
+	void listReturnsNotModifiedWithoutQueryUntilCatalogChanges() throws Throwable {
+		TestBooks.insert(this.bookService, "목록 조건부 요청", 10000);
+
+		String etag = this.mockMvc.perform(get("/book/list"))
+								  .andExpect(status().isOk())
+								  .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+		RequestBudget.of("GET /book/list (If-None-Match)").maxStatements(0)
+					 .verify(() -> this.mockMvc.perform(get("/book/list").header(HttpHeaders.IF_NONE_MATCH, etag))
+							 				   .andExpect(status().isNotModified()));
+
+		TestBooks.insert(this.bookService, "목록 조건부 요청 2", 10000);
+
+		this.mockMvc.perform(get("/book/list").header(HttpHeaders.IF_NONE_MATCH, etag))
+					.andExpect(status().isOk());
+	}
+}
@@ -0,0 +1,38 @@
+package com.example.bookHub.book.controller;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * 목록 조건부 요청을 끈 경우 (여러 대로 띄울 때)
+ * - 목록은 ETag / Last-Modified 를 보내지 않고, If-None-Match 가 와도 항상 200 으로 그린다.
+ * - 상세화면은 책의 version 으로 ETag 를 만들므로 그대로 조건부 요청을 받는다.
+ */
+@SpringBootTest(properties = "bookhub.list.conditional-get.enabled=false")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class BookControllerListConditionalGetDisabledTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Test
+	void listIsAlwaysRendered() throws Exception {
+		this.mockMvc.perform(get("/book/list"))
+					.andExpect(status().isOk())
+					.andExpect(header().doesNotExist(HttpHeaders.ETAG))
+					.andExpect(header().doesNotExist(HttpHeaders.LAST_MODIFIED));
+
+		this.mockMvc.perform(get("/book/list").header(HttpHeaders.IF_NONE_MATCH, "*"))
+					.andExpect(status().isOk());
+	}
+}
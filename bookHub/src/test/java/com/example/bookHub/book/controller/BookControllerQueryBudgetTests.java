@@ -0,0 +1,147 @@
+package com.example.bookHub.book.controller;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
+
+import com.example.bookHub.book.service.BookDetailCache;
+import com.example.bookHub.book.service.BookService;
+import com.example.bookHub.support.RequestBudget;
+import com.example.bookHub.support.TestBooks;
+
+/**
+ * 엔드포인트별 SQL 실행 수 / 응답시간 예산 테스트
+ *
+ * - 요청 하나가 실행하는 SQL 수가 늘어나면(N+1, 불필요한 count 쿼리, 수정 전 select 등) 실패한다.
+ * - 응답시간 예산은 메모리 H2 기준이다. 느린 CI 에서는 -Dbookhub.budget.time-factor 로 배율을 준다.
+ * - 측정 전에 같은 요청을 한 번 실행해서 템플릿 컴파일, 시퀀스 할당 등 첫 실행 비용을 빼고 잰다.
+ *   워밍업 후에는 하이버네이트 2차 캐시 / 쿼리 캐시를 비워서 DB 를 읽는 경우(cold)의 예산을 잰다.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class BookControllerQueryBudgetTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private BookService bookService;
+
+	@Autowired
+	private BookDetailCache bookDetailCache;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private Integer bookId;
+
+	@BeforeEach
+	void setUp() {
+		for (int i = 0; i < 10; i++) {
+			TestBooks.insert(this.bookService, "예산 테스트 " + i, 10000 + i);
+		}
+		this.bookId = TestBooks.insert(this.bookService, "스프링 부트 예산", 20000);
+		this.bookDetailCache.clear();
+		this.evictSecondLevelCache();
+	}
+
+	@Test
+	void readHitsDatabaseOnceThenCache() throws Throwable {
+		this.warmUp(get("/book/read/{bookId}", TestBooks.insert(this.bookService, "워밍업", 1000)));
+
+		RequestBudget.of("GET /book/read/{id} (cold)").selects(1).maxStatements(1)
+					 .verify(() -> this.mockMvc.perform(get("/book/read/{bookId}", this.bookId)).andExpect(status().isOk()));
+		RequestBudget.of("GET /book/read/{id} (cached)").selects(0).maxStatements(0)
+					 .verify(() -> this.mockMvc.perform(get("/book/read/{bookId}", this.bookId)).andExpect(status().isOk()));
+	}
+
+	@Test
+	void editFormSelectsOnce() throws Throwable {
+		this.warmUp(get("/book/edit/{bookId}", TestBooks.insert(this.bookService, "워밍업", 1000)));
+
+		RequestBudget.of("GET /book/edit/{id}").selects(1).maxStatements(1)
+					 .verify(() -> this.mockMvc.perform(get("/book/edit/{bookId}", this.bookId)).andExpect(status().isOk()));
+	}
+
+	@Test
+	void listSelectsOnceWithoutCount() throws Throwable {
+		this.warmUp(get("/book/list"));
+
+		RequestBudget.of("GET /book/list").selects(1).maxStatements(1).forbid("count(")
+					 .verify(() -> this.mockMvc.perform(get("/book/list").param("page", "2")).andExpect(status().isOk()));
+	}
+
+	@Test
+	void cursorListSelectsOnceWithoutCount() throws Throwable {
+		this.warmUp(get("/book/list").param("cursor", ""));
+
+		RequestBudget.of("GET /book/list?cursor=").selects(1).maxStatements(1).forbid("count(")
+					 .verify(() -> this.mockMvc.perform(get("/book/list").param("cursor", "")).andExpect(status().isOk()));
+	}
+
+	@Test
+	void titleSearchSelectsOnce() throws Throwable {
+		this.warmUp(get("/book/list").param("title", "예산"));
+
+		RequestBudget.of("GET /book/list?title=").selects(1).maxStatements(1).forbid("count(")
+					 .verify(() -> this.mockMvc.perform(get("/book/list").param("title", "스프링")).andExpect(status().isOk()));
+	}
+
+	@Test
+	void createInsertsOnce() throws Throwable {
+		this.warmUp(post("/book/create").param("title", "워밍업").param("price", "1000"));
+
+		// 시퀀스는 50개씩 미리 받아오므로 가끔 call next value 가 한 번 더 실행될 수 있다
+		RequestBudget.of("POST /book/create").inserts(1).selects(0).maxStatements(2)
+					 .verify(() -> this.mockMvc.perform(post("/book/create").param("title", "새 책").param("price", "15000"))
+							 				   .andExpect(status().is3xxRedirection()));
+	}
+
+	@Test
+	void updateRunsSingleStatement() throws Throwable {
+		Integer warmUpId = TestBooks.insert(this.bookService, "워밍업", 1000);
+		this.warmUp(post("/book/edit/{bookId}", warmUpId)
+						.param("bookId", warmUpId.toString()).param("version", "0")
+						.param("title", "워밍업 수정").param("price", "2000"));
+
+		RequestBudget.of("POST /book/edit/{id}").updates(1).selects(0).maxStatements(1)
+					 .verify(() -> this.mockMvc.perform(post("/book/edit/{bookId}", this.bookId)
+							 				   .param("bookId", this.bookId.toString()).param("version", "0")
+							 				   .param("title", "스프링 부트 예산 개정판").param("price", "22000"))
+							 				   .andExpect(status().is3xxRedirection()));
+	}
+
+	@Test
+	void deleteRunsSingleStatement() throws Throwable {
+		this.warmUp(post("/book/delete").param("bookId", TestBooks.insert(this.bookService, "워밍업", 1000).toString()).param("version", "0"));
+
+		RequestBudget.of("POST /book/delete").deletes(1).selects(0).maxStatements(1)
+					 .verify(() -> this.mockMvc.perform(post("/book/delete")
+							 				   .param("bookId", this.bookId.toString()).param("version", "0"))
+							 				   .andExpect(status().is3xxRedirection()));
+	}
+
+	private ResultActions warmUp(RequestBuilder request) throws Exception {
+		ResultActions result = this.mockMvc.perform(request);
+		this.evictSecondLevelCache();
+		return result;
+	}
+
+	private void evictSecondLevelCache() {
+		this.entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+	}
+}
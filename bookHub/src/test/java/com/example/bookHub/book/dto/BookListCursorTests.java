@@ -0,0 +1,37 @@
+package com.example.bookHub.book.dto;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * 목록 커서 인코딩 테스트
+ */
+class BookListCursorTests {
+
+	@Test
+	void decodesWhatItEncodes() {
+		LocalDateTime insertDateTime = LocalDateTime.of(2024, 2, 29, 23, 59, 59, 123456789);
+		BookListCursor cursor = BookListCursor.decode(new BookListCursor(insertDateTime, 42).encode());
+
+		assertEquals(insertDateTime, cursor.getInsertDateTime());
+		assertEquals(42, cursor.getBookId());
+	}
+
+	@Test
+	void rejectsMalformedCursor() {
+		assertThrows(IllegalArgumentException.class, () -> BookListCursor.decode("base64 아님!"));
+		assertThrows(IllegalArgumentException.class, () -> BookListCursor.decode(encode("구분자 없음")));
+		assertThrows(IllegalArgumentException.class, () -> BookListCursor.decode(encode("어제|1")));
+		assertThrows(IllegalArgumentException.class, () -> BookListCursor.decode(encode("2024-01-01T00:00|abc")));
+	}
+
+	private static String encode(String raw) {
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+	}
+}
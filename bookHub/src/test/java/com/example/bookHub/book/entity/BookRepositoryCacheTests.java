@@ -0,0 +1,163 @@
+package com.example.bookHub.book.entity;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Sort.Order;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.example.bookHub.book.dto.BookEditDTO;
+import com.example.bookHub.book.dto.BookListResponseDTO;
+import com.example.bookHub.book.service.BookExportService;
+import com.example.bookHub.book.service.BookService;
+import com.example.bookHub.support.RequestBudget;
+import com.example.bookHub.support.TestBooks;
+
+/**
+ * 하이버네이트 2차 캐시 / 쿼리 캐시 테스트
+ *
+ * - 트랜잭션 밖에서 리포지터리를 호출하면 호출마다 새 영속성 컨텍스트를 쓰므로, 두 번째 호출에 select 가 없으면 2차 캐시에서 읽은 것이다.
+ * - 입력/수정/삭제 후에는 캐시된 값 대신 DB 를 다시 읽는지 확인한다.
+ * - 테스트 컨텍스트(DB)는 테스트 메소드끼리 같이 쓰므로 테스트마다 다른 제목(UUID)으로 입력하고, 끝나면 지운다.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class BookRepositoryCacheTests {
+
+	private static final Pageable FIRST_PAGE = PageRequest.of(0, 3, Sort.by(Order.desc("insertDateTime"), Order.desc("bookId")));
+
+	@Autowired
+	private BookRepository bookRepository;
+
+	@Autowired
+	private BookService bookService;
+
+	@Autowired
+	private BookExportService bookExportService;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private String title;
+	private Integer bookId;
+	private List<Integer> insertedBookIds = new ArrayList<>();
+
+	@BeforeEach
+	void setUp() {
+		String suffix = UUID.randomUUID().toString();
+		for (int i = 0; i < 5; i++) {
+			this.insertBook("2차 캐시 " + i + " " + suffix);
+		}
+		this.title = "2차 캐시 대상 " + suffix;
+		this.bookId = this.insertBook(this.title);
+		this.entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+	}
+
+	@AfterEach
+	void tearDown() {
+		for (Integer insertedBookId : this.insertedBookIds) {
+			this.bookRepository.findById(insertedBookId)
+							   .ifPresent(book -> this.bookService.delete(book.getBookId(), book.getVersion()));
+		}
+	}
+
+	@Test
+	void repeatedFindByIdRunsNoSql() throws Throwable {
+		RequestBudget.of("findById (cold)").selects(1).maxStatements(1)
+					 .verify(() -> this.bookRepository.findById(this.bookId).orElseThrow());
+
+		Book book = RequestBudget.of("findById (cached)").maxStatements(0)
+								 .verify(() -> this.bookRepository.findById(this.bookId).orElseThrow());
+		assertEquals(this.title, book.getTitle());
+	}
+
+	@Test
+	void repeatedListPageRunsNoSql() throws Throwable {
+		List<Integer> cold = RequestBudget.of("findListBy (cold)").selects(1).maxStatements(1)
+										  .verify(() -> toBookIds(this.bookRepository.findListBy(FIRST_PAGE)));
+
+		List<Integer> cached = RequestBudget.of("findListBy (cached)").maxStatements(0)
+											.verify(() -> toBookIds(this.bookRepository.findListBy(FIRST_PAGE)));
+		assertEquals(cold, cached);
+
+		// 다른 페이지는 다른 캐시 항목이다
+		RequestBudget.of("findListBy (next page)").selects(1).maxStatements(1)
+					 .verify(() -> this.bookRepository.findListBy(FIRST_PAGE.next()));
+	}
+
+	@Test
+	void repeatedSearchRunsNoSql() throws Throwable {
+		RequestBudget.of("findListByTitleContains (cold)").selects(1).maxStatements(1)
+					 .verify(() -> this.bookRepository.findListByTitleContains(this.title, FIRST_PAGE));
+
+		List<Integer> bookIds = RequestBudget.of("findListByTitleContains (cached)").maxStatements(0)
+											 .verify(() -> toBookIds(this.bookRepository.findListByTitleContains(this.title, FIRST_PAGE)));
+		assertEquals(List.of(this.bookId), bookIds);
+	}
+
+	@Test
+	void insertInvalidatesCachedListPages() throws Throwable {
+		this.bookRepository.findListBy(FIRST_PAGE);
+		Integer newBookId = this.insertBook("2차 캐시 새 책 " + UUID.randomUUID());
+
+		List<Integer> bookIds = RequestBudget.of("findListBy (after insert)").selects(1).maxStatements(1)
+											 .verify(() -> toBookIds(this.bookRepository.findListBy(FIRST_PAGE)));
+		assertEquals(newBookId, bookIds.get(0));
+	}
+
+	@Test
+	void updateAndDeleteInvalidateCachedBook() throws Throwable {
+		this.bookRepository.findById(this.bookId).orElseThrow();
+
+		BookEditDTO bookEditDTO = new BookEditDTO();
+		bookEditDTO.setBookId(this.bookId);
+		bookEditDTO.setVersion(0);
+		bookEditDTO.setTitle(this.title + " 개정판");
+		bookEditDTO.setPrice(12000);
+		this.bookService.update(bookEditDTO);
+
+		Book book = RequestBudget.of("findById (after update)").selects(1).maxStatements(1)
+								 .verify(() -> this.bookRepository.findById(this.bookId).orElseThrow());
+		assertEquals(this.title + " 개정판", book.getTitle());
+		assertEquals(1, book.getVersion().intValue());
+
+		this.bookService.delete(this.bookId, 1);
+		assertFalse(this.bookRepository.findById(this.bookId).isPresent());
+		assertTrue(this.bookRepository.findListByTitleContains(this.title, FIRST_PAGE).isEmpty());
+	}
+
+	@Test
+	void exportDoesNotFillEntityCache() throws Throwable {
+		this.bookExportService.export(new ByteArrayOutputStream(), BookExportService.Format.CSV);
+
+		assertFalse(this.entityManagerFactory.unwrap(SessionFactory.class).getCache().containsEntity(Book.class, this.bookId));
+	}
+
+	private Integer insertBook(String title) {
+		Integer insertedBookId = TestBooks.insert(this.bookService, title);
+		this.insertedBookIds.add(insertedBookId);
+		return insertedBookId;
+	}
+
+	private static List<Integer> toBookIds(List<BookListResponseDTO> books) {
+		return books.stream().map(BookListResponseDTO::getBookId).collect(Collectors.toList());
+	}
+}
@@ -0,0 +1,78 @@
+package com.example.bookHub.book.entity;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+/**
+ * Flyway 마이그레이션 테스트
+ *
+ * - 빈 DB 는 SpringBootTest 가 모두 마이그레이션으로 만들고 validate 하므로, 여기서는 
+ *   ddl-auto=update 로 만들어진 기존 DB(이력 테이블 없음, IDENTITY bookId, version 컬럼 없음)에 적용되는지 확인한다.
+ * - Flyway 를 끄고 ddl-auto=update 로 기동할 때(이전 방식) 는 BookSequenceInitializer 가 V2 대신 시퀀스를 옮기는지 확인한다.
+ */
+class BookSchemaMigrationTests {
+
+	@Test
+	void migratesLegacySchemaAndMovesSequencePastExistingIds() throws SQLException {
+		String url = "jdbc:h2:mem:bookhub-migration-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1";
+		try (Connection connection = DriverManager.getConnection(url, "sa", "");
+			 Statement statement = connection.createStatement()) {
+			statement.execute("create table book (book_id integer generated by default as identity, "
+							+ "title varchar(200), price integer, insert_date_time timestamp, primary key (book_id))");
+			for (int i = 0; i < 120; i++) {
+				statement.execute("insert into book (title, price, insert_date_time) values ('기존 책 " + i + "', 1000, current_timestamp)");
+			}
+
+			Flyway.configure()
+				  .dataSource(url, "sa", "")
+				  .baselineOnMigrate(true)
+				  .baselineVersion("0")
+				  .load()
+				  .migrate();
+
+			assertEquals(120, queryLong(statement, "select count(*) from book where version = 0"));
+			// pooled 방식은 시퀀스 값 N 에서 (N - 49) ~ N 을 쓰므로 N - 49 가 기존 bookId 보다 커야 한다
+			assertTrue(queryLong(statement, "select next value for book_seq") - 49 > 120);
+			assertEquals(2, queryLong(statement, "select count(distinct index_name) from information_schema.indexes "
+												+ "where lower(index_name) in ('book_insert_date_time_book_id_idx', 'book_title_idx')"));
+		}
+	}
+
+	@Test
+	void initializerMovesSequencePastExistingIdsWithoutFlyway() throws SQLException {
+		String url = "jdbc:h2:mem:bookhub-sequence-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1";
+		try (Connection connection = DriverManager.getConnection(url, "sa", "");
+			 Statement statement = connection.createStatement()) {
+			statement.execute("create table book (book_id integer generated by default as identity, "
+							+ "title varchar(200), price integer, insert_date_time timestamp, primary key (book_id))");
+			for (int i = 0; i < 120; i++) {
+				statement.execute("insert into book (title, price, insert_date_time) values ('기존 책 " + i + "', 1000, current_timestamp)");
+			}
+			// ddl-auto=update 가 만드는 시퀀스 (1 부터 시작)
+			statement.execute("create sequence book_seq start with 1 increment by 50");
+
+			new BookSequenceInitializer(new JdbcTemplate(new DriverManagerDataSource(url, "sa", ""))).restartPastExistingIds();
+
+			assertTrue(queryLong(statement, "select next value for book_seq") - 49 > 120);
+		}
+	}
+
+	private static long queryLong(Statement statement, String sql) throws SQLException {
+		try (ResultSet resultSet = statement.executeQuery(sql)) {
+			resultSet.next();
+			return resultSet.getLong(1);
+		}
+	}
+}
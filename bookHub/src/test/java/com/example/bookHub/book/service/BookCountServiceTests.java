@@ -0,0 +1,143 @@
+package com.example.bookHub.book.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.example.bookHub.book.entity.BookRepository;
+import com.example.bookHub.support.RequestBudget;
+import com.example.bookHub.support.TestBooks;
+
+/**
+ * 목록 건수(BookCountService) 테스트
+ * - 건수 요청은 쿼리를 실행하지 않고, 백그라운드에서 구한 값을 돌려준다.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class BookCountServiceTests {
+
+	@Autowired
+	private BookCountService bookCountService;
+
+	@Autowired
+	private BookService bookService;
+
+	@Test
+	void totalFollowsInsertAndDeleteWithoutQuery() throws Throwable {
+		long before = awaitCount(() -> this.bookCountService.count(null));
+
+		Integer bookId = TestBooks.insert(this.bookService, "건수 테스트");
+		long afterInsert = RequestBudget.of("count (total)").maxStatements(0)
+				.verify(() -> this.bookCountService.count(null));
+		assertEquals(before + 1, afterInsert);
+
+		this.bookService.delete(bookId, 0);
+		assertEquals(before, this.bookCountService.count("").longValue());
+	}
+
+	@Test
+	void titleCountIsLoadedInBackgroundAndRefreshedAfterChange() throws Throwable {
+		TestBooks.insert(this.bookService, "백그라운드 건수 1");
+		TestBooks.insert(this.bookService, "백그라운드 건수 2");
+
+		// 처음에는 아직 모른다 (요청은 기다리지 않는다)
+		assertNull(RequestBudget.of("count (title, first)").maxStatements(0)
+				.verify(() -> this.bookCountService.count("백그라운드 건수")));
+		assertEquals(2, awaitCount(() -> this.bookCountService.count("백그라운드 건수")));
+
+		// 책이 바뀌면 이전 값을 돌려주면서 다시 센다
+		TestBooks.insert(this.bookService, "백그라운드 건수 3");
+		assertNotNull(this.bookCountService.count("백그라운드  건수")); // 공백이 달라도 같은 검색어로 정규화된다
+		assertEquals(3, awaitCount(() -> {
+			Long count = this.bookCountService.count("백그라운드 건수");
+			return count != null && count == 3 ? count : null;
+		}));
+	}
+
+	/**
+	 * count 하는 동안 입력/삭제된 책은 count 결과에 더해진다 (다시 count 해도 +1/-1 이 없어지지 않는다)
+	 */
+	@Test
+	void totalRefreshKeepsChangesMadeDuringCount() throws InterruptedException {
+		BookCountService[] holder = new BookCountService[1];
+		BookRepository bookRepository = repository((name, args) -> {
+			// count 쿼리가 실행되는 동안 두 권 입력, 한 권 삭제
+			holder[0].onBookChanged(BookChangedEvent.inserted(101, "count 중 입력 1", 1000));
+			holder[0].onBookChanged(BookChangedEvent.inserted(102, "count 중 입력 2", 1000));
+			holder[0].onBookChanged(BookChangedEvent.deleted(100, 0));
+			return 100L;
+		});
+		holder[0] = new BookCountService(bookRepository, new TitleSearchEngine(null, false, 1000), true, 300, 60, 10, 10);
+		try {
+			holder[0].onApplicationReady();
+
+			assertEquals(101, awaitCount(() -> holder[0].count(null)));
+		} finally {
+			holder[0].shutdown();
+		}
+	}
+
+	/**
+	 * 제목 색인을 쓸 수 없으면 목록의 like 쿼리와 같이 받은 검색어 그대로 세고, 그 검색어로 캐시한다
+	 * (like 쿼리는 대소문자만 구분하지 않고 공백은 그대로 비교하므로 정규화한 검색어로 세면 목록과 건수가 달라진다)
+	 */
+	@Test
+	void titleCountUsesListQueryTermWithoutIndex() throws InterruptedException {
+		List<Object> counted = new CopyOnWriteArrayList<>();
+		BookRepository bookRepository = repository((name, args) -> {
+			counted.add(args[0]);
+			return "Spring  BOOT".equals(args[0]) ? 7L : 3L;
+		});
+		BookCountService bookCountService =
+				new BookCountService(bookRepository, new TitleSearchEngine(null, false, 1000), true, 300, 60, 10, 10);
+		try {
+			bookCountService.count("Spring  BOOT");
+			assertEquals(7, awaitCount(() -> bookCountService.count("Spring  BOOT")));
+
+			assertEquals(3, awaitCount(() -> bookCountService.count("spring boot")));
+			assertEquals(List.of("Spring  BOOT", "spring boot"), counted);
+		} finally {
+			bookCountService.shutdown();
+		}
+	}
+
+	/**
+	 * count / countByTitleContains 만 구현한 리포지터리
+	 */
+	private static BookRepository repository(CountQuery countQuery) {
+		return (BookRepository) Proxy.newProxyInstance(BookRepository.class.getClassLoader(), new Class<?>[] { BookRepository.class },
+				(proxy, method, args) -> {
+					if (method.getName().equals("count") || method.getName().equals("countByTitleContains")) {
+						return countQuery.count(method.getName(), args);
+					}
+					throw new UnsupportedOperationException(method.getName());
+				});
+	}
+
+	@FunctionalInterface
+	private interface CountQuery {
+		Long count(String name, Object[] args);
+	}
+
+	private static long awaitCount(Supplier<Long> count) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 5000;
+		while (System.currentTimeMillis() < deadline) {
+			Long value = count.get();
+			if (value != null) {
+				return value;
+			}
+			Thread.sleep(10);
+		}
+		throw new AssertionError("count was not loaded in 5 seconds");
+	}
+}
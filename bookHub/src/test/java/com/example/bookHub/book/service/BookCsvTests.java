@@ -0,0 +1,43 @@
+package com.example.bookHub.book.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * CSV 한 줄 읽기/쓰기 테스트 (RFC 4180 의 큰따옴표 규칙)
+ */
+class BookCsvTests {
+
+	@Test
+	void quotesOnlyWhenNeeded() {
+		assertEquals("스프링 입문", BookCsv.escape("스프링 입문"));
+		assertEquals("\"자바, 스프링\"", BookCsv.escape("자바, 스프링"));
+		assertEquals("\"\"\"토비\"\"의 스프링\"", BookCsv.escape("\"토비\"의 스프링"));
+		assertEquals("", BookCsv.escape(null));
+	}
+
+	@Test
+	void parsesWhatItEscapes() {
+		String title = "\"따옴표\", 그리고 쉼표,";
+		String line = BookCsv.escape(title) + ",12000";
+
+		assertEquals(List.of(title, "12000"), BookCsv.parseLine(line));
+		assertEquals(List.of("", "", ""), BookCsv.parseLine(",,"));
+		assertThrows(IllegalArgumentException.class, () -> BookCsv.parseLine("\"닫히지 않음,1000"));
+	}
+
+	/**
+	 * 한 줄씩 읽으므로 줄바꿈은 큰따옴표로 감싸지 않고 공백으로 바꾼다 (제어 문자 검사를 넣기 전에 저장된 제목)
+	 */
+	@Test
+	void writesLineBreaksAsSpaces() {
+		String line = BookCsv.escape("스프링\r\n입문, 2판\t") + ",12000";
+
+		assertEquals("\"스프링  입문, 2판 \",12000", line);
+		assertEquals(List.of("스프링  입문, 2판 ", "12000"), BookCsv.parseLine(line));
+	}
+}
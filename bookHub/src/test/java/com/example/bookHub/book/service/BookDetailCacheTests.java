@@ -0,0 +1,58 @@
+package com.example.bookHub.book.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.bookHub.book.dto.BookReadResponseDTO;
+import com.example.bookHub.book.entity.Book;
+
+/**
+ * 책 상세 캐시 테스트
+ * - 수정/삭제 이벤트가 오면 다시 읽고, 입력 이벤트는 캐시에 영향이 없다.
+ * - 캐시에 넣은 DTO 대신 복사본을 돌려주므로 한 요청이 값을 바꿔도 다른 요청에 보이지 않는다.
+ */
+class BookDetailCacheTests {
+
+	private final BookDetailCache bookDetailCache = new BookDetailCache(true, 100, 600);
+
+	private final AtomicInteger loads = new AtomicInteger();
+
+	private final Function<Integer, BookReadResponseDTO> loader = bookId -> {
+		this.loads.incrementAndGet();
+		return BookReadResponseDTO.BookFactory(book(bookId, "상세 캐시 " + this.loads.get()));
+	};
+
+	@Test
+	void invalidatesOnUpdateAndDelete() {
+		assertEquals("상세 캐시 1", this.bookDetailCache.read(1, this.loader).getTitle());
+		this.bookDetailCache.onBookChanged(BookChangedEvent.inserted(2, "다른 책", 1000));
+		assertEquals("상세 캐시 1", this.bookDetailCache.read(1, this.loader).getTitle());
+
+		this.bookDetailCache.onBookChanged(BookChangedEvent.updated(1, 0, "상세 캐시 수정", 1000));
+		assertEquals("상세 캐시 2", this.bookDetailCache.read(1, this.loader).getTitle());
+
+		this.bookDetailCache.onBookChanged(BookChangedEvent.deleted(1, 1));
+		assertEquals("상세 캐시 3", this.bookDetailCache.read(1, this.loader).getTitle());
+	}
+
+	@Test
+	void returnsCopiesOfCachedDto() {
+		BookReadResponseDTO first = this.bookDetailCache.read(1, this.loader);
+		first.fromBook(book(1, "요청에서 바꾼 제목"));
+
+		BookReadResponseDTO second = this.bookDetailCache.read(1, this.loader);
+		assertNotSame(first, second);
+		assertEquals("상세 캐시 1", second.getTitle());
+		assertEquals(1, this.loads.get());
+	}
+
+	private static Book book(Integer bookId, String title) {
+		return Book.builder().bookId(bookId).title(title).price(10000).insertDateTime(LocalDateTime.now()).version(0).build();
+	}
+}
@@ -0,0 +1,119 @@
+package com.example.bookHub.book.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.example.bookHub.book.dto.BookImportResponseDTO;
+
+/**
+ * 대량 입력(CSV / NDJSON) 테스트
+ * - 배치 크기를 3 으로 줄여서 배치 경계(유효한 행 + 실패한 행이 3 건이 될 때마다 한 배치)를 확인한다.
+ * - 오류는 파일의 줄 번호(헤더 포함, 1부터)로 알려준다.
+ */
+@SpringBootTest(properties = "bookhub.import.batch-size=3")
+@ActiveProfiles("test")
+class BookImportServiceTests {
+
+	@Autowired
+	private BookImportService bookImportService;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private String prefix;
+
+	@BeforeEach
+	void setUp() {
+		this.prefix = "대량 입력 " + UUID.randomUUID() + " ";
+	}
+
+	@Test
+	void headerOnlyFileInsertsNothing() throws IOException {
+		BookImportResponseDTO response = this.importBooks(BookImportService.Format.CSV, "title,price");
+
+		assertEquals(0, response.getTotalRows());
+		assertTrue(response.getBatches().isEmpty());
+	}
+
+	@Test
+	void splitsValidRowsIntoBatches() throws IOException {
+		StringBuilder csv = new StringBuilder("title,price");
+		for (int i = 0; i < 7; i++) {
+			csv.append('\n').append(this.prefix).append(i).append(",1000");
+		}
+
+		BookImportResponseDTO response = this.importBooks(BookImportService.Format.CSV, csv.toString());
+
+		assertEquals(7, response.getInsertedRows());
+		assertEquals(List.of(3, 3, 1), response.getBatches().stream().map(BookImportResponseDTO.Batch::getInsertedRows)
+														   .collect(Collectors.toList()));
+		// 줄 번호는 헤더가 1 번
+		BookImportResponseDTO.Batch last = response.getBatches().get(2);
+		assertEquals(8, last.getFirstLine());
+		assertEquals(8, last.getLastLine());
+		assertEquals(7, this.countImported());
+	}
+
+	@Test
+	void rejectsMalformedRowsWithLineNumbers() throws IOException {
+		BookImportResponseDTO response = this.importBooks(BookImportService.Format.CSV, String.join("\n",
+				"title,price",
+				this.prefix + "A,1000",
+				this.prefix + "컬럼 하나",         // 3 : 컬럼 수
+				this.prefix + "B,천원",            // 4 : 숫자가 아님
+				",1000",                           // 5 : 제목 없음
+				this.prefix + "C,2000"));
+
+		assertEquals(2, response.getInsertedRows());
+		assertEquals(3, response.getFailedRows());
+		assertEquals(List.of(3L, 4L, 5L), response.getBatches().stream()
+												  .flatMap(batch -> batch.getErrors().stream())
+												  .map(BookImportResponseDTO.RowError::getLine)
+												  .collect(Collectors.toList()));
+		// 실패한 행도 배치 크기에 들어간다 : 2~4 줄, 5~6 줄
+		assertEquals(2, response.getBatches().size());
+		assertEquals(4, response.getBatches().get(0).getLastLine());
+		assertEquals(2, this.countImported());
+	}
+
+	@Test
+	void importsNdjson() throws IOException {
+		BookImportResponseDTO response = this.importBooks(BookImportService.Format.NDJSON, String.join("\n",
+				"{\"title\":\"" + this.prefix + "A\",\"price\":1000}",
+				"JSON 아님",                                     // 2
+				"[1, 2]",                                        // 3
+				"",                                              // 빈 줄은 건너뛴다
+				"{\"title\":\"" + this.prefix + "B\"}",          // 5 : 가격 없음
+				"{\"title\":\"" + this.prefix + "C\",\"price\":\"2000\"}",
+				"{\"title\":\"" + this.prefix + "D\\n2판\",\"price\":1000}"));  // 7 : 제목에 줄바꿈
+
+		assertEquals(2, response.getInsertedRows());
+		assertEquals(List.of(2L, 3L, 5L, 7L), response.getBatches().stream()
+												  .flatMap(batch -> batch.getErrors().stream())
+												  .map(BookImportResponseDTO.RowError::getLine)
+												  .collect(Collectors.toList()));
+		assertEquals(2, this.countImported());
+	}
+
+	private BookImportResponseDTO importBooks(BookImportService.Format format, String body) throws IOException {
+		return this.bookImportService.importBooks(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), format);
+	}
+
+	private int countImported() {
+		return this.jdbcTemplate.queryForObject("select count(*) from book where title like ?", Integer.class, this.prefix + "%");
+	}
+}
@@ -0,0 +1,140 @@
+package com.example.bookHub.book.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.AutowireCapableBeanFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.bookHub.book.dto.BookCreateDTO;
+import com.example.bookHub.book.entity.Book;
+import com.example.bookHub.support.TestBooks;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * 입력 그룹 커밋 테스트
+ * - 동시에 들어온 입력이 묶여서 커밋되고, 요청마다 자기 bookId 를 받는지 확인한다.
+ * - 입력 스레드가 멈추거나(stop) 예기치 않게 끝나도 입력 요청이 기다리지 않고 바로 입력되는지 확인한다.
+ */
+@SpringBootTest(properties = { "bookhub.insert.group-commit.enabled=true", "bookhub.insert.group-commit.max-wait-millis=50" })
+@ActiveProfiles("test")
+class BookInsertQueueTests {
+
+	private static final int THREADS = 32;
+
+	@Autowired
+	private BookService bookService;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Autowired
+	private BookInsertQueue bookInsertQueue;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private AutowireCapableBeanFactory beanFactory;
+
+	@Test
+	void concurrentInsertsAreGroupedAndEachCallerGetsItsBookId() throws Exception {
+		ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<Integer>> futures = new ArrayList<>();
+		for (int i = 0; i < THREADS; i++) {
+			String title = "그룹 커밋 " + i;
+			futures.add(pool.submit(() -> {
+				start.await();
+				return TestBooks.insert(this.bookService, title);
+			}));
+		}
+		start.countDown();
+
+		Set<Integer> bookIds = new HashSet<>();
+		for (int i = 0; i < THREADS; i++) {
+			Integer bookId = futures.get(i).get();
+			bookIds.add(bookId);
+			// 돌려받은 bookId 는 이미 커밋되어 있다
+			assertEquals("그룹 커밋 " + i, this.bookService.read(bookId).getTitle());
+		}
+		pool.shutdown();
+
+		assertEquals(THREADS, bookIds.size());
+		DistributionSummary groupSize = this.meterRegistry.get("bookhub.insert.group.size").summary();
+		assertTrue(groupSize.max() > 1, "inserts were not grouped : max group size " + groupSize.max());
+	}
+
+	@Test
+	void insertsDirectlyAfterStop() throws Exception {
+		double fallbacks = this.fallbacks();
+		this.bookInsertQueue.stop();
+		try {
+			Integer bookId = this.bookService.insert(createDTO("그룹 커밋 종료 후"));
+			assertEquals("그룹 커밋 종료 후", this.bookService.read(bookId).getTitle());
+			assertEquals(fallbacks + 1, this.fallbacks());
+		} finally {
+			this.bookInsertQueue.start();
+		}
+	}
+
+	@Test
+	void insertsDirectlyWhenWriterDies() throws Exception {
+		BookInsertQueue queue = new BookInsertQueue(this.transactionTemplate, this.meterRegistry, true, 50, 50, 100, 200);
+		this.beanFactory.autowireBean(queue); // @PersistenceContext
+
+		Set<Thread> writers = writers();
+		queue.start();
+		Set<Thread> started = writers();
+		started.removeAll(writers);
+		assertEquals(1, started.size());
+		Thread writer = started.iterator().next();
+		writer.interrupt();
+		writer.join(5000);
+		assertFalse(writer.isAlive());
+
+		double fallbacks = this.fallbacks();
+		Book book = Book.builder().title("입력 스레드 종료 후").price(10000).build();
+		Integer bookId = queue.insert(book);
+		assertEquals("입력 스레드 종료 후", this.bookService.read(bookId).getTitle());
+		assertEquals(fallbacks + 1, this.fallbacks());
+		queue.stop();
+	}
+
+	private double fallbacks() {
+		return this.meterRegistry.get("bookhub.insert.group.fallback").counter().count();
+	}
+
+	private static Set<Thread> writers() {
+		Set<Thread> writers = new HashSet<>();
+		for (Thread thread : Thread.getAllStackTraces().keySet()) {
+			if ("book-insert".equals(thread.getName())) {
+				writers.add(thread);
+			}
+		}
+		return writers;
+	}
+
+	private static BookCreateDTO createDTO(String title) {
+		BookCreateDTO bookCreateDTO = new BookCreateDTO();
+		bookCreateDTO.setTitle(title);
+		bookCreateDTO.setPrice(10000);
+		return bookCreateDTO;
+	}
+}
@@ -0,0 +1,200 @@
+package com.example.bookHub.book.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.example.bookHub.book.dto.BookEditDTO;
+import com.example.bookHub.book.dto.BookListResponseDTO;
+import com.example.bookHub.book.dto.BookPriceFacetDTO;
+import com.example.bookHub.book.entity.BookRepository;
+import com.example.bookHub.support.RequestBudget;
+import com.example.bookHub.support.TestBooks;
+
+/**
+ * 가격 조건 목록 / 가격 구간별 책 수(BookPriceHistogram) 테스트
+ * - 구간 경계는 기본값 10000, 30000, 50000 (~9999, 10000~29999, 30000~49999, 50000~)
+ * - 테스트마다 다른 제목으로 입력해서 다른 테스트가 입력한 책과 섞이지 않게 한다.
+ * - 가격이 없는 책은 BookCreateDTO 로 만들 수 없으므로(@NonNull, @Min) JdbcTemplate 으로 직접 입력한다.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class BookPriceHistogramTests {
+
+	@Autowired
+	private BookService bookService;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private String title;
+	private List<Integer> bookIds;
+
+	@BeforeEach
+	void setUp() {
+		this.title = "가격 구간 " + System.nanoTime();
+		this.bookIds = new ArrayList<>();
+		for (Integer price : new Integer[] { 5000, 10000, 29999, 30000, 70000 }) {
+			this.bookIds.add(TestBooks.insert(this.bookService, this.title, price));
+		}
+	}
+
+	@Test
+	void facetsFollowWritesWithoutQuery() throws Throwable {
+		List<Long> counts = RequestBudget.of("facets (title)").maxStatements(0)
+				.verify(() -> toCounts(this.bookService.bookListPriceFacets(this.title)));
+		assertEquals(List.of(1L, 2L, 1L, 1L), counts);
+
+		List<Long> totalBefore = toCounts(this.bookService.bookListPriceFacets(null));
+
+		// 5000 -> 60000 : 첫 구간에서 마지막 구간으로 옮겨간다
+		this.updatePrice(this.bookIds.get(0), 60000);
+		assertEquals(List.of(0L, 2L, 1L, 2L), toCounts(this.bookService.bookListPriceFacets(this.title)));
+
+		// 삭제된 책은 구간에서 빠진다
+		this.bookService.delete(this.bookIds.get(4), 0);
+		assertEquals(List.of(0L, 2L, 1L, 1L), toCounts(this.bookService.bookListPriceFacets(this.title)));
+
+		List<Long> totalAfter = toCounts(this.bookService.bookListPriceFacets(""));
+		assertEquals(List.of(totalBefore.get(0) - 1, totalBefore.get(1), totalBefore.get(2), totalBefore.get(3)), totalAfter);
+	}
+
+	@Test
+	void facetBoundsAreUsableAsPriceFilter() {
+		List<BookPriceFacetDTO> facets = this.bookService.bookListPriceFacets(this.title);
+		for (BookPriceFacetDTO facet : facets) {
+			int size = toBookIds(this.bookService.bookList(this.title, facet.getMinPrice(), facet.getMaxPrice(), null, 1, 100)).size();
+			assertEquals(facet.getCount(), size);
+		}
+	}
+
+	@Test
+	void titleAndPriceFilterUsesIndexAndOneQuery() throws Throwable {
+		List<Integer> bookIds = RequestBudget.of("bookList (title, price)").selects(1).maxStatements(1)
+				.verify(() -> toBookIds(this.bookService.bookList(this.title, 10000, 30000, "", 1, 10)));
+
+		// 최근 입력순 : 30000, 29999, 10000
+		assertEquals(List.of(this.bookIds.get(3), this.bookIds.get(2), this.bookIds.get(1)), bookIds);
+
+		// 페이지
+		assertEquals(List.of(this.bookIds.get(1)), toBookIds(this.bookService.bookList(this.title, 10000, 30000, null, 2, 2)));
+	}
+
+	@Test
+	void sortsByPriceWithoutUnpricedBooks() {
+		this.insertUnpricedBook(this.title);
+
+		List<BookListResponseDTO> asc = toList(this.bookService.bookList(this.title, null, null, "price", 1, 10));
+		assertEquals(List.of(5000, 10000, 29999, 30000, 70000), asc.stream().map(BookListResponseDTO::getPrice).collect(Collectors.toList()));
+
+		List<BookListResponseDTO> desc = toList(this.bookService.bookList(this.title, null, 29999, "price,desc", 1, 10));
+		assertEquals(List.of(29999, 10000, 5000), desc.stream().map(BookListResponseDTO::getPrice).collect(Collectors.toList()));
+
+		// 제목 검색 없이
+		List<BookListResponseDTO> all = toList(this.bookService.bookList(null, 29999, 30000, "price", 1, 100));
+		assertTrue(all.stream().allMatch(book -> book.getPrice() >= 29999 && book.getPrice() <= 30000));
+		assertTrue(all.stream().map(BookListResponseDTO::getBookId).collect(Collectors.toList()).containsAll(this.bookIds.subList(2, 4)));
+	}
+
+	@Test
+	void rebuildsWithoutBlockingEventsAndReplaysThem() {
+		AtomicInteger calls = new AtomicInteger();
+		BookPriceHistogram[] holder = new BookPriceHistogram[1];
+		BookRepository bookRepository = (BookRepository) Proxy.newProxyInstance(
+				BookRepository.class.getClassLoader(), new Class<?>[] { BookRepository.class }, (proxy, method, args) -> {
+					if (!method.getName().equals("findPricesAfter")) {
+						throw new UnsupportedOperationException(method.getName());
+					}
+					if (calls.getAndIncrement() > 0) {
+						return Collections.emptyList();
+					}
+					// 첫 묶음을 읽은 후, 돌려주기 전에 다른 스레드에서 1번 삭제, 2번 가격 수정 (잠겨 있으면 시간 초과)
+					CompletableFuture.runAsync(() -> {
+						holder[0].onBookChanged(BookChangedEvent.deleted(1, 0));
+						holder[0].onBookChanged(BookChangedEvent.updated(2, 0, "스프링 데이터", 70000));
+					}).get(5, TimeUnit.SECONDS);
+					return List.of(new BookListResponseDTO(1, "스프링 부트", null, 5000),
+								   new BookListResponseDTO(2, "스프링 데이터", null, 20000));
+				});
+		holder[0] = new BookPriceHistogram(bookRepository, null, true, 2, new int[] { 10000, 30000, 50000 });
+		assertFalse(holder[0].isAvailable());
+
+		holder[0].rebuild();
+
+		assertTrue(holder[0].isAvailable());
+		assertEquals(List.of(0L, 0L, 0L, 1L), toCounts(holder[0].facets(null)));
+		assertFalse(holder[0].inRange(1, null, null));
+		assertTrue(holder[0].inRange(2, 50000, null));
+	}
+
+	/**
+	 * 늦게 온 이전 버전의 이벤트는 버린다 (이전 가격으로 되돌아가지 않는다)
+	 */
+	@Test
+	void skipsStaleEvents() {
+		BookPriceHistogram histogram = new BookPriceHistogram(null, null, true, 100, new int[] { 10000, 30000, 50000 });
+		histogram.onBookChanged(BookChangedEvent.inserted(1, "늦은 이벤트", 5000));
+		histogram.onBookChanged(BookChangedEvent.updated(1, 1, "늦은 이벤트", 60000));
+		histogram.onBookChanged(BookChangedEvent.updated(1, 0, "늦은 이벤트", 20000));
+		assertTrue(histogram.inRange(1, 50000, null));
+
+		histogram.onBookChanged(BookChangedEvent.deleted(1, 2));
+		histogram.onBookChanged(BookChangedEvent.updated(1, 1, "늦은 이벤트", 20000));
+		assertFalse(histogram.inRange(1, null, null));
+	}
+
+	@Test
+	void rejectsUnknownSort() {
+		assertThrows(IllegalArgumentException.class, () -> this.bookService.bookList(this.title, null, null, "title", 1, 10));
+	}
+
+	/**
+	 * 가격이 없는 책 (서비스를 거치지 않으므로 BookChangedEvent 도 발행되지 않는다)
+	 * - bookId 는 시퀀스에서 따로 받는다. 하이버네이트는 이 값의 구간을 쓰지 않으므로 겹치지 않는다.
+	 */
+	private void insertUnpricedBook(String title) {
+		Integer bookId = this.jdbcTemplate.queryForObject("select next value for book_seq", Integer.class);
+		this.jdbcTemplate.update("insert into book (book_id, title, price, insert_date_time, version) values (?, ?, null, current_timestamp, 0)",
+								 bookId, title);
+	}
+
+	private void updatePrice(Integer bookId, Integer price) {
+		BookEditDTO bookEditDTO = new BookEditDTO();
+		bookEditDTO.setBookId(bookId);
+		bookEditDTO.setVersion(0);
+		bookEditDTO.setTitle(this.title);
+		bookEditDTO.setPrice(price);
+		this.bookService.update(bookEditDTO);
+	}
+
+	private static List<Long> toCounts(List<BookPriceFacetDTO> facets) {
+		return facets.stream().map(BookPriceFacetDTO::getCount).collect(Collectors.toList());
+	}
+
+	private static List<BookListResponseDTO> toList(Iterable<BookListResponseDTO> books) {
+		List<BookListResponseDTO> list = new ArrayList<>();
+		books.forEach(list::add);
+		return list;
+	}
+
+	private static List<Integer> toBookIds(Iterable<BookListResponseDTO> books) {
+		return toList(books).stream().map(BookListResponseDTO::getBookId).collect(Collectors.toList());
+	}
+}
@@ -0,0 +1,140 @@
+package com.example.bookHub.book.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.example.bookHub.book.dto.BookListResponseDTO;
+import com.example.bookHub.book.dto.BookListSliceResponseDTO;
+import com.example.bookHub.support.TestBooks;
+
+/**
+ * 커서(keyset) 페이징 테스트
+ * - 제목 색인을 끄고 DB 의 seek 쿼리로 읽는다.
+ *   전체 목록은 (insert_date_time, book_id) < (?, ?), 제목 검색은 제목 색인과 같은 book_id < ? 이다.
+ * - 입력일이 같은 책은 bookId 내림차순으로 이어지고, 페이지 사이에 빠지거나 겹치는 책이 없어야 한다.
+ */
+@SpringBootTest(properties = "bookhub.search.title-index.enabled=false")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class BookServiceKeysetPaginationTests {
+
+	@Autowired
+	private BookService bookService;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	private String title;
+
+	private final List<Integer> bookIds = new ArrayList<>();
+
+	@BeforeEach
+	void setUp() {
+		this.title = "커서 페이징 " + UUID.randomUUID();
+		for (int i = 0; i < 5; i++) {
+			this.bookIds.add(0, TestBooks.insert(this.bookService, this.title + " " + i)); // bookId 내림차순
+		}
+	}
+
+	@Test
+	void breaksInsertDateTimeTiesByBookId() {
+		// 다섯 권 모두 입력일을 같게, 다른 책보다 나중으로 만든다 (전체 목록의 맨 앞. 쿼리 캐시에 남은 목록도 버린다)
+		this.jdbcTemplate.update("update book set insert_date_time = ? where title like ?",
+								 Timestamp.valueOf(LocalDateTime.of(2999, 1, 1, 0, 0)), this.title + "%");
+		this.entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+
+		List<Integer> read = new ArrayList<>();
+		String cursor = null;
+		for (int i = 0; i < 3; i++) {
+			BookListSliceResponseDTO slice = this.bookService.bookSlice(null, cursor, 2);
+			read.addAll(bookIdsOf(slice));
+			cursor = slice.getNextCursor();
+		}
+		assertEquals(this.bookIds, read.subList(0, 5));
+	}
+
+	/**
+	 * 제목 검색은 입력일과 상관없이 제목 색인과 같은 bookId 내림차순이다
+	 * (색인이 준비되기 전에 받은 커서를 색인으로 이어 읽어도 같은 순서)
+	 */
+	@Test
+	void titleSearchSeeksByBookIdLikeIndex() {
+		// 입력일을 bookId 와 반대 순서로 만든다
+		for (int i = 0; i < this.bookIds.size(); i++) {
+			this.jdbcTemplate.update("update book set insert_date_time = ? where book_id = ?",
+									 Timestamp.valueOf(LocalDateTime.of(2024, 1, 1, 0, 0).plusDays(i)), this.bookIds.get(i));
+		}
+		this.entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+
+		assertEquals(this.bookIds, this.readAllPages(2));
+	}
+
+	@Test
+	void lastPageHasNoNextCursor() {
+		BookListSliceResponseDTO first = this.bookService.bookSlice(this.title, null, 2);
+		BookListSliceResponseDTO second = this.bookService.bookSlice(this.title, first.getNextCursor(), 2);
+		BookListSliceResponseDTO last = this.bookService.bookSlice(this.title, second.getNextCursor(), 2);
+
+		assertTrue(second.hasNext());
+		assertEquals(List.of(this.bookIds.get(4)), bookIdsOf(last));
+		assertFalse(last.hasNext());
+		assertNull(last.getNextCursor());
+
+		// 남은 책이 페이지 크기와 딱 맞아도 다음 페이지가 없다
+		assertFalse(this.bookService.bookSlice(this.title, null, 5).hasNext());
+	}
+
+	@Test
+	void rejectsMalformedCursor() throws Exception {
+		this.mockMvc.perform(get("/api/books").param("cursor", "잘못된커서").accept(MediaType.APPLICATION_NDJSON))
+					.andExpect(status().isBadRequest());
+		// 화면은 다른 잘못된 요청과 같이 오류 화면(422)
+		this.mockMvc.perform(get("/book/list").param("cursor", "잘못된커서"))
+					.andExpect(status().isUnprocessableEntity());
+	}
+
+	private List<Integer> readAllPages(int size) {
+		List<Integer> read = new ArrayList<>();
+		String cursor = null;
+		do {
+			BookListSliceResponseDTO slice = this.bookService.bookSlice(this.title, cursor, size);
+			read.addAll(bookIdsOf(slice));
+			cursor = slice.getNextCursor();
+		} while (cursor != null);
+		return read;
+	}
+
+	private static List<Integer> bookIdsOf(BookListSliceResponseDTO slice) {
+		return slice.getBooks().stream().map(BookListResponseDTO::getBookId).collect(Collectors.toList());
+	}
+}
@@ -0,0 +1,99 @@
+package com.example.bookHub.book.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Sort.Order;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.example.bookHub.book.dto.BookListResponseDTO;
+import com.example.bookHub.book.entity.BookRepository;
+import com.example.bookHub.support.RequestBudget;
+import com.example.bookHub.support.TestBooks;
+
+/**
+ * 큰 목록 페이지(나눠 읽기) 테스트
+ * - 나눠 읽는 크기 4, 최대 페이지 크기 20 으로 줄여서 확인한다.
+ */
+@SpringBootTest(properties = { "bookhub.list.chunk-size=4", "bookhub.list.max-page-size=20" })
+@ActiveProfiles("test")
+class BookServiceLargePageTests {
+
+	@Autowired
+	private BookService bookService;
+
+	@Autowired
+	private BookRepository bookRepository;
+
+	@Autowired
+	private TitleSearchEngine titleSearchEngine;
+
+	@BeforeEach
+	void setUp() {
+		for (int i = 0; i < 30; i++) {
+			TestBooks.insert(this.bookService, "큰 페이지 " + i);
+		}
+	}
+
+	@Test
+	void readsLazilyInChunksAfterAnchor() throws Throwable {
+		// 목록을 만들 때는 쿼리를 실행하지 않는다
+		Iterable<BookListResponseDTO> books = RequestBudget.of("bookList (create)").maxStatements(0)
+				.verify(() -> this.bookService.bookList(null, 2, 10));
+
+		// 기준 행 1번 + 10 건 / 4 건씩 3번
+		List<Integer> bookIds = RequestBudget.of("bookList (iterate)").selects(4).maxStatements(4)
+				.verify(() -> toBookIds(books));
+
+		Sort sort = Sort.by(Order.desc("insertDateTime"), Order.desc("bookId"));
+		assertEquals(toBookIds(this.bookRepository.findListBy(PageRequest.of(1, 10, sort))), bookIds);
+	}
+
+	@Test
+	void titleSearchReadsChunksFromIndex() throws Throwable {
+		Iterable<BookListResponseDTO> books = this.bookService.bookList("큰 페이지", 1, 10);
+
+		List<Integer> bookIds = RequestBudget.of("bookList title (iterate)").selects(3).maxStatements(3)
+				.verify(() -> toBookIds(books));
+
+		assertEquals(10, bookIds.size());
+		assertEquals(bookIds.stream().sorted((a, b) -> b - a).collect(Collectors.toList()), bookIds);
+	}
+
+	/**
+	 * 색인에서 고른 후 삭제된 책은 빠지지만, 나머지 묶음은 그대로 읽는다 (짧은 묶음에서 멈추거나 앞 묶음과 겹치지 않는다)
+	 */
+	@Test
+	void titleSearchSkipsBooksDeletedAfterSearch() {
+		List<Integer> expected = new ArrayList<>(this.titleSearchEngine.search("큰 페이지", 0, 10));
+		Iterable<BookListResponseDTO> books = this.bookService.bookList("큰 페이지", 1, 10);
+
+		// 첫 묶음(4 건)에서 한 권, 두 번째 묶음(4 건)은 모두 삭제
+		for (Integer bookId : List.of(expected.get(1), expected.get(4), expected.get(5), expected.get(6), expected.get(7))) {
+			this.bookService.delete(bookId, 0);
+			expected.remove(bookId);
+		}
+
+		assertEquals(expected, toBookIds(books));
+	}
+
+	@Test
+	void capsPageSize() {
+		assertEquals(20, toBookIds(this.bookService.bookList(null, 1, 100000)).size());
+	}
+
+	private static List<Integer> toBookIds(Iterable<BookListResponseDTO> books) {
+		List<Integer> bookIds = new ArrayList<>();
+		books.forEach(book -> bookIds.add(book.getBookId()));
+		return bookIds;
+	}
+}
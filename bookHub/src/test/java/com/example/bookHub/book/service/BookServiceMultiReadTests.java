@@ -0,0 +1,83 @@
+package com.example.bookHub.book.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.example.bookHub.book.dto.BookMultiReadResponseDTO;
+import com.example.bookHub.support.RequestBudget;
+import com.example.bookHub.support.TestBooks;
+
+/**
+ * 여러 권 읽기(readAll) 테스트
+ * - in 쿼리를 나누는 크기를 4 로 줄여서 나눠 읽기까지 확인한다.
+ */
+@SpringBootTest(properties = { "bookhub.multi-read.chunk-size=4", "bookhub.multi-read.max-ids=20" })
+@ActiveProfiles("test")
+class BookServiceMultiReadTests {
+
+	@Autowired
+	private BookService bookService;
+
+	@Test
+	void returnsBooksInRequestOrderWithMissingMarkers() throws Throwable {
+		Integer first = TestBooks.insert(this.bookService, "여러 권 1");
+		Integer second = TestBooks.insert(this.bookService, "여러 권 2");
+		Integer missing = -1;
+
+		List<BookMultiReadResponseDTO> books = RequestBudget.of("readAll (3 distinct ids)").selects(1).maxStatements(1)
+				.verify(() -> this.bookService.readAll(Arrays.asList(second, missing, first, second)));
+
+		assertEquals(Arrays.asList(second, missing, first, second),
+					 books.stream().map(BookMultiReadResponseDTO::getBookId).collect(Collectors.toList()));
+		assertTrue(books.get(0).isFound());
+		assertEquals("여러 권 2", books.get(0).getBook().getTitle());
+		assertFalse(books.get(1).isFound());
+		assertNull(books.get(1).getBook());
+		assertEquals("여러 권 1", books.get(2).getBook().getTitle());
+	}
+
+	@Test
+	void readsInChunks() throws Throwable {
+		List<Integer> bookIds = new ArrayList<>();
+		for (int i = 0; i < 10; i++) {
+			bookIds.add(TestBooks.insert(this.bookService, "나눠 읽기 " + i));
+		}
+
+		// 10 개 / 4 개씩 = in 쿼리 3 번
+		List<BookMultiReadResponseDTO> books = RequestBudget.of("readAll (10 ids, chunk 4)").selects(3).maxStatements(3)
+				.verify(() -> this.bookService.readAll(bookIds));
+
+		assertEquals(10, books.size());
+		assertTrue(books.stream().allMatch(BookMultiReadResponseDTO::isFound));
+	}
+
+	@Test
+	void emptyListRunsNoQuery() throws Throwable {
+		List<BookMultiReadResponseDTO> books = RequestBudget.of("readAll (empty)").maxStatements(0)
+				.verify(() -> this.bookService.readAll(Collections.emptyList()));
+		assertTrue(books.isEmpty());
+	}
+
+	@Test
+	void rejectsTooManyIds() {
+		List<Integer> bookIds = new ArrayList<>();
+		for (int i = 1; i <= 21; i++) {
+			bookIds.add(i);
+		}
+		assertThrows(IllegalArgumentException.class, () -> this.bookService.readAll(bookIds));
+	}
+}
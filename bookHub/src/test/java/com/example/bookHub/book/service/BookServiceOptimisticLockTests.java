@@ -0,0 +1,111 @@
+package com.example.bookHub.book.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.example.bookHub.book.dto.BookEditDTO;
+import com.example.bookHub.book.entity.BookRepository;
+import com.example.bookHub.support.TestBooks;
+
+/**
+ * 버전 조건 수정/삭제(낙관적 잠금) 테스트
+ * - 수정화면/상세화면에서 읽은 version 이 DB 의 version 과 다르면 수정/삭제하지 않고 OptimisticLockingFailureException 을 던진다.
+ * - 화면은 422 오류 페이지로 응답한다.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class BookServiceOptimisticLockTests {
+
+	@Autowired
+	private BookService bookService;
+
+	@Autowired
+	private BookRepository bookRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	private String title;
+
+	private Integer bookId;
+
+	@BeforeEach
+	void setUp() {
+		this.title = "낙관적 잠금 " + UUID.randomUUID();
+		this.bookId = TestBooks.insert(this.bookService, this.title);
+	}
+
+	@Test
+	void updateQueryIncrementsVersionOnlyWhenVersionMatches() {
+		assertEquals(1, this.bookRepository.updateIfVersion(this.bookId, 0, this.title, 11000, LocalDateTime.now()));
+		assertEquals(1, this.savedVersion());
+
+		assertEquals(0, this.bookRepository.updateIfVersion(this.bookId, 0, this.title, 12000, LocalDateTime.now()));
+		assertEquals(1, this.savedVersion());
+		assertEquals(11000, this.jdbcTemplate.queryForObject("select price from book where book_id = ?", Integer.class, this.bookId));
+	}
+
+	@Test
+	void staleVersionIsRejected() {
+		this.bookService.update(this.editDTO(0, 11000));
+		assertEquals(1, this.bookService.read(this.bookId).getVersion());
+
+		// 다른 사용자가 먼저 수정한 후, 예전 버전으로 수정/삭제
+		assertThrows(OptimisticLockingFailureException.class, () -> this.bookService.update(this.editDTO(0, 12000)));
+		assertThrows(OptimisticLockingFailureException.class, () -> this.bookService.delete(this.bookId, 0));
+		assertEquals(11000, this.bookService.read(this.bookId).getPrice());
+
+		this.bookService.delete(this.bookId, 1);
+		assertThrows(OptimisticLockingFailureException.class, () -> this.bookService.delete(this.bookId, 1)); // 이미 삭제됨
+	}
+
+	@Test
+	void staleVersionGives422() throws Exception {
+		this.bookService.update(this.editDTO(0, 11000));
+
+		this.mockMvc.perform(post("/book/edit/{bookId}", this.bookId)
+							 .param("bookId", this.bookId.toString()).param("version", "0")
+							 .param("title", this.title).param("price", "12000"))
+					.andExpect(status().isUnprocessableEntity());
+		this.mockMvc.perform(post("/book/delete").param("bookId", this.bookId.toString()).param("version", "0"))
+					.andExpect(status().isUnprocessableEntity());
+
+		this.mockMvc.perform(post("/book/edit/{bookId}", this.bookId)
+							 .param("bookId", this.bookId.toString()).param("version", "1")
+							 .param("title", this.title).param("price", "12000"))
+					.andExpect(status().is3xxRedirection());
+		assertEquals(2, this.savedVersion());
+	}
+
+	private BookEditDTO editDTO(Integer version, Integer price) {
+		BookEditDTO bookEditDTO = new BookEditDTO();
+		bookEditDTO.setBookId(this.bookId);
+		bookEditDTO.setTitle(this.title);
+		bookEditDTO.setPrice(price);
+		bookEditDTO.setVersion(version);
+		return bookEditDTO;
+	}
+
+	private int savedVersion() {
+		return this.jdbcTemplate.queryForObject("select version from book where book_id = ?", Integer.class, this.bookId);
+	}
+}
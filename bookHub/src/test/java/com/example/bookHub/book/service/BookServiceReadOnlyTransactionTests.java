@@ -0,0 +1,91 @@
+package com.example.bookHub.book.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.example.bookHub.book.dto.BookListResponseDTO;
+import com.example.bookHub.common.datasource.ReadWriteRoutingDataSource;
+import com.example.bookHub.support.TestBooks;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * 읽기 전용 트랜잭션 / 원본·복제본 커넥션 테스트
+ * - 테스트 프로파일의 복제본은 원본과 같은 메모리 DB 에 따로 만든 커넥션 풀이다. (application-test.properties)
+ * - 읽기는 복제본 풀에서, 입력은 원본 풀에서 커넥션을 꺼내는지 메트릭으로 확인한다.
+ * - 읽기 전용 트랜잭션은 커밋할 때 flush 하지 않는다. (하이버네이트 통계의 flush 수)
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class BookServiceReadOnlyTransactionTests {
+
+	@Autowired
+	private BookService bookService;
+
+	@Autowired
+	private BookDetailCache bookDetailCache;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private Integer bookId;
+
+	@BeforeEach
+	void setUp() {
+		double primary = this.connections(ReadWriteRoutingDataSource.PRIMARY);
+		this.bookId = TestBooks.insert(this.bookService, "읽기 전용 트랜잭션");
+		assertTrue(this.connections(ReadWriteRoutingDataSource.PRIMARY) > primary); // 입력은 원본
+
+		this.bookDetailCache.clear();
+		this.entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+	}
+
+	@Test
+	void readsUseReplicaWithoutFlush() {
+		Statistics statistics = this.entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		long flushes = statistics.getFlushCount();
+		double primary = this.connections(ReadWriteRoutingDataSource.PRIMARY);
+		double replica = this.connections(ReadWriteRoutingDataSource.REPLICA);
+
+		assertEquals("읽기 전용 트랜잭션", this.bookService.read(this.bookId).getTitle());
+		assertEquals("읽기 전용 트랜잭션", this.bookService.edit(this.bookId).getTitle());
+		List<BookListResponseDTO> books = this.bookService.bookList("읽기 전용 트랜잭션", 1);
+		assertEquals(this.bookId, books.get(0).getBookId());
+		assertEquals(this.bookId, this.bookService.bookSlice(null, null).getBooks().get(0).getBookId());
+
+		assertTrue(this.connections(ReadWriteRoutingDataSource.REPLICA) > replica);
+		assertEquals(primary, this.connections(ReadWriteRoutingDataSource.PRIMARY));
+		assertEquals(flushes, statistics.getFlushCount());
+	}
+
+	@Test
+	void cachedReadOpensNoConnection() {
+		this.bookService.read(this.bookId);
+		double primary = this.connections(ReadWriteRoutingDataSource.PRIMARY);
+		double replica = this.connections(ReadWriteRoutingDataSource.REPLICA);
+
+		this.bookService.read(this.bookId); // 상세 캐시
+
+		assertEquals(primary, this.connections(ReadWriteRoutingDataSource.PRIMARY));
+		assertEquals(replica, this.connections(ReadWriteRoutingDataSource.REPLICA));
+	}
+
+	private double connections(String target) {
+		return this.meterRegistry.get("bookhub.datasource.connections").tag("target", target).counter().count();
+	}
+}
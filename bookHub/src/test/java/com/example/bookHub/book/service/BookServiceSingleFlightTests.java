@@ -0,0 +1,196 @@
+package com.example.bookHub.book.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.example.bookHub.book.dto.BookListResponseDTO;
+import com.example.bookHub.book.dto.BookReadResponseDTO;
+import com.example.bookHub.common.metrics.SqlStatementInspector;
+import com.example.bookHub.support.TestBooks;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * 같은 책 / 같은 목록 페이지에 요청 500 개가 동시에 몰릴 때 쿼리가 한 번만 실행되는지 확인한다 (BookLoadCoalescer)
+ *
+ * - 첫 요청(leader)의 select 를 나머지 499 개 요청이 모두 합류할 때까지 붙잡아 둔다. (GatedSqlStatementInspector)
+ *   그래서 스레드 실행 순서와 상관없이 "동시에 몰린" 상황을 항상 재현한다.
+ * - read : 상세 캐시(BookDetailCache) 가 비어 있을 때 / 목록 : 앞에 캐시가 없는 경우
+ * - 500 개가 모두 합류할 때까지 leader 를 붙잡으므로 느린 CI 에서는 합류한 요청이 기다리는 시간이
+ *   기본 timeout(2000ms) 을 넘을 수 있다. 그래서 이 테스트에서만 timeout 을 넉넉하게 준다.
+ */
+@SpringBootTest(properties = "bookhub.single-flight.timeout-millis=15000")
+@ActiveProfiles("test")
+class BookServiceSingleFlightTests {
+
+	private static final int THREADS = 500;
+	private static final String BURST_THREAD = "burst-";
+
+	private static final AtomicInteger gatedSelects = new AtomicInteger();
+	private static volatile CountDownLatch gate;
+
+	@Autowired
+	private BookService bookService;
+
+	@Autowired
+	private BookDetailCache bookDetailCache;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private ExecutorService pool;
+
+	@BeforeEach
+	void setUp() {
+		AtomicInteger threadNumber = new AtomicInteger();
+		ThreadFactory threadFactory = runnable -> new Thread(runnable, BURST_THREAD + threadNumber.incrementAndGet());
+		this.pool = Executors.newFixedThreadPool(THREADS, threadFactory);
+		gatedSelects.set(0);
+	}
+
+	@AfterEach
+	void tearDown() {
+		CountDownLatch current = gate;
+		if (current != null) {
+			current.countDown();
+		}
+		gate = null;
+		this.pool.shutdownNow();
+	}
+
+	@Test
+	void burstOfReadsForSameBookRunsOneSelect() throws Exception {
+		Integer bookId = TestBooks.insert(this.bookService, "몰리는 책");
+		this.entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+		this.bookDetailCache.clear();
+		double loads = this.counter("bookhub.singleflight.loads", "book.read");
+		double coalesced = this.counter("bookhub.singleflight.coalesced", "book.read");
+
+		List<Future<BookReadResponseDTO>> results = this.burst(() -> this.bookService.read(bookId),
+															   "bookhub.singleflight.coalesced", "book.read", coalesced);
+
+		for (Future<BookReadResponseDTO> result : results) {
+			assertEquals("몰리는 책", result.get(10, TimeUnit.SECONDS).getTitle());
+		}
+		assertEquals(1, gatedSelects.get());
+		assertEquals(1.0, this.counter("bookhub.singleflight.loads", "book.read") - loads);
+	}
+
+	@Test
+	void burstOfSameListPageRunsOneSelect() throws Exception {
+		String title = "몰리는 목록 " + System.nanoTime();
+		Integer bookId = TestBooks.insert(this.bookService, title);
+		this.entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+		double loads = this.counter("bookhub.singleflight.loads", "book.list");
+		double coalesced = this.counter("bookhub.singleflight.coalesced", "book.list");
+
+		List<Future<List<BookListResponseDTO>>> results = this.burst(() -> this.bookService.bookList(title, 1),
+																	 "bookhub.singleflight.coalesced", "book.list", coalesced);
+
+		for (Future<List<BookListResponseDTO>> result : results) {
+			List<BookListResponseDTO> books = result.get(10, TimeUnit.SECONDS);
+			assertEquals(1, books.size());
+			assertEquals(bookId, books.get(0).getBookId());
+		}
+		assertEquals(1, gatedSelects.get());
+		assertEquals(1.0, this.counter("bookhub.singleflight.loads", "book.list") - loads);
+	}
+
+	/**
+	 * THREADS 개 요청을 동시에 시작하고, 나머지 요청이 모두 합류하면 leader 의 select 를 풀어준다
+	 */
+	private <T> List<Future<T>> burst(Callable<T> task, String coalescedMetric, String name, double coalescedBefore)
+			throws InterruptedException {
+		gate = new CountDownLatch(1);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<T>> results = new ArrayList<>();
+		for (int i = 0; i < THREADS; i++) {
+			results.add(this.pool.submit(() -> {
+				start.await();
+				return task.call();
+			}));
+		}
+		start.countDown();
+
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+		while (this.counter(coalescedMetric, name) - coalescedBefore < THREADS - 1) {
+			assertTrue(System.nanoTime() < deadline, "waiters did not join : " + (this.counter(coalescedMetric, name) - coalescedBefore));
+			Thread.sleep(1);
+		}
+		gate.countDown();
+		return results;
+	}
+
+	private double counter(String metric, String name) {
+		return this.meterRegistry.get(metric).tag("name", name).functionCounter().count();
+	}
+
+	/**
+	 * burst 스레드의 select 를 gate 가 열릴 때까지 붙잡아 두는 SqlStatementInspector
+	 */
+	static class GatedSqlStatementInspector extends SqlStatementInspector {
+
+		private static final long serialVersionUID = 1L;
+
+		GatedSqlStatementInspector() {
+			super(new SimpleMeterRegistry(), 0);
+		}
+
+		@Override
+		public String inspect(String sql) {
+			CountDownLatch current = gate;
+			if (current != null && Thread.currentThread().getName().startsWith(BURST_THREAD)
+					&& sql.trim().toLowerCase().startsWith("select")) {
+				gatedSelects.incrementAndGet();
+				try {
+					current.await(10, TimeUnit.SECONDS);
+				} catch (InterruptedException ex) {
+					Thread.currentThread().interrupt();
+				}
+			}
+			return super.inspect(sql);
+		}
+	}
+
+	@TestConfiguration
+	static class GateConfig {
+
+		@Bean
+		static BeanPostProcessor gatedSqlStatementInspector() {
+			return new BeanPostProcessor() {
+				@Override
+				public Object postProcessAfterInitialization(Object bean, String beanName) {
+					return "sqlStatementInspector".equals(beanName) ? new GatedSqlStatementInspector() : bean;
+				}
+			};
+		}
+	}
+}
@@ -0,0 +1,68 @@
+package com.example.bookHub.book.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.example.bookHub.book.dto.BookListResponseDTO;
+import com.example.bookHub.support.TestBooks;
+
+/**
+ * 제목 색인을 쓸 수 없을 때의 검색 테스트
+ * - bookhub.search.title-index.enabled=false 이면 BookService 는 like 쿼리(findListByTitleContains)로 검색한다.
+ * - 색인과 같은 순서(최근 입력순)로 같은 페이지를 돌려주는지 확인한다.
+ * - 색인과 같이 대소문자를 구분하지 않는지 확인한다. (목록, 가격 조건 목록)
+ */
+@SpringBootTest(properties = "bookhub.search.title-index.enabled=false")
+@ActiveProfiles("test")
+class BookServiceTitleSearchFallbackTests {
+
+	@Autowired
+	private BookService bookService;
+
+	@Autowired
+	private TitleSearchEngine titleSearchEngine;
+
+	@Test
+	void searchesWithLikeQueryWhenIndexIsDisabled() {
+		assertFalse(this.titleSearchEngine.isAvailable());
+
+		String title = "색인 없는 검색 " + UUID.randomUUID();
+		List<Integer> bookIds = new ArrayList<>();
+		for (int i = 0; i < 4; i++) {
+			bookIds.add(0, TestBooks.insert(this.bookService, title + " " + i)); // 최근 입력순
+		}
+		TestBooks.insert(this.bookService, "다른 책 " + UUID.randomUUID());
+
+		assertEquals(bookIds.subList(0, 3), bookIdsOf(this.bookService.bookList(title, 1)));
+		assertEquals(bookIds.subList(3, 4), bookIdsOf(this.bookService.bookList(title, 2)));
+	}
+
+	@Test
+	void likeQueryIgnoresCaseLikeIndex() {
+		String title = "Fallback Spring " + UUID.randomUUID();
+		Integer bookId = TestBooks.insert(this.bookService, title);
+
+		assertEquals(List.of(bookId), bookIdsOf(this.bookService.bookList(title.toUpperCase(Locale.ROOT), 1)));
+		assertEquals(List.of(bookId), bookIdsOf(this.bookService.bookList(title.toLowerCase(Locale.ROOT), 1)));
+
+		List<Integer> priced = new ArrayList<>();
+		this.bookService.bookList(title.toLowerCase(Locale.ROOT), 5000, 20000, null, 1, 10)
+						.forEach(book -> priced.add(book.getBookId()));
+		assertEquals(List.of(bookId), priced);
+	}
+
+	private static List<Integer> bookIdsOf(List<BookListResponseDTO> books) {
+		return books.stream().map(BookListResponseDTO::getBookId).collect(Collectors.toList());
+	}
+}
@@ -0,0 +1,169 @@
+package com.example.bookHub.book.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.bookHub.book.dto.BookListResponseDTO;
+import com.example.bookHub.book.entity.BookRepository;
+
+/**
+ * 제목 자동완성 트리 테스트 (스프링, DB 없이 BookChangedEvent 로만 갱신)
+ */
+class TitleAutocompleteTests {
+
+	private static final int TOP_K = 3;
+
+	private final TitleAutocomplete autocomplete = new TitleAutocomplete(null, true, 100, TOP_K);
+
+	@Test
+	void suggestsTitlesStartingWithPrefixOrWordInNewestFirstOrder() {
+		this.insert(1, "스프링 부트 입문");
+		this.insert(2, "Spring in Action");
+		this.insert(3, "스프링 데이터 JPA");
+		this.insert(4, "자바 스프링");
+
+		assertEquals(List.of(4, 3, 1), bookIds(this.autocomplete.suggest("스프", 10)));
+		assertEquals(List.of(3), bookIds(this.autocomplete.suggest("스프링 데", 10)));
+		assertEquals(List.of(1), bookIds(this.autocomplete.suggest("부트", 10)));
+		assertEquals(List.of(2), bookIds(this.autocomplete.suggest("spring IN", 10)));
+		assertEquals("Spring in Action", this.autocomplete.suggest("spr", 1).get(0).getTitle());
+		assertTrue(this.autocomplete.suggest("링", 10).isEmpty()); // 단어 중간부터는 찾지 않는다
+	}
+
+	@Test
+	void followsUpdatesAndDeletes() {
+		this.insert(1, "스프링 부트");
+		this.insert(2, "스프링 배치");
+		this.autocomplete.onBookChanged(BookChangedEvent.updated(1, 0, "자바 입문", 1000));
+		this.autocomplete.onBookChanged(BookChangedEvent.deleted(2, 0));
+
+		assertTrue(this.autocomplete.suggest("스프링", 10).isEmpty());
+		assertEquals(List.of(1), bookIds(this.autocomplete.suggest("입", 10)));
+		assertEquals(1, this.autocomplete.stats().getBooks());
+	}
+
+	/**
+	 * 임의의 입력/수정/삭제 후에도 매번 전체를 훑어서 구한 결과와 같은지 확인한다 (노드 분리/합치기, top 갱신)
+	 */
+	@Test
+	void matchesBruteForceAfterRandomChanges() {
+		Random random = new Random(42);
+		String[] words = { "a", "ab", "abc", "b", "ba", "가", "가나", "나" };
+		Map<Integer, String> titles = new HashMap<>();
+		Map<Integer, Integer> versions = new HashMap<>();
+		int nextBookId = 1;
+
+		for (int step = 0; step < 3000; step++) {
+			// 60 권 안팎을 유지한다. 삭제한 bookId 는 다시 쓰지 않는다 (시퀀스와 같다)
+			List<Integer> bookIds = new ArrayList<>(titles.keySet());
+			int action = titles.size() < 60 ? random.nextInt(3) : random.nextInt(2) + 1;
+			String title = words[random.nextInt(words.length)] + " " + words[random.nextInt(words.length)];
+			if (action == 0 || bookIds.isEmpty()) {
+				int bookId = nextBookId++;
+				titles.put(bookId, title);
+				versions.put(bookId, 0);
+				this.autocomplete.onBookChanged(BookChangedEvent.inserted(bookId, title, 1000));
+			} else {
+				int bookId = bookIds.get(random.nextInt(bookIds.size()));
+				int version = versions.merge(bookId, 1, Integer::sum) - 1;
+				if (action == 1) {
+					titles.remove(bookId);
+					this.autocomplete.onBookChanged(BookChangedEvent.deleted(bookId, version));
+				} else {
+					titles.put(bookId, title);
+					this.autocomplete.onBookChanged(BookChangedEvent.updated(bookId, version, title, 1000));
+				}
+			}
+
+			for (String prefix : new String[] { "a", "ab", "abc", "b", "ba", "가", "가나", "나", "a a", "ab b" }) {
+				assertEquals(bruteForce(titles, prefix), bookIds(this.autocomplete.suggest(prefix, TOP_K)),
+							 "step " + step + ", prefix " + prefix);
+			}
+		}
+	}
+
+	/**
+	 * 늦게 온 이전 버전의 이벤트는 버린다 (삭제된 책도 다시 살아나지 않는다)
+	 */
+	@Test
+	void skipsStaleEvents() {
+		this.insert(1, "스프링 부트");
+		this.autocomplete.onBookChanged(BookChangedEvent.updated(1, 1, "코틀린 인 액션", 1000));
+		this.autocomplete.onBookChanged(BookChangedEvent.updated(1, 0, "자바 입문", 1000));
+
+		assertEquals(List.of(1), bookIds(this.autocomplete.suggest("코틀린", 10)));
+		assertTrue(this.autocomplete.suggest("자바", 10).isEmpty());
+
+		this.autocomplete.onBookChanged(BookChangedEvent.deleted(1, 2));
+		this.autocomplete.onBookChanged(BookChangedEvent.updated(1, 1, "코틀린 인 액션 2판", 1000));
+		this.insert(1, "스프링 부트");
+
+		assertEquals(0, this.autocomplete.stats().getBooks());
+	}
+
+	/**
+	 * DB 에서 읽는 동안에는 잠그지 않으므로 다른 스레드의 이벤트가 바로 처리되고, 그 이벤트는 새 트리에도 반영된다.
+	 */
+	@Test
+	void rebuildsWithoutBlockingEventsAndReplaysThem() {
+		AtomicInteger calls = new AtomicInteger();
+		TitleAutocomplete[] holder = new TitleAutocomplete[1];
+		BookRepository bookRepository = (BookRepository) Proxy.newProxyInstance(
+				BookRepository.class.getClassLoader(), new Class<?>[] { BookRepository.class }, (proxy, method, args) -> {
+					if (!method.getName().equals("findTitlesAfter")) {
+						throw new UnsupportedOperationException(method.getName());
+					}
+					if (calls.getAndIncrement() > 0) {
+						return Collections.emptyList();
+					}
+					// 첫 묶음을 읽은 후, 돌려주기 전에 다른 스레드에서 1번 삭제, 3번 입력 (잠겨 있으면 시간 초과)
+					CompletableFuture.runAsync(() -> {
+						holder[0].onBookChanged(BookChangedEvent.deleted(1, 0));
+						holder[0].onBookChanged(BookChangedEvent.inserted(3, "스프링 배치", 1000));
+					}).get(5, TimeUnit.SECONDS);
+					return List.of(new BookListResponseDTO(1, "스프링 부트"), new BookListResponseDTO(2, "스프링 데이터"));
+				});
+		holder[0] = new TitleAutocomplete(bookRepository, true, 2, TOP_K);
+		assertFalse(holder[0].isAvailable());
+
+		holder[0].rebuild();
+
+		assertTrue(holder[0].isAvailable());
+		assertEquals(List.of(3, 2), bookIds(holder[0].suggest("스프링", 10)));
+		assertEquals(2, holder[0].stats().getBooks());
+	}
+
+	private void insert(int bookId, String title) {
+		this.autocomplete.onBookChanged(BookChangedEvent.inserted(bookId, title, 1000));
+	}
+
+	private static List<Integer> bruteForce(Map<Integer, String> titles, String prefix) {
+		String query = TitleSearchEngine.normalize(prefix);
+		return titles.entrySet().stream()
+					 .filter(entry -> TitleAutocomplete.keys(TitleSearchEngine.normalize(entry.getValue()))
+							 						   .stream().anyMatch(key -> key.startsWith(query)))
+					 .map(Map.Entry::getKey)
+					 .sorted((a, b) -> b - a)
+					 .limit(TOP_K)
+					 .collect(Collectors.toList());
+	}
+
+	private static List<Integer> bookIds(List<BookListResponseDTO> books) {
+		return books.stream().map(BookListResponseDTO::getBookId).collect(Collectors.toCollection(ArrayList::new));
+	}
+}
@@ -0,0 +1,143 @@
+package com.example.bookHub.book.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.text.Normalizer;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.bookHub.book.dto.BookListResponseDTO;
+import com.example.bookHub.book.entity.BookRepository;
+
+/**
+ * 제목 색인 테스트
+ * - DB 에서 색인을 만드는 rebuild 는 부르지 않고 BookChangedEvent 로만 색인을 채운다. (BookRepository 가 필요 없다)
+ */
+class TitleSearchEngineTests {
+
+	private final TitleSearchEngine titleSearchEngine = new TitleSearchEngine(null, true, 1000);
+
+	@Test
+	void normalizesCaseWhitespaceAndJamo() {
+		this.insert(1, "Spring   Boot  입문");
+
+		assertEquals(List.of(1), this.titleSearchEngine.search("spring boot", 0, 10));
+		assertEquals(List.of(1), this.titleSearchEngine.search("  SPRING\tBOOT ", 0, 10));
+		// 자모가 분리된(NFD) 입력도 완성형 음절과 같이 찾는다
+		assertEquals(List.of(1), this.titleSearchEngine.search(Normalizer.normalize("입문", Normalizer.Form.NFD), 0, 10));
+		assertEquals("spring boot 입문", TitleSearchEngine.normalize(" Spring \n Boot 입문 "));
+	}
+
+	@Test
+	void checksGramOrderAgainstTitle() {
+		this.insert(1, "스프 프링");
+
+		// "스프", "프링" 조각은 모두 있지만 "스프링" 은 제목에 없다
+		assertEquals(Collections.emptyList(), this.titleSearchEngine.search("스프링", 0, 10));
+		assertEquals(List.of(1), this.titleSearchEngine.search("스", 0, 10));
+	}
+
+	@Test
+	void followsInsertUpdateAndDeleteEvents() {
+		this.insert(1, "자바의 정석");
+		this.insert(2, "이펙티브 자바");
+		assertEquals(List.of(2, 1), this.titleSearchEngine.search("자바", 0, 10));
+
+		this.titleSearchEngine.onBookChanged(BookChangedEvent.updated(1, 0, "코틀린 인 액션", 10000));
+		assertEquals(List.of(2), this.titleSearchEngine.search("자바", 0, 10));
+		assertEquals(List.of(1), this.titleSearchEngine.search("코틀린", 0, 10));
+
+		this.titleSearchEngine.onBookChanged(BookChangedEvent.deleted(2, 0));
+		assertEquals(Collections.emptyList(), this.titleSearchEngine.search("자바", 0, 10));
+		assertEquals(0, this.titleSearchEngine.count("이펙티브"));
+	}
+
+	/**
+	 * 늦게 온 이전 버전의 이벤트는 버린다 (삭제된 책도 다시 살아나지 않는다)
+	 */
+	@Test
+	void skipsStaleEvents() {
+		this.insert(1, "자바의 정석");
+		this.titleSearchEngine.onBookChanged(BookChangedEvent.updated(1, 1, "코틀린 인 액션", 10000));
+		this.titleSearchEngine.onBookChanged(BookChangedEvent.updated(1, 0, "이펙티브 자바", 10000));
+		assertEquals(List.of(1), this.titleSearchEngine.search("코틀린", 0, 10));
+		assertEquals(Collections.emptyList(), this.titleSearchEngine.search("자바", 0, 10));
+
+		this.titleSearchEngine.onBookChanged(BookChangedEvent.deleted(1, 2));
+		this.titleSearchEngine.onBookChanged(BookChangedEvent.updated(1, 1, "코틀린 인 액션 2판", 10000));
+		this.insert(1, "자바의 정석");
+		assertEquals(0, this.titleSearchEngine.count("코틀린"));
+		assertEquals(0, this.titleSearchEngine.count("자바"));
+	}
+
+	@Test
+	void pagesByOffsetInDescendingBookIdOrder() {
+		for (int bookId = 1; bookId <= 7; bookId++) {
+			this.insert(bookId, "페이지 " + bookId);
+		}
+		this.insert(8, "다른 책");
+
+		assertEquals(List.of(7, 6, 5), this.titleSearchEngine.search("페이지", 0, 3));
+		assertEquals(List.of(4, 3, 2), this.titleSearchEngine.search("페이지", 3, 3));
+		assertEquals(List.of(1), this.titleSearchEngine.search("페이지", 6, 3));
+		assertEquals(Collections.emptyList(), this.titleSearchEngine.search("페이지", 9, 3));
+		assertEquals(List.of(4, 3), this.titleSearchEngine.searchBefore("페이지", 5, 2));
+		assertEquals(List.of(6, 4), this.titleSearchEngine.search("페이지", bookId -> bookId % 2 == 0, 0, 2));
+		assertEquals(7, this.titleSearchEngine.count("페이지"));
+	}
+
+	@Test
+	void isUnavailableUntilBuiltOrWhenDisabled() {
+		// 기동 후 rebuild 가 끝나기 전에는 BookService 가 like 쿼리를 사용한다
+		assertFalse(this.titleSearchEngine.isAvailable());
+
+		TitleSearchEngine disabled = new TitleSearchEngine(null, false, 1000);
+		disabled.rebuild();
+		disabled.onBookChanged(BookChangedEvent.inserted(1, "꺼진 색인", 10000));
+		assertFalse(disabled.isAvailable());
+		assertTrue(disabled.search("꺼진", 0, 10).isEmpty());
+	}
+
+	/**
+	 * DB 에서 읽는 동안에는 잠그지 않으므로 다른 스레드의 이벤트가 바로 처리되고, 그 이벤트는 새 색인에도 반영된다.
+	 */
+	@Test
+	void rebuildsWithoutBlockingEventsAndReplaysThem() {
+		AtomicInteger calls = new AtomicInteger();
+		TitleSearchEngine[] holder = new TitleSearchEngine[1];
+		BookRepository bookRepository = (BookRepository) Proxy.newProxyInstance(
+				BookRepository.class.getClassLoader(), new Class<?>[] { BookRepository.class }, (proxy, method, args) -> {
+					if (!method.getName().equals("findTitlesAfter")) {
+						throw new UnsupportedOperationException(method.getName());
+					}
+					if (calls.getAndIncrement() > 0) {
+						return Collections.emptyList();
+					}
+					// 첫 묶음을 읽은 후, 돌려주기 전에 다른 스레드에서 1번 삭제, 3번 입력 (잠겨 있으면 시간 초과)
+					CompletableFuture.runAsync(() -> {
+						holder[0].onBookChanged(BookChangedEvent.deleted(1, 0));
+						holder[0].onBookChanged(BookChangedEvent.inserted(3, "스프링 배치", 1000));
+					}).get(5, TimeUnit.SECONDS);
+					return List.of(new BookListResponseDTO(1, "스프링 부트"), new BookListResponseDTO(2, "스프링 데이터"));
+				});
+		holder[0] = new TitleSearchEngine(bookRepository, true, 2);
+
+		holder[0].rebuild();
+
+		assertTrue(holder[0].isAvailable());
+		assertEquals(List.of(3, 2), holder[0].search("스프링", 0, 10));
+		assertEquals(2, holder[0].count("스프링"));
+	}
+
+	private void insert(Integer bookId, String title) {
+		this.titleSearchEngine.onBookChanged(BookChangedEvent.inserted(bookId, title, 10000));
+	}
+}
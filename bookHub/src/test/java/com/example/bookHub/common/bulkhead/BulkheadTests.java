@@ -0,0 +1,153 @@
+package com.example.bookHub.common.bulkhead;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * 칸막이(Bulkhead, BulkheadFilter) 테스트
+ * - 한도, 대기열, 응답시간에 따른 한도 조절, 503 응답을 확인한다.
+ */
+class BulkheadTests {
+
+	private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	@Test
+	void rejectsImmediatelyWhenLimitAndQueueAreFull() throws InterruptedException {
+		Bulkhead bulkhead = new Bulkhead("write", 2, 2, 0, 1000, 0, this.meterRegistry);
+
+		Bulkhead.Permit first = bulkhead.tryAcquire();
+		assertNotNull(first);
+		assertNotNull(bulkhead.tryAcquire());
+
+		long started = System.nanoTime();
+		assertNull(bulkhead.tryAcquire());
+		assertTrue(System.nanoTime() - started < TimeUnit.MILLISECONDS.toNanos(500)); // 기다리지 않는다
+		assertEquals(1.0, this.rejected("write", "queue_full"));
+
+		// 같은 자리를 두 번 돌려줘도 한 번만 돌려준다
+		first.release();
+		first.release();
+		assertEquals(1, bulkhead.getInFlight());
+		assertNotNull(bulkhead.tryAcquire());
+	}
+
+	@Test
+	void queuedRequestIsAdmittedWhenPermitIsReleased() throws Exception {
+		Bulkhead bulkhead = new Bulkhead("read", 1, 1, 1, 5000, 0, this.meterRegistry);
+		Bulkhead.Permit permit = bulkhead.tryAcquire();
+
+		CompletableFuture<Bulkhead.Permit> queued = CompletableFuture.supplyAsync(() -> {
+			try {
+				return bulkhead.tryAcquire();
+			} catch (InterruptedException ex) {
+				throw new IllegalStateException(ex);
+			}
+		});
+		Thread.sleep(50);
+		permit.release();
+
+		assertNotNull(queued.get(5, TimeUnit.SECONDS));
+		assertEquals(1, bulkhead.getInFlight());
+	}
+
+	@Test
+	void rejectsAfterQueueTimeout() throws InterruptedException {
+		Bulkhead bulkhead = new Bulkhead("search", 1, 1, 1, 20, 0, this.meterRegistry);
+		bulkhead.tryAcquire();
+
+		assertNull(bulkhead.tryAcquire());
+		assertEquals(1.0, this.rejected("search", "timeout"));
+	}
+
+	@Test
+	void limitDecreasesOnSlowResponsesAndRecoversWhenFast() throws InterruptedException {
+		long target = TimeUnit.MILLISECONDS.toNanos(10);
+		Bulkhead bulkhead = new Bulkhead("read", 2, 10, 0, 0, 10, this.meterRegistry);
+
+		// 느린 응답 : 한 번 줄인 후 latencyTarget 동안은 다시 줄이지 않는다
+		bulkhead.tryAcquire();
+		bulkhead.tryAcquire();
+		bulkhead.release(target * 2);
+		bulkhead.release(target * 2);
+		assertEquals(9, bulkhead.getLimit());
+
+		for (int i = 0; i < 20; i++) {
+			Thread.sleep(11);
+			bulkhead.tryAcquire();
+			bulkhead.release(target * 2);
+		}
+		assertEquals(2, bulkhead.getLimit()); // min-limit 밑으로는 줄지 않는다
+
+		// 한도까지 차 있는 동안 빠른 응답이 이어지면 다시 늘어난다
+		for (int i = 0; i < 200; i++) {
+			while (bulkhead.getInFlight() < bulkhead.getLimit()) {
+				assertNotNull(bulkhead.tryAcquire());
+			}
+			bulkhead.release(target / 2);
+		}
+		assertEquals(10, bulkhead.getLimit());
+	}
+
+	@Test
+	void filterReturns503WithRetryAfterWhenRejected() throws Exception {
+		Bulkhead write = new Bulkhead("write", 1, 1, 0, 0, 0, this.meterRegistry);
+		Bulkhead read = new Bulkhead("read", 1, 1, 0, 0, 0, this.meterRegistry);
+		BulkheadFilter filter = new BulkheadFilter(List.of(write, read), 3);
+		write.tryAcquire();
+
+		MockHttpServletResponse rejected = new MockHttpServletResponse();
+		MockFilterChain rejectedChain = new MockFilterChain();
+		filter.doFilter(new MockHttpServletRequest("POST", "/api/books"), rejected, rejectedChain);
+		assertEquals(503, rejected.getStatus());
+		assertEquals("3", rejected.getHeader("Retry-After"));
+		assertTrue(rejected.getContentAsString().startsWith("{\"message\":"));
+		assertNull(rejectedChain.getRequest()); // 컨트롤러까지 가지 않는다
+
+		// 다른 칸막이는 영향을 받지 않고, 끝나면 자리를 돌려준다
+		MockHttpServletResponse admitted = new MockHttpServletResponse();
+		filter.doFilter(new MockHttpServletRequest("GET", "/book/read/1"), admitted, new MockFilterChain());
+		assertEquals(200, admitted.getStatus());
+		assertEquals(0, read.getInFlight());
+
+		// 칸막이에 넣지 않는 요청
+		MockHttpServletResponse create = new MockHttpServletResponse();
+		filter.doFilter(new MockHttpServletRequest("GET", "/book/create"), create, new MockFilterChain());
+		assertEquals(200, create.getStatus());
+	}
+
+	@Test
+	void classifiesRequests() {
+		assertEquals(BulkheadFilter.SEARCH, BulkheadFilter.compartmentOf("GET", "/book/list"));
+		assertEquals(BulkheadFilter.SEARCH, BulkheadFilter.compartmentOf("GET", "/book"));
+		assertEquals(BulkheadFilter.SEARCH, BulkheadFilter.compartmentOf("GET", "/api/books"));
+		assertEquals(BulkheadFilter.READ, BulkheadFilter.compartmentOf("GET", "/book/read/1"));
+		assertEquals(BulkheadFilter.READ, BulkheadFilter.compartmentOf("GET", "/api/books/1"));
+		assertEquals(BulkheadFilter.READ, BulkheadFilter.compartmentOf("POST", "/api/books/batch"));
+		assertEquals(BulkheadFilter.WRITE, BulkheadFilter.compartmentOf("POST", "/book/create"));
+		assertEquals(BulkheadFilter.WRITE, BulkheadFilter.compartmentOf("DELETE", "/api/books/1"));
+		assertEquals(BulkheadFilter.WRITE, BulkheadFilter.compartmentOf("POST", "/book/import"));
+		assertNull(BulkheadFilter.compartmentOf("GET", "/book/create"));
+		assertNull(BulkheadFilter.compartmentOf("GET", "/api/books/autocomplete"));
+		assertNull(BulkheadFilter.compartmentOf("GET", "/book/stats/cache"));
+		assertNull(BulkheadFilter.compartmentOf("GET", "/actuator/prometheus"));
+		assertNull(BulkheadFilter.compartmentOf("GET", "/bookshelf"));
+	}
+
+	private double rejected(String compartment, String reason) {
+		return this.meterRegistry.get("bookhub.bulkhead.rejected").tags("compartment", compartment, "reason", reason).counter().count();
+	}
+}
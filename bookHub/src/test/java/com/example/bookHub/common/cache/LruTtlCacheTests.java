@@ -0,0 +1,92 @@
+package com.example.bookHub.common.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * 크기(LRU) / 유효시간(TTL) 캐시 테스트
+ * - loader 호출 수로 캐시에서 꺼냈는지, 다시 읽었는지 확인한다.
+ */
+class LruTtlCacheTests {
+
+	private final AtomicInteger loads = new AtomicInteger();
+
+	private final Function<String, String> loader = key -> {
+		this.loads.incrementAndGet();
+		return key + "-" + this.loads.get();
+	};
+
+	@Test
+	void evictsLeastRecentlyUsed() {
+		LruTtlCache<String, String> cache = new LruTtlCache<>("lru", 2, 60000);
+		cache.get("a", this.loader);
+		cache.get("b", this.loader);
+		cache.get("a", this.loader); // a 를 최근에 사용 -> 다음에 버려지는 것은 b
+		cache.get("c", this.loader);
+
+		assertEquals(3, this.loads.get());
+		assertEquals("a-1", cache.get("a", this.loader));
+		assertEquals(3, this.loads.get());
+
+		assertEquals("b-4", cache.get("b", this.loader));
+		assertEquals(2, cache.size());
+		assertEquals(2, cache.stats().getEvictions());
+	}
+
+	@Test
+	void reloadsAfterTtl() throws InterruptedException {
+		LruTtlCache<String, String> cache = new LruTtlCache<>("ttl", 10, 50);
+		assertEquals("a-1", cache.get("a", this.loader));
+		assertEquals("a-1", cache.get("a", this.loader));
+
+		TimeUnit.MILLISECONDS.sleep(80);
+
+		assertEquals("a-2", cache.get("a", this.loader));
+		assertEquals(1, cache.stats().getExpirations());
+	}
+
+	@Test
+	void invalidateDropsEntry() {
+		LruTtlCache<String, String> cache = new LruTtlCache<>("invalidate", 10, 60000);
+		cache.get("a", this.loader);
+		cache.get("b", this.loader);
+
+		cache.invalidate("a");
+
+		assertEquals("a-3", cache.get("a", this.loader));
+		assertEquals("b-2", cache.get("b", this.loader));
+	}
+
+	@Test
+	void doesNotCacheValueLoadedBeforeConcurrentInvalidate() throws Exception {
+		LruTtlCache<String, String> cache = new LruTtlCache<>("generation", 10, 60000);
+		CountDownLatch loading = new CountDownLatch(1);
+		CountDownLatch invalidated = new CountDownLatch(1);
+
+		// 수정 전 값을 읽는 도중에 수정(invalidate)이 끝난다
+		CompletableFuture<String> stale = CompletableFuture.supplyAsync(() -> cache.get("a", key -> {
+			loading.countDown();
+			try {
+				assertTrue(invalidated.await(5, TimeUnit.SECONDS));
+			} catch (InterruptedException ex) {
+				throw new IllegalStateException(ex);
+			}
+			return "수정 전";
+		}));
+		assertTrue(loading.await(5, TimeUnit.SECONDS));
+		cache.invalidate("a");
+		invalidated.countDown();
+
+		assertEquals("수정 전", stale.get(5, TimeUnit.SECONDS)); // 읽은 요청은 그대로 받지만
+		assertEquals(0, cache.size());                          // 캐시에는 넣지 않는다
+		assertEquals("a-1", cache.get("a", this.loader));
+	}
+}
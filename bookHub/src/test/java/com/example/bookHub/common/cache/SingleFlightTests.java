@@ -0,0 +1,153 @@
+package com.example.bookHub.common.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+
+/**
+ * SingleFlight 테스트
+ * - 첫 요청(leader)의 읽기를 나머지 요청이 모두 합류할 때까지 붙잡아 두고, loader 실행 횟수를 센다.
+ */
+class SingleFlightTests {
+
+	private static final int THREADS = 500;
+
+	private final ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+
+	@AfterEach
+	void tearDown() {
+		this.pool.shutdownNow();
+	}
+
+	@Test
+	void burstOfSameKeyRunsLoaderOnce() throws Exception {
+		SingleFlight<Integer, String> flight = new SingleFlight<>("test", 10000);
+		AtomicInteger loaderCalls = new AtomicInteger();
+
+		List<Future<String>> results = this.burst(() -> flight.load(1, key -> {
+			loaderCalls.incrementAndGet();
+			awaitCoalesced(flight, THREADS - 1);
+			return "book " + key;
+		}));
+
+		for (Future<String> result : results) {
+			assertEquals("book 1", result.get(10, TimeUnit.SECONDS));
+		}
+		assertEquals(1, loaderCalls.get());
+		assertEquals(1, flight.getLoads());
+		assertEquals(THREADS - 1, flight.getCoalesced());
+		assertEquals(0, flight.getInFlight());
+	}
+
+	@Test
+	void failureIsPropagatedToEveryWaiterAndNotRemembered() throws Exception {
+		SingleFlight<Integer, String> flight = new SingleFlight<>("test", 10000);
+		NoSuchElementException failure = new NoSuchElementException("no book");
+
+		List<Future<String>> results = this.burst(() -> flight.load(1, key -> {
+			awaitCoalesced(flight, THREADS - 1);
+			throw failure;
+		}));
+
+		for (Future<String> result : results) {
+			ExecutionException ex = assertThrows(ExecutionException.class, () -> result.get(10, TimeUnit.SECONDS));
+			assertSame(failure, ex.getCause());
+		}
+
+		// 실패는 남겨두지 않는다 : 다음 요청은 다시 읽는다
+		assertEquals("book 1", flight.load(1, key -> "book " + key));
+		assertEquals(2, flight.getLoads());
+	}
+
+	@Test
+	void waiterTimesOutWhileLeaderKeepsLoading() throws Exception {
+		SingleFlight<Integer, String> flight = new SingleFlight<>("test", 50);
+		CountDownLatch release = new CountDownLatch(1);
+
+		CompletableFuture<String> leader = CompletableFuture.supplyAsync(() -> flight.load(1, key -> {
+			await(release);
+			return "book " + key;
+		}), this.pool);
+		awaitInFlight(flight);
+
+		assertThrows(QueryTimeoutException.class, () -> flight.load(1, key -> "not called"));
+		assertEquals(1, flight.getTimeouts());
+
+		release.countDown();
+		assertEquals("book 1", leader.get(10, TimeUnit.SECONDS));
+	}
+
+	@Test
+	void forgottenKeyStartsNewLoad() throws Exception {
+		SingleFlight<Integer, String> flight = new SingleFlight<>("test", 10000);
+		CountDownLatch release = new CountDownLatch(1);
+
+		CompletableFuture<String> before = CompletableFuture.supplyAsync(() -> flight.load(1, key -> {
+			await(release);
+			return "before update";
+		}), this.pool);
+		awaitInFlight(flight);
+
+		// 수정 후에 들어온 요청은 수정 전에 시작한 읽기에 합류하지 않는다
+		flight.forget(1);
+		assertEquals("after update", flight.load(1, key -> "after update"));
+
+		release.countDown();
+		assertEquals("before update", before.get(10, TimeUnit.SECONDS));
+		assertEquals(2, flight.getLoads());
+	}
+
+	private <T> List<Future<T>> burst(java.util.concurrent.Callable<T> task) {
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<T>> results = new ArrayList<>();
+		for (int i = 0; i < THREADS; i++) {
+			results.add(this.pool.submit(() -> {
+				start.await();
+				return task.call();
+			}));
+		}
+		start.countDown();
+		return results;
+	}
+
+	private static void awaitCoalesced(SingleFlight<?, ?> flight, long count) {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+		while (flight.getCoalesced() < count) {
+			assertTrue(System.nanoTime() < deadline, "waiters did not join : " + flight.getCoalesced());
+			Thread.onSpinWait();
+		}
+	}
+
+	private static void awaitInFlight(SingleFlight<?, ?> flight) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+		while (flight.getInFlight() == 0) {
+			assertTrue(System.nanoTime() < deadline);
+			Thread.sleep(1);
+		}
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(10, TimeUnit.SECONDS);
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
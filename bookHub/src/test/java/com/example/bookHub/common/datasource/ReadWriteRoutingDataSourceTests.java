@@ -0,0 +1,158 @@
+package com.example.bookHub.common.datasource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * 원본 / 복제본 커넥션 선택 테스트
+ * - 원본, 복제본은 이름이 다른 메모리 DB 이고, 커넥션 URL 로 어느 쪽인지 확인한다.
+ * - 트랜잭션 여부, 읽기 전용 여부는 트랜잭션 매니저 대신 TransactionSynchronizationManager 에 직접 지정한다.
+ */
+class ReadWriteRoutingDataSourceTests {
+
+	private static final String PRIMARY_URL = "jdbc:h2:mem:routing-primary";
+	private static final String REPLICA_URL = "jdbc:h2:mem:routing-replica";
+
+	private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	@AfterEach
+	void tearDown() {
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+		TransactionSynchronizationManager.setActualTransactionActive(false);
+	}
+
+	@Test
+	void readOnlyTransactionUsesReplica() throws SQLException {
+		ReadWriteRoutingDataSource dataSource = this.routing(h2(REPLICA_URL), true, 0);
+
+		assertEquals(PRIMARY_URL, urlOf(dataSource)); // 트랜잭션 밖, 읽기/쓰기 트랜잭션
+
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+		assertEquals(REPLICA_URL, urlOf(dataSource));
+		assertEquals(1.0, this.connections(ReadWriteRoutingDataSource.REPLICA));
+		assertEquals(1.0, this.connections(ReadWriteRoutingDataSource.PRIMARY));
+	}
+
+	@Test
+	void readsStayOnPrimaryRightAfterReadWriteTransaction() throws SQLException {
+		ReadWriteRoutingDataSource dataSource = this.routing(h2(REPLICA_URL), true, 60000);
+
+		TransactionSynchronizationManager.setActualTransactionActive(true);
+		urlOf(dataSource); // 읽기/쓰기 트랜잭션의 커넥션 (쓰지 않아도)
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+		assertEquals(PRIMARY_URL, urlOf(dataSource));
+	}
+
+	@Test
+	void connectionOutsideTransactionDoesNotKeepReadsOnPrimary() throws SQLException {
+		ReadWriteRoutingDataSource dataSource = this.routing(h2(REPLICA_URL), true, 60000);
+
+		assertEquals(PRIMARY_URL, urlOf(dataSource)); // 트랜잭션 밖 (건수, 색인 다시 만들기, health 등)
+		TransactionSynchronizationManager.setActualTransactionActive(true);
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+		assertEquals(REPLICA_URL, urlOf(dataSource));
+	}
+
+	@Test
+	void fallsBackToPrimaryWhenReplicaFails() throws SQLException {
+		FailingDataSource replica = new FailingDataSource(new SQLException("replica is down"));
+		ReadWriteRoutingDataSource dataSource = this.routing(replica, true, 0);
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+		assertEquals(PRIMARY_URL, urlOf(dataSource));
+		assertEquals(1.0, this.meterRegistry.get("bookhub.datasource.replica.fallbacks").counter().count());
+
+		// retry-after 동안은 복제본을 다시 시도하지 않는다
+		assertEquals(PRIMARY_URL, urlOf(dataSource));
+		assertEquals(1, replica.attempts);
+	}
+
+	@Test
+	void fallsBackToPrimaryWhenReplicaPoolCannotConnect() throws SQLException {
+		// 히카리 : 대기 시간이 다 될 때까지 새 커넥션 연결에 실패하면 그 오류를 원인으로 붙인다
+		FailingDataSource replica = new FailingDataSource(
+				new SQLTransientConnectionException("replica - Connection is not available", new SQLException("Connection refused")));
+		ReadWriteRoutingDataSource dataSource = this.routing(replica, true, 0);
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+		assertEquals(PRIMARY_URL, urlOf(dataSource));
+		assertEquals(1.0, this.meterRegistry.get("bookhub.datasource.replica.fallbacks").counter().count());
+	}
+
+	@Test
+	void saturatedReplicaPoolDoesNotTripFallback() {
+		// 히카리 : 복제본은 살아 있지만 빈 커넥션을 기다리다 시간이 다 됨 (원인 없음)
+		FailingDataSource replica = new FailingDataSource(new SQLTransientConnectionException("replica - Connection is not available"));
+		ReadWriteRoutingDataSource dataSource = this.routing(replica, true, 0);
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+		assertThrows(SQLTransientConnectionException.class, () -> urlOf(dataSource));
+		assertThrows(SQLTransientConnectionException.class, () -> urlOf(dataSource));
+		assertEquals(2, replica.attempts); // 다음 읽기도 복제본을 시도한다
+		assertEquals(0.0, this.meterRegistry.get("bookhub.datasource.replica.fallbacks").counter().count());
+		assertEquals(0.0, this.connections(ReadWriteRoutingDataSource.PRIMARY));
+	}
+
+	@Test
+	void failsWhenFallbackIsDisabled() {
+		ReadWriteRoutingDataSource dataSource = this.routing(new FailingDataSource(new SQLException("replica is down")), false, 0);
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+		assertThrows(SQLException.class, () -> urlOf(dataSource));
+	}
+
+	private ReadWriteRoutingDataSource routing(DataSource replica, boolean fallbackToPrimary, long primaryAfterWriteMillis) {
+		return new ReadWriteRoutingDataSource(h2(PRIMARY_URL), replica, fallbackToPrimary, 60000, primaryAfterWriteMillis,
+											  this.meterRegistry);
+	}
+
+	private double connections(String target) {
+		return this.meterRegistry.get("bookhub.datasource.connections").tag("target", target).counter().count();
+	}
+
+	private static DataSource h2(String url) {
+		return new DriverManagerDataSource(url, "sa", "");
+	}
+
+	private static String urlOf(DataSource dataSource) throws SQLException {
+		try (Connection connection = dataSource.getConnection()) {
+			return connection.getMetaData().getURL();
+		}
+	}
+
+	private static class FailingDataSource extends AbstractDataSource {
+
+		private final SQLException failure;
+		private int attempts;
+
+		FailingDataSource(SQLException failure) {
+			this.failure = failure;
+		}
+
+		@Override
+		public Connection getConnection() throws SQLException {
+			this.attempts++;
+			throw this.failure;
+		}
+
+		@Override
+		public Connection getConnection(String username, String password) throws SQLException {
+			return this.getConnection();
+		}
+	}
+}
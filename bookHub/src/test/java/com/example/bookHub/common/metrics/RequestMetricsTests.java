@@ -0,0 +1,77 @@
+package com.example.bookHub.common.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.UUID;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.example.bookHub.book.service.BookService;
+import com.example.bookHub.support.TestBooks;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * 요청 메트릭 테스트
+ * - 상세화면 요청 한 번마다 요청당 SQL 수(bookhub.sql.statements.per.request)가 한 번 기록되고,
+ *   컨트롤러(uri 태그)/서비스(method 태그) @Timed 타이머가 늘어나야 한다.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class RequestMetricsTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Autowired
+	private BookService bookService;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Test
+	void recordsSqlCountAndTimersPerRequest() throws Exception {
+		Integer bookId = TestBooks.insert(this.bookService, "요청 메트릭 " + UUID.randomUUID());
+
+		long controllerCalls = this.timerCount("bookhub.controller", "uri", "/book/read/{bookId}");
+		long serviceCalls = this.timerCount("bookhub.service", "method", "read");
+		long requests = this.perRequest().count();
+		double statements = this.perRequest().totalAmount();
+
+		// 캐시를 비워서 첫 요청은 DB 에서 읽게 한다
+		this.entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+		this.mockMvc.perform(get("/book/read/{bookId}", bookId)).andExpect(status().isOk());
+		this.mockMvc.perform(get("/book/read/{bookId}", bookId)).andExpect(status().isOk());
+
+		assertEquals(requests + 2, this.perRequest().count());
+		assertTrue(this.perRequest().totalAmount() > statements);
+		assertEquals(controllerCalls + 2, this.timerCount("bookhub.controller", "uri", "/book/read/{bookId}"));
+		assertEquals(serviceCalls + 2, this.timerCount("bookhub.service", "method", "read"));
+	}
+
+	private DistributionSummary perRequest() {
+		return DistributionSummary.builder("bookhub.sql.statements.per.request")
+								  .tag("uri", "/book/read/{bookId}")
+								  .register(this.meterRegistry);
+	}
+
+	private long timerCount(String name, String tagKey, String tagValue) {
+		return this.meterRegistry.find(name).tag(tagKey, tagValue).timers().stream().mapToLong(timer -> timer.count()).sum();
+	}
+}
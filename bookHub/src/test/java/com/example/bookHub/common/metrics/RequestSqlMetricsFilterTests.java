@@ -0,0 +1,101 @@
+package com.example.bookHub.common.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * 요청당 SQL 수 측정 테스트
+ * - 필터 체인 안에서 SqlStatementInspector 를 직접 호출해서 하이버네이트가 SQL 을 실행한 것처럼 만든다.
+ * - 톰캣처럼 스레드 하나가 요청을 번갈아 처리해도 앞 요청의 SQL 수가 다음 요청에 섞이지 않아야 한다.
+ */
+class RequestSqlMetricsFilterTests {
+
+	private static final String URI = "/book/read/{bookId}";
+
+	private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final SqlStatementInspector inspector = new SqlStatementInspector(this.meterRegistry, 0);
+	private final RequestSqlMetricsFilter filter = new RequestSqlMetricsFilter(this.meterRegistry);
+
+	private final ExecutorService pooledThread = Executors.newSingleThreadExecutor();
+
+	@AfterEach
+	void tearDown() {
+		this.pooledThread.shutdownNow();
+	}
+
+	@Test
+	void recordsStatementsPerRequestOnPooledThread() throws Exception {
+		this.pooledThread.submit(() -> this.request(3)).get();
+		this.pooledThread.submit(() -> this.request(1)).get();
+		this.pooledThread.submit(() -> this.request(0)).get();
+
+		DistributionSummary perRequest = this.meterRegistry.get("bookhub.sql.statements.per.request").tag("uri", URI).summary();
+		assertEquals(3, perRequest.count());
+		assertEquals(5.0, perRequest.totalAmount()); // 3 + 2 + 0 (앞 요청의 수가 더해지지 않는다)
+		assertEquals(3.0, perRequest.max());
+		assertEquals(4.0, this.meterRegistry.get("bookhub.sql.statements").tag("type", "select").counter().count());
+		assertEquals(1.0, this.meterRegistry.get("bookhub.sql.statements").tag("type", "update").counter().count());
+
+		// 요청이 끝나면 스레드에 기록이 남지 않는다
+		assertNull(this.pooledThread.submit(SqlStatementInspector::end).get());
+	}
+
+	@Test
+	void endsCaptureWhenRequestFails() throws Exception {
+		FilterChain failing = (request, response) -> {
+			this.inspector.inspect("select 1");
+			throw new ServletException("handler failed");
+		};
+		assertThrows(ServletException.class,
+					 () -> this.filter.doFilter(new MockHttpServletRequest("GET", "/book/list"), new MockHttpServletResponse(), failing));
+
+		assertEquals(1.0, this.meterRegistry.get("bookhub.sql.statements.per.request").tag("uri", "UNKNOWN").summary().totalAmount());
+		assertNull(SqlStatementInspector.end());
+	}
+
+	@Test
+	void capturesNestedRecordings() {
+		SqlCapture outer = SqlStatementInspector.begin();
+		this.inspector.inspect("select 1");
+		SqlCapture inner = SqlStatementInspector.begin();
+		this.inspector.inspect("  INSERT into book values (1)");
+		assertEquals(inner, SqlStatementInspector.end());
+		assertEquals(outer, SqlStatementInspector.end());
+
+		assertEquals(2, outer.getCount());
+		assertEquals(1, inner.getCount());
+		assertEquals(1, inner.getCount("insert"));
+		assertEquals("other", SqlStatementInspector.typeOf("call next value for book_seq"));
+	}
+
+	private Void request(int selects) throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/book/read/1");
+		this.filter.doFilter(request, new MockHttpServletResponse(), (servletRequest, servletResponse) -> {
+			servletRequest.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, URI);
+			for (int i = 0; i < selects; i++) {
+				this.inspector.inspect("select * from book where book_id = ?");
+			}
+			if (selects == 1) {
+				this.inspector.inspect("update book set price = ? where book_id = ?");
+			}
+		});
+		return null;
+	}
+}
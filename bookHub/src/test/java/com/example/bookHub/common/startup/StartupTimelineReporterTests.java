@@ -0,0 +1,38 @@
+package com.example.bookHub.common.startup;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+
+/**
+ * 느린 빈 요약 테스트
+ * - 의존 빈을 만드는 시간은 부모 빈의 자기 시간에서 빠지는지 확인한다.
+ */
+class StartupTimelineReporterTests {
+
+	@Test
+	void ranksBeansBySelfTimeExcludingDependencies() throws InterruptedException {
+		BufferingApplicationStartup startup = new BufferingApplicationStartup(100);
+
+		StartupStep service = startup.start("spring.beans.instantiate").tag("beanName", "bookService");
+		StartupStep repository = startup.start("spring.beans.instantiate").tag("beanName", "bookRepository");
+		Thread.sleep(50);
+		repository.end();
+		service.end();
+		startup.start("spring.context.refresh").end();
+
+		List<StartupTimelineReporter.BeanTime> beans =
+				StartupTimelineReporter.slowestBeans(startup.getBufferedTimeline().getEvents(), 10);
+
+		assertEquals(2, beans.size());
+		assertEquals("bookRepository", beans.get(0).getBeanName());
+		assertEquals("bookService", beans.get(1).getBeanName());
+		assertTrue(beans.get(0).getSelfTime().toMillis() >= 50);
+		assertTrue(beans.get(1).getSelfTime().toMillis() < 50);
+	}
+}
@@ -0,0 +1,278 @@
+package com.example.bookHub.loadtest;
+
+import java.io.File;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.web.server.LocalServerPort;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * HTTP 부하 테스트
+ *
+ * 애플리케이션을 임의 포트로 띄우고(내장 H2 메모리 DB) 여러 스레드에서 요청을 섞어 보낸 후
+ * 엔드포인트별 처리량과 p50/p95/p99/p999 응답시간을 JSON 으로 남긴다.
+ * 외부 네트워크 없이 localhost 로만 요청한다.
+ *
+ * 평소 테스트에서는 실행되지 않고, -Dbookhub.loadtest=true 를 줄 때만 실행된다.
+ * 빌드 파일이 없으므로 IDE 에서 이 클래스를 JUnit 테스트로 실행하면서 VM 인자로 설정을 넘긴다.
+ * ex) VM 인자 : -Dbookhub.loadtest=true -Dbookhub.loadtest.concurrency=64
+ *
+ * 설정 (시스템 프로퍼티)
+ * - bookhub.loadtest.concurrency      : 동시 요청 스레드 수 (기본값 32)
+ * - bookhub.loadtest.warmup-seconds   : 측정 전 예열 시간 (기본값 5)
+ * - bookhub.loadtest.duration-seconds : 측정 시간 (기본값 30)
+ * - bookhub.loadtest.seed-rows        : 미리 넣어둘 책 수 (기본값 10000)
+ * - bookhub.loadtest.mix              : 요청 비율 (기본값 read=60,list=25,create=10,edit=4,delete=1)
+ * - bookhub.loadtest.report           : 결과 파일 (기본값 build/loadtest/report.json)
+ * - bookhub.loadtest.bulkhead         : 과부하 보호(BulkheadFilter) 사용 여부 (기본값 false)
+ *   기본값에서는 한도 없이 애플리케이션 자체의 응답시간을 잰다. 켜면 거절된 요청(503)은 rejected 로 따로 센다.
+ */
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT, properties = {
+		"spring.datasource.url=jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1",
+		"spring.jpa.properties.hibernate.show_sql=false",
+		"spring.h2.console.enabled=false",
+		"bookhub.bulkhead.enabled=${bookhub.loadtest.bulkhead:false}",
+		"logging.level.root=WARN",
+		"logging.level.com.example.bookHub.loadtest=INFO" })
+@EnabledIfSystemProperty(named = "bookhub.loadtest", matches = "true")
+class BookLoadTest {
+
+	private static final Logger log = LoggerFactory.getLogger(BookLoadTest.class);
+
+	private static final String[] WORDS = { "스프링", "자바", "JPA", "부트", "타임리프", "데이터", "웹", "클라우드" };
+	private static final Pattern VERSION = Pattern.compile("name=\"version\" value=\"(\\d+)\"");
+	private static final Pattern READ_LOCATION = Pattern.compile("/book/read/(\\d+)");
+
+	@LocalServerPort
+	private int port;
+
+	private HttpClient client;
+	private int seedRows;
+	private final Queue<Integer> createdIds = new ConcurrentLinkedQueue<>();
+
+	@Test
+	void run() throws Exception {
+		int concurrency = Integer.getInteger("bookhub.loadtest.concurrency", 32);
+		int warmupSeconds = Integer.getInteger("bookhub.loadtest.warmup-seconds", 5);
+		int durationSeconds = Integer.getInteger("bookhub.loadtest.duration-seconds", 30);
+		String mixRatios = System.getProperty("bookhub.loadtest.mix", "read=60,list=25,create=10,edit=4,delete=1");
+		File reportFile = new File(System.getProperty("bookhub.loadtest.report", "build/loadtest/report.json"));
+		this.seedRows = Integer.getInteger("bookhub.loadtest.seed-rows", 10000);
+
+		// 리다이렉트를 따라가지 않아야 각 요청 자체의 응답시간을 잴 수 있다
+		this.client = HttpClient.newBuilder()
+								.followRedirects(HttpClient.Redirect.NEVER)
+								.connectTimeout(Duration.ofSeconds(5))
+								.build();
+		this.seed();
+
+		Workload.Mix mix = new Workload.Mix(mixRatios);
+		long measureFrom = System.nanoTime() + Duration.ofSeconds(warmupSeconds).toNanos();
+		long measureUntil = measureFrom + Duration.ofSeconds(durationSeconds).toNanos();
+
+		ExecutorService pool = Executors.newFixedThreadPool(concurrency);
+		List<Future<Map<Workload, LatencyRecorder>>> futures = new ArrayList<>();
+		for (int i = 0; i < concurrency; i++) {
+			futures.add(pool.submit(() -> this.worker(mix, measureFrom, measureUntil)));
+		}
+
+		Map<Workload, LatencyRecorder> total = new EnumMap<>(Workload.class);
+		for (Future<Map<Workload, LatencyRecorder>> future : futures) {
+			future.get().forEach((workload, recorder) ->
+					total.computeIfAbsent(workload, key -> new LatencyRecorder()).merge(recorder));
+		}
+		pool.shutdown();
+
+		this.writeReport(reportFile, total, concurrency, warmupSeconds, durationSeconds, mixRatios);
+	}
+
+	private Map<Workload, LatencyRecorder> worker(Workload.Mix mix, long measureFrom, long measureUntil) throws Exception {
+		Map<Workload, LatencyRecorder> recorders = new EnumMap<>(Workload.class);
+		long now;
+		while ((now = System.nanoTime()) < measureUntil) {
+			boolean measuring = now >= measureFrom;
+			Workload workload = mix.next();
+			switch (workload) {
+			case READ:
+				this.send(recorders, measuring, Workload.READ, this.get("/book/read/" + this.randomSeedId()));
+				break;
+			case LIST:
+				String title = WORDS[ThreadLocalRandom.current().nextInt(WORDS.length)];
+				this.send(recorders, measuring, Workload.LIST,
+						this.get("/book/list?title=" + encode(title) + "&page=" + ThreadLocalRandom.current().nextInt(1, 11)));
+				break;
+			case CREATE:
+				this.create(recorders, measuring);
+				break;
+			case EDIT:
+				this.edit(recorders, measuring);
+				break;
+			case API_READ:
+				this.send(recorders, measuring, Workload.API_READ, this.get("/api/books/" + this.randomSeedId(), "application/json"));
+				break;
+			case API_LIST:
+				// MVC 목록 한 페이지(3건)와 같은 양을 스트리밍으로 받는다
+				String apiTitle = WORDS[ThreadLocalRandom.current().nextInt(WORDS.length)];
+				this.send(recorders, measuring, Workload.API_LIST,
+						this.get("/api/books?title=" + encode(apiTitle) + "&limit=3", "application/x-ndjson"));
+				break;
+			case API_CREATE:
+				this.send(recorders, measuring, Workload.API_CREATE, this.postJson("/api/books",
+						"{\"title\":\"부하테스트 API " + WORDS[ThreadLocalRandom.current().nextInt(WORDS.length)]
+						+ "\",\"price\":" + (1000 + ThreadLocalRandom.current().nextInt(50) * 1000) + "}"));
+				break;
+			case DELETE:
+				Integer bookId = this.createdIds.poll();
+				if (bookId == null) {
+					this.create(recorders, measuring); // 지울 책이 없으면 먼저 만든다
+					break;
+				}
+				// 이 테스트가 만든 책은 수정하지 않으므로 버전은 0
+				this.send(recorders, measuring, Workload.DELETE, this.post("/book/delete", "bookId=" + bookId + "&version=0"));
+				break;
+			default:
+				break;
+			}
+		}
+		return recorders;
+	}
+
+	private void create(Map<Workload, LatencyRecorder> recorders, boolean measuring) throws Exception {
+		HttpResponse<String> response = this.send(recorders, measuring, Workload.CREATE,
+				this.post("/book/create", "title=" + encode("부하테스트 " + WORDS[ThreadLocalRandom.current().nextInt(WORDS.length)])
+						+ "&price=" + (1000 + ThreadLocalRandom.current().nextInt(50) * 1000)));
+		Matcher matcher = READ_LOCATION.matcher(response.headers().firstValue("Location").orElse(""));
+		if (matcher.find()) {
+			this.createdIds.add(Integer.valueOf(matcher.group(1)));
+		}
+	}
+
+	private void edit(Map<Workload, LatencyRecorder> recorders, boolean measuring) throws Exception {
+		int bookId = this.randomSeedId();
+		HttpResponse<String> form = this.send(recorders, measuring, Workload.EDIT_FORM, this.get("/book/edit/" + bookId));
+		Matcher matcher = VERSION.matcher(form.body());
+		if (!matcher.find()) {
+			return;
+		}
+		this.send(recorders, measuring, Workload.EDIT, this.post("/book/edit/" + bookId,
+				"title=" + encode("수정 " + bookId) + "&price=20000&version=" + matcher.group(1)));
+	}
+
+	/**
+	 * 요청을 보내고 응답시간을 기록한다. 2xx, 3xx 가 아니면 오류로 센다.
+	 * (수정 충돌로 인한 422 도 오류로 센다. 과부하 보호가 거절한 503 은 LatencyRecorder 가 따로 센다)
+	 */
+	private HttpResponse<String> send(Map<Workload, LatencyRecorder> recorders, boolean measuring, Workload workload,
+			HttpRequest request) throws Exception {
+		long started = System.nanoTime();
+		HttpResponse<String> response = this.client.send(request, HttpResponse.BodyHandlers.ofString());
+		long micros = (System.nanoTime() - started) / 1000;
+		if (measuring) {
+			recorders.computeIfAbsent(workload, key -> new LatencyRecorder()).record(micros, response.statusCode());
+		}
+		return response;
+	}
+
+	/**
+	 * 대량 입력(/book/import) 으로 책을 미리 넣는다. 빈 DB 이므로 bookId 는 1 ~ seedRows 가 된다.
+	 */
+	private void seed() throws Exception {
+		StringBuilder csv = new StringBuilder("title,price\n");
+		for (int i = 1; i <= this.seedRows; i++) {
+			csv.append(WORDS[i % WORDS.length]).append(' ').append(WORDS[(i / WORDS.length) % WORDS.length])
+			   .append(" 입문 ").append(i).append(',').append(1000 + (i % 50) * 1000).append('\n');
+		}
+		HttpRequest request = HttpRequest.newBuilder(this.uri("/book/import"))
+										 .header("Content-Type", "text/csv")
+										 .POST(HttpRequest.BodyPublishers.ofString(csv.toString(), StandardCharsets.UTF_8))
+										 .build();
+		HttpResponse<String> response = this.client.send(request, HttpResponse.BodyHandlers.ofString());
+		if (response.statusCode() != 200) {
+			throw new IllegalStateException("seed failed : " + response.statusCode() + " " + response.body());
+		}
+	}
+
+	private void writeReport(File reportFile, Map<Workload, LatencyRecorder> total, int concurrency,
+			int warmupSeconds, int durationSeconds, String mixRatios) throws Exception {
+		Map<String, Object> config = new LinkedHashMap<>();
+		config.put("concurrency", concurrency);
+		config.put("warmupSeconds", warmupSeconds);
+		config.put("durationSeconds", durationSeconds);
+		config.put("seedRows", this.seedRows);
+		config.put("mix", mixRatios);
+
+		Map<String, Object> endpoints = new LinkedHashMap<>();
+		total.forEach((workload, recorder) ->
+				endpoints.put(workload.name() + " " + workload.endpoint(), recorder.summary(durationSeconds)));
+
+		Map<String, Object> report = new LinkedHashMap<>();
+		report.put("config", config);
+		report.put("endpoints", endpoints);
+
+		ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+		reportFile.getAbsoluteFile().getParentFile().mkdirs();
+		objectMapper.writeValue(reportFile, report);
+		log.info("load test report : {}\n{}", reportFile.getAbsolutePath(), objectMapper.writeValueAsString(report));
+	}
+
+	private HttpRequest get(String path) {
+		return HttpRequest.newBuilder(this.uri(path)).GET().build();
+	}
+
+	private HttpRequest get(String path, String accept) {
+		return HttpRequest.newBuilder(this.uri(path)).header("Accept", accept).GET().build();
+	}
+
+	private HttpRequest postJson(String path, String json) {
+		return HttpRequest.newBuilder(this.uri(path))
+						  .header("Content-Type", "application/json")
+						  .POST(HttpRequest.BodyPublishers.ofString(json, StandardCharsets.UTF_8))
+						  .build();
+	}
+
+	private HttpRequest post(String path, String form) {
+		return HttpRequest.newBuilder(this.uri(path))
+						  .header("Content-Type", "application/x-www-form-urlencoded")
+						  .POST(HttpRequest.BodyPublishers.ofString(form, StandardCharsets.UTF_8))
+						  .build();
+	}
+
+	private URI uri(String path) {
+		return URI.create("http://localhost:" + this.port + path);
+	}
+
+	private int randomSeedId() {
+		return ThreadLocalRandom.current().nextInt(1, this.seedRows + 1);
+	}
+
+	private static String encode(String value) {
+		return URLEncoder.encode(value, StandardCharsets.UTF_8);
+	}
+}
@@ -0,0 +1,81 @@
+package com.example.bookHub.loadtest;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 엔드포인트 하나의 응답시간 기록기
+ *
+ * - 스레드마다 하나씩 만들어서 잠금 없이 기록하고, 끝난 후 merge 로 합친다.
+ * - 응답시간은 마이크로초(us) 단위로 배열에 그대로 쌓고, 백분위수는 정렬해서 구한다.
+ * - 과부하 보호(BulkheadFilter)가 바로 돌려보낸 503 은 오류와 따로 센다. (rejected)
+ *   처리하지 않고 돌려보낸 요청이므로 응답시간(백분위수)과 처리량에도 넣지 않는다.
+ */
+class LatencyRecorder {
+
+	private long[] latencies = new long[1024];
+	private int count;
+	private long errors;
+	private long rejected;
+
+	/**
+	 * @param micros - 응답시간
+	 * @param status - HTTP 상태 코드. 2xx, 3xx 가 아니면 오류, 503 이면 거절로 센다.
+	 */
+	void record(long micros, int status) {
+		if (status == 503) {
+			this.rejected++;
+			return;
+		}
+		this.add(micros);
+		if (status < 200 || status >= 400) {
+			this.errors++;
+		}
+	}
+
+	void merge(LatencyRecorder other) {
+		for (int i = 0; i < other.count; i++) {
+			this.add(other.latencies[i]);
+		}
+		this.errors += other.errors;
+		this.rejected += other.rejected;
+	}
+
+	private void add(long micros) {
+		if (this.count == this.latencies.length) {
+			this.latencies = Arrays.copyOf(this.latencies, this.count * 2);
+		}
+		this.latencies[this.count++] = micros;
+	}
+
+	/**
+	 * 요약 (처리한 요청 수, 오류 수, 거절(503) 수, 처리량, 백분위수)
+	 * @param elapsedSeconds - 측정 시간
+	 * @return
+	 */
+	Map<String, Object> summary(double elapsedSeconds) {
+		long[] sorted = Arrays.copyOf(this.latencies, this.count);
+		Arrays.sort(sorted);
+
+		Map<String, Object> summary = new LinkedHashMap<>();
+		summary.put("requests", this.count);
+		summary.put("errors", this.errors);
+		summary.put("rejected", this.rejected);
+		summary.put("throughputPerSec", elapsedSeconds == 0 ? 0 : this.count / elapsedSeconds);
+		summary.put("p50Micros", percentile(sorted, 0.50));
+		summary.put("p95Micros", percentile(sorted, 0.95));
+		summary.put("p99Micros", percentile(sorted, 0.99));
+		summary.put("p999Micros", percentile(sorted, 0.999));
+		summary.put("maxMicros", sorted.length == 0 ? 0 : sorted[sorted.length - 1]);
+		return summary;
+	}
+
+	private static long percentile(long[] sorted, double percentile) {
+		if (sorted.length == 0) {
+			return 0;
+		}
+		int index = (int) Math.ceil(percentile * sorted.length) - 1;
+		return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+	}
+}
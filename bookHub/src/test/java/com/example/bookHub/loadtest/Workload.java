@@ -0,0 +1,74 @@
+package com.example.bookHub.loadtest;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 부하 테스트 요청 종류와 비율
+ *
+ * 비율은 "read=60,list=25,create=10,edit=4,delete=1" 형태로 지정한다. (합이 100 일 필요는 없다)
+ * JSON API 와 비교할 때는 같은 비율의 api_* 로 한 번 더 실행해서 두 결과를 비교한다.
+ */
+enum Workload {
+
+	READ("/book/read/{id}"),
+	LIST("/book/list?title=…&page=…"),
+	CREATE("/book/create"),
+	EDIT("/book/edit/{id}"),
+	DELETE("/book/delete"),
+	
+	// JSON API (/api/books). MVC 화면과 같은 비율로 섞어서 비교한다 ex) api_read=60,api_list=25,api_create=15
+	API_READ("/api/books/{id}"),
+	API_LIST("/api/books?title=…&limit=3"),
+	API_CREATE("/api/books (POST)"),
+	
+	// EDIT 전에 버전을 읽기 위한 수정화면 요청 (비율로 지정하지 않고 EDIT 와 함께 실행된다)
+	EDIT_FORM("/book/edit/{id} (GET)");
+
+	private final String endpoint;
+
+	Workload(String endpoint) {
+		this.endpoint = endpoint;
+	}
+
+	String endpoint() {
+		return this.endpoint;
+	}
+
+	/**
+	 * 비율 설정으로 요청 종류를 고르는 도구
+	 */
+	static class Mix {
+
+		private final Workload[] workloads;
+		private final int[] cumulative;
+		private final int total;
+
+		Mix(String ratios) {
+			Map<Workload, Integer> weights = new EnumMap<>(Workload.class);
+			for (String pair : ratios.split(",")) {
+				String[] keyValue = pair.trim().split("=");
+				weights.put(Workload.valueOf(keyValue[0].trim().toUpperCase()), Integer.valueOf(keyValue[1].trim()));
+			}
+			this.workloads = weights.keySet().toArray(new Workload[0]);
+			this.cumulative = new int[this.workloads.length];
+			int sum = 0;
+			for (int i = 0; i < this.workloads.length; i++) {
+				sum += weights.get(this.workloads[i]);
+				this.cumulative[i] = sum;
+			}
+			this.total = sum;
+		}
+
+		Workload next() {
+			int value = ThreadLocalRandom.current().nextInt(this.total);
+			for (int i = 0; i < this.cumulative.length; i++) {
+				if (value < this.cumulative[i]) {
+					return this.workloads[i];
+				}
+			}
+			return this.workloads[this.workloads.length - 1];
+		}
+	}
+}
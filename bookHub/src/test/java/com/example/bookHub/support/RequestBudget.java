@@ -0,0 +1,133 @@
+package com.example.bookHub.support;
+
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.junit.jupiter.api.function.ThrowingSupplier;
+
+import com.example.bookHub.common.metrics.SqlCapture;
+import com.example.bookHub.common.metrics.SqlStatementInspector;
+
+/**
+ * 요청 하나의 SQL 실행 수 / 응답시간 예산
+ *
+ * ex) RequestBudget.of("GET /book/read/{id}").selects(1).maxStatements(1)
+ *                  .verify(() -> mockMvc.perform(get("/book/read/1")));
+ *
+ * - SqlStatementInspector 로 요청 중에 실행된 SQL 을 모아서 예산과 비교한다.
+ * - 예산을 넘으면 테스트를 실패시키고, 실행된 SQL 문장을 모두 보여준다.
+ * - 응답시간 예산은 느린 환경을 위해 -Dbookhub.budget.time-factor=2 처럼 배율을 줄 수 있다.
+ */
+public class RequestBudget {
+
+	private static final double TIME_FACTOR = Double.parseDouble(System.getProperty("bookhub.budget.time-factor", "1"));
+
+	private final String name;
+	private final Map<String, Integer> exactCounts = new LinkedHashMap<>();
+	private final List<String> forbidden = new ArrayList<>();
+	private Integer maxStatements;
+	private long maxMillis = 200;
+
+	private RequestBudget(String name) {
+		this.name = name;
+	}
+
+	public static RequestBudget of(String name) {
+		return new RequestBudget(name);
+	}
+
+	public RequestBudget selects(int count) {
+		this.exactCounts.put("select", count);
+		return this;
+	}
+
+	public RequestBudget inserts(int count) {
+		this.exactCounts.put("insert", count);
+		return this;
+	}
+
+	public RequestBudget updates(int count) {
+		this.exactCounts.put("update", count);
+		return this;
+	}
+
+	public RequestBudget deletes(int count) {
+		this.exactCounts.put("delete", count);
+		return this;
+	}
+
+	public RequestBudget maxStatements(int count) {
+		this.maxStatements = count;
+		return this;
+	}
+
+	/**
+	 * 실행되면 안 되는 SQL 조각 (대소문자 무시) ex) "count("
+	 */
+	public RequestBudget forbid(String fragment) {
+		this.forbidden.add(fragment.toLowerCase(Locale.ROOT));
+		return this;
+	}
+
+	public RequestBudget maxMillis(long millis) {
+		this.maxMillis = millis;
+		return this;
+	}
+
+	/**
+	 * 요청을 실행하고 예산을 확인한다
+	 * @param request
+	 * @return 요청 결과
+	 */
+	public <T> T verify(ThrowingSupplier<T> request) throws Throwable {
+		SqlStatementInspector.begin();
+		long started = System.nanoTime();
+		T result;
+		SqlCapture capture;
+		try {
+			result = request.get();
+		} finally {
+			capture = SqlStatementInspector.end();
+		}
+		long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+
+		List<String> violations = new ArrayList<>();
+		this.exactCounts.forEach((type, expected) -> {
+			if (capture.getCount(type) != expected) {
+				violations.add(String.format("%s statements : expected %d but was %d", type, expected, capture.getCount(type)));
+			}
+		});
+		if (this.maxStatements != null && capture.getCount() > this.maxStatements) {
+			violations.add(String.format("total statements : max %d but was %d", this.maxStatements, capture.getCount()));
+		}
+		for (String fragment : this.forbidden) {
+			for (String sql : capture.getStatements()) {
+				if (sql.toLowerCase(Locale.ROOT).contains(fragment)) {
+					violations.add(String.format("forbidden '%s' : %s", fragment, oneLine(sql)));
+				}
+			}
+		}
+		long budgetMillis = (long) (this.maxMillis * TIME_FACTOR);
+		if (elapsedMillis > budgetMillis) {
+			violations.add(String.format("wall time : max %d ms but was %d ms", budgetMillis, elapsedMillis));
+		}
+
+		if (!violations.isEmpty()) {
+			StringBuilder report = new StringBuilder("budget exceeded for ").append(this.name).append('\n');
+			violations.forEach(violation -> report.append("  - ").append(violation).append('\n'));
+			report.append("  executed statements (").append(capture.getCount()).append("):\n");
+			capture.getStatements().forEach(sql -> report.append("    ").append(oneLine(sql)).append('\n'));
+			fail(report.toString());
+		}
+		return result;
+	}
+
+	private static String oneLine(String sql) {
+		return sql.replaceAll("\\s+", " ").trim();
+	}
+}
@@ -0,0 +1,32 @@
+package com.example.bookHub.support;
+
+import com.example.bookHub.book.dto.BookCreateDTO;
+import com.example.bookHub.book.service.BookService;
+
+/**
+ * 테스트용 책 입력
+ *
+ * ex) Integer bookId = TestBooks.insert(bookService, "스프링 입문", 12000);
+ *
+ * - 컨트롤러를 거치지 않고 BookService.insert 로 입력하므로 BookChangedEvent 가 발행되고
+ *   색인/캐시/히스토그램도 실제 입력과 같이 갱신된다.
+ * - 가격을 주지 않으면 DEFAULT_PRICE 로 입력한다.
+ */
+public class TestBooks {
+
+	public static final int DEFAULT_PRICE = 10000;
+
+	private TestBooks() {
+	}
+
+	public static Integer insert(BookService bookService, String title) {
+		return insert(bookService, title, DEFAULT_PRICE);
+	}
+
+	public static Integer insert(BookService bookService, String title, int price) {
+		BookCreateDTO bookCreateDTO = new BookCreateDTO();
+		bookCreateDTO.setTitle(title);
+		bookCreateDTO.setPrice(price);
+		return bookService.insert(bookCreateDTO);
+	}
+}